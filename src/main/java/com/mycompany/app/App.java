@@ -1,39 +1,138 @@
 package com.mycompany.app;
 
+import com.mycompany.app.acesso.LogAcesso;
+import com.mycompany.app.clientes.ServicosExternos;
+import com.mycompany.app.eventos.FeedAlteracoes;
+import com.mycompany.app.fixtures.Fixtures;
+import com.mycompany.app.handlers.AlteracoesHandler;
 import com.mycompany.app.handlers.AluguelHandler;
 import com.mycompany.app.handlers.CartaoCreditoHandler;
 import com.mycompany.app.handlers.CiclistaHandler;
+import com.mycompany.app.handlers.Encaminhada;
+import com.mycompany.app.handlers.EstacaoHandler;
 import com.mycompany.app.handlers.FuncionarioHandler;
+import com.mycompany.app.handlers.ParticaoHandler;
+import com.mycompany.app.handlers.ReplicacaoHandler;
+import com.mycompany.app.models.Epoca;
+import com.mycompany.app.particao.Particoes;
+import com.mycompany.app.replicacao.Replicacao;
 
 import io.javalin.Javalin;
 import io.javalin.http.Handler;
 
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.javalin.http.HttpStatus.NOT_FOUND;
 import static io.javalin.http.HttpStatus.OK;
+import static io.javalin.http.HttpStatus.UNPROCESSABLE_CONTENT;
 
 public class App {
 
+    // Troca todos os storages de uma vez (Epoca): vazios, ou com a fixture de ?fixture=<nome>
     public static final Handler restaurarBancoCompleto = ctx -> {
-        CiclistaHandler.restaurar.handle(ctx);
-        FuncionarioHandler.restaurar.handle(ctx);
-        CartaoCreditoHandler.restaurar.handle(ctx);
-        AluguelHandler.restaurar.handle(ctx);
-
-        // Define o status final e a mensagem
-        ctx.status(OK).result("Bancos de dados de Ciclistas e Funcionários restaurados com sucesso.");
+        String fixture = ctx.queryParam("fixture");
+        if (fixture == null) {
+            Epoca.publicar(Epoca.vazia());
+            ctx.status(OK).result("Bancos de dados de Ciclistas e Funcionários restaurados com sucesso.");
+            return;
+        }
+        long inicio = System.nanoTime();
+        Epoca epoca;
+        try {
+            epoca = Fixtures.carregar(fixture);
+        } catch (NoSuchFileException e) {
+            ctx.status(NOT_FOUND).result("Fixture não encontrada: " + fixture);
+            return;
+        } catch (IOException | RuntimeException e) {
+            ctx.status(UNPROCESSABLE_CONTENT).result("Fixture inválida: " + e.getMessage());
+            return;
+        }
+        Epoca.publicar(epoca);
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("fixture", fixture);
+        resposta.putAll(epoca.tamanhos());
+        resposta.put("ms", (System.nanoTime() - inicio) / 1_000_000);
+        ctx.status(OK).json(resposta);
     };
 
-    public static void main(String[] args) {
-        var app = Javalin.create(/*config*/)
+    // Porta do ambiente (PORT, como no Procfile) ou 8000
+    static int porta() {
+        String porta = System.getenv("PORT");
+        return porta == null || porta.isBlank() ? 8000 : Integer.parseInt(porta.trim());
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Modo particionado: aluguel.particao.nos com as URLs dos nós; sem ela, nó único
+        Particoes.configurar(System.getProperty("aluguel.particao.nos"),
+                System.getProperty("aluguel.particao.eu", "http://localhost:" + porta()));
+        // Log binário de acesso das rotas de ciclista e aluguel: aluguel.acesso.dir com os segmentos
+        LogAcesso.configurar(System.getProperty("aluguel.acesso.dir"));
+        Prontidao prontidao = new Prontidao();
+        Javalin app = criar(prontidao).start(porta());
+
+        // Encerramento gracioso: recusa novas requisições e espera as em andamento
+        Duration prazoEncerramento = Duration.ofSeconds(Integer.getInteger("aluguel.encerramento.segundos", 30));
+        // Conexões SSE não terminam sozinhas: são fechadas assim que o serviço para de aceitar novas
+        prontidao.aoEncerrar(FeedAlteracoes.principal()::encerrarAssinantes);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (!prontidao.encerrar(prazoEncerramento)) {
+                System.out.println("Encerrando com " + prontidao.getEmAndamento() + " requisições em andamento.");
+            }
+            app.stop();
+            try {
+                LogAcesso.encerrar();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "encerramento"));
+
+        if (Boolean.parseBoolean(System.getProperty("aluguel.aquecimento", "true"))) {
+            // os aluguéis sintéticos não podem cobrar ninguém nem acionar trancas de verdade
+            ServicosExternos.simular(true);
+            try {
+                new Aquecimento(app.port(), prontidao.getToken()).executar();
+            } finally {
+                ServicosExternos.simular(false);
+            }
+        }
+        // Réplicas de leitura: aluguel.replicacao.papel=lider, ou seguidor com aluguel.replicacao.lider.
+        // Só depois do aquecimento, para o log do líder não receber os dados sintéticos
+        Replicacao.configurar(System.getProperty("aluguel.replicacao.papel"), System.getProperty("aluguel.replicacao.lider"));
+        // A réplica só fica pronta com o snapshot do líder; sem ele as leituras iriam todas ao líder
+        if (Replicacao.ehSeguidor() && !Replicacao.iniciarSeguidor(Duration.ofSeconds(60))) {
+            System.out.println("Aviso: réplica ainda não sincronizou com " + Replicacao.getSeguidor().getLider() + ".");
+        }
+        prontidao.marcarPronto();
+    }
+
+    public static Javalin criar(Prontidao prontidao) {
+        return Javalin.create(/*config*/)
+                .before(LogAcesso.marcarInicio)
+                .before(prontidao.portao)
+                .before(ParticaoHandler.rotear)
+                .before(ReplicacaoHandler.rotear)
+                .after(ParticaoHandler.liberar)
+                .after(prontidao.liberar)
+                .after(LogAcesso.registrar)
+                .exception(Encaminhada.class, Encaminhada.handler)
+                .get("/ready", prontidao.verificar)
+                .get("/dependencias", ctx -> ctx.json(ServicosExternos.estatisticas())) // circuitos e contadores dos clientes
                 .get("/", ctx -> ctx.result("Hello World"))
 
                 // GET para restaurar o banco de dados
                 // Usando o novo Handler Combinado
-                .get("/restaurarBanco", restaurarBancoCompleto) // Rota única para restaurar tudo
+                .get("/restaurarBanco", restaurarBancoCompleto) // Rota única para restaurar tudo (?fixture=<nome> carrega um dataset)
 
                 // Rotas de ciclista
                 .post("/ciclista", CiclistaHandler.cadastrarCiclista)
                 .post("/ciclista/existeEmail/{email}", CiclistaHandler.validarEmail)
                 .get("/ciclista", CiclistaHandler.listarCiclistas)
+                .get("/ciclista/busca", CiclistaHandler.buscarCiclistas)
+                .post("/ciclista/batch", CiclistaHandler.recuperarCiclistasEmLote)
                 .get("/ciclista/{idCiclista}", CiclistaHandler.recuperarCiclistaPorId)
                 .put("/ciclista/{idCiclista}", CiclistaHandler.alterarDados)
                 .post("/ciclista/{idCiclista}/ativar", CiclistaHandler.ativarCiclista)
@@ -43,19 +142,41 @@ public class App {
                 // Rotas de Funcionário
                 .post("/funcionario", FuncionarioHandler.cadastrarFuncionario)
                 .get("/funcionario", FuncionarioHandler.listarFuncionarios)
+                .get("/funcionario/busca", FuncionarioHandler.buscarFuncionarios)
+                .get("/funcionario/contagem", FuncionarioHandler.contarFuncionariosPorFuncao)
                 .get("/funcionario/{idFuncionario}", FuncionarioHandler.recuperarFuncionarioPorMatricula)
                 .put("/funcionario/{idFuncionario}", FuncionarioHandler.alterarDadosFuncionario)
                 .delete("/funcionario/{idFuncionario}", FuncionarioHandler.removerFuncionario)
 
                 // Rotas do Cartao de Credito
+                .post("/cartaoDeCredito/batch", CartaoCreditoHandler.recuperarCartoesEmLote)
                 .get("/cartaoDeCredito/{idCiclista}", CartaoCreditoHandler.recuperarCartaoPorCiclistaId)
                 .put("/cartaoDeCredito/{idCiclista}", CartaoCreditoHandler.alterarCartaoPorCiclistaId)
 
+                // Rotas de estações e trancas
+                .post("/estacao", EstacaoHandler.cadastrarEstacao)
+                .get("/estacao", EstacaoHandler.listarEstacoes)
+                .get("/estacao/{idEstacao}", EstacaoHandler.recuperarEstacao)
+
                 // Rotas de aluguel e devolução
                 .post("/aluguel", AluguelHandler.realizarAluguel)
+                .post("/aluguel/reprecificacao", AluguelHandler.reprecificarDevolucoes)
                 .post("/devolucao", AluguelHandler.realizarDevolucao)
 
-                .start(8000);
+                // Modo particionado: anel, rebalanceamento e rotas internas entre nós
+                .get("/particao", ParticaoHandler.estado)
+                .put("/particao", ParticaoHandler.redefinir)
+                .post("/particao/receber", ParticaoHandler.receber)
+                .post("/particao/concluida", ParticaoHandler.concluida)
+                .get("/particao/bicicleta/{idBicicleta}", ParticaoHandler.localizarBicicleta)
+
+                // Réplicas de leitura: estado e rotas internas do líder
+                .get("/replicacao", ReplicacaoHandler.estado)
+                .get("/replicacao/mutacoes", ReplicacaoHandler.mutacoes)
+                .get("/replicacao/snapshot", ReplicacaoHandler.snapshot)
+
+                // Feed de alterações (SSE) para substituir o polling
+                .sse("/alteracoes", AlteracoesHandler.assinar);
     }
 
 }
@@ -0,0 +1,197 @@
+package com.mycompany.app;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.models.Epoca;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Aquecimento do JIT antes de aceitar tráfego: percorre todas as rotas pelo servidor real
+ * (Jetty, Javalin, Jackson, validadores e handlers) com dados sintéticos. Os dados vão para
+ * uma {@link Epoca} descartável, publicada no início, e no fim entra uma época vazia no lugar,
+ * sem passar pelo /restaurarBanco. As requisições levam o cabeçalho
+ * {@link Prontidao#CABECALHO_AQUECIMENTO}, o único aceito enquanto o serviço não está pronto.
+ *
+ * Quem chama deve ligar a replicação só depois: cada gravação do aquecimento iria para o log
+ * do líder.
+ *
+ * Propriedades: {@code aluguel.aquecimento.iteracoes} (padrão 3000) e
+ * {@code aluguel.aquecimento.segundos} (tempo máximo, padrão 30).
+ */
+public class Aquecimento {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    // A cada tantas iterações lista tudo (a listagem completa cresce com o aquecimento)
+    private static final int INTERVALO_LISTAGEM = 100;
+
+    private final String base;
+    private final String token;
+    private final int iteracoes;
+    private final Duration prazo;
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+    private final AtomicInteger proxima = new AtomicInteger();
+    private final AtomicInteger inesperadas = new AtomicInteger();
+
+    public Aquecimento(int porta, String token) {
+        this(porta, token, Integer.getInteger("aluguel.aquecimento.iteracoes", 3000),
+                Duration.ofSeconds(Integer.getInteger("aluguel.aquecimento.segundos", 30)));
+    }
+
+    public Aquecimento(int porta, String token, int iteracoes, Duration prazo) {
+        this.base = "http://localhost:" + porta;
+        this.token = token;
+        this.iteracoes = iteracoes;
+        this.prazo = prazo;
+    }
+
+    public void executar() throws Exception {
+        long inicio = System.nanoTime();
+        long limite = inicio + prazo.toNanos();
+        int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        Epoca.publicar(Epoca.vazia());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tarefas.add(executor.submit(() -> {
+                    for (int i = proxima.getAndIncrement(); i < iteracoes && System.nanoTime() < limite; i = proxima.getAndIncrement()) {
+                        roteiro(i);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Descarta os dados sintéticos
+        Epoca.publicar(Epoca.vazia());
+
+        System.out.printf("Aquecimento: %d iterações em %d ms (%d respostas inesperadas)%n",
+                Math.min(proxima.get(), iteracoes), (System.nanoTime() - inicio) / 1_000_000, inesperadas.get());
+    }
+
+    // Uma passada por todas as rotas, com dados próprios da iteração i
+    private void roteiro(int i) throws Exception {
+        String cpf = String.format("%011d", i);
+        String email = "aquecimento" + i + "@exemplo.com";
+        String senha = "Aquec" + i + "x";
+
+        String ciclista = "{\"email\":\"" + email + "\",\"nacionalidade\":\"brasileira\",\"cpf\":\"" + cpf + "\","
+                + "\"nome\":\"Ciclista Aquecimento\",\"senha\":\"" + senha + "\",\"confirmaSenha\":\"" + senha + "\","
+                + "\"nascimento\":\"1990-01-01\",\"urlFoto\":\"http://exemplo.com/foto.png\"}";
+        esperar(enviar("POST", "/ciclista", ciclista), 201);
+        esperar(enviar("POST", "/ciclista/existeEmail/" + email, null), 200);
+
+        JsonNode encontrado = json(enviar("GET", "/ciclista?cpf=" + cpf, null));
+        if (encontrado == null) {
+            return;
+        }
+        String id = encontrado.get("id").asText();
+
+        esperar(enviar("GET", "/ciclista/" + id, null), 200);
+        esperar(enviar("PUT", "/ciclista/" + id, ciclista.replace("Ciclista Aquecimento", "Ciclista Aquecido")), 200);
+        esperar(enviar("GET", "/ciclista/busca?q=aquec", null), 200);
+        esperar(enviar("POST", "/ciclista/" + id + "/ativar", null), 200);
+        esperar(enviar("GET", "/ciclista/" + id + "/permiteAluguel", null), 200);
+
+        long validade = System.currentTimeMillis() + Duration.ofDays(365).toMillis();
+        String cartao = "{\"nomeTitular\":\"Ciclista Aquecido\",\"numero\":\"1234567890123456\",\"validade\":" + validade + ",\"cvv\":\"123\"}";
+        esperar(enviar("PUT", "/cartaoDeCredito/" + id, cartao), 200);
+        esperar(enviar("GET", "/cartaoDeCredito/" + id, null), 200);
+        String lote = "{\"ids\":[\"" + id + "\",\"" + UUID.randomUUID() + "\"]}";
+        esperar(enviar("POST", "/ciclista/batch", lote), 200);
+        esperar(enviar("POST", "/cartaoDeCredito/batch", lote), 200);
+
+        // Estação própria: retira da tranca com bicicleta e devolve na livre
+        JsonNode estacao = json(enviar("POST", "/estacao", "{\"trancas\":2,\"bicicletas\":1}"), 201);
+        if (estacao == null) {
+            return;
+        }
+        esperar(enviar("GET", "/estacao/" + estacao.get("id").asText(), null), 200);
+        String trancaInicio = estacao.get("trancas").get(0).get("id").asText();
+        String trancaFim = estacao.get("trancas").get(1).get("id").asText();
+
+        JsonNode aluguel = json(enviar("POST", "/aluguel",
+                "{\"ciclista\":\"" + id + "\",\"trancaInicio\":\"" + trancaInicio + "\"}"));
+        esperar(enviar("GET", "/ciclista/" + id + "/bicicletaAlugada", null), 200);
+        if (aluguel != null) {
+            esperar(enviar("POST", "/devolucao", "{\"idTranca\":\"" + trancaFim + "\",\"idBicicleta\":\""
+                    + aluguel.get("bicicletaId").asText() + "\"}"), 200);
+        }
+
+        // Caminhos de erro mais comuns
+        esperar(enviar("GET", "/ciclista/id-invalido", null), 422);
+        esperar(enviar("GET", "/ciclista/" + UUID.randomUUID(), null), 404);
+
+        String funcionario = "{\"senha\":\"" + senha + "\",\"confirmaSenha\":\"" + senha + "\",\"email\":\"func." + email + "\","
+                + "\"nome\":\"Funcionario Aquecimento\",\"idade\":\"30\",\"funcao\":\"Reparador\",\"cpf\":\"" + cpf + "\"}";
+        esperar(enviar("POST", "/funcionario", funcionario), 201);
+        JsonNode funcionarios = json(enviar("GET", "/funcionario/busca?q=" + URLEncoder.encode("func." + email, StandardCharsets.UTF_8), null));
+        esperar(enviar("GET", "/funcionario?funcao=reparador&tamanho=10", null), 200);
+        esperar(enviar("GET", "/funcionario/contagem", null), 200);
+        if (funcionarios != null && funcionarios.size() > 0) {
+            String matricula = funcionarios.get(0).get("matricula").asText();
+            esperar(enviar("GET", "/funcionario/" + matricula, null), 200);
+            esperar(enviar("PUT", "/funcionario/" + matricula, funcionario.replace("\"30\"", "\"31\"")), 200);
+            esperar(enviar("DELETE", "/funcionario/" + matricula, null), 200);
+        }
+
+        if (i % INTERVALO_LISTAGEM == 0) {
+            esperar(enviar("GET", "/ciclista", null), 200);
+            esperar(enviar("GET", "/funcionario", null), 200);
+            esperar(enviar("GET", "/dependencias", null), 200);
+        }
+    }
+
+    private HttpResponse<String> enviar(String metodo, String caminho, String corpo) throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(base + caminho))
+                .timeout(Duration.ofSeconds(5))
+                .header(Prontidao.CABECALHO_AQUECIMENTO, token);
+        if (corpo != null) {
+            requisicao.header("Content-Type", "application/json");
+        }
+        requisicao.method(metodo, corpo == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(corpo));
+        return cliente.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void esperar(HttpResponse<String> resposta, int status) {
+        if (resposta.statusCode() != status) {
+            inesperadas.incrementAndGet();
+        }
+    }
+
+    // Corpo JSON de uma resposta 200, ou null
+    private JsonNode json(HttpResponse<String> resposta) throws Exception {
+        return json(resposta, 200);
+    }
+
+    private JsonNode json(HttpResponse<String> resposta, int esperado) throws Exception {
+        if (resposta.statusCode() != esperado) {
+            inesperadas.incrementAndGet();
+            return null;
+        }
+        return mapper.readTree(resposta.body());
+    }
+}
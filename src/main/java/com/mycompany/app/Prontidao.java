@@ -0,0 +1,126 @@
+package com.mycompany.app;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.ServiceUnavailableResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.javalin.http.HttpStatus.OK;
+import static io.javalin.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Ciclo de vida do serviço: AQUECENDO -> PRONTO -> ENCERRANDO.
+ *
+ * Enquanto aquece, só passam as requisições do próprio {@link Aquecimento} (cabeçalho
+ * {@link #CABECALHO_AQUECIMENTO} com o token desta instância); as demais recebem 503 e o
+ * /ready responde 503. Ao encerrar, novas requisições recebem 503 e {@link #encerrar(Duration)}
+ * espera as que já estão em andamento (aluguéis e devoluções inclusive) terminarem.
+ */
+public class Prontidao {
+
+    public static final String CABECALHO_AQUECIMENTO = "X-Aquecimento";
+    private static final String ATRIBUTO_CONTADA = "prontidao.contada";
+    private static final String ATRIBUTO_AQUECIMENTO = "prontidao.aquecimento";
+
+    private enum Estado { AQUECENDO, PRONTO, ENCERRANDO }
+
+    private volatile Estado estado = Estado.AQUECENDO;
+    private final String token = UUID.randomUUID().toString();
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final List<Runnable> aoEncerrar = new CopyOnWriteArrayList<>();
+
+    // before: conta a requisição antes de olhar o estado, para o encerramento não perder nenhuma
+    public final Handler portao = ctx -> {
+        if (ctx.path().equals("/ready")) {
+            return;
+        }
+        emAndamento.incrementAndGet();
+        Estado agora = estado;
+        boolean aquecimento = token.equals(ctx.header(CABECALHO_AQUECIMENTO));
+        if (agora == Estado.PRONTO || (agora == Estado.AQUECENDO && aquecimento)) {
+            ctx.attribute(ATRIBUTO_CONTADA, Boolean.TRUE);
+            if (agora == Estado.AQUECENDO) {
+                ctx.attribute(ATRIBUTO_AQUECIMENTO, Boolean.TRUE);
+            }
+            return;
+        }
+        emAndamento.decrementAndGet();
+        throw new ServiceUnavailableResponse(agora == Estado.AQUECENDO ? "Serviço aquecendo." : "Serviço encerrando.");
+    };
+
+    // after: roda também quando o endpoint falha
+    public final Handler liberar = ctx -> {
+        if (ctx.attribute(ATRIBUTO_CONTADA) != null) {
+            emAndamento.decrementAndGet();
+        }
+    };
+
+    // GET /ready
+    public final Handler verificar = ctx -> {
+        Estado agora = estado;
+        if (agora == Estado.PRONTO) {
+            ctx.status(OK).result("pronto");
+        } else {
+            ctx.status(SERVICE_UNAVAILABLE).result(agora == Estado.AQUECENDO ? "aquecendo" : "encerrando");
+        }
+    };
+
+    /**
+     * true só para a requisição que o {@link #portao} aceitou como do aquecimento: token desta
+     * instância e serviço ainda aquecendo. Depois do /ready o cabeçalho não vale mais nada, então
+     * quem roteia (réplica, partição) não pode confiar só na presença dele.
+     */
+    public static boolean ehAquecimento(Context ctx) {
+        return ctx.attribute(ATRIBUTO_AQUECIMENTO) != null;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public boolean isPronto() {
+        return estado == Estado.PRONTO;
+    }
+
+    public int getEmAndamento() {
+        return emAndamento.get();
+    }
+
+    public void marcarPronto() {
+        if (estado == Estado.AQUECENDO) {
+            estado = Estado.PRONTO;
+        }
+    }
+
+    // Executado no encerramento, depois de parar de aceitar requisições e antes da espera
+    // (fecha o que fica aberto indefinidamente, como as conexões do feed)
+    public void aoEncerrar(Runnable acao) {
+        aoEncerrar.add(acao);
+    }
+
+    // Para de aceitar requisições e espera as em andamento; false se o prazo acabou antes
+    public boolean encerrar(Duration prazo) {
+        estado = Estado.ENCERRANDO;
+        for (Runnable acao : aoEncerrar) {
+            acao.run();
+        }
+        long limite = System.nanoTime() + prazo.toNanos();
+        while (emAndamento.get() > 0) {
+            if (System.nanoTime() - limite >= 0) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
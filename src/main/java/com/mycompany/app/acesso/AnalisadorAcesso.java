@@ -0,0 +1,277 @@
+package com.mycompany.app.acesso;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Leitura offline dos segmentos do {@link LogAcesso} numa passada só, com memória que não
+ * cresce com o volume: por rota, percentis de latência (histograma log-linear, erro relativo
+ * abaixo de 1%), taxas de 4xx e 5xx e bytes por resposta; e os ciclistas que mais chamaram,
+ * pelo algoritmo de Misra-Gries (as contagens saem por baixo, no máximo
+ * {@link #getErroTopCiclistas()} a menos que a real).
+ *
+ * Uso: java -cp <classpath do app> com.mycompany.app.acesso.AnalisadorAcesso
+ *        <diretório|segmento...> [--top N]
+ */
+public class AnalisadorAcesso implements FormatoAcesso.Leitor {
+
+    private static final int CONTADORES_POR_TOP = 100;
+
+    // Latências em µs: exatas até 255, depois 128 faixas por potência de 2
+    static final class Histograma {
+
+        private static final int EXATOS = 256;
+        private final long[] contagens = new long[EXATOS + 24 * 128];
+        private long total;
+        private long maximo;
+
+        void registrar(int valor) {
+            int v = Math.max(0, valor);
+            contagens[indice(v)]++;
+            total++;
+            maximo = Math.max(maximo, v);
+        }
+
+        private static int indice(int v) {
+            if (v < EXATOS) {
+                return v;
+            }
+            int deslocamento = 31 - Integer.numberOfLeadingZeros(v) - 7;
+            return EXATOS + (deslocamento - 1) * 128 + ((v >>> deslocamento) - 128);
+        }
+
+        // Maior valor que cai na mesma faixa do índice
+        private static long teto(int indice) {
+            if (indice < EXATOS) {
+                return indice;
+            }
+            int deslocamento = (indice - EXATOS) / 128 + 1;
+            long mantissa = (indice - EXATOS) % 128 + 128;
+            return ((mantissa + 1) << deslocamento) - 1;
+        }
+
+        long percentil(double q) {
+            if (total == 0) {
+                return 0;
+            }
+            long posicao = Math.max(1, (long) Math.ceil(q * total));
+            long acumulado = 0;
+            for (int i = 0; i < contagens.length; i++) {
+                acumulado += contagens[i];
+                if (acumulado >= posicao) {
+                    return Math.min(teto(i), maximo);
+                }
+            }
+            return maximo;
+        }
+
+        long getTotal() {
+            return total;
+        }
+
+        long getMaximo() {
+            return maximo;
+        }
+    }
+
+    public static final class Rota {
+
+        private final String nome;
+        private final Histograma latencias = new Histograma();
+        private long erros4xx;
+        private long erros5xx;
+        private long bytes;
+        private long comBytes;
+
+        Rota(String nome) {
+            this.nome = nome;
+        }
+
+        void registrar(int status, int latenciaUs, int tamanho) {
+            latencias.registrar(latenciaUs);
+            if (status >= 500) {
+                erros5xx++;
+            } else if (status >= 400) {
+                erros4xx++;
+            }
+            if (tamanho >= 0) {
+                bytes += tamanho;
+                comBytes++;
+            }
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public long getRequisicoes() {
+            return latencias.getTotal();
+        }
+
+        // Latência em µs no quantil q (0.5, 0.99...)
+        public long percentilUs(double q) {
+            return latencias.percentil(q);
+        }
+
+        public long getMaximoUs() {
+            return latencias.getMaximo();
+        }
+
+        public double getTaxa4xx() {
+            return getRequisicoes() == 0 ? 0 : (double) erros4xx / getRequisicoes();
+        }
+
+        public double getTaxa5xx() {
+            return getRequisicoes() == 0 ? 0 : (double) erros5xx / getRequisicoes();
+        }
+
+        public double getBytesMedios() {
+            return comBytes == 0 ? 0 : (double) bytes / comBytes;
+        }
+    }
+
+    private final Map<String, Rota> rotas = new HashMap<>();
+    private final List<Rota> codigosSegmento = new ArrayList<>();
+    private final int capacidadeTop;
+    private final Map<UUID, long[]> topCiclistas = new HashMap<>();
+    private long erroTopCiclistas;
+    private long acessos;
+    private long segmentos;
+    private long primeiroMs = Long.MAX_VALUE;
+    private long ultimoMs = Long.MIN_VALUE;
+
+    public AnalisadorAcesso(int top) {
+        this.capacidadeTop = Math.max(1, top) * CONTADORES_POR_TOP;
+    }
+
+    // Um segmento ou todos os segmentos de um diretório, em ordem
+    public void ler(Path caminho) throws IOException {
+        for (Path segmento : Files.isDirectory(caminho) ? LogAcesso.segmentos(caminho) : List.of(caminho)) {
+            codigosSegmento.clear();
+            acessos += FormatoAcesso.ler(segmento, this);
+            segmentos++;
+        }
+    }
+
+    @Override
+    public void rota(int codigo, String nome) {
+        while (codigosSegmento.size() <= codigo) {
+            codigosSegmento.add(null);
+        }
+        codigosSegmento.set(codigo, rotas.computeIfAbsent(nome, Rota::new));
+    }
+
+    @Override
+    public void acesso(int rota, int status, int latenciaUs, int bytes, long instanteMs, long ciclistaAlto,
+                       long ciclistaBaixo) {
+        Rota estatisticas = rota < codigosSegmento.size() ? codigosSegmento.get(rota) : null;
+        if (estatisticas == null) {
+            estatisticas = rotas.computeIfAbsent("rota #" + rota + " sem nome", Rota::new);
+        }
+        estatisticas.registrar(status, latenciaUs, bytes);
+        primeiroMs = Math.min(primeiroMs, instanteMs);
+        ultimoMs = Math.max(ultimoMs, instanteMs);
+        if (ciclistaAlto != 0 || ciclistaBaixo != 0) {
+            contarCiclista(new UUID(ciclistaAlto, ciclistaBaixo));
+        }
+    }
+
+    // Misra-Gries: contador novo só se há vaga; senão todos descem 1 e os zerados saem
+    private void contarCiclista(UUID ciclista) {
+        long[] contagem = topCiclistas.get(ciclista);
+        if (contagem != null) {
+            contagem[0]++;
+        } else if (topCiclistas.size() < capacidadeTop) {
+            topCiclistas.put(ciclista, new long[]{1});
+        } else {
+            erroTopCiclistas++;
+            Iterator<long[]> contagens = topCiclistas.values().iterator();
+            while (contagens.hasNext()) {
+                if (--contagens.next()[0] == 0) {
+                    contagens.remove();
+                }
+            }
+        }
+    }
+
+    // Rotas da mais chamada para a menos
+    public List<Rota> getRotas() {
+        List<Rota> ordenadas = new ArrayList<>(rotas.values());
+        ordenadas.sort(Comparator.comparingLong(Rota::getRequisicoes).reversed());
+        return ordenadas;
+    }
+
+    public Rota getRota(String nome) {
+        return rotas.get(nome);
+    }
+
+    // Os n ciclistas com mais requisições (contagem mínima garantida)
+    public Map<UUID, Long> getTopCiclistas(int n) {
+        Map<UUID, Long> top = new LinkedHashMap<>();
+        topCiclistas.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+                .limit(n)
+                .forEach(e -> top.put(e.getKey(), e.getValue()[0]));
+        return top;
+    }
+
+    public long getErroTopCiclistas() {
+        return erroTopCiclistas;
+    }
+
+    public long getAcessos() {
+        return acessos;
+    }
+
+    public long getSegmentos() {
+        return segmentos;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Path> caminhos = new ArrayList<>();
+        int top = 10;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--top") && i + 1 < args.length) {
+                top = Integer.parseInt(args[++i]);
+            } else {
+                caminhos.add(Path.of(args[i]));
+            }
+        }
+        if (caminhos.isEmpty()) {
+            System.err.println("Uso: AnalisadorAcesso <diretório|segmento...> [--top N]");
+            System.exit(2);
+        }
+        AnalisadorAcesso analisador = new AnalisadorAcesso(top);
+        long inicio = System.nanoTime();
+        for (Path caminho : caminhos) {
+            analisador.ler(caminho);
+        }
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+        System.out.printf("%d acessos em %d segmentos, lidos em %d ms%n", analisador.acessos, analisador.segmentos, ms);
+        if (analisador.acessos > 0) {
+            System.out.printf("Período: %s a %s%n", java.time.Instant.ofEpochMilli(analisador.primeiroMs),
+                    java.time.Instant.ofEpochMilli(analisador.ultimoMs));
+        }
+        System.out.printf("%n%-48s %10s %9s %9s %9s %9s %9s %7s %7s %9s%n", "rota", "requisições", "p50 ms", "p90 ms",
+                "p99 ms", "p99.9 ms", "máx ms", "4xx %", "5xx %", "bytes");
+        for (Rota rota : analisador.getRotas()) {
+            System.out.printf("%-48s %10d %9.2f %9.2f %9.2f %9.2f %9.2f %7.2f %7.2f %9.0f%n", rota.getNome(),
+                    rota.getRequisicoes(), rota.percentilUs(0.5) / 1000.0, rota.percentilUs(0.9) / 1000.0,
+                    rota.percentilUs(0.99) / 1000.0, rota.percentilUs(0.999) / 1000.0, rota.getMaximoUs() / 1000.0,
+                    rota.getTaxa4xx() * 100, rota.getTaxa5xx() * 100, rota.getBytesMedios());
+        }
+        System.out.printf("%nCiclistas com mais requisições (mínimo garantido; até %d a mais):%n",
+                analisador.getErroTopCiclistas());
+        analisador.getTopCiclistas(top).forEach((ciclista, n) -> System.out.printf("  %s %10d%n", ciclista, n));
+    }
+}
@@ -0,0 +1,80 @@
+package com.mycompany.app.acesso;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Formato dos segmentos do {@link LogAcesso}. Cada segmento é um arquivo de tamanho fixo
+ * (a sobra fica zerada) e se basta sozinho:
+ * <pre>
+ * cabeçalho: int MAGICO, long criadoEm (ms)
+ * entradas, até o primeiro tipo 0:
+ *   ROTA   (1): short codigo, short tamanho, bytes UTF-8 de "MÉTODO /caminho/{param}"
+ *   ACESSO (2): short rota, short status, int latência (µs), int bytes da resposta (-1 = desconhecido),
+ *               long instante (ms), long e long do UUID do ciclista (0, 0 = sem ciclista)
+ * </pre>
+ * Os códigos de rota valem só dentro do segmento; toda rota aparece como ROTA antes do primeiro
+ * ACESSO que a usa. O tipo de cada entrada é gravado por último, então uma entrada interrompida
+ * no meio fica invisível. Big-endian.
+ */
+public final class FormatoAcesso {
+
+    public static final int MAGICO = 0x41435331; // "ACS1"
+    public static final int CABECALHO = 12;
+    public static final byte FIM = 0;
+    public static final byte ROTA = 1;
+    public static final byte ACESSO = 2;
+    public static final int TAMANHO_ACESSO = 1 + 2 + 2 + 4 + 4 + 8 + 8 + 8;
+
+    // Recebe as entradas de um segmento na ordem, sem alocar por acesso
+    public interface Leitor {
+
+        void rota(int codigo, String nome);
+
+        void acesso(int rota, int status, int latenciaUs, int bytes, long instanteMs, long ciclistaAlto,
+                    long ciclistaBaixo);
+    }
+
+    private FormatoAcesso() {
+    }
+
+    // Percorre um segmento; devolve quantos acessos leu
+    public static long ler(Path arquivo, Leitor leitor) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        if (buffer.limit() < CABECALHO || buffer.getInt(0) != MAGICO) {
+            throw new IOException("Não é um segmento de log de acesso: " + arquivo);
+        }
+        long acessos = 0;
+        int posicao = CABECALHO;
+        int limite = buffer.limit();
+        while (posicao < limite) {
+            byte tipo = buffer.get(posicao);
+            if (tipo == ACESSO && posicao + TAMANHO_ACESSO <= limite) {
+                leitor.acesso(buffer.getShort(posicao + 1), buffer.getShort(posicao + 3), buffer.getInt(posicao + 5),
+                        buffer.getInt(posicao + 9), buffer.getLong(posicao + 13), buffer.getLong(posicao + 21),
+                        buffer.getLong(posicao + 29));
+                posicao += TAMANHO_ACESSO;
+                acessos++;
+            } else if (tipo == ROTA && posicao + 5 <= limite) {
+                int tamanho = buffer.getShort(posicao + 3);
+                if (posicao + 5 + tamanho > limite) {
+                    break;
+                }
+                byte[] nome = new byte[tamanho];
+                buffer.get(posicao + 5, nome);
+                leitor.rota(buffer.getShort(posicao + 1), new String(nome, StandardCharsets.UTF_8));
+                posicao += 5 + tamanho;
+            } else {
+                break; // FIM, ou entrada cortada no fim do arquivo
+            }
+        }
+        return acessos;
+    }
+}
@@ -0,0 +1,373 @@
+package com.mycompany.app.acesso;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.HandlerType;
+import io.javalin.http.Header;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log binário de acesso das rotas de ciclista e de aluguel/devolução: um registro de tamanho
+ * fixo por requisição (rota, status, latência, bytes da resposta, ciclista), sem texto nem
+ * formatação no caminho da requisição.
+ *
+ * A requisição só preenche uma posição de um anel sem lock; com o anel cheio o registro é
+ * descartado e contado, nunca espera. Uma thread de fundo esvazia o anel em segmentos de
+ * tamanho fixo mapeados em memória (acesso-NNNNNN.bin em aluguel.acesso.dir), abre o próximo
+ * quando o atual enche e apaga os mais antigos além de aluguel.acesso.segmentos. Formato em
+ * {@link FormatoAcesso}; leitura offline com {@link AnalisadorAcesso}.
+ *
+ * O ciclista vem do caminho (/ciclista/{idCiclista}...) ou do atributo {@link #ATRIBUTO_CICLISTA},
+ * que os handlers preenchem quando ele só aparece no corpo.
+ */
+public final class LogAcesso {
+
+    public static final String ATRIBUTO_CICLISTA = "acesso.ciclista";
+    private static final String ATRIBUTO_INICIO = "acesso.inicio";
+    private static final String PREFIXO_ARQUIVO = "acesso-";
+    private static final String SUFIXO_ARQUIVO = ".bin";
+    private static final long ESPERA_NS = 1_000_000;
+
+    private static volatile LogAcesso ativo;
+
+    // Anel: a posição seq & mascara está pronta quando publicados[posição] == seq + 1
+    private final int mascara;
+    private final AtomicLong cabeca = new AtomicLong();
+    private volatile long cauda;
+    private final AtomicLongArray publicados;
+    private final HandlerType[] metodos;
+    private final String[] rotas;
+    private final short[] status;
+    private final int[] latencias;
+    private final int[] bytes;
+    private final long[] instantes;
+    private final long[] ciclistasAlto;
+    private final long[] ciclistasBaixo;
+    private final LongAdder descartados = new LongAdder();
+    private final AtomicLong gravados = new AtomicLong();
+
+    // Só a thread de escrita mexe daqui para baixo
+    private final Path diretorio;
+    private final long tamanhoSegmento;
+    private final int segmentosRetidos;
+    private final Map<String, short[]> codigos = new HashMap<>();
+    private final List<String> nomesRotas = new ArrayList<>();
+    private long numeroSegmento;
+    private MappedByteBuffer segmento;
+    private int posicao;
+    private boolean semSegmento;
+
+    private final Thread escritor;
+    private volatile boolean encerrando;
+
+    private LogAcesso(Path diretorio, long tamanhoSegmento, int segmentosRetidos, int capacidadeAnel) throws IOException {
+        int capacidade = Integer.highestOneBit(Math.max(2, capacidadeAnel) * 2 - 1);
+        this.mascara = capacidade - 1;
+        this.publicados = new AtomicLongArray(capacidade);
+        this.metodos = new HandlerType[capacidade];
+        this.rotas = new String[capacidade];
+        this.status = new short[capacidade];
+        this.latencias = new int[capacidade];
+        this.bytes = new int[capacidade];
+        this.instantes = new long[capacidade];
+        this.ciclistasAlto = new long[capacidade];
+        this.ciclistasBaixo = new long[capacidade];
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+        this.segmentosRetidos = Math.max(1, segmentosRetidos);
+        Files.createDirectories(diretorio);
+        this.numeroSegmento = ultimoSegmento(diretorio);
+        abrirSegmento();
+        this.escritor = new Thread(this::escrever, "log-acesso");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    // aluguel.acesso.dir liga o log; sem ela as rotas não registram nada
+    public static void configurar(String diretorio) throws IOException, InterruptedException {
+        if (diretorio == null || diretorio.isBlank()) {
+            return;
+        }
+        iniciar(Path.of(diretorio), Long.getLong("aluguel.acesso.segmentoMb", 64) << 20,
+                Integer.getInteger("aluguel.acesso.segmentos", 32), Integer.getInteger("aluguel.acesso.anel", 1 << 16));
+    }
+
+    public static synchronized LogAcesso iniciar(Path diretorio, long tamanhoSegmento, int segmentosRetidos,
+                                                 int capacidadeAnel) throws IOException, InterruptedException {
+        if (tamanhoSegmento < FormatoAcesso.CABECALHO + 4096 || tamanhoSegmento > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segmento de log de acesso entre 4 KB e 2 GB.");
+        }
+        encerrar();
+        ativo = new LogAcesso(diretorio, tamanhoSegmento, segmentosRetidos, capacidadeAnel);
+        return ativo;
+    }
+
+    // Para de aceitar registros e grava o que ficou no anel
+    public static synchronized void encerrar() throws InterruptedException {
+        LogAcesso log = ativo;
+        if (log == null) {
+            return;
+        }
+        ativo = null;
+        log.encerrando = true;
+        LockSupport.unpark(log.escritor);
+        log.escritor.join();
+    }
+
+    public static LogAcesso ativo() {
+        return ativo;
+    }
+
+    // Só as rotas de CiclistaHandler e AluguelHandler
+    static boolean registrada(String caminho) {
+        return caminho.startsWith("/ciclista") || caminho.startsWith("/aluguel") || caminho.startsWith("/devolucao");
+    }
+
+    // before: marca o início (antes dos portões, para a latência incluir tudo)
+    public static final Handler marcarInicio = ctx -> {
+        if (ativo != null && registrada(ctx.path())) {
+            ctx.attribute(ATRIBUTO_INICIO, System.nanoTime());
+        }
+    };
+
+    // after: roda também quando o endpoint falha ou a requisição é recusada
+    public static final Handler registrar = ctx -> {
+        LogAcesso log = ativo;
+        Long inicio = ctx.attribute(ATRIBUTO_INICIO);
+        if (log == null || inicio == null) {
+            return;
+        }
+        long latenciaUs = (System.nanoTime() - inicio) / 1000;
+        UUID ciclista = ctx.attribute(ATRIBUTO_CICLISTA);
+        if (ciclista == null) {
+            ciclista = ciclistaDoCaminho(ctx.path());
+        }
+        log.registrar(ctx.method(), ctx.endpointHandlerPath(), ctx.statusCode(), latenciaUs, bytesResposta(ctx), ciclista);
+    };
+
+    // Para handlers em que o ciclista só aparece no corpo ou na resposta
+    public static void ciclista(Context ctx, UUID ciclistaId) {
+        if (ativo != null) {
+            ctx.attribute(ATRIBUTO_CICLISTA, ciclistaId);
+        }
+    }
+
+    private static UUID ciclistaDoCaminho(String caminho) {
+        // "/ciclista/" + 36 caracteres do UUID, sozinho ou seguido de "/..."
+        if (!caminho.startsWith("/ciclista/") || caminho.length() < 46
+                || (caminho.length() > 46 && caminho.charAt(46) != '/')) {
+            return null;
+        }
+        try {
+            return UUID.fromString(caminho.substring(10, 46));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Sem resultado no ctx o handler escreveu direto na saída (CacheListagem): vale o Content-Length
+    private static int bytesResposta(Context ctx) {
+        InputStream resultado = ctx.resultInputStream();
+        if (resultado == null) {
+            String tamanho = ctx.res().getHeader(Header.CONTENT_LENGTH);
+            if (tamanho == null) {
+                return 0;
+            }
+            try {
+                return (int) Math.min(Long.parseLong(tamanho.trim()), Integer.MAX_VALUE);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return resultado instanceof ByteArrayInputStream corpo ? corpo.available() : -1;
+    }
+
+    void registrar(HandlerType metodo, String rota, int codigoStatus, long latenciaUs, int tamanho, UUID ciclista) {
+        long seq;
+        do {
+            seq = cabeca.get();
+            if (seq - cauda > mascara) {
+                descartados.increment();
+                return;
+            }
+        } while (!cabeca.compareAndSet(seq, seq + 1));
+        int i = (int) (seq & mascara);
+        metodos[i] = metodo;
+        rotas[i] = rota;
+        status[i] = (short) codigoStatus;
+        latencias[i] = (int) Math.min(latenciaUs, Integer.MAX_VALUE);
+        bytes[i] = tamanho;
+        instantes[i] = System.currentTimeMillis();
+        ciclistasAlto[i] = ciclista == null ? 0 : ciclista.getMostSignificantBits();
+        ciclistasBaixo[i] = ciclista == null ? 0 : ciclista.getLeastSignificantBits();
+        publicados.set(i, seq + 1);
+    }
+
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    public long getGravados() {
+        return gravados.get();
+    }
+
+    public long getSegmentoAtual() {
+        return numeroSegmento;
+    }
+
+    // --- Thread de escrita ---
+
+    private void escrever() {
+        while (true) {
+            if (drenar() > 0) {
+                continue;
+            }
+            if (encerrando) {
+                // quem leu o log ativo antes do encerramento pode ainda estar publicando
+                LockSupport.parkNanos(ESPERA_NS);
+                if (drenar() == 0) {
+                    break;
+                }
+                continue;
+            }
+            LockSupport.parkNanos(ESPERA_NS);
+        }
+        segmento.force();
+    }
+
+    private int drenar() {
+        long seq = cauda;
+        int n = 0;
+        while (publicados.get((int) (seq & mascara)) == seq + 1) {
+            try {
+                gravar((int) (seq & mascara));
+            } catch (IOException e) {
+                // sem disco o log para de crescer, mas as requisições seguem
+                if (!semSegmento) {
+                    System.out.println("Aviso: log de acesso sem segmento novo: " + e);
+                    semSegmento = true;
+                }
+                descartados.increment();
+            }
+            seq++;
+            if ((++n & 1023) == 0) {
+                cauda = seq;
+            }
+        }
+        cauda = seq;
+        gravados.addAndGet(n);
+        return n;
+    }
+
+    private void gravar(int i) throws IOException {
+        short rota = codigo(metodos[i], rotas[i]);
+        if (posicao + FormatoAcesso.TAMANHO_ACESSO > segmento.limit()) {
+            abrirSegmento();
+        }
+        int p = posicao;
+        segmento.putShort(p + 1, rota);
+        segmento.putShort(p + 3, status[i]);
+        segmento.putInt(p + 5, latencias[i]);
+        segmento.putInt(p + 9, bytes[i]);
+        segmento.putLong(p + 13, instantes[i]);
+        segmento.putLong(p + 21, ciclistasAlto[i]);
+        segmento.putLong(p + 29, ciclistasBaixo[i]);
+        segmento.put(p, FormatoAcesso.ACESSO);
+        posicao = p + FormatoAcesso.TAMANHO_ACESSO;
+    }
+
+    private short codigo(HandlerType metodo, String rota) throws IOException {
+        short[] porMetodo = codigos.computeIfAbsent(rota, r -> new short[HandlerType.values().length]);
+        short codigo = porMetodo[metodo.ordinal()];
+        if (codigo == 0) {
+            nomesRotas.add(metodo.name() + " " + rota);
+            codigo = (short) nomesRotas.size(); // 0 marca "sem código"; no arquivo vai codigo - 1
+            porMetodo[metodo.ordinal()] = codigo;
+            gravarRota(codigo - 1);
+        }
+        return (short) (codigo - 1);
+    }
+
+    private void gravarRota(int codigo) throws IOException {
+        byte[] nome = nomesRotas.get(codigo).getBytes(StandardCharsets.UTF_8);
+        if (posicao + 5 + nome.length > segmento.limit()) {
+            abrirSegmento(); // o segmento novo já repete todas as rotas, esta inclusive
+            return;
+        }
+        int p = posicao;
+        segmento.putShort(p + 1, (short) codigo);
+        segmento.putShort(p + 3, (short) nome.length);
+        segmento.put(p + 5, nome);
+        segmento.put(p, FormatoAcesso.ROTA);
+        posicao = p + 5 + nome.length;
+    }
+
+    private void abrirSegmento() throws IOException {
+        if (segmento != null) {
+            segmento.force();
+        }
+        numeroSegmento++;
+        Path arquivo = diretorio.resolve(String.format("%s%06d%s", PREFIXO_ARQUIVO, numeroSegmento, SUFIXO_ARQUIVO));
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+        }
+        semSegmento = false;
+        segmento.putInt(0, FormatoAcesso.MAGICO);
+        segmento.putLong(4, System.currentTimeMillis());
+        posicao = FormatoAcesso.CABECALHO;
+        for (int codigo = 0; codigo < nomesRotas.size(); codigo++) {
+            gravarRota(codigo);
+        }
+        apagarAntigos();
+    }
+
+    private void apagarAntigos() throws IOException {
+        List<Path> segmentos = segmentos(diretorio);
+        for (int i = 0; i < segmentos.size() - segmentosRetidos; i++) {
+            Files.deleteIfExists(segmentos.get(i));
+        }
+    }
+
+    // Segmentos do diretório, do mais antigo ao mais novo
+    public static List<Path> segmentos(Path diretorio) throws IOException {
+        List<Path> segmentos = new ArrayList<>();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, PREFIXO_ARQUIVO + "*" + SUFIXO_ARQUIVO)) {
+            arquivos.forEach(segmentos::add);
+        }
+        segmentos.sort(null);
+        return segmentos;
+    }
+
+    private static long ultimoSegmento(Path diretorio) throws IOException {
+        List<Path> segmentos = segmentos(diretorio);
+        if (segmentos.isEmpty()) {
+            return 0;
+        }
+        String nome = segmentos.get(segmentos.size() - 1).getFileName().toString();
+        try {
+            return Long.parseLong(nome.substring(PREFIXO_ARQUIVO.length(), nome.length() - SUFIXO_ARQUIVO.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.mycompany.app.clientes;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cliente HTTP de um microsserviço (Cobrança, Equipamento, Externo) que não deixa uma
+ * dependência lenta ou fora do ar segurar as threads de requisição do aluguel:
+ *
+ * - anteparo: no máximo {@code maxConcorrentes} chamadas em andamento; a seguinte falha na hora;
+ * - disjuntor ({@link DisjuntorCircuito}): com muitas falhas recentes, falha sem chamar;
+ * - timeout por tentativa e prazo total da chamada, incluindo retries;
+ * - retry com espera exponencial e jitter para erro de rede, timeout e 5xx;
+ * - hedge: sem resposta em {@code atrasoHedge}, uma segunda requisição igual é disparada e vale
+ *   a primeira que responder, o que corta a cauda causada por uma conexão ou instância lenta.
+ *
+ * Toda tentativa e hedge de uma mesma chamada leva o mesmo cabeçalho Idempotency-Key, para que
+ * a dependência descarte as repetições de um POST (uma cobrança não pode sair duas vezes).
+ * As conexões são HTTP/1.1 keep-alive, reaproveitadas pelo pool do HttpClient; cada cliente tem
+ * o seu executor, então as respostas de uma dependência não disputam threads com as de outra.
+ */
+public class ClienteServico {
+
+    public static final String CABECALHO_IDEMPOTENCIA = "Idempotency-Key";
+
+    private final String nome;
+    private final URI base;
+    private final PoliticaCliente politica;
+    private final HttpClient http;
+    private final ExecutorService executor;
+    private final Semaphore anteparo;
+    private final DisjuntorCircuito disjuntor;
+    private final LongAdder chamadas = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder rejeitadas = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    public ClienteServico(String nome, String urlBase, PoliticaCliente politica) {
+        this.nome = nome;
+        this.base = URI.create(urlBase.endsWith("/") ? urlBase : urlBase + "/");
+        this.politica = politica;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(tarefa -> {
+            Thread thread = new Thread(tarefa, "cliente-" + nome + "-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(politica.timeoutTentativa())
+                .executor(executor)
+                .build();
+        this.anteparo = new Semaphore(politica.maxConcorrentes());
+        this.disjuntor = new DisjuntorCircuito(politica.janelaDisjuntor(), politica.limiarFalhas(),
+                politica.tempoAberto().toNanos());
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public DisjuntorCircuito.Estado getEstadoCircuito() {
+        return disjuntor.getEstado();
+    }
+
+    /**
+     * Envia {@code metodo caminho} com o corpo JSON (ou sem corpo, se null) e devolve a primeira
+     * resposta abaixo de 500. Lança {@link DependenciaIndisponivelException} se não conseguir uma
+     * dentro do prazo total, ou sem chamar se o anteparo estiver cheio ou o circuito aberto.
+     */
+    public HttpResponse<String> enviar(String metodo, String caminho, String corpoJson) {
+        chamadas.increment();
+        if (!anteparo.tryAcquire()) {
+            rejeitadas.increment();
+            throw new DependenciaIndisponivelException(nome, "chamadas simultâneas demais");
+        }
+        try {
+            HttpRequest requisicao = requisicao(metodo, caminho, corpoJson, UUID.randomUUID().toString());
+            long limite = System.nanoTime() + politica.prazoTotal().toNanos();
+            String motivo = "circuito aberto";
+            for (int tentativa = 1; ; tentativa++) {
+                if (!disjuntor.permitir()) {
+                    if (tentativa == 1) {
+                        rejeitadas.increment();
+                        throw new DependenciaIndisponivelException(nome, motivo);
+                    }
+                    break;
+                }
+                // Toda tentativa liberada pelo disjuntor informa o resultado, mesmo interrompida ou
+                // com exceção inesperada: senão a chamada de teste do meio-aberto nunca termina
+                boolean falhou = true;
+                try {
+                    HttpResponse<String> resposta = tentar(requisicao, limite);
+                    if (resposta.statusCode() < 500) {
+                        falhou = false;
+                        return resposta;
+                    }
+                    motivo = "HTTP " + resposta.statusCode();
+                } catch (IOException | TimeoutException e) {
+                    motivo = e instanceof TimeoutException ? "sem resposta no prazo" : e.toString();
+                } finally {
+                    if (falhou) {
+                        disjuntor.falha();
+                    } else {
+                        disjuntor.sucesso();
+                    }
+                }
+
+                long espera = espera(tentativa);
+                if (tentativa >= politica.tentativas() || System.nanoTime() + espera >= limite) {
+                    break;
+                }
+                retries.increment();
+                TimeUnit.NANOSECONDS.sleep(espera);
+            }
+            falhas.increment();
+            throw new DependenciaIndisponivelException(nome, motivo);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DependenciaIndisponivelException(nome, "interrompido");
+        } finally {
+            anteparo.release();
+        }
+    }
+
+    // Uma tentativa, com hedge se configurado; vale a primeira resposta (de qualquer status)
+    private HttpResponse<String> tentar(HttpRequest requisicao, long limite)
+            throws IOException, TimeoutException, InterruptedException {
+        long restante = Math.min(limite - System.nanoTime(), politica.timeoutTentativa().toNanos());
+        if (restante <= 0) {
+            throw new TimeoutException();
+        }
+        long inicio = System.nanoTime();
+        CompletableFuture<HttpResponse<String>> primeira = http.sendAsync(requisicao, HttpResponse.BodyHandlers.ofString());
+        CompletableFuture<HttpResponse<String>> segunda = null;
+        try {
+            Duration hedge = politica.atrasoHedge();
+            if (hedge == null || hedge.toNanos() >= restante) {
+                return primeira.get(restante, TimeUnit.NANOSECONDS);
+            }
+            try {
+                return primeira.get(hedge.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                hedges.increment();
+                segunda = http.sendAsync(requisicao, HttpResponse.BodyHandlers.ofString());
+            }
+            return primeiraComSucesso(primeira, segunda).get(restante - (System.nanoTime() - inicio), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IOException) {
+                throw (IOException) causa;
+            }
+            throw new IOException(causa);
+        } finally {
+            // a que perdeu (ou ambas, no timeout) é abortada e libera a conexão
+            primeira.cancel(true);
+            if (segunda != null) {
+                segunda.cancel(true);
+            }
+        }
+    }
+
+    private static <T> CompletableFuture<T> primeiraComSucesso(CompletableFuture<T> a, CompletableFuture<T> b) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        AtomicInteger falharam = new AtomicInteger();
+        for (CompletableFuture<T> tentativa : List.of(a, b)) {
+            tentativa.whenComplete((valor, erro) -> {
+                if (erro == null) {
+                    resultado.complete(valor);
+                } else if (falharam.incrementAndGet() == 2) {
+                    resultado.completeExceptionally(erro);
+                }
+            });
+        }
+        return resultado;
+    }
+
+    private HttpRequest requisicao(String metodo, String caminho, String corpoJson, String chave) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(base.resolve(caminho.startsWith("/") ? caminho.substring(1) : caminho))
+                .timeout(politica.timeoutTentativa())
+                .header(CABECALHO_IDEMPOTENCIA, chave);
+        if (corpoJson == null) {
+            return builder.method(metodo, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", "application/json")
+                .method(metodo, HttpRequest.BodyPublishers.ofString(corpoJson)).build();
+    }
+
+    // 50 ms, 100 ms, 200 ms... sorteado entre metade e uma vez e meia, para as repetições não chegarem juntas
+    private static long espera(int tentativa) {
+        long baseNs = TimeUnit.MILLISECONDS.toNanos(50) << Math.min(tentativa - 1, 6);
+        return baseNs / 2 + ThreadLocalRandom.current().nextLong(baseNs);
+    }
+
+    // Contadores para diagnóstico
+    public Map<String, Object> estatisticas() {
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("circuito", disjuntor.getEstado());
+        estatisticas.put("emAndamento", politica.maxConcorrentes() - anteparo.availablePermits());
+        estatisticas.put("chamadas", chamadas.sum());
+        estatisticas.put("falhas", falhas.sum());
+        estatisticas.put("rejeitadas", rejeitadas.sum());
+        estatisticas.put("retries", retries.sum());
+        estatisticas.put("hedges", hedges.sum());
+        return estatisticas;
+    }
+
+    public void fechar() {
+        executor.shutdownNow();
+    }
+}
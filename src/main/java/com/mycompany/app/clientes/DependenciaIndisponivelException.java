@@ -0,0 +1,20 @@
+package com.mycompany.app.clientes;
+
+/**
+ * A dependência não respondeu a tempo, respondeu com erro em todas as tentativas, está com o
+ * circuito aberto ou já tem chamadas demais em andamento. Quem chama decide se falha fechado
+ * (cobrança) ou segue sem ela (notificação).
+ */
+public class DependenciaIndisponivelException extends RuntimeException {
+
+    private final String dependencia;
+
+    public DependenciaIndisponivelException(String dependencia, String motivo) {
+        super(dependencia + " indisponível: " + motivo);
+        this.dependencia = dependencia;
+    }
+
+    public String getDependencia() {
+        return dependencia;
+    }
+}
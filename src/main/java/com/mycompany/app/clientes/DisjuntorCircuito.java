@@ -0,0 +1,101 @@
+package com.mycompany.app.clientes;
+
+import java.util.Arrays;
+
+/**
+ * Disjuntor por contagem: guarda o resultado das últimas {@code janela} chamadas e abre quando
+ * a fração de falhas passa do limiar (com a janela cheia). Aberto, recusa tudo sem chamar a
+ * dependência; passado {@code tempoAbertoNs} deixa uma única chamada de teste, que fecha o
+ * circuito se der certo ou o abre de novo se falhar.
+ */
+public final class DisjuntorCircuito {
+
+    public enum Estado { FECHADO, ABERTO, MEIO_ABERTO }
+
+    private final boolean[] falhas;
+    private final int limite;
+    private final long tempoAbertoNs;
+    private Estado estado = Estado.FECHADO;
+    private int posicao;
+    private int registradas;
+    private int falhasNaJanela;
+    private long abertoAte;
+    private boolean testeEmAndamento;
+
+    public DisjuntorCircuito(int janela, double limiarFalhas, long tempoAbertoNs) {
+        this.falhas = new boolean[janela];
+        this.limite = Math.max(1, (int) Math.ceil(janela * limiarFalhas));
+        this.tempoAbertoNs = tempoAbertoNs;
+    }
+
+    // false = não chame; true obriga a informar sucesso() ou falha() depois
+    public synchronized boolean permitir() {
+        switch (estado) {
+            case FECHADO:
+                return true;
+            case ABERTO:
+                if (System.nanoTime() - abertoAte < 0) {
+                    return false;
+                }
+                estado = Estado.MEIO_ABERTO;
+                testeEmAndamento = true;
+                return true;
+            default:
+                if (testeEmAndamento) {
+                    return false;
+                }
+                testeEmAndamento = true;
+                return true;
+        }
+    }
+
+    public synchronized void sucesso() {
+        if (estado == Estado.MEIO_ABERTO) {
+            fechar();
+            return;
+        }
+        registrar(false);
+    }
+
+    public synchronized void falha() {
+        if (estado == Estado.MEIO_ABERTO) {
+            abrir();
+            return;
+        }
+        registrar(true);
+        if (estado == Estado.FECHADO && registradas == falhas.length && falhasNaJanela >= limite) {
+            abrir();
+        }
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+
+    private void registrar(boolean falhou) {
+        if (registradas == falhas.length && falhas[posicao]) {
+            falhasNaJanela--;
+        }
+        falhas[posicao] = falhou;
+        if (falhou) {
+            falhasNaJanela++;
+        }
+        posicao = (posicao + 1) % falhas.length;
+        registradas = Math.min(registradas + 1, falhas.length);
+    }
+
+    private void abrir() {
+        estado = Estado.ABERTO;
+        abertoAte = System.nanoTime() + tempoAbertoNs;
+        testeEmAndamento = false;
+    }
+
+    private void fechar() {
+        estado = Estado.FECHADO;
+        testeEmAndamento = false;
+        posicao = 0;
+        registradas = 0;
+        falhasNaJanela = 0;
+        Arrays.fill(falhas, false);
+    }
+}
@@ -0,0 +1,40 @@
+package com.mycompany.app.clientes;
+
+import java.time.Duration;
+
+/**
+ * Limites de um {@link ClienteServico}.
+ *
+ * @param timeoutTentativa  tempo máximo de uma tentativa (conexão + resposta)
+ * @param prazoTotal        tempo máximo da chamada, somando tentativas, hedge e esperas entre elas
+ * @param tentativas        tentativas no total (1 = sem retry)
+ * @param atrasoHedge       sem resposta nesse tempo, dispara uma segunda requisição igual e fica
+ *                          com a primeira que responder; null desliga
+ * @param maxConcorrentes   chamadas simultâneas à dependência (anteparo); além disso falha na hora
+ * @param janelaDisjuntor   quantas chamadas recentes o disjuntor considera
+ * @param limiarFalhas      fração de falhas na janela que abre o circuito
+ * @param tempoAberto       quanto o circuito fica aberto antes de deixar uma chamada de teste passar
+ */
+public record PoliticaCliente(Duration timeoutTentativa, Duration prazoTotal, int tentativas, Duration atrasoHedge,
+                              int maxConcorrentes, int janelaDisjuntor, double limiarFalhas, Duration tempoAberto) {
+
+    public PoliticaCliente {
+        if (tentativas < 1 || maxConcorrentes < 1 || janelaDisjuntor < 1 || limiarFalhas <= 0 || limiarFalhas > 1) {
+            throw new IllegalArgumentException("Política de cliente inválida.");
+        }
+    }
+
+    // Propriedades aluguel.clientes.* (em ms, exceto contagens e o limiar)
+    public static PoliticaCliente padrao() {
+        long hedge = Long.getLong("aluguel.clientes.hedgeMs", 150);
+        return new PoliticaCliente(
+                Duration.ofMillis(Long.getLong("aluguel.clientes.timeoutMs", 500)),
+                Duration.ofMillis(Long.getLong("aluguel.clientes.prazoMs", 1500)),
+                Integer.getInteger("aluguel.clientes.tentativas", 3),
+                hedge > 0 ? Duration.ofMillis(hedge) : null,
+                Integer.getInteger("aluguel.clientes.concorrentes", 32),
+                Integer.getInteger("aluguel.clientes.janela", 20),
+                Double.parseDouble(System.getProperty("aluguel.clientes.limiarFalhas", "0.5")),
+                Duration.ofMillis(Long.getLong("aluguel.clientes.abertoMs", 5000)));
+    }
+}
@@ -0,0 +1,149 @@
+package com.mycompany.app.clientes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.json.JavalinJackson;
+
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chamadas do aluguel aos outros microsserviços, cada um atrás do seu {@link ClienteServico}.
+ *
+ * As URLs vêm de {@code aluguel.cobranca.url}, {@code aluguel.equipamento.url} e
+ * {@code aluguel.externo.url}; sem a URL (ou durante o aquecimento) a chamada é simulada e
+ * sempre dá certo, como antes.
+ * Cobrança falha fechado: dependência indisponível conta como cobrança recusada. Tranca e
+ * notificação não desfazem o aluguel: a falha é registrada e o aluguel segue. A notificação
+ * nem espera a resposta; vai por uma fila limitada que descarta quando está cheia.
+ */
+public final class ServicosExternos {
+
+    private static final ObjectMapper mapper = JavalinJackson.defaultMapper();
+
+    private static volatile ClienteServico cobranca;
+    private static volatile ClienteServico equipamento;
+    private static volatile ClienteServico externo;
+    private static volatile boolean simulado;
+
+    private static final ExecutorService notificacoes = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(Integer.getInteger("aluguel.clientes.filaNotificacoes", 1000)), tarefa -> {
+                Thread thread = new Thread(tarefa, "notificacoes");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        configurar(System.getProperty("aluguel.cobranca.url"), System.getProperty("aluguel.equipamento.url"),
+                System.getProperty("aluguel.externo.url"), PoliticaCliente.padrao());
+    }
+
+    private ServicosExternos() {
+    }
+
+    // URL null = simulado
+    public static synchronized void configurar(String urlCobranca, String urlEquipamento, String urlExterno,
+                                               PoliticaCliente politica) {
+        cobranca = trocar(cobranca, "cobranca", urlCobranca, politica);
+        equipamento = trocar(equipamento, "equipamento", urlEquipamento, politica);
+        externo = trocar(externo, "externo", urlExterno, politica);
+    }
+
+    // Liga a simulação mesmo com URLs configuradas (aquecimento)
+    public static void simular(boolean simular) {
+        simulado = simular;
+    }
+
+    private static ClienteServico trocar(ClienteServico anterior, String nome, String url, PoliticaCliente politica) {
+        if (anterior != null) {
+            anterior.fechar();
+        }
+        return url == null || url.isBlank() ? null : new ClienteServico(nome, url, politica);
+    }
+
+    public static boolean cobrar(UUID ciclistaId, Double valor) {
+        return cobrar("/cobranca", ciclistaId, valor);
+    }
+
+    public static boolean preAutorizar(UUID ciclistaId, Double valor) {
+        return cobrar("/cobranca/preautorizacao", ciclistaId, valor);
+    }
+
+    private static boolean cobrar(String caminho, UUID ciclistaId, Double valor) {
+        ClienteServico cliente = simulado ? null : cobranca;
+        if (cliente == null) {
+            return true;
+        }
+        String corpo = json(Map.of("ciclista", ciclistaId, "valor", valor));
+        try {
+            return sucesso(cliente.enviar("POST", caminho, corpo));
+        } catch (DependenciaIndisponivelException e) {
+            System.out.println("Aviso: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // destrancar / trancar; false se o equipamento não confirmou
+    public static boolean acionarTranca(UUID trancaId, UUID bicicletaId, boolean travar) {
+        ClienteServico cliente = simulado ? null : equipamento;
+        if (cliente == null) {
+            return true;
+        }
+        String caminho = "/tranca/" + trancaId + (travar ? "/trancar" : "/destrancar");
+        try {
+            return sucesso(cliente.enviar("POST", caminho, json(Map.of("bicicleta", bicicletaId))));
+        } catch (DependenciaIndisponivelException e) {
+            System.out.println("Aviso: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Enfileira e volta na hora; com a fila cheia a notificação é descartada
+    public static void notificar(String email, String assunto, String mensagem) {
+        ClienteServico cliente = simulado ? null : externo;
+        if (cliente == null || email == null) {
+            return;
+        }
+        String corpo = json(Map.of("email", email, "assunto", assunto, "mensagem", mensagem));
+        try {
+            notificacoes.execute(() -> {
+                try {
+                    cliente.enviar("POST", "/enviarEmail", corpo);
+                } catch (DependenciaIndisponivelException e) {
+                    System.out.println("Aviso: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            System.out.println("Aviso: fila de notificações cheia; notificação para " + email + " descartada.");
+        }
+    }
+
+    public static Map<String, Object> estatisticas() {
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        for (ClienteServico cliente : new ClienteServico[]{cobranca, equipamento, externo}) {
+            if (cliente != null) {
+                estatisticas.put(cliente.getNome(), cliente.estatisticas());
+            }
+        }
+        return estatisticas;
+    }
+
+    private static boolean sucesso(HttpResponse<String> resposta) {
+        return resposta.statusCode() >= 200 && resposta.statusCode() < 300;
+    }
+
+    private static String json(Map<String, Object> corpo) {
+        try {
+            return mapper.writeValueAsString(corpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mycompany.app.eventos;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.UUID;
+
+/**
+ * Uma entrada do {@link FeedAlteracoes}: "aluguel.iniciado", "ciclista.ativado" etc., com o
+ * snapshot que mudou. O JSON é gerado na primeira entrega e reaproveitado por todos os
+ * assinantes (e pelas retomadas que relerem esta entrada do anel).
+ */
+public final class Alteracao {
+
+    private final long offset;
+    private final String topico;
+    private final String tipo;
+    private final UUID id;
+    private final UUID ciclistaId;
+    private final Object dados;
+    private volatile String json;
+
+    Alteracao(long offset, String topico, String tipo, UUID id, UUID ciclistaId, Object dados) {
+        this.offset = offset;
+        this.topico = topico;
+        this.tipo = tipo;
+        this.id = id;
+        this.ciclistaId = ciclistaId;
+        this.dados = dados;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public String getTopico() {
+        return topico;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    // Nome do evento SSE
+    public String getEvento() {
+        return topico + "." + tipo;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getCiclistaId() {
+        return ciclistaId;
+    }
+
+    public Object getDados() {
+        return dados;
+    }
+
+    // Os dados são snapshots imutáveis, então serializar mais tarde dá o mesmo resultado
+    String json(ObjectMapper mapper) {
+        String atual = json;
+        if (atual == null) {
+            try {
+                atual = mapper.writeValueAsString(dados);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Falha ao serializar " + getEvento(), e);
+            }
+            json = atual;
+        }
+        return atual;
+    }
+}
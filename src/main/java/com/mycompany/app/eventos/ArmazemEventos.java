@@ -0,0 +1,138 @@
+package com.mycompany.app.eventos;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Log de eventos em memória, só de acréscimo. Cada evento recebe uma sequência (0, 1, 2...)
+ * e é entregue, ainda sob o lock de escrita, às projeções assinadas; assim toda projeção
+ * reflete exatamente um prefixo do log.
+ *
+ * Os eventos ficam em blocos de tamanho fixo: a leitura por sequência é O(1) e crescer o log
+ * não copia eventos, só o array de blocos. Leitores não travam: enxergam tudo até
+ * {@link #tamanho()}, que é publicado (volatile) depois que o evento foi gravado.
+ */
+public class ArmazemEventos<E> {
+
+    private static final int BITS_BLOCO = 14;
+    private static final int TAMANHO_BLOCO = 1 << BITS_BLOCO;
+    private static final int MASCARA_BLOCO = TAMANHO_BLOCO - 1;
+
+    private final Object lockEscrita = new Object();
+    private final List<Projecao<E>> projecoes = new CopyOnWriteArrayList<>();
+    private volatile Object[][] blocos = new Object[16][];
+    private volatile long tamanho;
+
+    public long anexar(E evento) {
+        if (evento == null) {
+            throw new IllegalArgumentException("Evento nulo.");
+        }
+        synchronized (lockEscrita) {
+            long sequencia = tamanho;
+            int bloco = (int) (sequencia >>> BITS_BLOCO);
+            Object[][] atuais = blocos;
+            if (bloco == atuais.length) {
+                atuais = Arrays.copyOf(atuais, atuais.length * 2);
+            }
+            if (atuais[bloco] == null) {
+                atuais[bloco] = new Object[TAMANHO_BLOCO];
+            }
+            atuais[bloco][(int) (sequencia & MASCARA_BLOCO)] = evento;
+            blocos = atuais;
+            tamanho = sequencia + 1;
+
+            for (Projecao<E> projecao : projecoes) {
+                projecao.aplicar(sequencia, evento);
+            }
+            return sequencia;
+        }
+    }
+
+    public long tamanho() {
+        return tamanho;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E ler(long sequencia) {
+        if (sequencia < 0 || sequencia >= tamanho) {
+            throw new IndexOutOfBoundsException("Sequência fora do log: " + sequencia);
+        }
+        return (E) blocos[(int) (sequencia >>> BITS_BLOCO)][(int) (sequencia & MASCARA_BLOCO)];
+    }
+
+    // Eventos em [de, ate), em ordem
+    @SuppressWarnings("unchecked")
+    public void percorrer(long de, long ate, BiConsumer<Long, E> consumidor) {
+        long limite = Math.min(ate, tamanho);
+        Object[][] atuais = blocos; // lido depois do tamanho: contém todos os blocos até ele
+        for (long sequencia = Math.max(0, de); sequencia < limite; sequencia++) {
+            consumidor.accept(sequencia, (E) atuais[(int) (sequencia >>> BITS_BLOCO)][(int) (sequencia & MASCARA_BLOCO)]);
+        }
+    }
+
+    /**
+     * Assina uma projeção nova: reconstrói o que já está no log sem bloquear os escritores e,
+     * sob o lock, aplica o que chegou nesse meio tempo antes de passar a receber ao vivo.
+     */
+    public void assinar(Projecao<E> projecao) {
+        long ate = tamanho;
+        reproduzir(projecao, ate);
+        synchronized (lockEscrita) {
+            percorrer(ate, tamanho, projecao::aplicar);
+            projecoes.add(projecao);
+        }
+    }
+
+    // Assina sem reproduzir o log: a projeção só recebe o que for anexado daqui em diante
+    public void acompanhar(Projecao<E> projecao) {
+        synchronized (lockEscrita) {
+            projecoes.add(projecao);
+        }
+    }
+
+    // Refaz uma projeção já assinada a partir do log inteiro; os escritores esperam
+    public void reconstruir(Projecao<E> projecao) {
+        synchronized (lockEscrita) {
+            projecao.limpar();
+            reproduzir(projecao, tamanho);
+        }
+    }
+
+    public void limpar() {
+        synchronized (lockEscrita) {
+            blocos = new Object[16][];
+            tamanho = 0;
+            for (Projecao<E> projecao : projecoes) {
+                projecao.limpar();
+            }
+        }
+    }
+
+    // Aplica [0, ate) particionando pela chave da projeção, uma partição por thread
+    @SuppressWarnings("unchecked")
+    private void reproduzir(Projecao<E> projecao, long ate) {
+        int particoes = ForkJoinPool.getCommonPoolParallelism() + 1;
+        if (particoes == 1 || ate < TAMANHO_BLOCO) {
+            percorrer(0, ate, projecao::aplicar);
+            projecao.aoConcluirReconstrucao();
+            return;
+        }
+
+        Object[][] atuais = blocos;
+        IntStream.range(0, particoes).parallel().forEach(particao -> {
+            for (long sequencia = 0; sequencia < ate; sequencia++) {
+                E evento = (E) atuais[(int) (sequencia >>> BITS_BLOCO)][(int) (sequencia & MASCARA_BLOCO)];
+                Object chave = projecao.chaveParticao(evento);
+                int destino = chave == null ? 0 : Math.floorMod(chave.hashCode(), particoes);
+                if (destino == particao) {
+                    projecao.aplicar(sequencia, evento);
+                }
+            }
+        });
+        projecao.aoConcluirReconstrucao();
+    }
+}
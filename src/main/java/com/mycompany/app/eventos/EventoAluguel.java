@@ -0,0 +1,60 @@
+package com.mycompany.app.eventos;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Fatos do ciclo de vida de um aluguel, imutáveis e gravados em ordem no {@link ArmazemEventos}.
+ * O estado dos aluguéis (ativos, histórico) é derivado deles por projeções.
+ */
+public sealed interface EventoAluguel {
+
+    UUID aluguelId();
+
+    UUID ciclistaId();
+
+    LocalDateTime instante();
+
+    record AluguelIniciado(UUID aluguelId, UUID ciclistaId, LocalDateTime instante,
+                           UUID trancaInicioId, UUID bicicletaId, Double valorFixo) implements EventoAluguel {
+    }
+
+    record TrancaLiberada(UUID aluguelId, UUID ciclistaId, LocalDateTime instante,
+                          UUID trancaId, UUID bicicletaId) implements EventoAluguel {
+    }
+
+    record AluguelDevolvido(UUID aluguelId, UUID ciclistaId, LocalDateTime instante,
+                            UUID trancaFimId, UUID bicicletaId, Double valorExtra) implements EventoAluguel {
+    }
+
+    record TrancaTravada(UUID aluguelId, UUID ciclistaId, LocalDateTime instante,
+                         UUID trancaId, UUID bicicletaId) implements EventoAluguel {
+    }
+
+    // Passou da franquia (e depois a cada bloco): minutos decorridos no prazo e o excedente até o
+    // fim do próximo bloco, pré-autorizado no cartão (preAutorizado = false se a cobrança recusou)
+    record AluguelEmAtraso(UUID aluguelId, UUID ciclistaId, LocalDateTime instante,
+                           long minutos, Double valorPreAutorizado, boolean preAutorizado) implements EventoAluguel {
+    }
+
+    // extra = false para o valor fixo do início, true para a taxa cobrada na devolução
+    record CobrancaRealizada(UUID aluguelId, UUID ciclistaId, LocalDateTime instante,
+                             Double valor, boolean extra) implements EventoAluguel {
+    }
+
+    // aluguelId = null na cobrança inicial recusada: o aluguel não chegou a existir
+    record CobrancaRecusada(UUID aluguelId, UUID ciclistaId, LocalDateTime instante,
+                            Double valor, boolean extra) implements EventoAluguel {
+    }
+
+    // Rebalanceamento do modo particionado: o aluguel ativo saiu com o ciclista para o nó 'destino'
+    record AluguelTransferido(UUID aluguelId, UUID ciclistaId, LocalDateTime instante,
+                              String destino) implements EventoAluguel {
+    }
+
+    // ... e chegou aqui vindo de 'origem', com os dados do início
+    record AluguelRecebido(UUID aluguelId, UUID ciclistaId, LocalDateTime instante, String origem,
+                           UUID trancaInicioId, UUID bicicletaId, LocalDateTime horaInicio,
+                           Double valorFixo) implements EventoAluguel {
+    }
+}
@@ -0,0 +1,230 @@
+package com.mycompany.app.eventos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.json.JavalinJackson;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feed de alterações para quem hoje faz polling (painel, controladores das estações).
+ *
+ * Cada alteração publicada recebe um offset global crescente e fica num anel com as últimas
+ * {@code capacidade} entradas; quem reconecta informando o último offset recebido retoma de onde
+ * parou. Se esse offset já saiu do anel (ou é de antes de um reinício do serviço) o assinante
+ * recebe "feed.reinicio" e deve recarregar o estado por GET antes de seguir com o feed.
+ *
+ * Publicar só enfileira: o envio é feito por um pool pequeno, no máximo uma thread por assinante
+ * de cada vez, então a ordem por assinante é a do offset. Cada assinante tem uma fila limitada;
+ * quem não acompanha o ritmo é desconectado (em vez de segurar memória ou quem publica) e
+ * retoma pelo offset ao reconectar.
+ */
+public class FeedAlteracoes {
+
+    public static final String TOPICO_ALUGUEL = "aluguel";
+    public static final String TOPICO_CICLISTA = "ciclista";
+    public static final Set<String> TOPICOS = Set.of(TOPICO_ALUGUEL, TOPICO_CICLISTA);
+
+    private static final FeedAlteracoes principal = new FeedAlteracoes(
+            Integer.getInteger("aluguel.feed.capacidade", 1 << 16),
+            Integer.getInteger("aluguel.feed.buffer", 1024),
+            Integer.getInteger("aluguel.feed.threads", 2));
+
+    /** Para onde um assinante recebe as alterações (na prática, a conexão SSE). */
+    public interface Destino {
+        void enviar(String evento, String dados, long offset) throws Exception;
+
+        void fechar();
+    }
+
+    private final Object lock = new Object();
+    private final Alteracao[] anel;
+    private final int mascara;
+    private final int limiteFila;
+    private final ExecutorService envio;
+    private final List<Assinante> assinantes = new CopyOnWriteArrayList<>();
+    private final ObjectMapper mapper = JavalinJackson.defaultMapper();
+    private final AtomicLong desconectadosPorAtraso = new AtomicLong();
+    private long proximoOffset; // guardado por lock
+
+    public FeedAlteracoes(int capacidade, int limiteFila, int threads) {
+        if (capacidade < 1 || limiteFila < 1 || threads < 1) {
+            throw new IllegalArgumentException("Capacidade, fila e threads devem ser positivos.");
+        }
+        int tamanho = Integer.highestOneBit(capacidade - 1) << 1;
+        this.anel = new Alteracao[Math.max(1, tamanho)];
+        this.mascara = anel.length - 1;
+        this.limiteFila = limiteFila;
+        AtomicInteger contador = new AtomicInteger();
+        this.envio = Executors.newFixedThreadPool(threads, tarefa -> {
+            Thread thread = new Thread(tarefa, "feed-envio-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static FeedAlteracoes principal() {
+        return principal;
+    }
+
+    public long publicar(String topico, String tipo, UUID id, UUID ciclistaId, Object dados) {
+        synchronized (lock) {
+            Alteracao alteracao = new Alteracao(proximoOffset, topico, tipo, id, ciclistaId, dados);
+            anel[(int) (proximoOffset & mascara)] = alteracao;
+            proximoOffset++;
+            for (Assinante assinante : assinantes) {
+                assinante.oferecer(alteracao);
+            }
+            return alteracao.getOffset();
+        }
+    }
+
+    /**
+     * Registra um assinante. Com {@code ultimoOffset} != null entrega primeiro o que foi publicado
+     * depois dele (ou "feed.reinicio", se não estiver mais no anel) e segue ao vivo sem lacunas.
+     */
+    public Assinatura assinar(FiltroAlteracoes filtro, Long ultimoOffset, Destino destino) {
+        Assinante assinante = new Assinante(filtro, destino);
+        synchronized (lock) {
+            if (ultimoOffset != null) {
+                long de = ultimoOffset + 1;
+                long maisAntigo = Math.max(0, proximoOffset - anel.length);
+                if (de < maisAntigo || de > proximoOffset) {
+                    assinante.retomar(new Alteracao(proximoOffset - 1, "feed", "reinicio", null, null, null));
+                } else {
+                    for (long offset = de; offset < proximoOffset; offset++) {
+                        Alteracao alteracao = anel[(int) (offset & mascara)];
+                        if (filtro.aceita(alteracao)) {
+                            assinante.retomar(alteracao);
+                        }
+                    }
+                }
+            }
+            assinantes.add(assinante);
+        }
+        assinante.agendar();
+        return assinante;
+    }
+
+    // Último offset publicado (-1 se nada foi publicado)
+    public long ultimoOffset() {
+        synchronized (lock) {
+            return proximoOffset - 1;
+        }
+    }
+
+    public int getAssinantes() {
+        return assinantes.size();
+    }
+
+    public long getDesconectadosPorAtraso() {
+        return desconectadosPorAtraso.get();
+    }
+
+    // Fecha todas as conexões (encerramento do serviço); os clientes retomam pelo offset
+    public void encerrarAssinantes() {
+        for (Assinante assinante : assinantes) {
+            assinante.cancelar();
+        }
+    }
+
+    /** Handle devolvido a quem assina, para cancelar quando a conexão cair. */
+    public interface Assinatura {
+        void cancelar();
+    }
+
+    private final class Assinante implements Assinatura {
+        private final FiltroAlteracoes filtro;
+        private final Destino destino;
+        private final ArrayDeque<Alteracao> fila = new ArrayDeque<>();
+        private boolean agendado; // há uma tarefa de envio na fila do pool ou rodando
+        private boolean fechado;
+
+        Assinante(FiltroAlteracoes filtro, Destino destino) {
+            this.filtro = filtro;
+            this.destino = destino;
+        }
+
+        // Chamado sob o lock do feed: não pode bloquear
+        void oferecer(Alteracao alteracao) {
+            if (!filtro.aceita(alteracao)) {
+                return;
+            }
+            synchronized (this) {
+                if (fechado) {
+                    return;
+                }
+                if (fila.size() >= limiteFila) {
+                    fechado = true;
+                    fila.clear();
+                    desconectadosPorAtraso.incrementAndGet();
+                } else {
+                    fila.addLast(alteracao);
+                }
+            }
+            agendar();
+        }
+
+        // Entradas do anel na assinatura: não contam para o limite da fila
+        synchronized void retomar(Alteracao alteracao) {
+            fila.addLast(alteracao);
+        }
+
+        @Override
+        public void cancelar() {
+            synchronized (this) {
+                if (fechado) {
+                    return;
+                }
+                fechado = true;
+                fila.clear();
+            }
+            agendar();
+        }
+
+        void agendar() {
+            synchronized (this) {
+                if (agendado || (fila.isEmpty() && !fechado)) {
+                    return;
+                }
+                agendado = true;
+            }
+            envio.execute(this::drenar);
+        }
+
+        private void drenar() {
+            while (true) {
+                Alteracao alteracao;
+                synchronized (this) {
+                    if (fechado) {
+                        break;
+                    }
+                    alteracao = fila.pollFirst();
+                    if (alteracao == null) {
+                        agendado = false;
+                        return;
+                    }
+                }
+                try {
+                    destino.enviar(alteracao.getEvento(), alteracao.getDados() == null ? "{}" : alteracao.json(mapper),
+                            alteracao.getOffset());
+                } catch (Exception e) {
+                    synchronized (this) {
+                        fechado = true;
+                        fila.clear();
+                    }
+                }
+            }
+            // fechado: agendado fica true para nenhuma outra tarefa ser criada
+            assinantes.remove(this);
+            destino.fechar();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.mycompany.app.eventos;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * O que um assinante quer receber: tópicos (vazio = todos) e, opcionalmente, só as
+ * alterações de um ciclista — o controlador da estação acompanha um ciclista por vez.
+ */
+public record FiltroAlteracoes(Set<String> topicos, UUID ciclistaId) {
+
+    public static final FiltroAlteracoes TODAS = new FiltroAlteracoes(Set.of(), null);
+
+    // "aluguel,ciclista" e um UUID opcional; lança IllegalArgumentException se inválidos
+    public static FiltroAlteracoes de(String topicos, String ciclistaId) {
+        Set<String> conjunto = Set.of();
+        if (topicos != null && !topicos.isBlank()) {
+            conjunto = Set.copyOf(Arrays.asList(topicos.trim().toLowerCase().split("\\s*,\\s*")));
+            for (String topico : conjunto) {
+                if (!FeedAlteracoes.TOPICOS.contains(topico)) {
+                    throw new IllegalArgumentException("Tópico desconhecido: " + topico);
+                }
+            }
+        }
+        UUID ciclista = ciclistaId == null || ciclistaId.isBlank() ? null : UUID.fromString(ciclistaId.trim());
+        return new FiltroAlteracoes(conjunto, ciclista);
+    }
+
+    public boolean aceita(Alteracao alteracao) {
+        return (topicos.isEmpty() || topicos.contains(alteracao.getTopico()))
+                && (ciclistaId == null || ciclistaId.equals(alteracao.getCiclistaId()));
+    }
+}
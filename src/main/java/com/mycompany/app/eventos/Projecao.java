@@ -0,0 +1,23 @@
+package com.mycompany.app.eventos;
+
+/**
+ * Modelo de leitura alimentado pelo {@link ArmazemEventos}. Em operação normal recebe os
+ * eventos um a um, na ordem do log. Na reconstrução os eventos são distribuídos entre threads
+ * pela {@link #chaveParticao(Object)}: eventos de mesma chave chegam em ordem, os de chaves
+ * diferentes podem chegar em paralelo, então a projeção precisa ser thread-safe entre chaves.
+ */
+public interface Projecao<E> {
+
+    void aplicar(long sequencia, E evento);
+
+    void limpar();
+
+    // null faz a reconstrução desta projeção ser sequencial
+    default Object chaveParticao(E evento) {
+        return null;
+    }
+
+    // Chamado ao fim da reconstrução paralela, antes de voltar a receber eventos novos
+    default void aoConcluirReconstrucao() {
+    }
+}
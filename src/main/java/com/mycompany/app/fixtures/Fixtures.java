@@ -0,0 +1,177 @@
+package com.mycompany.app.fixtures;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.handlers.Formatos;
+import com.mycompany.app.models.CartaoCredito;
+import com.mycompany.app.models.Epoca;
+import com.mycompany.app.particao.Transferencia.DadosCiclista;
+import com.mycompany.app.replicacao.DadosFuncionario;
+import com.mycompany.app.util.GeradoresId;
+import io.javalin.json.JavalinJackson;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Datasets nomeados para {@code /restaurarBanco?fixture=<nome>}: o arquivo {@code <nome>.json}
+ * ou {@code <nome>.smile} em {@code aluguel.fixtures.dir} (padrão "fixtures"). É lido em
+ * streaming direto numa {@link Epoca} fora do ar, sem passar pelos handlers nem publicar nada
+ * no feed, e a época só entra no ar inteira, no lugar da atual.
+ *
+ * Formato (listas opcionais, em qualquer ordem):
+ * <pre>
+ * {"ciclistas":    [{"id", "email", "nacionalidade", "cpf", "passaporte", "validadePassaporte", "pais",
+ *                    "nascimento", "nome", "senha", "urlFoto", "status", "statusPermicaoAluguel"}],
+ *  "cartoes":      [{"ciclista", "nomeTitular", "numero", "validade", "cvv"}],
+ *  "funcionarios": [{"matricula", "senha", "confirmacaoSenha", "email", "nome", "idade", "funcao", "cpf"}],
+ *  "estacoes":     [{"id", "trancas": [{"id", "bicicleta"}]}],
+ *  "alugueis":     [{"id", "ciclista", "trancaInicio", "bicicleta", "horaInicio", "valorFixo",
+ *                    "horaFim", "trancaFim", "valorExtra"}]}
+ * </pre>
+ * Ids ausentes são gerados; o que outra lista referencia (ciclista de um cartão ou aluguel)
+ * precisa vir com id. Aluguel sem horaFim fica ativo. Os dados não passam pelas validações das
+ * rotas: a fixture é tratada como um banco já gravado.
+ */
+public final class Fixtures {
+
+    private static final Pattern NOME = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final ObjectMapper json = JavalinJackson.defaultMapper();
+
+    public record DadosCartao(UUID ciclista, String nomeTitular, String numero, Date validade, String cvv,
+                              long versao) {
+    }
+
+    public record DadosTranca(UUID id, UUID bicicleta) {
+    }
+
+    public record DadosEstacao(UUID id, List<DadosTranca> trancas) {
+    }
+
+    public record DadosAluguel(UUID id, UUID ciclista, UUID trancaInicio, UUID bicicleta, LocalDateTime horaInicio,
+                               Double valorFixo, LocalDateTime horaFim, UUID trancaFim, Double valorExtra) {
+    }
+
+    private Fixtures() {
+    }
+
+    public static Path diretorio() {
+        return Path.of(System.getProperty("aluguel.fixtures.dir", "fixtures"));
+    }
+
+    // Arquivo da fixture; NoSuchFileException se não há nenhum com esse nome
+    public static Path arquivo(String nome) throws NoSuchFileException {
+        if (nome == null || !NOME.matcher(nome).matches()) {
+            throw new IllegalArgumentException("Nome de fixture inválido (use letras, números, '-' e '_').");
+        }
+        for (String extensao : List.of(".json", ".smile")) {
+            Path arquivo = diretorio().resolve(nome + extensao);
+            if (Files.isRegularFile(arquivo)) {
+                return arquivo;
+            }
+        }
+        throw new NoSuchFileException(diretorio().resolve(nome + ".json").toString());
+    }
+
+    // Época nova (ainda fora do ar) com o conteúdo da fixture
+    public static Epoca carregar(String nome) throws IOException {
+        Path arquivo = arquivo(nome);
+        try (InputStream entrada = new BufferedInputStream(Files.newInputStream(arquivo), 1 << 16)) {
+            return ler(entrada, mapper(arquivo));
+        }
+    }
+
+    // Smile pela extensão .smile, JSON nos outros casos
+    static ObjectMapper mapper(Path arquivo) {
+        return arquivo.toString().endsWith(".smile") ? Formatos.mapper(Formatos.SMILE) : json;
+    }
+
+    public static Epoca ler(InputStream entrada, ObjectMapper mapper) throws IOException {
+        Epoca epoca = Epoca.vazia();
+        try (JsonParser parser = mapper.createParser(entrada)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("A fixture deve ser um objeto com as listas.");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String lista = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IllegalArgumentException("'" + lista + "' deve ser uma lista.");
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    switch (lista) {
+                        case "ciclistas" -> adicionar(epoca, mapper.readValue(parser, DadosCiclista.class));
+                        case "cartoes" -> adicionar(epoca, mapper.readValue(parser, DadosCartao.class));
+                        case "funcionarios" -> adicionar(epoca, mapper.readValue(parser, DadosFuncionario.class));
+                        case "estacoes" -> adicionar(epoca, mapper.readValue(parser, DadosEstacao.class));
+                        case "alugueis" -> adicionar(epoca, mapper.readValue(parser, DadosAluguel.class));
+                        default -> throw new IllegalArgumentException("Lista desconhecida na fixture: '" + lista + "'.");
+                    }
+                }
+                if (parser.currentToken() != JsonToken.END_ARRAY) {
+                    throw new IllegalArgumentException("'" + lista + "' deve conter só objetos.");
+                }
+            }
+        }
+        return epoca;
+    }
+
+    static void adicionar(Epoca epoca, DadosCiclista c) {
+        DadosCiclista completo = new DadosCiclista(c.id() != null ? c.id() : GeradoresId.atual().proximo(),
+                c.email(), c.nacionalidade(), c.cpf(), c.passaporte(), c.validadePassaporte(), c.pais(),
+                c.nascimento(), c.nome(), c.senha(), c.urlFoto(), Boolean.TRUE.equals(c.status()),
+                Boolean.TRUE.equals(c.statusPermicaoAluguel()), c.bicicletaId(), Math.max(1, c.versao()));
+        epoca.adicionar(completo.ciclista());
+    }
+
+    static void adicionar(Epoca epoca, DadosCartao c) {
+        exigir(c.ciclista(), "Cartão sem 'ciclista'.");
+        epoca.adicionar(CartaoCredito.reconstruir(c.ciclista(), c.nomeTitular(), c.numero(), c.validade(), c.cvv(),
+                Math.max(1, c.versao())));
+    }
+
+    static void adicionar(Epoca epoca, DadosFuncionario f) {
+        DadosFuncionario completo = new DadosFuncionario(f.matricula() != null ? f.matricula() : GeradoresId.atual().proximo(),
+                f.senha(), f.confirmacaoSenha() != null ? f.confirmacaoSenha() : f.senha(), f.email(), f.nome(),
+                f.idade(), f.funcao(), f.cpf(), Math.max(1, f.versao()));
+        epoca.adicionar(completo.funcionario());
+    }
+
+    static void adicionar(Epoca epoca, DadosEstacao e) {
+        if (e.trancas() == null || e.trancas().isEmpty()) {
+            throw new IllegalArgumentException("Estação sem trancas.");
+        }
+        UUID[] ids = new UUID[e.trancas().size()];
+        UUID[] bicicletas = new UUID[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            DadosTranca tranca = e.trancas().get(i);
+            ids[i] = tranca.id() != null ? tranca.id() : GeradoresId.atual().proximo();
+            bicicletas[i] = tranca.bicicleta();
+        }
+        epoca.adicionarEstacao(e.id() != null ? e.id() : GeradoresId.atual().proximo(), ids, bicicletas);
+    }
+
+    static void adicionar(Epoca epoca, DadosAluguel a) {
+        exigir(a.ciclista(), "Aluguel sem 'ciclista'.");
+        exigir(a.bicicleta(), "Aluguel sem 'bicicleta'.");
+        exigir(a.horaInicio(), "Aluguel sem 'horaInicio'.");
+        epoca.adicionarAluguel(a.id() != null ? a.id() : GeradoresId.atual().proximo(), a.ciclista(), a.trancaInicio(),
+                a.bicicleta(), a.horaInicio(), a.valorFixo() != null ? a.valorFixo() : 0.0, a.horaFim(), a.trancaFim(),
+                a.valorExtra() != null ? a.valorExtra() : 0.0);
+    }
+
+    private static void exigir(Object valor, String mensagem) {
+        if (valor == null) {
+            throw new IllegalArgumentException(mensagem);
+        }
+    }
+}
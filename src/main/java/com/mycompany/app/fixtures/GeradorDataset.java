@@ -0,0 +1,432 @@
+package com.mycompany.app.fixtures;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.fixtures.Fixtures.DadosAluguel;
+import com.mycompany.app.fixtures.Fixtures.DadosCartao;
+import com.mycompany.app.fixtures.Fixtures.DadosEstacao;
+import com.mycompany.app.fixtures.Fixtures.DadosTranca;
+import com.mycompany.app.models.Epoca;
+import com.mycompany.app.particao.Transferencia.DadosCiclista;
+import com.mycompany.app.replicacao.DadosFuncionario;
+import com.mycompany.app.tarifas.Tarifario;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Dataset sintético para testes de escala: ciclistas válidos (CPF com dígitos verificadores
+ * para brasileiros, passaporte no prazo para estrangeiros, emails únicos, senhas que passam em
+ * validarSenha), um cartão por ciclista, funcionários, estações com trancas e bicicletas, e
+ * aluguéis já devolvidos com o excedente calculado pelo {@link Tarifario} atual.
+ *
+ * Cada registro sai de um gerador próprio semeado por (semente, tipo, índice), então o dataset
+ * depende só da semente, dos tamanhos e da data de referência, não do número de threads nem da
+ * ordem em que os blocos terminam. Os blocos são gerados em paralelo; o que precisa de ordem (o
+ * log de aluguéis, o arquivo) é consumido na ordem dos blocos.
+ *
+ * Destinos: {@link #gerar()} preenche uma {@link Epoca} fora do ar, para publicar direto, e
+ * {@link #escrever(Path)} grava uma fixture (.json ou .smile) para /restaurarBanco?fixture.
+ * Passaportes e cartões vencem anos depois da referência; aluguéis terminam antes dela.
+ *
+ * Uso: mvn compile exec:java -Dexec.mainClass=com.mycompany.app.fixtures.GeradorDataset
+ *        -Dexec.args="<arquivo.smile|arquivo.json|-> <ciclistas> [semente]"
+ * ("-" só gera na memória e mede).
+ */
+public final class GeradorDataset {
+
+    public static final LocalDateTime REFERENCIA = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    public record Tamanhos(int ciclistas, int funcionarios, int estacoes, int trancasPorEstacao,
+                           int alugueisPorCiclista) {
+
+        public Tamanhos {
+            if (ciclistas < 0 || ciclistas > MAXIMO_CICLISTAS || funcionarios < 0 || funcionarios > MAXIMO_CICLISTAS
+                    || estacoes < 0 || trancasPorEstacao < 1 || trancasPorEstacao > 100) {
+                throw new IllegalArgumentException("Tamanhos fora dos limites do gerador.");
+            }
+            if (alugueisPorCiclista < 0 || 2 * alugueisPorCiclista >= MAXIMO_ALUGUEIS
+                    || (alugueisPorCiclista > 0 && estacoes == 0)) {
+                throw new IllegalArgumentException("Aluguéis por ciclista entre 0 e " + (MAXIMO_ALUGUEIS / 2 - 1)
+                        + ", e com estações para as trancas.");
+            }
+        }
+
+        // Proporções de produção para n ciclistas
+        public static Tamanhos para(int ciclistas) {
+            return new Tamanhos(ciclistas, Math.max(10, ciclistas / 1000), Math.max(1, ciclistas / 500), 20, 3);
+        }
+    }
+
+    private record CiclistaGerado(DadosCiclista dados, DadosCartao cartao) {
+    }
+
+    private interface Etapa {
+        void executar(ExecutorService threads) throws Exception;
+    }
+
+    private static final int MAXIMO_CICLISTAS = 100_000_000; // passaporte tem 8 dígitos de índice
+    private static final int MAXIMO_ALUGUEIS = 64;           // índices de aluguel por ciclista
+    private static final int BLOCO = 8192;
+    private static final int PERCENTUAL_BRASILEIROS = 85;
+    private static final int PERCENTUAL_ATIVOS = 95;
+    private static final int PERCENTUAL_TRANCAS_OCUPADAS = 70;
+
+    // Tipos no id e na semente de cada registro
+    private static final int CICLISTA = 1;
+    private static final int CARTAO = 2;
+    private static final int FUNCIONARIO = 3;
+    private static final int ESTACAO = 4;
+    private static final int TRANCA = 5;
+    private static final int BICICLETA = 6;
+    private static final int ALUGUEL = 7;
+
+    private static final String[] NOMES = {"Ana", "Bruno", "Carla", "Daniel", "Eduarda", "Felipe", "Gabriela",
+            "Heitor", "Isabela", "Joao", "Larissa", "Lucas", "Mariana", "Mateus", "Natalia", "Otavio", "Paula",
+            "Rafael", "Sofia", "Thiago", "Valentina", "Vinicius", "Yasmin", "Miguel", "Helena", "Arthur", "Laura"};
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira",
+            "Alves", "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes",
+            "Soares", "Fernandes", "Vieira", "Barbosa", "Rocha", "Dias", "Nascimento", "Andrade", "Moreira"};
+    private static final String[] DOMINIOS = {"exemplo.com", "correio.com.br", "mail.net", "provedor.org"};
+    private static final String[] PAISES = {"Argentina", "Chile", "Uruguai", "Portugal", "Espanha", "Italia",
+            "Franca", "Alemanha", "Estados Unidos", "Japao"};
+    private static final String LETRAS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final String SENHA = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    private final long semente;
+    private final Tamanhos tamanhos;
+    private final LocalDateTime referencia;
+    private final int paralelismo;
+    private final Tarifario tarifario = Tarifario.atual();
+
+    public GeradorDataset(long semente, Tamanhos tamanhos) {
+        this(semente, tamanhos, REFERENCIA, Runtime.getRuntime().availableProcessors());
+    }
+
+    public GeradorDataset(long semente, Tamanhos tamanhos, LocalDateTime referencia, int paralelismo) {
+        this.semente = semente;
+        this.tamanhos = tamanhos;
+        this.referencia = referencia;
+        this.paralelismo = Math.max(1, paralelismo);
+    }
+
+    // --- Destinos ---
+
+    // Época nova, fora do ar, com o dataset inteiro; publique com Epoca.publicar
+    public Epoca gerar() {
+        Epoca epoca = Epoca.vazia();
+        executar(threads -> {
+            emBlocos(threads, tamanhos.estacoes(), this::estacao,
+                    bloco -> bloco.forEach(e -> Fixtures.adicionar(epoca, e)), false);
+            emBlocos(threads, tamanhos.funcionarios(), this::funcionario,
+                    bloco -> bloco.forEach(f -> Fixtures.adicionar(epoca, f)), false);
+            emBlocos(threads, tamanhos.ciclistas(), this::ciclista, bloco -> {
+                for (CiclistaGerado c : bloco) {
+                    Fixtures.adicionar(epoca, c.dados());
+                    Fixtures.adicionar(epoca, c.cartao());
+                }
+            }, false);
+            // O log de aluguéis guarda a ordem de chegada: na ordem dos blocos ele sai igual sempre
+            emBlocos(threads, tamanhos.ciclistas(), this::alugueis,
+                    bloco -> bloco.forEach(alugueis -> alugueis.forEach(a -> Fixtures.adicionar(epoca, a))), true);
+        });
+        return epoca;
+    }
+
+    // Fixture no formato de Fixtures (Smile se a extensão for .smile)
+    public void escrever(Path arquivo) throws IOException {
+        ObjectMapper mapper = Fixtures.mapper(arquivo).copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        try (OutputStream saida = new BufferedOutputStream(Files.newOutputStream(arquivo), 1 << 16);
+             JsonGenerator gerador = mapper.createGenerator(saida)) {
+            gerador.writeStartObject();
+            executar(threads -> {
+                lista(threads, gerador, mapper, "estacoes", tamanhos.estacoes(), this::estacao);
+                lista(threads, gerador, mapper, "funcionarios", tamanhos.funcionarios(), this::funcionario);
+                lista(threads, gerador, mapper, "ciclistas", tamanhos.ciclistas(), i -> ciclista(i).dados());
+                lista(threads, gerador, mapper, "cartoes", tamanhos.ciclistas(), i -> ciclista(i).cartao());
+                gerador.writeArrayFieldStart("alugueis");
+                emBlocos(threads, tamanhos.ciclistas(), this::alugueis, bloco -> {
+                    for (List<DadosAluguel> alugueis : bloco) {
+                        for (DadosAluguel aluguel : alugueis) {
+                            escreverValor(mapper, gerador, aluguel);
+                        }
+                    }
+                }, true);
+                gerador.writeEndArray();
+            });
+            gerador.writeEndObject();
+        }
+    }
+
+    private <T> void lista(ExecutorService threads, JsonGenerator gerador, ObjectMapper mapper, String nome, int total,
+                           IntFunction<T> registro) throws Exception {
+        gerador.writeArrayFieldStart(nome);
+        emBlocos(threads, total, registro, bloco -> bloco.forEach(valor -> escreverValor(mapper, gerador, valor)), true);
+        gerador.writeEndArray();
+    }
+
+    private static void escreverValor(ObjectMapper mapper, JsonGenerator gerador, Object valor) {
+        try {
+            mapper.writeValue(gerador, valor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void executar(Etapa etapa) {
+        ExecutorService threads = Executors.newFixedThreadPool(paralelismo, r -> {
+            Thread thread = new Thread(r, "gerador-dataset");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            etapa.executar(threads);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Falha ao gerar o dataset", e);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /**
+     * Gera os registros [0, total) em blocos nas threads. Sem ordem, cada bloco vai ao destino
+     * na thread que o gerou; em ordem, o chamador entrega os blocos na sequência, com no máximo
+     * duas rodadas de blocos esperando na memória.
+     */
+    private <T> void emBlocos(ExecutorService threads, int total, IntFunction<T> registro, Consumer<List<T>> destino,
+                              boolean emOrdem) throws InterruptedException {
+        ArrayDeque<Future<List<T>>> pendentes = new ArrayDeque<>();
+        for (int inicio = 0; inicio < total; inicio += BLOCO) {
+            int de = inicio;
+            int ate = Math.min(total, inicio + BLOCO);
+            pendentes.add(threads.submit(() -> {
+                List<T> bloco = new ArrayList<>(ate - de);
+                for (int i = de; i < ate; i++) {
+                    bloco.add(registro.apply(i));
+                }
+                if (emOrdem) {
+                    return bloco;
+                }
+                destino.accept(bloco);
+                return List.of();
+            }));
+            if (pendentes.size() >= 2 * paralelismo) {
+                entregar(pendentes.poll(), destino, emOrdem);
+            }
+        }
+        while (!pendentes.isEmpty()) {
+            entregar(pendentes.poll(), destino, emOrdem);
+        }
+    }
+
+    private static <T> void entregar(Future<List<T>> bloco, Consumer<List<T>> destino, boolean emOrdem)
+            throws InterruptedException {
+        try {
+            List<T> registros = bloco.get();
+            if (emOrdem) {
+                destino.accept(registros);
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException erro) {
+                throw erro;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // --- Registros ---
+
+    private CiclistaGerado ciclista(int i) {
+        SplittableRandom r = aleatorio(CICLISTA, i);
+        UUID id = id(CICLISTA, i);
+        String primeiro = escolher(r, NOMES);
+        String sobrenome = escolher(r, SOBRENOMES);
+        String nome = primeiro + " " + sobrenome;
+        String email = (primeiro + "." + sobrenome + "." + i).toLowerCase(Locale.ROOT) + "@" + escolher(r, DOMINIOS);
+        Date nascimento = data(referencia.minusYears(r.nextInt(16, 76)).minusDays(r.nextInt(365)));
+        String senha = senha(r);
+        boolean ativo = r.nextInt(100) < PERCENTUAL_ATIVOS;
+        DadosCiclista dados;
+        if (r.nextInt(100) < PERCENTUAL_BRASILEIROS) {
+            dados = new DadosCiclista(id, email, "BRASILEIRA", cpf(i + 1L), null, null, "Brasil", nascimento, nome,
+                    senha, null, ativo, ativo, null, 1);
+        } else {
+            String passaporte = "" + LETRAS.charAt(r.nextInt(LETRAS.length())) + LETRAS.charAt(r.nextInt(LETRAS.length()))
+                    + String.format("%08d", i);
+            Date validade = data(referencia.plusDays(r.nextInt(365 * 5, 365 * 15)));
+            dados = new DadosCiclista(id, email, "ESTRANGEIRA", null, passaporte, validade, escolher(r, PAISES),
+                    nascimento, nome, senha, null, ativo, ativo, null, 1);
+        }
+        SplittableRandom c = aleatorio(CARTAO, i);
+        DadosCartao cartao = new DadosCartao(id, nome, numeroCartao(c),
+                data(referencia.plusMonths(c.nextInt(36, 96))), String.format("%03d", c.nextInt(1000)), 1);
+        return new CiclistaGerado(dados, cartao);
+    }
+
+    private DadosFuncionario funcionario(int i) {
+        SplittableRandom r = aleatorio(FUNCIONARIO, i);
+        String primeiro = escolher(r, NOMES);
+        String sobrenome = escolher(r, SOBRENOMES);
+        String senha = senha(r);
+        return new DadosFuncionario(id(FUNCIONARIO, i), senha, senha,
+                (primeiro + "." + sobrenome + "." + i).toLowerCase(Locale.ROOT) + "@bicicletario.com.br",
+                primeiro + " " + sobrenome, String.valueOf(r.nextInt(18, 66)),
+                r.nextInt(100) < 70 ? "Reparador" : "Administrativo", cpf(900_000_000L + i), 1);
+    }
+
+    private DadosEstacao estacao(int e) {
+        SplittableRandom r = aleatorio(ESTACAO, e);
+        int porEstacao = tamanhos.trancasPorEstacao();
+        List<DadosTranca> trancas = new ArrayList<>(porEstacao);
+        for (int t = 0; t < porEstacao; t++) {
+            long indice = (long) e * porEstacao + t;
+            trancas.add(new DadosTranca(id(TRANCA, indice),
+                    r.nextInt(100) < PERCENTUAL_TRANCAS_OCUPADAS ? id(BICICLETA, indice) : null));
+        }
+        return new DadosEstacao(id(ESTACAO, e), trancas);
+    }
+
+    // Aluguéis já devolvidos do ciclista i, em média alugueisPorCiclista
+    private List<DadosAluguel> alugueis(int i) {
+        int media = tamanhos.alugueisPorCiclista();
+        if (media == 0) {
+            return List.of();
+        }
+        SplittableRandom r = aleatorio(ALUGUEL, i);
+        int quantos = r.nextInt(2 * media + 1);
+        int trancas = tamanhos.estacoes() * tamanhos.trancasPorEstacao();
+        long franquia = tarifario.getFranquiaMinutos();
+        double fixo = tarifario.getFixoCentavos() / 100.0;
+        List<DadosAluguel> alugueis = new ArrayList<>(quantos);
+        for (int j = 0; j < quantos; j++) {
+            long minutos = r.nextInt(100) < 85 ? r.nextLong(3, franquia + 1) : franquia + r.nextLong(1, 240);
+            LocalDateTime fim = referencia.minusMinutes(r.nextLong(1, 365L * 24 * 60));
+            LocalDateTime inicio = fim.minusMinutes(minutos);
+            long extra = tarifario.custoExtraCentavos(Tarifario.PLANO_PADRAO, Tarifario.horaSemana(inicio), minutos);
+            alugueis.add(new DadosAluguel(id(ALUGUEL, (long) i * MAXIMO_ALUGUEIS + j), id(CICLISTA, i),
+                    id(TRANCA, r.nextInt(trancas)), id(BICICLETA, r.nextInt(trancas)), inicio, fixo, fim,
+                    id(TRANCA, r.nextInt(trancas)), extra / 100.0));
+        }
+        return alugueis;
+    }
+
+    // --- Peças ---
+
+    private SplittableRandom aleatorio(int tipo, long indice) {
+        return new SplittableRandom(semente * 0x9E3779B97F4A7C15L + ((long) tipo << 56) + indice);
+    }
+
+    // UUID v4 com (tipo, índice) na metade baixa: único por construção e recalculável por referência
+    private UUID id(int tipo, long indice) {
+        long alto = (new SplittableRandom(semente ^ ((long) tipo << 56) ^ indice).nextLong() & ~0xF000L) | 0x4000L;
+        long baixo = 0x8000_0000_0000_0000L | ((long) tipo << 56) | indice;
+        return new UUID(alto, baixo);
+    }
+
+    private static String escolher(SplittableRandom r, String[] opcoes) {
+        return opcoes[r.nextInt(opcoes.length)];
+    }
+
+    private Date data(LocalDateTime instante) {
+        return Date.from(instante.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    // 8 a 12 caracteres, com pelo menos uma minúscula e uma maiúscula
+    private static String senha(SplittableRandom r) {
+        char[] senha = new char[r.nextInt(8, 13)];
+        for (int k = 0; k < senha.length; k++) {
+            senha[k] = SENHA.charAt(r.nextInt(SENHA.length()));
+        }
+        int minuscula = r.nextInt(senha.length);
+        int maiuscula = (minuscula + 1 + r.nextInt(senha.length - 1)) % senha.length;
+        senha[minuscula] = (char) ('a' + r.nextInt(26));
+        senha[maiuscula] = (char) ('A' + r.nextInt(26));
+        return new String(senha);
+    }
+
+    // CPF com os dois dígitos verificadores; base (até 9 dígitos) distinta dá CPF distinto
+    static String cpf(long base) {
+        int[] d = new int[11];
+        for (int k = 8; k >= 0; k--) {
+            d[k] = (int) (base % 10);
+            base /= 10;
+        }
+        d[9] = digitoCpf(d, 9);
+        d[10] = digitoCpf(d, 10);
+        StringBuilder cpf = new StringBuilder(11);
+        for (int digito : d) {
+            cpf.append(digito);
+        }
+        return cpf.toString();
+    }
+
+    private static int digitoCpf(int[] d, int n) {
+        int soma = 0;
+        for (int k = 0; k < n; k++) {
+            soma += d[k] * (n + 1 - k);
+        }
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+
+    // 16 dígitos começando por 4, com dígito de Luhn
+    private static String numeroCartao(SplittableRandom r) {
+        int[] d = new int[16];
+        d[0] = 4;
+        for (int k = 1; k < 15; k++) {
+            d[k] = r.nextInt(10);
+        }
+        int soma = 0;
+        for (int k = 14; k >= 0; k--) {
+            int valor = (14 - k) % 2 == 0 ? d[k] * 2 : d[k];
+            soma += valor > 9 ? valor - 9 : valor;
+        }
+        d[15] = (10 - soma % 10) % 10;
+        StringBuilder numero = new StringBuilder(16);
+        for (int digito : d) {
+            numero.append(digito);
+        }
+        return numero.toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Uso: GeradorDataset <arquivo.smile|arquivo.json|-> <ciclistas> [semente]");
+            System.exit(2);
+        }
+        long semente = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        GeradorDataset gerador = new GeradorDataset(semente, Tamanhos.para(Integer.parseInt(args[1])));
+        long inicio = System.nanoTime();
+        if (args[0].equals("-")) {
+            Epoca epoca = gerador.gerar();
+            System.out.printf("Dataset em memória em %d ms: %s%n", (System.nanoTime() - inicio) / 1_000_000, epoca.tamanhos());
+            return;
+        }
+        Path arquivo = Path.of(args[0]);
+        gerador.escrever(arquivo);
+        System.out.printf("Dataset em %s (%.1f MB) em %d ms%n", arquivo, Files.size(arquivo) / 1e6,
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+}
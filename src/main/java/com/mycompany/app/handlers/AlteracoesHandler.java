@@ -0,0 +1,52 @@
+package com.mycompany.app.handlers;
+
+import com.mycompany.app.eventos.FeedAlteracoes;
+import com.mycompany.app.eventos.FiltroAlteracoes;
+import io.javalin.http.Context;
+import io.javalin.http.sse.SseClient;
+
+import java.util.function.Consumer;
+
+public class AlteracoesHandler {
+
+    // GET /alteracoes?topicos=aluguel,ciclista&ciclista={id}&desde={offset} - feed SSE
+    // Ao reconectar, o cabeçalho Last-Event-ID (enviado pelo EventSource) tem precedência sobre ?desde=.
+    public static final Consumer<SseClient> assinar = cliente -> {
+        Context ctx = cliente.ctx();
+        FiltroAlteracoes filtro;
+        Long ultimoOffset;
+        try {
+            filtro = FiltroAlteracoes.de(ctx.queryParam("topicos"), ctx.queryParam("ciclista"));
+            ultimoOffset = ultimoOffset(ctx);
+        } catch (IllegalArgumentException e) {
+            // o cabeçalho 200 do SSE já foi enviado: o erro vai como evento
+            cliente.sendEvent("erro", e.getMessage());
+            cliente.close();
+            return;
+        }
+
+        cliente.keepAlive();
+        FeedAlteracoes.Assinatura assinatura = FeedAlteracoes.principal().assinar(filtro, ultimoOffset,
+                new FeedAlteracoes.Destino() {
+                    @Override
+                    public void enviar(String evento, String dados, long offset) {
+                        cliente.sendEvent(evento, dados, Long.toString(offset));
+                    }
+
+                    @Override
+                    public void fechar() {
+                        cliente.close();
+                    }
+                });
+        cliente.onClose(assinatura::cancelar);
+    };
+
+    // NumberFormatException é uma IllegalArgumentException
+    private static Long ultimoOffset(Context ctx) {
+        String valor = ctx.header("Last-Event-ID");
+        if (valor == null || valor.isBlank()) {
+            valor = ctx.queryParam("desde");
+        }
+        return valor == null || valor.isBlank() ? null : Long.parseLong(valor.trim());
+    }
+}
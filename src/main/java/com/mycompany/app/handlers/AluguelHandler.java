@@ -1,9 +1,13 @@
 package com.mycompany.app.handlers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.acesso.LogAcesso;
 import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.tarifas.Tarifario;
 import io.javalin.http.Handler;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
 import java.util.UUID;
 
@@ -15,7 +19,7 @@ public class AluguelHandler {
     // POST /aluguel - Realizar aluguel
     public static final Handler realizarAluguel = ctx -> {
         try {
-            Map<String, Object> dados = mapper.readValue(ctx.body(), Map.class);
+            Map<String, Object> dados = Formatos.ler(ctx, mapper, Map.class);
 
             // Requeridos: ciclista e trancaInicio
             String ciclistaIdString = (String) dados.get("ciclista");
@@ -28,10 +32,12 @@ public class AluguelHandler {
 
             UUID ciclistaId = UUID.fromString(ciclistaIdString);
             UUID trancaInicioId = UUID.fromString(trancaInicioIdString);
+            LogAcesso.ciclista(ctx, ciclistaId);
 
             Aluguel aluguel = Aluguel.realizarAluguel(ciclistaId, trancaInicioId);
 
-            ctx.status(OK).json(aluguel);
+            ctx.status(OK);
+            Formatos.responder(ctx, aluguel);
 
         } catch (IllegalArgumentException e) {
             ctx.status(UNPROCESSABLE_CONTENT).result("ID de ciclista ou tranca inválido (deve ser um UUID válido).");
@@ -46,7 +52,7 @@ public class AluguelHandler {
     // POST /devolucao - Realizar devolução
     public static final Handler realizarDevolucao = ctx -> {
         try {
-            Map<String, Object> dados = mapper.readValue(ctx.body(), Map.class);
+            Map<String, Object> dados = Formatos.ler(ctx, mapper, Map.class);
 
             String idTrancaString = (String) dados.get("idTranca");
             String idBicicletaString = (String) dados.get("idBicicleta");
@@ -60,8 +66,10 @@ public class AluguelHandler {
             UUID idBicicleta = UUID.fromString(idBicicletaString);
 
             Aluguel devolucao = Aluguel.realizarDevolucao(idTranca, idBicicleta);
+            LogAcesso.ciclista(ctx, devolucao.getCiclistaId());
 
-            ctx.status(OK).json(devolucao);
+            ctx.status(OK);
+            Formatos.responder(ctx, devolucao);
 
         } catch (IllegalArgumentException e) {
             ctx.status(UNPROCESSABLE_CONTENT).result("ID inválido: " + e.getMessage());
@@ -73,8 +81,35 @@ public class AluguelHandler {
         }
     };
 
+    // POST /aluguel/reprecificacao?data=yyyy-MM-dd[&plano=] - simula as devoluções do dia com as
+    // tarifas atuais ou com as regras do corpo (formato tarifas.properties, por cima das atuais)
+    public static final Handler reprecificarDevolucoes = ctx -> {
+        try {
+            String data = ctx.queryParam("data");
+            LocalDate dia = data == null ? LocalDate.now() : LocalDate.parse(data);
+
+            Tarifario tarifario = ctx.body().isBlank() ? Tarifario.atual() : Tarifario.atual().com(ctx.body());
+            String nomePlano = ctx.queryParam("plano");
+            int plano = nomePlano == null ? Tarifario.PLANO_PADRAO : tarifario.plano(nomePlano);
+            if (plano < 0) {
+                ctx.status(UNPROCESSABLE_CONTENT).result("Plano desconhecido: " + nomePlano);
+                return;
+            }
+
+            ctx.status(OK).json(Aluguel.reprecificarDevolvidosEm(dia, tarifario, plano));
+
+        } catch (DateTimeParseException e) {
+            ctx.status(UNPROCESSABLE_CONTENT).result("Data inválida (use yyyy-MM-dd).");
+        } catch (IllegalArgumentException e) {
+            ctx.status(UNPROCESSABLE_CONTENT).result("Regras de tarifa inválidas: " + e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            ctx.status(BAD_REQUEST).result("Erro ao processar a requisição: " + e.getMessage());
+        }
+    };
+
     public static final Handler restaurar = ctx -> {
         Aluguel.restaurar();
         ctx.status(OK).result("Banco de dados de aluguéis restaurado.");
     };
-}
\ No newline at end of file
+}
\ No newline at end of file
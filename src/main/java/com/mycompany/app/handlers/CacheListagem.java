@@ -0,0 +1,164 @@
+package com.mycompany.app.handlers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.json.JavalinJackson;
+import jakarta.servlet.ServletOutputStream;
+import org.eclipse.jetty.server.HttpOutput;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static io.javalin.http.HttpStatus.OK;
+
+/**
+ * Corpo pronto (JSON e JSON em gzip) de uma listagem completa, guardado enquanto o storage não
+ * muda. A chave é o contador de versão do storage, que avança em qualquer alteração; a primeira
+ * requisição depois de uma alteração remonta o corpo e as seguintes só o escrevem.
+ *
+ * Os corpos ficam em buffers diretos escritos com {@link HttpOutput#sendContent(ByteBuffer)},
+ * sem cópia para a saída nem compressão por requisição (o Javalin não recomprime uma resposta
+ * que já tem Content-Encoding). Abaixo de {@code minimoBytes} a versão gzip nem é gerada.
+ */
+public class CacheListagem {
+
+    static final int MINIMO_BYTES_PADRAO = 1500;
+
+    // O mesmo mapper do ctx.json, para o corpo sair igual ao de antes do cache
+    private static final ObjectMapper mapper = JavalinJackson.defaultMapper();
+
+    private record Corpos(long versao, ByteBuffer identidade, ByteBuffer gzip) {
+    }
+
+    private final LongSupplier versao;
+    private final Supplier<?> listagem;
+    private final int minimoBytes;
+    private final int nivel;
+    private volatile Corpos atual;
+    private long reconstrucoes; // guardado por this
+
+    public CacheListagem(LongSupplier versao, Supplier<?> listagem) {
+        this(versao, listagem,
+                Integer.getInteger("aluguel.compressao.minimoBytes", MINIMO_BYTES_PADRAO),
+                Integer.getInteger("aluguel.compressao.nivel", Deflater.DEFAULT_COMPRESSION));
+    }
+
+    public CacheListagem(LongSupplier versao, Supplier<?> listagem, int minimoBytes, int nivel) {
+        if (minimoBytes < 0 || nivel < Deflater.DEFAULT_COMPRESSION || nivel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("minimoBytes deve ser >= 0 e nivel entre -1 e 9.");
+        }
+        this.versao = versao;
+        this.listagem = listagem;
+        this.minimoBytes = minimoBytes;
+        this.nivel = nivel;
+    }
+
+    public void responder(Context ctx) throws IOException {
+        Corpos corpos = corpos();
+        boolean gzip = corpos.gzip() != null && aceitaGzip(ctx.header(Header.ACCEPT_ENCODING));
+        ByteBuffer corpo = (gzip ? corpos.gzip() : corpos.identidade()).duplicate();
+
+        ctx.status(OK);
+        ctx.contentType(ContentType.APPLICATION_JSON);
+        ctx.header(Header.VARY, Header.ACCEPT_ENCODING);
+        if (gzip) {
+            ctx.header(Header.CONTENT_ENCODING, "gzip");
+        }
+        ctx.res().setContentLength(corpo.remaining());
+        ServletOutputStream saida = ctx.res().getOutputStream();
+        if (saida instanceof HttpOutput jetty) {
+            jetty.sendContent(corpo);
+        } else {
+            Channels.newChannel(saida).write(corpo);
+        }
+    }
+
+    public synchronized long getReconstrucoes() {
+        return reconstrucoes;
+    }
+
+    private Corpos corpos() throws IOException {
+        Corpos corpos = atual;
+        long versaoAtual = versao.getAsLong();
+        if (corpos != null && corpos.versao() == versaoAtual) {
+            return corpos;
+        }
+        synchronized (this) {
+            corpos = atual;
+            // lida antes da listagem: uma alteração no meio só faz a próxima requisição remontar
+            versaoAtual = versao.getAsLong();
+            if (corpos == null || corpos.versao() != versaoAtual) {
+                corpos = montar(versaoAtual);
+                atual = corpos;
+                reconstrucoes++;
+            }
+            return corpos;
+        }
+    }
+
+    private Corpos montar(long versaoLida) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(listagem.get());
+        ByteBuffer gzip = null;
+        if (json.length >= minimoBytes) {
+            byte[] comprimido = comprimir(json);
+            if (comprimido.length < json.length) {
+                gzip = direto(comprimido);
+            }
+        }
+        return new Corpos(versaoLida, direto(json), gzip);
+    }
+
+    private byte[] comprimir(byte[] json) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida, 8192) {
+            {
+                def.setLevel(nivel);
+            }
+        }) {
+            gzip.write(json);
+        }
+        return saida.toByteArray();
+    }
+
+    private static ByteBuffer direto(byte[] bytes) {
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().asReadOnlyBuffer();
+    }
+
+    // "gzip", "gzip;q=0.5", "*"; q=0 recusa, e um gzip explícito vale mais que o "*"
+    static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean curinga = null;
+        for (String item : acceptEncoding.split(",")) {
+            String[] partes = item.split(";");
+            String codificacao = partes[0].trim();
+            boolean aceita = true;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.startsWith("q=") || parametro.startsWith("Q=")) {
+                    try {
+                        aceita = Double.parseDouble(parametro.substring(2).trim()) > 0;
+                    } catch (NumberFormatException e) {
+                        aceita = false;
+                    }
+                }
+            }
+            if (codificacao.equalsIgnoreCase("gzip")) {
+                return aceita;
+            }
+            if (codificacao.equals("*")) {
+                curinga = aceita;
+            }
+        }
+        return Boolean.TRUE.equals(curinga);
+    }
+}
@@ -3,9 +3,11 @@ package com.mycompany.app.handlers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.app.models.CartaoCredito;
 import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.VersaoDesatualizadaException;
 import io.javalin.http.Handler;
 
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -29,7 +31,9 @@ public class CartaoCreditoHandler {
             CartaoCredito cartao = CartaoCredito.getCartaoCreditoPorCiclistaId(idCiclista);
 
             if (cartao != null) {
-                ctx.status(OK).json(cartao);
+                ControleVersao.definirETag(ctx, cartao.getVersao());
+                ctx.status(OK);
+                Formatos.responder(ctx, cartao);
             } else {
                 ctx.status(NOT_FOUND).result("Cartão de crédito não encontrado para este ciclista.");
             }
@@ -42,6 +46,19 @@ public class CartaoCreditoHandler {
         }
     };
 
+    // POST /cartaoDeCredito/batch - {"ids": [ids de ciclista]} -> {"<id>": cartão ou null, ...}
+    public static final Handler recuperarCartoesEmLote = ctx -> {
+        try {
+            List<UUID> ids = Lote.ids(ctx);
+            Lote.responder(ctx, ids, CartaoCredito.getCartoesPorCiclistaIds(ids));
+        } catch (IllegalArgumentException e) {
+            ctx.status(UNPROCESSABLE_CONTENT).result(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            ctx.status(INTERNAL_SERVER_ERROR).result("Erro interno ao buscar dados dos cartões.");
+        }
+    };
+
     // PUT /cartaoDeCredito/{idCiclista} - Alterar dados de cartão
     public static final Handler alterarCartaoPorCiclistaId = ctx -> {
         try {
@@ -53,7 +70,7 @@ public class CartaoCreditoHandler {
                 return;
             }
 
-            Map<String, Object> dados = mapper.readValue(ctx.body(), Map.class);
+            Map<String, Object> dados = Formatos.ler(ctx, mapper, Map.class);
             String nomeTitular = (String) dados.get("nomeTitular");
             String numero = (String) dados.get("numero");
             Date validade = new Date((Long) dados.get("validade"));
@@ -76,16 +93,31 @@ public class CartaoCreditoHandler {
                 return;
             }
 
+            // If-Match opcional: versão que o cliente leu antes de editar
+            Long versaoEsperada = ControleVersao.lerIfMatch(ctx);
+
             // 4. Salva/Atualiza os dados (PUT é usado para criar se não existe ou atualizar)
-            CartaoCredito cartaoAtualizado = CartaoCredito.alterarDadosCartao(idCiclista, nomeTitular, numero, validade, cvv);
+            CartaoCredito cartaoAtualizado = versaoEsperada == null
+                    ? CartaoCredito.alterarDadosCartao(idCiclista, nomeTitular, numero, validade, cvv)
+                    : CartaoCredito.alterarDadosCartao(idCiclista, versaoEsperada, nomeTitular, numero, validade, cvv);
+
+            if (cartaoAtualizado == null && versaoEsperada != null) {
+                // If-Match exige que o cartão já exista
+                ctx.status(PRECONDITION_FAILED).result("Cartão de crédito não encontrado para a versão informada.");
+                return;
+            }
 
             if (cartaoAtualizado == null) {
                 // Se não existia, cria um novo (seguindo a semântica de um PUT em REST)
                 cartaoAtualizado = new CartaoCredito(idCiclista, nomeTitular, numero, validade, cvv);
             }
 
-            ctx.status(OK).json(cartaoAtualizado);
+            ControleVersao.definirETag(ctx, cartaoAtualizado.getVersao());
+            ctx.status(OK);
+            Formatos.responder(ctx, cartaoAtualizado);
 
+        } catch (VersaoDesatualizadaException e) {
+            ctx.status(PRECONDITION_FAILED).result("Cartão alterado por outra requisição. " + e.getMessage());
         } catch (IllegalArgumentException e) {
             ctx.status(UNPROCESSABLE_CONTENT).result("ID de ciclista inválido (deve ser um UUID válido).");
         } catch (ClassCastException e) {
@@ -106,4 +138,4 @@ public class CartaoCreditoHandler {
             ctx.status(INTERNAL_SERVER_ERROR).result("Erro interno ao restaurar banco de dados.");
         }
     };
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,12 +1,18 @@
 package com.mycompany.app.handlers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.DocumentoEmUsoException;
+import com.mycompany.app.models.VersaoDesatualizadaException;
+import com.mycompany.app.util.LeituraCompartilhada;
+import io.javalin.http.ContentType;
 import io.javalin.http.Handler;
 
 import javax.net.ssl.HandshakeCompletedListener;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -16,11 +22,17 @@ public class CiclistaHandler {
 
     private static final ObjectMapper mapper = new ObjectMapper();
 
+    // Os totens das estações repetem estas consultas em rajadas para o mesmo ciclista: pedidos
+    // simultâneos compartilham um cálculo e o mesmo JSON; a geração do ciclista invalida na hora
+    private static final long JANELA_LEITURAS_MS = Long.getLong("aluguel.leituras.janelaMs", 250);
+    private static final LeituraCompartilhada<UUID> permiteAluguel = new LeituraCompartilhada<>(JANELA_LEITURAS_MS, 100_000);
+    private static final LeituraCompartilhada<UUID> bicicletaAlugada = new LeituraCompartilhada<>(JANELA_LEITURAS_MS, 100_000);
+
     // POST /ciclista - Cadastrar um ciclista
     public static final Handler cadastrarCiclista = ctx -> {
         try {
             // Converte o JSON recebido em um Map
-            Map<String, Object> dados = mapper.readValue(ctx.body(), Map.class);
+            Map<String, Object> dados = Formatos.ler(ctx, mapper, Map.class);
 
             String email = (String) dados.get("email");
             String nacionalidade = (String) dados.get("nacionalidade");
@@ -67,6 +79,11 @@ public class CiclistaHandler {
                 return;
             }
 
+            if (Ciclista.documentoEmUso(cpf, passaporte, pais, null)) {
+                ctx.status(CONFLICT).result("Documento já cadastrado para outro ciclista.");
+                return;
+            }
+
             if (!Ciclista.validarNome(nome)) {
                 ctx.status(UNPROCESSABLE_CONTENT).result("Informe o nome completo.");
                 return;
@@ -93,6 +110,9 @@ public class CiclistaHandler {
             // Retorna resposta de sucesso
             ctx.status(CREATED).result("Ciclista cadastrado");
 
+        } catch (DocumentoEmUsoException e) {
+            // Outro cadastro com o mesmo documento ganhou a corrida depois da validação
+            ctx.status(CONFLICT).result(e.getMessage());
         } catch (Exception e) {
             e.printStackTrace();
             ctx.status(BAD_REQUEST).result("Erro ao processar a requisição: " + e.getMessage());
@@ -128,7 +148,9 @@ public class CiclistaHandler {
 
             if (ciclista != null) {
                 // HTTP 200 - OK
-                ctx.json(ciclista).status(OK);
+                ControleVersao.definirETag(ctx, ciclista.getVersao());
+                ctx.status(OK);
+                Formatos.responder(ctx, ciclista);
             } else {
                 // HTTP 404 - Not Found
                 ctx.status(NOT_FOUND).result("Ciclista não encontrado.");
@@ -144,6 +166,19 @@ public class CiclistaHandler {
         }
     };
 
+    // POST /ciclista/batch - {"ids": [...]} -> {"<id>": ciclista ou null, ...}
+    public static final Handler recuperarCiclistasEmLote = ctx -> {
+        try {
+            List<UUID> ids = Lote.ids(ctx);
+            Lote.responder(ctx, ids, Ciclista.getCiclistasPorIds(ids));
+        } catch (IllegalArgumentException e) {
+            ctx.status(UNPROCESSABLE_CONTENT).result(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            ctx.status(INTERNAL_SERVER_ERROR).result("Erro interno ao buscar ciclistas.");
+        }
+    };
+
     public static final Handler restaurar = ctx -> {
         try {
             Ciclista.restaurar();
@@ -166,8 +201,11 @@ public class CiclistaHandler {
                 return;
             }
 
+            // If-Match opcional: versão que o cliente leu antes de editar
+            Long versaoEsperada = ControleVersao.lerIfMatch(ctx);
+
             // Converte o JSON recebido em um Map
-            Map<String, Object> dados = mapper.readValue(ctx.body(), Map.class);
+            Map<String, Object> dados = Formatos.ler(ctx, mapper, Map.class);
 
             UUID id = (UUID) dados.get("id");
             String email = (String) dados.get("email");
@@ -216,6 +254,11 @@ public class CiclistaHandler {
                 return;
             }
 
+            if (Ciclista.documentoEmUso(cpf, passaporte, pais, idCiclista)) {
+                ctx.status(CONFLICT).result("Documento já cadastrado para outro ciclista.");
+                return;
+            }
+
             if (!Ciclista.validarNome(nome)) {
                 ctx.status(UNPROCESSABLE_CONTENT).result("Informe o nome completo.");
                 return;
@@ -226,7 +269,8 @@ public class CiclistaHandler {
                 return;
             }
 
-            ciclistaParaAlterar.alterarDados(
+            Ciclista ciclistaAlterado = ciclistaParaAlterar.alterarDados(
+                    versaoEsperada,
                     email,
                     nacionalidade,
                     cpf,
@@ -239,8 +283,14 @@ public class CiclistaHandler {
                     urlFoto
             );
 
-            ctx.status(OK).json(ciclistaParaAlterar);
+            ControleVersao.definirETag(ctx, ciclistaAlterado.getVersao());
+            ctx.status(OK);
+            Formatos.responder(ctx, ciclistaAlterado);
 
+        } catch (VersaoDesatualizadaException e) {
+            ctx.status(PRECONDITION_FAILED).result("Ciclista alterado por outra requisição. " + e.getMessage());
+        } catch (DocumentoEmUsoException e) {
+            ctx.status(CONFLICT).result(e.getMessage());
         } catch (IllegalArgumentException e) {
             // Captura erro se a String não for um UUID válido (422)
             ctx.status(UNPROCESSABLE_CONTENT).result("ID de ciclista inválido (deve ser um UUID válido).");
@@ -278,13 +328,17 @@ public class CiclistaHandler {
             String idString = ctx.pathParam("idCiclista");
             UUID idCiclista = UUID.fromString(idString);
 
-            Ciclista ciclistaParaValidar = Ciclista.getCiclistaPorId(idCiclista);
-            if (ciclistaParaValidar == null) { // <--- Essencial para retornar o 404 correto!
+            byte[] corpo = permiteAluguel.obter(idCiclista, Ciclista.geracaoLeitura(idCiclista), () -> {
+                Ciclista ciclistaParaValidar = Ciclista.getCiclistaPorId(idCiclista);
+                return ciclistaParaValidar == null ? null : json(ciclistaParaValidar.verificarPermissaoAluguel());
+            });
+            if (corpo == null) { // <--- Essencial para retornar o 404 correto!
                 ctx.status(NOT_FOUND).result("Ciclista não encontrado.");
                 return;
             }
 
-            ctx.status(OK).json(ciclistaParaValidar.verificarPermissaoAluguel());
+            ctx.contentType(ContentType.APPLICATION_JSON);
+            ctx.status(OK).result(corpo);
         } catch (IllegalArgumentException e) {
             // Captura erro se a String não for um UUID válido (422)
             ctx.status(UNPROCESSABLE_CONTENT).result("ID de ciclista inválido (deve ser um UUID válido).");
@@ -299,13 +353,17 @@ public class CiclistaHandler {
             String idString = ctx.pathParam("idCiclista");
             UUID idCiclista = UUID.fromString(idString);
 
-            Ciclista ciclista = Ciclista.getCiclistaPorId(idCiclista);
-            if (ciclista == null) { // <--- Essencial para retornar o 404 correto!
+            byte[] corpo = bicicletaAlugada.obter(idCiclista, Ciclista.geracaoLeitura(idCiclista), () -> {
+                Ciclista ciclista = Ciclista.getCiclistaPorId(idCiclista);
+                return ciclista == null ? null : json(ciclista.retornarBicicletaAlugada());
+            });
+            if (corpo == null) { // <--- Essencial para retornar o 404 correto!
                 ctx.status(NOT_FOUND).result("Ciclista não encontrado.");
                 return;
             }
 
-            ctx.status(OK).json(ciclista.retornarBicicletaAlugada());
+            ctx.contentType(ContentType.APPLICATION_JSON);
+            ctx.status(OK).result(corpo);
         } catch (IllegalArgumentException e) {
             // Captura erro se a String não for um UUID válido (422)
             ctx.status(UNPROCESSABLE_CONTENT).result("ID de ciclista inválido (deve ser um UUID válido).");
@@ -314,7 +372,56 @@ public class CiclistaHandler {
             ctx.status(BAD_REQUEST).result("Erro ao processar a requisição: " + e.getMessage());
         }
     };
+
+    private static byte[] json(Object valor) {
+        try {
+            return mapper.writeValueAsBytes(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // GET /ciclista/busca?q=&pagina=&tamanho= : prefixo de qualquer palavra do nome
+    public static final Handler buscarCiclistas = ctx -> {
+        try {
+            String termo = ctx.queryParam("q");
+            if (termo == null || termo.isBlank()) {
+                ctx.status(UNPROCESSABLE_CONTENT).result("Parâmetro de busca 'q' obrigatório.");
+                return;
+            }
+            ctx.status(OK).json(Ciclista.buscarPorNome(termo, Paginacao.pagina(ctx), Paginacao.tamanho(ctx)));
+        } catch (NumberFormatException e) {
+            ctx.status(UNPROCESSABLE_CONTENT).result("Parâmetros de paginação inválidos.");
+        } catch (Exception e) {
+            e.printStackTrace();
+            ctx.status(INTERNAL_SERVER_ERROR).result("Erro interno ao buscar ciclistas.");
+        }
+    };
+
+    // GET /ciclista sem filtro: corpo pronto até a próxima alteração de algum ciclista
+    static final CacheListagem listagem = new CacheListagem(Ciclista::versaoStorage, Ciclista::listarTodos);
+
+    // GET /ciclista - Lista todos, ou busca pelo índice de documento com ?cpf= ou ?passaporte=&pais=
     public static final Handler listarCiclistas = ctx -> {
-        ctx.json(Ciclista.listarTodos());
+        String cpf = ctx.queryParam("cpf");
+        String passaporte = ctx.queryParam("passaporte");
+
+        if (cpf == null && passaporte == null) {
+            listagem.responder(ctx);
+            return;
+        }
+
+        Ciclista ciclista = cpf != null
+                ? Ciclista.buscarPorCpf(cpf)
+                : Ciclista.buscarPorPassaporte(passaporte, ctx.queryParam("pais"));
+
+        if (ciclista == null) {
+            ctx.status(NOT_FOUND).result("Ciclista não encontrado para o documento informado.");
+            return;
+        }
+
+        ControleVersao.definirETag(ctx, ciclista.getVersao());
+        ctx.status(OK);
+        Formatos.responder(ctx, ciclista);
     };
-}
\ No newline at end of file
+}
\ No newline at end of file
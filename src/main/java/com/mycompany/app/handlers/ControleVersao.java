@@ -0,0 +1,45 @@
+package com.mycompany.app.handlers;
+
+import io.javalin.http.Context;
+
+/**
+ * Utilitários de controle de concorrência otimista via ETag / If-Match.
+ * A ETag de uma entidade é simplesmente o seu número de versão entre aspas.
+ */
+public class ControleVersao {
+
+    // Versão que nunca corresponde a nenhuma entidade (If-Match malformado)
+    static final long VERSAO_INVALIDA = -1L;
+
+    private ControleVersao() {
+    }
+
+    // Retorna a versão esperada pelo cliente, ou null quando não há pré-condição
+    public static Long lerIfMatch(Context ctx) {
+        String ifMatch = ctx.header("If-Match");
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+
+        String valor = ifMatch.trim();
+        if (valor.equals("*")) {
+            return null;
+        }
+        if (valor.startsWith("W/")) {
+            valor = valor.substring(2);
+        }
+        if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            valor = valor.substring(1, valor.length() - 1);
+        }
+
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            return VERSAO_INVALIDA;
+        }
+    }
+
+    public static void definirETag(Context ctx, long versao) {
+        ctx.header("ETag", "\"" + versao + "\"");
+    }
+}
@@ -0,0 +1,19 @@
+package com.mycompany.app.handlers;
+
+import io.javalin.http.ExceptionHandler;
+
+/**
+ * Encerra a cadeia de handlers quando a resposta já foi escrita num before (repassada ao dono
+ * da chave, redirecionada ao líder). Diferente de skipRemainingHandlers, que descarta também
+ * os after, a exceção pula só o endpoint: a liberação da prontidão continua rodando.
+ */
+public final class Encaminhada extends RuntimeException {
+
+    // Registrado em App: nada a fazer, a resposta já foi escrita
+    public static final ExceptionHandler<Encaminhada> handler = (e, ctx) -> {
+    };
+
+    public Encaminhada() {
+        super(null, null, false, false);
+    }
+}
@@ -0,0 +1,65 @@
+package com.mycompany.app.handlers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.models.Estacao;
+import io.javalin.http.Handler;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static io.javalin.http.HttpStatus.*;
+
+public class EstacaoHandler {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // POST /estacao - Cadastra uma estação com {"trancas": n, "bicicletas": m} (bicicletas novas nas primeiras trancas)
+    public static final Handler cadastrarEstacao = ctx -> {
+        try {
+            Map<String, Object> dados = mapper.readValue(ctx.body(), Map.class);
+
+            if (!(dados.get("trancas") instanceof Integer trancas)) {
+                ctx.status(UNPROCESSABLE_CONTENT).result("Campo 'trancas' obrigatório (número inteiro).");
+                return;
+            }
+            Object bicicletas = dados.getOrDefault("bicicletas", 0);
+            if (!(bicicletas instanceof Integer)) {
+                ctx.status(UNPROCESSABLE_CONTENT).result("Campo 'bicicletas' deve ser um número inteiro.");
+                return;
+            }
+
+            Estacao estacao = Estacao.cadastrar(trancas, (Integer) bicicletas);
+            ctx.status(CREATED).json(estacao);
+
+        } catch (IllegalArgumentException e) {
+            ctx.status(UNPROCESSABLE_CONTENT).result(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            ctx.status(BAD_REQUEST).result("Erro ao processar a requisição: " + e.getMessage());
+        }
+    };
+
+    // GET /estacao - Estações com trancas e disponibilidade
+    public static final Handler listarEstacoes = ctx -> {
+        ctx.status(OK).json(Estacao.listarTodas());
+    };
+
+    // GET /estacao/{idEstacao}
+    public static final Handler recuperarEstacao = ctx -> {
+        try {
+            Estacao estacao = Estacao.getEstacao(UUID.fromString(ctx.pathParam("idEstacao")));
+            if (estacao == null) {
+                ctx.status(NOT_FOUND).result("Estação não encontrada.");
+                return;
+            }
+            ctx.status(OK).json(estacao);
+        } catch (IllegalArgumentException e) {
+            ctx.status(UNPROCESSABLE_CONTENT).result("ID de estação inválido (deve ser um UUID válido).");
+        }
+    };
+
+    public static final Handler restaurar = ctx -> {
+        Estacao.restaurar();
+        ctx.status(OK).result("Banco de dados de estações restaurado.");
+    };
+}
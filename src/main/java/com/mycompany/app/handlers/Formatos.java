@@ -0,0 +1,107 @@
+package com.mycompany.app.handlers;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.json.JavalinJackson;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Negociação de formato das rotas usadas pelos outros serviços (Equipamento, Cobrança): além
+ * de JSON, o corpo pode ir e vir em CBOR ou Smile, escolhidos por Accept e Content-Type.
+ * Os mapeadores binários são cópias do mapper do ctx.json, então os campos (e datas) saem
+ * iguais aos do JSON; só muda a codificação.
+ *
+ * Sem Accept pedindo um formato binário com preferência maior que a do JSON a resposta é o
+ * ctx.json de sempre, e um corpo sem Content-Type binário continua sendo lido como JSON.
+ */
+public class Formatos {
+
+    public static final String CBOR = "application/cbor";
+    public static final String SMILE = "application/x-jackson-smile";
+
+    private static final ObjectMapper cbor = binario(new CBORFactory());
+    private static final ObjectMapper smile = binario(new SmileFactory());
+
+    private Formatos() {
+    }
+
+    // UUID continua texto: nos formatos binários o Jackson o gravaria como 16 bytes, e quem lê
+    // (ou manda de volta num corpo) teria um campo diferente do JSON
+    private static ObjectMapper binario(JsonFactory fabrica) {
+        ObjectMapper mapper = JavalinJackson.defaultMapper().copyWith(fabrica);
+        mapper.configOverride(UUID.class).setFormat(JsonFormat.Value.forShape(JsonFormat.Shape.STRING));
+        return mapper;
+    }
+
+    // Corpo da requisição: CBOR/Smile pelo Content-Type, senão JSON com o mapper do handler
+    public static <T> T ler(Context ctx, ObjectMapper json, Class<T> tipo) throws IOException {
+        ObjectMapper binario = mapper(ctx.contentType());
+        return binario != null ? binario.readValue(ctx.bodyAsBytes(), tipo) : json.readValue(ctx.body(), tipo);
+    }
+
+    // Resposta 200 no formato pedido pelo Accept
+    public static void responder(Context ctx, Object valor) throws IOException {
+        String tipo = preferido(ctx.header(Header.ACCEPT));
+        ctx.header(Header.VARY, Header.ACCEPT);
+        if (tipo == null) {
+            ctx.json(valor);
+            return;
+        }
+        ctx.contentType(tipo);
+        ctx.result(mapper(tipo).writeValueAsBytes(valor));
+    }
+
+    public static ObjectMapper mapper(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String tipo = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        return switch (tipo) {
+            case CBOR -> cbor;
+            case SMILE -> smile;
+            default -> null;
+        };
+    }
+
+    // Tipo binário escolhido ou null para JSON; empate fica com o JSON
+    static String preferido(String accept) {
+        if (accept == null) {
+            return null;
+        }
+        double qJson = 0, qCbor = 0, qSmile = 0;
+        for (String item : accept.split(",")) {
+            String[] partes = item.split(";");
+            String tipo = partes[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(parametro.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            switch (tipo) {
+                case "application/json", "application/*", "*/*" -> qJson = Math.max(qJson, q);
+                case CBOR -> qCbor = q;
+                case SMILE -> qSmile = q;
+                default -> {
+                }
+            }
+        }
+        if (qCbor > qJson && qCbor >= qSmile) {
+            return CBOR;
+        }
+        return qSmile > qJson ? SMILE : null;
+    }
+}
@@ -1,6 +1,7 @@
 package com.mycompany.app.handlers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.app.models.Funcionario;
+import com.mycompany.app.models.VersaoDesatualizadaException;
 import io.javalin.http.Handler;
 
 import java.util.Map;
@@ -48,6 +49,11 @@ public class FuncionarioHandler {
                 return;
             }
 
+            if (!Funcionario.validarFuncao(funcao)) {
+                ctx.status(UNPROCESSABLE_CONTENT).result("Função inválida.");
+                return;
+            }
+
             Funcionario novo = new Funcionario(
                     senha,
                     confirmaSenha,
@@ -80,6 +86,9 @@ public class FuncionarioHandler {
                 return;
             }
 
+            // If-Match opcional: versão que o cliente leu antes de editar
+            Long versaoEsperada = ControleVersao.lerIfMatch(ctx);
+
             // Converte o JSON recebido em um Map
             Map<String, Object> dados = mapper.readValue(ctx.body(), Map.class);
 
@@ -125,8 +134,15 @@ public class FuncionarioHandler {
                 return;
             }
 
+            // 5. Validação de Função
+            if (!Funcionario.validarFuncao(funcao)) {
+                ctx.status(UNPROCESSABLE_CONTENT).result("Função inválida.");
+                return;
+            }
+
             // Chama o método de atualização do modelo
-            funcionarioParaAlterar.alterarDados(
+            Funcionario funcionarioAlterado = funcionarioParaAlterar.alterarDados(
+                    versaoEsperada,
                     senha,
                     confirmaSenha,
                     email,
@@ -137,8 +153,11 @@ public class FuncionarioHandler {
             );
 
             // Retorna o objeto atualizado e o status 200 OK
-            ctx.status(OK).json(funcionarioParaAlterar);
+            ControleVersao.definirETag(ctx, funcionarioAlterado.getVersao());
+            ctx.status(OK).json(funcionarioAlterado);
 
+        } catch (VersaoDesatualizadaException e) {
+            ctx.status(PRECONDITION_FAILED).result("Funcionário alterado por outra requisição. " + e.getMessage());
         } catch (IllegalArgumentException e) {
             // Captura erro se a String não for um UUID válido (422)
             ctx.status(UNPROCESSABLE_CONTENT).result("ID de funcionário inválido (deve ser um UUID válido).");
@@ -149,9 +168,20 @@ public class FuncionarioHandler {
     };
 
     // GET /funcionario - Listar todos os funcionários
+    // GET /funcionario (opcional: ?funcao=&pagina=&tamanho=)
+    // GET /funcionario sem filtro: corpo pronto até a próxima alteração de algum funcionário
+    static final CacheListagem listagem = new CacheListagem(Funcionario::versaoStorage, Funcionario::listarTodos);
+
     public static final Handler listarFuncionarios = ctx -> {
         try {
-            ctx.status(OK).json(Funcionario.listarTodos());
+            String funcao = ctx.queryParam("funcao");
+            if (funcao != null) {
+                ctx.status(OK).json(Funcionario.listarPorFuncao(funcao, Paginacao.pagina(ctx), Paginacao.tamanho(ctx)));
+                return;
+            }
+            listagem.responder(ctx);
+        } catch (NumberFormatException e) {
+            ctx.status(UNPROCESSABLE_CONTENT).result("Parâmetros de paginação inválidos.");
         } catch (Exception e) {
             e.printStackTrace();
             ctx.status(INTERNAL_SERVER_ERROR).result("Erro interno ao listar funcionários.");
@@ -159,9 +189,41 @@ public class FuncionarioHandler {
     };
 
     // GET /funcionario/{idFuncionario} - Recuperar funcionário por ID
+    // GET /funcionario/contagem - quantidade de funcionários por função (?funcao= para uma só)
+    public static final Handler contarFuncionariosPorFuncao = ctx -> {
+        try {
+            String funcao = ctx.queryParam("funcao");
+            if (funcao != null) {
+                ctx.status(OK).json(Map.of("funcao", funcao, "quantidade", Funcionario.contarPorFuncao(funcao)));
+                return;
+            }
+            ctx.status(OK).json(Funcionario.contagemPorFuncao());
+        } catch (Exception e) {
+            e.printStackTrace();
+            ctx.status(INTERNAL_SERVER_ERROR).result("Erro interno ao contar funcionários.");
+        }
+    };
+
+    // GET /funcionario/busca?q=&pagina=&tamanho= : prefixo de palavra do nome ou do email
+    public static final Handler buscarFuncionarios = ctx -> {
+        try {
+            String termo = ctx.queryParam("q");
+            if (termo == null || termo.isBlank()) {
+                ctx.status(UNPROCESSABLE_CONTENT).result("Parâmetro de busca 'q' obrigatório.");
+                return;
+            }
+            ctx.status(OK).json(Funcionario.buscar(termo, Paginacao.pagina(ctx), Paginacao.tamanho(ctx)));
+        } catch (NumberFormatException e) {
+            ctx.status(UNPROCESSABLE_CONTENT).result("Parâmetros de paginação inválidos.");
+        } catch (Exception e) {
+            e.printStackTrace();
+            ctx.status(INTERNAL_SERVER_ERROR).result("Erro interno ao buscar funcionários.");
+        }
+    };
+
     public static final Handler recuperarFuncionarioPorMatricula = ctx -> {
         try {
-            String idString = ctx.pathParam("matriculaFuncionario");
+            String idString = ctx.pathParam("idFuncionario");
 
             UUID idFuncionario = UUID.fromString(idString);
 
@@ -169,6 +231,7 @@ public class FuncionarioHandler {
 
             if (funcionario != null) {
                 // HTTP 200 - OK
+                ControleVersao.definirETag(ctx, funcionario.getVersao());
                 ctx.status(OK).json(funcionario);
             } else {
                 // HTTP 404 - Not Found
@@ -0,0 +1,72 @@
+package com.mycompany.app.handlers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+import io.javalin.json.JavalinJackson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static io.javalin.http.HttpStatus.OK;
+
+/**
+ * Corpo e resposta das rotas de busca em lote (POST .../batch): recebe {"ids": [...]} e devolve
+ * um objeto com uma chave por id, na ordem pedida, valendo o recurso ou null se não existe.
+ * A resposta é escrita direto na saída, item a item, sem montar o documento inteiro antes.
+ */
+public class Lote {
+
+    static final int MAXIMO_IDS = 1000;
+
+    // O mesmo mapper do ctx.json, para cada item sair igual ao GET individual
+    private static final ObjectMapper mapper = JavalinJackson.defaultMapper();
+
+    private Lote() {
+    }
+
+    // Ids sem repetição, na ordem do corpo; IllegalArgumentException com a mensagem para o 422
+    public static List<UUID> ids(Context ctx) {
+        JsonNode ids;
+        try {
+            ids = mapper.readTree(ctx.body()).get("ids");
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corpo deve ser {\"ids\": [...]}.");
+        }
+        if (ids == null || !ids.isArray()) {
+            throw new IllegalArgumentException("Corpo deve ser {\"ids\": [...]}.");
+        }
+        if (ids.size() > MAXIMO_IDS) {
+            throw new IllegalArgumentException("No máximo " + MAXIMO_IDS + " ids por lote.");
+        }
+        Set<UUID> unicos = new LinkedHashSet<>();
+        for (JsonNode id : ids) {
+            try {
+                unicos.add(UUID.fromString(id.asText()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("ID inválido no lote: " + id.asText());
+            }
+        }
+        return new ArrayList<>(unicos);
+    }
+
+    // valores.get(i) é o recurso de ids.get(i) ou null
+    public static void responder(Context ctx, List<UUID> ids, List<?> valores) throws IOException {
+        ctx.status(OK);
+        ctx.contentType(ContentType.APPLICATION_JSON);
+        try (JsonGenerator gerador = mapper.getFactory().createGenerator(ctx.outputStream())) {
+            gerador.writeStartObject();
+            for (int i = 0; i < ids.size(); i++) {
+                gerador.writeFieldName(ids.get(i).toString());
+                gerador.writeObject(valores.get(i));
+            }
+            gerador.writeEndObject();
+        }
+    }
+}
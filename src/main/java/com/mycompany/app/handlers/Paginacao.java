@@ -0,0 +1,27 @@
+package com.mycompany.app.handlers;
+
+import io.javalin.http.Context;
+
+/**
+ * Leitura dos parâmetros de paginação (?pagina=&tamanho=) das rotas de listagem e busca.
+ */
+public class Paginacao {
+
+    static final int TAMANHO_PADRAO = 20;
+    static final int TAMANHO_MAXIMO = 100;
+
+    private Paginacao() {
+    }
+
+    // Página começando em 0; lança NumberFormatException se não for número
+    public static int pagina(Context ctx) {
+        String valor = ctx.queryParam("pagina");
+        return valor == null ? 0 : Math.max(0, Integer.parseInt(valor));
+    }
+
+    public static int tamanho(Context ctx) {
+        String valor = ctx.queryParam("tamanho");
+        int tamanho = valor == null ? TAMANHO_PADRAO : Integer.parseInt(valor);
+        return Math.max(1, Math.min(TAMANHO_MAXIMO, tamanho));
+    }
+}
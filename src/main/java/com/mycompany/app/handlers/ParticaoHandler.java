@@ -0,0 +1,242 @@
+package com.mycompany.app.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.Prontidao;
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.DocumentoEmUsoException;
+import com.mycompany.app.particao.Encaminhador;
+import com.mycompany.app.particao.Migracao;
+import com.mycompany.app.particao.Particoes;
+import com.mycompany.app.particao.Transferencia;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.HandlerType;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import static io.javalin.http.HttpStatus.*;
+
+/**
+ * Roteamento do modo particionado ({@link Particoes}) e as rotas /particao.
+ *
+ * As rotas de um ciclista (/ciclista/{id}..., /cartaoDeCredito/{id}, POST /aluguel pelo campo
+ * 'ciclista' e POST /devolucao pela bicicleta) são atendidas aqui se o ciclista está aqui ou se
+ * este nó é o dono; senão vão para o dono pelo {@link Encaminhador}. Durante o rebalanceamento
+ * o dono novo que ainda não recebeu a chave procura no dono anterior.
+ *
+ * Cadastro, listagens, buscas, lotes, estações e /restaurarBanco continuam locais: cada nó
+ * responde pelos ciclistas que tem.
+ */
+public class ParticaoHandler {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final String ATRIBUTO_LOCK = "particao.lock";
+
+    // before (depois da prontidão): decide se a requisição fica aqui
+    public static final Handler rotear = ctx -> {
+        if (!Particoes.ativo() || Prontidao.ehAquecimento(ctx)) {
+            return;
+        }
+        List<String> via = Encaminhador.via(ctx);
+
+        // Fora do anel (entrando ou saindo) este nó não escolhe id de ciclista novo
+        if (ctx.method() == HandlerType.POST && ctx.path().equals("/ciclista")) {
+            String principal = Particoes.getAnel().principal();
+            if (Particoes.foraDoAnel() && !via.contains(principal)) {
+                encaminhar(ctx, principal);
+            }
+            return;
+        }
+
+        UUID chave = chave(ctx);
+        if (chave == null) {
+            return;
+        }
+
+        // Com o lock de leitura a chave não muda de nó enquanto a requisição é atendida aqui
+        Lock leitura = Particoes.lockDe(chave).readLock();
+        leitura.lock();
+        String destino = destino(chave, via);
+        if (destino == null) {
+            ctx.attribute(ATRIBUTO_LOCK, leitura);
+            ctx.header(Encaminhador.CABECALHO_NO, Particoes.getEu());
+            return;
+        }
+        leitura.unlock();
+        encaminhar(ctx, destino);
+    };
+
+    // after: roda também quando o endpoint falha
+    public static final Handler liberar = ctx -> {
+        Lock leitura = ctx.attribute(ATRIBUTO_LOCK);
+        if (leitura != null) {
+            leitura.unlock();
+        }
+    };
+
+    // null = atender aqui
+    private static String destino(UUID chave, List<String> via) {
+        if (Ciclista.getCiclistaPorId(chave) != null || via.size() >= Encaminhador.MAXIMO_SALTOS) {
+            return null;
+        }
+        String eu = Particoes.getEu();
+        String dono = Particoes.dono(chave);
+        if (!dono.equals(eu)) {
+            return dono;
+        }
+        // Sou o dono, mas a chave pode ainda não ter saído do dono anterior
+        String anterior = Particoes.donoAnterior(chave);
+        return anterior != null && !anterior.equals(eu) && !via.contains(anterior) ? anterior : null;
+    }
+
+    private static void encaminhar(Context ctx, String destino) {
+        Encaminhador.encaminhar(ctx, destino);
+        throw new Encaminhada();
+    }
+
+    // Ciclista dono da requisição, ou null para as rotas que não são de um ciclista
+    private static UUID chave(Context ctx) {
+        String[] partes = ctx.path().split("/");
+        try {
+            if (partes.length >= 3 && (partes[1].equals("ciclista") || partes[1].equals("cartaoDeCredito"))) {
+                return partes[2].length() == 36 ? UUID.fromString(partes[2]) : null;
+            }
+            if (ctx.method() != HandlerType.POST || partes.length != 2) {
+                return null;
+            }
+            if (partes[1].equals("aluguel")) {
+                Object ciclista = Formatos.ler(ctx, mapper, Map.class).get("ciclista");
+                return ciclista instanceof String id ? UUID.fromString(id) : null;
+            }
+            if (partes[1].equals("devolucao")) {
+                Object bicicleta = Formatos.ler(ctx, mapper, Map.class).get("idBicicleta");
+                return bicicleta instanceof String id ? ciclistaDaBicicleta(UUID.fromString(id), Encaminhador.via(ctx)) : null;
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            // corpo ou id inválido: o handler da rota responde o erro
+        }
+        return null;
+    }
+
+    // A devolução só traz a bicicleta: se ela não está alugada aqui, pergunta aos outros nós
+    private static UUID ciclistaDaBicicleta(UUID bicicletaId, List<String> via) {
+        UUID local = Aluguel.getCiclistaIdPorBicicleta(bicicletaId);
+        if (local != null || !via.isEmpty()) {
+            return local;
+        }
+        Set<String> nos = new LinkedHashSet<>(Particoes.getAnel().getNos());
+        if (Particoes.getAnterior() != null) {
+            nos.addAll(Particoes.getAnterior().getNos());
+        }
+        nos.remove(Particoes.getEu());
+
+        List<CompletableFuture<HttpResponse<String>>> consultas = new ArrayList<>();
+        for (String no : nos) {
+            consultas.add(Encaminhador.enviar(no, "GET", "/particao/bicicleta/" + bicicletaId, null));
+        }
+        for (CompletableFuture<HttpResponse<String>> consulta : consultas) {
+            try {
+                HttpResponse<String> resposta = consulta.get(5, TimeUnit.SECONDS);
+                if (resposta.statusCode() == 200) {
+                    return UUID.fromString(mapper.readTree(resposta.body()).get("ciclista").asText());
+                }
+            } catch (Exception e) {
+                // nó fora do ar: segue com os outros
+            }
+        }
+        return null;
+    }
+
+    // GET /particao - anel, rebalanceamento e contadores deste nó
+    public static final Handler estado = ctx -> ctx.status(OK).json(Migracao.estatisticas());
+
+    // PUT /particao - {"nos": [...]}: troca o anel aqui e repassa aos outros nós dos dois anéis
+    public static final Handler redefinir = ctx -> {
+        try {
+            JsonNode nos = mapper.readTree(ctx.body()).get("nos");
+            if (nos == null || !nos.isArray() || nos.isEmpty()) {
+                ctx.status(UNPROCESSABLE_CONTENT).result("Corpo deve ser {\"nos\": [urls dos nós]}.");
+                return;
+            }
+            List<String> lista = new ArrayList<>();
+            nos.forEach(no -> lista.add(no.asText()));
+            if (Particoes.getEu() == null) {
+                ctx.status(CONFLICT).result("Nó sem URL própria (aluguel.particao.eu).");
+                return;
+            }
+
+            Set<String> envolvidos = Migracao.redefinir(Particoes.nos(String.join(",", lista)));
+            if (Encaminhador.via(ctx).isEmpty()) {
+                String corpo = ctx.body();
+                for (String no : envolvidos) {
+                    if (!no.equals(Particoes.getEu())) {
+                        HttpResponse<String> resposta = Encaminhador.enviar(no, "PUT", "/particao", corpo).join();
+                        if (resposta.statusCode() != 200) {
+                            System.out.println("Aviso: nó " + no + " recusou o anel novo: HTTP " + resposta.statusCode());
+                        }
+                    }
+                }
+            }
+            ctx.status(OK).json(Migracao.estatisticas());
+        } catch (IllegalArgumentException e) {
+            ctx.status(UNPROCESSABLE_CONTENT).result(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            ctx.status(BAD_REQUEST).result("Erro ao processar a requisição: " + e.getMessage());
+        }
+    };
+
+    // POST /particao/receber - chave vinda de outro nó no rebalanceamento (uso interno)
+    public static final Handler receber = ctx -> {
+        try {
+            Transferencia transferencia = ctx.bodyAsClass(Transferencia.class);
+            List<String> via = Encaminhador.via(ctx);
+            Migracao.receber(transferencia, via.isEmpty() ? null : via.get(0));
+            ctx.status(OK).result("Recebido.");
+        } catch (DocumentoEmUsoException e) {
+            ctx.status(CONFLICT).result(e.getMessage());
+        } catch (IllegalStateException e) {
+            ctx.status(UNPROCESSABLE_CONTENT).result(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            ctx.status(BAD_REQUEST).result("Erro ao processar a requisição: " + e.getMessage());
+        }
+    };
+
+    // POST /particao/concluida - {"no": url, "nos": "anel novo"}: o nó terminou de entregar as chaves
+    public static final Handler concluida = ctx -> {
+        try {
+            JsonNode aviso = mapper.readTree(ctx.body());
+            Migracao.concluir(aviso.get("no").asText(), aviso.get("nos").asText());
+            ctx.status(OK).result("Ok.");
+        } catch (Exception e) {
+            ctx.status(BAD_REQUEST).result("Aviso inválido.");
+        }
+    };
+
+    // GET /particao/bicicleta/{idBicicleta} - ciclista que alugou a bicicleta neste nó (uso interno)
+    public static final Handler localizarBicicleta = ctx -> {
+        try {
+            UUID ciclista = Aluguel.getCiclistaIdPorBicicleta(UUID.fromString(ctx.pathParam("idBicicleta")));
+            if (ciclista == null) {
+                ctx.status(NOT_FOUND).result("Bicicleta não está alugada neste nó.");
+                return;
+            }
+            ctx.status(OK).json(Map.of("ciclista", ciclista));
+        } catch (IllegalArgumentException e) {
+            ctx.status(UNPROCESSABLE_CONTENT).result("ID de bicicleta inválido (deve ser um UUID válido).");
+        }
+    };
+}
@@ -0,0 +1,87 @@
+package com.mycompany.app.handlers;
+
+import com.mycompany.app.Prontidao;
+import com.mycompany.app.replicacao.Replicacao;
+import com.mycompany.app.replicacao.Seguidor;
+import io.javalin.http.Handler;
+import io.javalin.http.HandlerType;
+import io.javalin.http.HttpStatus;
+
+import java.util.Set;
+
+import static io.javalin.http.HttpStatus.*;
+
+/**
+ * Roteamento das réplicas de leitura ({@link Replicacao}) e as rotas /replicacao.
+ *
+ * Numa réplica, GET de ciclista, cartão e funcionário é atendido aqui enquanto o atraso estiver
+ * dentro do limite, com o atraso e o offset aplicado nos cabeçalhos {@link #CABECALHO_ATRASO} e
+ * {@link #CABECALHO_OFFSET}. Escritas, leituras de dados que não são replicados (estações, feed)
+ * e leituras de uma réplica atrasada recebem 307 para o líder.
+ */
+public class ReplicacaoHandler {
+
+    public static final String CABECALHO_ATRASO = "X-Replica-Atraso-Ms";
+    public static final String CABECALHO_OFFSET = "X-Replica-Offset";
+
+    // Atendidas pela réplica quando em dia
+    private static final Set<String> REPLICADAS = Set.of("ciclista", "cartaoDeCredito", "funcionario");
+    // Sempre deste processo
+    private static final Set<String> LOCAIS = Set.of("", "ready", "dependencias", "replicacao");
+
+    // before (depois da prontidão)
+    public static final Handler rotear = ctx -> {
+        Seguidor seguidor = Replicacao.getSeguidor();
+        if (seguidor == null || Prontidao.ehAquecimento(ctx)) {
+            return;
+        }
+        String[] partes = ctx.path().split("/", 3);
+        String raiz = partes.length > 1 ? partes[1] : "";
+        if (LOCAIS.contains(raiz)) {
+            return;
+        }
+        long atraso = seguidor.atrasoMs();
+        if (ctx.method() == HandlerType.GET && REPLICADAS.contains(raiz) && atraso <= Replicacao.ATRASO_MAXIMO_MS) {
+            ctx.header(CABECALHO_ATRASO, Long.toString(atraso));
+            ctx.header(CABECALHO_OFFSET, Long.toString(seguidor.getOffset()));
+            return;
+        }
+        String consulta = ctx.queryString() == null ? "" : "?" + ctx.queryString();
+        ctx.redirect(seguidor.getLider() + ctx.path() + consulta, HttpStatus.TEMPORARY_REDIRECT);
+        throw new Encaminhada();
+    };
+
+    // GET /replicacao - papel, offsets e atraso deste processo
+    public static final Handler estado = ctx -> ctx.status(OK).json(Replicacao.estatisticas());
+
+    // GET /replicacao/mutacoes?desde=&maximo=&esperaMs= - log do líder (uso interno das réplicas)
+    public static final Handler mutacoes = ctx -> {
+        if (!Replicacao.ehLider()) {
+            ctx.status(CONFLICT).result("Este processo não é o líder da replicação.");
+            return;
+        }
+        try {
+            long desde = Long.parseLong(ctx.queryParam("desde"));
+            int maximo = Math.min(10_000, Math.max(1, Integer.parseInt(valor(ctx.queryParam("maximo"), "1000"))));
+            long esperaMs = Math.min(5_000, Math.max(0, Long.parseLong(valor(ctx.queryParam("esperaMs"), "0"))));
+            ctx.status(OK);
+            Formatos.responder(ctx, Replicacao.mutacoes(desde, maximo, esperaMs));
+        } catch (NumberFormatException e) {
+            ctx.status(UNPROCESSABLE_CONTENT).result("Parâmetros 'desde', 'maximo' e 'esperaMs' devem ser números.");
+        }
+    };
+
+    // GET /replicacao/snapshot - estado completo do líder (uso interno das réplicas)
+    public static final Handler snapshot = ctx -> {
+        if (!Replicacao.ehLider()) {
+            ctx.status(CONFLICT).result("Este processo não é o líder da replicação.");
+            return;
+        }
+        ctx.status(OK);
+        Formatos.responder(ctx, Replicacao.snapshot());
+    };
+
+    private static String valor(String valor, String padrao) {
+        return valor == null || valor.isBlank() ? padrao : valor;
+    }
+}
@@ -1,47 +1,418 @@
 package com.mycompany.app.models;
 
-import com.mycompany.app.handlers.AluguelHandler;
-import org.mockito.Mockito;
-
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.mycompany.app.clientes.ServicosExternos;
+import com.mycompany.app.eventos.ArmazemEventos;
+import com.mycompany.app.eventos.EventoAluguel;
+import com.mycompany.app.eventos.FeedAlteracoes;
+import com.mycompany.app.eventos.Projecao;
+import com.mycompany.app.replicacao.Replicacao;
+import com.mycompany.app.tarifas.Tarifario;
+import com.mycompany.app.util.GeradorIdV7;
+import com.mycompany.app.util.GeradoresId;
+import com.mycompany.app.util.MapaUUID;
+import com.mycompany.app.util.RodaTemporizacao;
+
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot imutável de um aluguel. O que é gravado são os eventos do ciclo de vida
+ * ({@link EventoAluguel}) no log; os aluguéis ativos e o histórico são projeções dele e
+ * podem ser reconstruídos a qualquer momento com {@link #reconstruirProjecoes()}.
+ * Novos modelos de leitura assinam {@link #eventos()} sem mexer no caminho de escrita; log e
+ * projeções são da {@link Epoca} atual, e quem precisa seguir as épocas seguintes usa
+ * {@link #acompanharEventos}.
+ */
 public class Aluguel {
-    private static final Map<UUID, Aluguel> storage = new HashMap<>();
-    private static final Map<UUID, Aluguel> alugueisAtivos = new HashMap<>();
-
-    private UUID id;
-    private UUID ciclistaId;
-    private UUID trancaInicioId;
-    private UUID bicicletaId;
-    private LocalDateTime horaInicio;
-    private LocalDateTime horaFim;
-    private UUID trancaFimId;
-    private Double valorFixo = 10.00;
-    private Double valorExtra = 0.00;
-
-    private Aluguel(UUID ciclistaId, UUID trancaInicioId, UUID bicicletaId) {
-        this.id = UUID.randomUUID();
+    private static final int FAIXAS_LOCK = 64;
+
+    // Aluguel e devolução de um mesmo ciclista são serializados (checagem + gravação dos eventos).
+    // Nenhuma chamada a outro serviço acontece com o lock: ele só guarda estado local
+    private static final Object[] locks = new Object[FAIXAS_LOCK];
+    // Prazos de atraso dos aluguéis ativos (fim da franquia, depois a cada bloco)
+    private static final long TICK_ATRASOS_MS = Long.getLong("aluguel.atrasos.tickMs", 1000);
+    // Projeções de fora do modelo que seguem os eventos novos de todas as épocas
+    private static final List<Projecao<EventoAluguel>> acompanhantes = new CopyOnWriteArrayList<>();
+    // Pré-autorizações dos atrasos: a thread de atrasos só enfileira, não espera a Cobrança
+    private static final int THREADS_PRE_AUTORIZACAO = Integer.getInteger("aluguel.atrasos.preAutorizacoes", 4);
+    private static final ExecutorService preAutorizacoes = new ThreadPoolExecutor(THREADS_PRE_AUTORIZACAO,
+            THREADS_PRE_AUTORIZACAO, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(10_000), tarefa -> {
+                Thread thread = new Thread(tarefa, "preautorizacao-aluguel");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private record PrazoAluguel(UUID aluguelId, UUID ciclistaId, LocalDateTime horaInicio, long minutos) {
+    }
+
+    // Log, projeções e prazos de atraso de uma época ({@link Epoca})
+    static final class Dados {
+        final ArmazemEventos<EventoAluguel> eventos = new ArmazemEventos<>();
+        final ProjecaoAlugueisAtivos ativos = new ProjecaoAlugueisAtivos();
+        final ProjecaoHistoricoAlugueis historico = new ProjecaoHistoricoAlugueis();
+        final RodaTemporizacao<PrazoAluguel> atrasos =
+                new RodaTemporizacao<>(TICK_ATRASOS_MS, 4096, System.currentTimeMillis());
+        final MapaUUID<RodaTemporizacao.Agendamento<PrazoAluguel>> prazos = new MapaUUID<>();
+        // Ciclistas com a bicicleta já retirada e a cobrança inicial em andamento (sob lockDe)
+        final Set<UUID> reservados = ConcurrentHashMap.newKeySet();
+        private boolean acompanhando; // guardado por Epoca.lockTroca
+
+        Dados() {
+            eventos.assinar(ativos);
+            eventos.assinar(historico);
+        }
+
+        // Ao entrar no ar: projeções que só reagem ao que acontece daqui em diante. O que uma
+        // fixture anexou antes da publicação não vai para o feed nem para a replicação
+        void acompanhar() {
+            if (acompanhando) {
+                return;
+            }
+            acompanhando = true;
+            eventos.acompanhar(new ProjecaoLeiturasCiclista());
+            eventos.acompanhar(new ProjecaoFeedAlugueis(FeedAlteracoes.principal(), historico));
+            for (Projecao<EventoAluguel> projecao : acompanhantes) {
+                eventos.acompanhar(projecao);
+            }
+        }
+    }
+
+    private static Dados dados() {
+        return Epoca.atual().alugueis;
+    }
+
+    static {
+        for (int i = 0; i < FAIXAS_LOCK; i++) {
+            locks[i] = new Object();
+        }
+
+        ScheduledExecutorService relogio = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "atrasos-aluguel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        relogio.scheduleAtFixedRate(() -> {
+            try {
+                verificarAtrasos(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                e.printStackTrace(); // uma falha não pode parar a verificação dos próximos
+            }
+        }, TICK_ATRASOS_MS, TICK_ATRASOS_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private final UUID id;
+    private final UUID ciclistaId;
+    private final UUID trancaInicioId;
+    private final UUID bicicletaId;
+    private final LocalDateTime horaInicio;
+    private final LocalDateTime horaFim;
+    private final UUID trancaFimId;
+    private final Double valorFixo;
+    private final Double valorExtra;
+
+    private Aluguel(UUID id, UUID ciclistaId, UUID trancaInicioId, UUID bicicletaId, LocalDateTime horaInicio,
+                    LocalDateTime horaFim, UUID trancaFimId, Double valorFixo, Double valorExtra) {
+        this.id = id;
         this.ciclistaId = ciclistaId;
         this.trancaInicioId = trancaInicioId;
         this.bicicletaId = bicicletaId;
-        this.horaInicio = LocalDateTime.now();
+        this.horaInicio = horaInicio;
+        this.horaFim = horaFim;
+        this.trancaFimId = trancaFimId;
+        this.valorFixo = valorFixo;
+        this.valorExtra = valorExtra;
+    }
 
-        storage.put(this.id, this);
-        alugueisAtivos.put(this.ciclistaId, this);
+    // Usados pelas projeções
+    static Aluguel iniciado(EventoAluguel.AluguelIniciado evento) {
+        return new Aluguel(evento.aluguelId(), evento.ciclistaId(), evento.trancaInicioId(), evento.bicicletaId(),
+                evento.instante(), null, null, evento.valorFixo(), 0.00);
+    }
+
+    static Aluguel recebido(EventoAluguel.AluguelRecebido evento) {
+        return new Aluguel(evento.aluguelId(), evento.ciclistaId(), evento.trancaInicioId(), evento.bicicletaId(),
+                evento.horaInicio(), null, null, evento.valorFixo(), 0.00);
+    }
+
+    Aluguel devolvido(EventoAluguel.AluguelDevolvido evento) {
+        return new Aluguel(id, ciclistaId, trancaInicioId, bicicletaId, horaInicio,
+                evento.instante(), evento.trancaFimId(), valorFixo, evento.valorExtra());
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getCiclistaId() {
+        return ciclistaId;
+    }
+
+    public UUID getTrancaInicioId() {
+        return trancaInicioId;
+    }
+
+    public UUID getBicicletaId() {
+        return bicicletaId;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public LocalDateTime getHoraInicio() {
+        return horaInicio;
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public LocalDateTime getHoraFim() {
+        return horaFim;
+    }
+
+    public UUID getTrancaFimId() {
+        return trancaFimId;
+    }
+
+    public Double getValorFixo() {
+        return valorFixo;
+    }
+
+    public Double getValorExtra() {
+        return valorExtra;
+    }
+
+    // Log da época atual
+    public static ArmazemEventos<EventoAluguel> eventos() {
+        return dados().eventos;
+    }
+
+    // Projeção de fora do modelo (replicação): recebe os eventos novos desta época e das próximas
+    public static void acompanharEventos(Projecao<EventoAluguel> projecao) {
+        synchronized (Epoca.lockTroca) {
+            acompanhantes.add(projecao);
+            dados().eventos.acompanhar(projecao);
+        }
     }
 
     public static Aluguel getAluguelAtivoPorCiclistaId(UUID ciclistaId) {
-        return alugueisAtivos.get(ciclistaId);
+        return dados().ativos.porCiclista(ciclistaId);
+    }
+
+    // Ciclista com a bicicleta alugada neste nó (null se ela não está alugada aqui)
+    public static UUID getCiclistaIdPorBicicleta(UUID bicicletaId) {
+        return dados().ativos.ciclistaPorBicicleta(bicicletaId);
+    }
+
+    public static Aluguel getAluguelPorId(UUID id) {
+        return dados().historico.porId().get(id);
     }
 
     public static List<Aluguel> listarTodos() {
-        return new ArrayList<>(storage.values());
+        return new ArrayList<>(dados().historico.porId().values());
+    }
+
+    // Aluguéis com horaInicio em [inicio, fim). Com ids ordenados por tempo só o recorte do
+    // histórico (alargado pela folga entre id e horaInicio) é filtrado; com outro gerador, tudo.
+    public static List<Aluguel> listarPorPeriodo(Instant inicio, Instant fim) {
+        ProjecaoHistoricoAlugueis historico = dados().historico;
+        Collection<Aluguel> candidatos = historico.porId().values();
+        if (GeradoresId.atual().ordenadoPorTempo()) {
+            long folgaMs = historico.desvioMaximoMs() + 1;
+            candidatos = historico.porId().subMap(
+                    GeradorIdV7.limiteInferior(inicio.minusMillis(folgaMs)), true,
+                    GeradorIdV7.limiteInferior(fim.plusMillis(folgaMs)), false).values();
+        }
+
+        List<Aluguel> resultado = new ArrayList<>();
+        for (Aluguel aluguel : candidatos) {
+            Instant instante = aluguel.horaInicio.atZone(ZoneId.systemDefault()).toInstant();
+            if (!instante.isBefore(inicio) && instante.isBefore(fim)) {
+                resultado.add(aluguel);
+            }
+        }
+        return resultado;
+    }
+
+    // Aluguéis devolvidos no dia (pela hora de fim)
+    public static List<Aluguel> listarDevolvidosEm(LocalDate dia) {
+        LocalDateTime inicio = dia.atStartOfDay();
+        LocalDateTime fim = inicio.plusDays(1);
+        List<Aluguel> resultado = new ArrayList<>();
+        for (Aluguel aluguel : dados().historico.porId().values()) {
+            if (aluguel.horaFim != null && !aluguel.horaFim.isBefore(inicio) && aluguel.horaFim.isBefore(fim)) {
+                resultado.add(aluguel);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Recalcula o excedente das devoluções do dia com outro tarifário, em lote, sem alterar nada:
+     * serve para avaliar uma mudança de regras antes de publicá-la. Cada item traz id, minutos,
+     * valor cobrado e valor pelas regras novas; os totais estão em centavos.
+     */
+    public static Map<String, Object> reprecificarDevolvidosEm(LocalDate dia, Tarifario tarifario, int plano) {
+        List<Aluguel> devolvidos = listarDevolvidosEm(dia);
+        int n = devolvidos.size();
+        int[] horasSemana = new int[n];
+        long[] minutos = new long[n];
+        long[] novos = new long[n];
+        long totalAtual = 0;
+        for (int i = 0; i < n; i++) {
+            Aluguel aluguel = devolvidos.get(i);
+            horasSemana[i] = Tarifario.horaSemana(aluguel.horaInicio);
+            minutos[i] = java.time.Duration.between(aluguel.horaInicio, aluguel.horaFim).toMinutes();
+            totalAtual += Math.round(aluguel.valorExtra * 100);
+        }
+        long totalNovo = tarifario.precificar(plano, horasSemana, minutos, novos, n);
+
+        List<Map<String, Object>> itens = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Aluguel aluguel = devolvidos.get(i);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", aluguel.id);
+            item.put("ciclista", aluguel.ciclistaId);
+            item.put("minutos", minutos[i]);
+            item.put("valorExtraAtual", aluguel.valorExtra);
+            item.put("valorExtraNovo", novos[i] / 100.0);
+            itens.add(item);
+        }
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("data", dia.toString());
+        resultado.put("quantidade", n);
+        resultado.put("totalAtualCentavos", totalAtual);
+        resultado.put("totalNovoCentavos", totalNovo);
+        resultado.put("diferencaCentavos", totalNovo - totalAtual);
+        resultado.put("alugueis", itens);
+        return resultado;
+    }
+
+    // Refaz ativos e histórico a partir do log
+    public static void reconstruirProjecoes() {
+        Dados dados = dados();
+        dados.eventos.reconstruir(dados.ativos);
+        dados.eventos.reconstruir(dados.historico);
     }
 
+    // Troca log, projeções e prazos da época por vazios; o resto continua o mesmo
     public static void restaurar() {
-        storage.clear();
-        alugueisAtivos.clear();
+        Epoca.trocar(epoca -> epoca.com(new Dados()));
+        Ciclista.invalidarLeituras();
+        Replicacao.restaurado(Replicacao.ALUGUEL);
+    }
+
+    // Aluguel de uma fixture numa época ainda sendo montada: o início e, se já terminou, a
+    // devolução. Um aluguel ativo tem o próximo prazo agendado como se tivesse chegado de outro nó
+    static void carregar(Dados dados, UUID aluguelId, UUID ciclistaId, UUID trancaInicioId, UUID bicicletaId,
+                         LocalDateTime horaInicio, Double valorFixo, LocalDateTime horaFim, UUID trancaFimId,
+                         Double valorExtra) {
+        synchronized (lockDe(ciclistaId)) {
+            if (horaFim == null && dados.ativos.porCiclista(ciclistaId) != null) {
+                throw new IllegalStateException("Ciclista " + ciclistaId + " com mais de um aluguel ativo.");
+            }
+            dados.eventos.anexar(new EventoAluguel.AluguelIniciado(aluguelId, ciclistaId, horaInicio,
+                    trancaInicioId, bicicletaId, valorFixo));
+            if (horaFim == null) {
+                agendarAtraso(dados, aluguelId, ciclistaId, horaInicio, primeiroPrazoPendente(horaInicio));
+            } else {
+                dados.eventos.anexar(new EventoAluguel.AluguelDevolvido(aluguelId, ciclistaId, horaFim,
+                        trancaFimId, bicicletaId, valorExtra));
+            }
+        }
+    }
+
+    // Dispara os prazos vencidos até agoraMs; chamado a cada tick pela thread de atrasos
+    public static int verificarAtrasos(long agoraMs) {
+        Dados dados = dados();
+        return dados.atrasos.avancar(agoraMs, prazo -> tratarAtraso(dados, prazo));
+    }
+
+    public static int atrasosPendentes() {
+        return dados().atrasos.tamanho();
+    }
+
+    private static void agendarAtraso(Dados dados, UUID aluguelId, UUID ciclistaId, LocalDateTime horaInicio, long minutos) {
+        long prazoMs = horaInicio.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + minutos * 60_000;
+        dados.prazos.put(aluguelId, dados.atrasos.agendar(prazoMs, new PrazoAluguel(aluguelId, ciclistaId, horaInicio, minutos)));
+    }
+
+    // Fim da franquia ou do primeiro bloco que ainda não venceu
+    private static long primeiroPrazoPendente(LocalDateTime horaInicio) {
+        Tarifario tarifario = Tarifario.atual();
+        long decorridos = java.time.Duration.between(horaInicio, LocalDateTime.now()).toMinutes();
+        long minutos = tarifario.getFranquiaMinutos();
+        while (minutos <= decorridos) {
+            minutos += tarifario.getBlocoMinutos();
+        }
+        return minutos;
+    }
+
+    // Prazo vencido: se o aluguel ainda está ativo, pré-autoriza o excedente até o fim do
+    // próximo bloco, registra o atraso e agenda o próximo prazo. A pré-autorização vai para
+    // outro executor, então uma Cobrança lenta não atrasa a verificação dos demais aluguéis
+    private static void tratarAtraso(Dados dados, PrazoAluguel prazo) {
+        Aluguel ativo;
+        long proximoPrazo;
+        Double valor;
+        synchronized (lockDe(prazo.ciclistaId())) {
+            ativo = dados.ativos.porCiclista(prazo.ciclistaId());
+            if (ativo == null || !ativo.id.equals(prazo.aluguelId())) {
+                dados.prazos.remove(prazo.aluguelId());
+                return;
+            }
+            Tarifario tarifario = Tarifario.atual();
+            proximoPrazo = prazo.minutos() + tarifario.getBlocoMinutos();
+            long centavos = tarifario.custoExtraCentavos(Tarifario.PLANO_PADRAO, Tarifario.horaSemana(ativo.horaInicio), proximoPrazo);
+            valor = centavos / 100.0;
+            if (centavos == 0) {
+                registrarAtraso(dados, prazo, ativo, valor, true, proximoPrazo);
+                return;
+            }
+        }
+
+        try {
+            preAutorizacoes.execute(() -> {
+                boolean preAutorizado = false;
+                try {
+                    preAutorizado = preAutorizarCobranca(prazo.ciclistaId(), valor);
+                } finally {
+                    synchronized (lockDe(prazo.ciclistaId())) {
+                        registrarAtraso(dados, prazo, ativo, valor, preAutorizado, proximoPrazo);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            System.out.println("Aviso: fila de pré-autorizações cheia; atraso do aluguel " + ativo.id + " sem pré-autorização.");
+            synchronized (lockDe(prazo.ciclistaId())) {
+                registrarAtraso(dados, prazo, ativo, valor, false, proximoPrazo);
+            }
+        }
+    }
+
+    // Com o lock do ciclista: só registra se o aluguel visto no prazo continua o ativo (não foi
+    // devolvido nem transferido durante a pré-autorização)
+    private static void registrarAtraso(Dados dados, PrazoAluguel prazo, Aluguel ativo, Double valor,
+                                        boolean preAutorizado, long proximoPrazo) {
+        if (dados.ativos.porCiclista(prazo.ciclistaId()) != ativo) {
+            return;
+        }
+        dados.eventos.anexar(new EventoAluguel.AluguelEmAtraso(ativo.id, prazo.ciclistaId(), LocalDateTime.now(),
+                prazo.minutos(), valor, preAutorizado));
+        agendarAtraso(dados, ativo.id, prazo.ciclistaId(), ativo.horaInicio, proximoPrazo);
+    }
+
+    private static Object lockDe(UUID ciclistaId) {
+        return locks[(ciclistaId.hashCode() & 0x7fffffff) % FAIXAS_LOCK];
     }
 
     public static Aluguel realizarAluguel(UUID ciclistaId, UUID trancaInicioId) {
@@ -50,100 +421,221 @@ public class Aluguel {
             throw new IllegalArgumentException("Ciclista não pode alugar (inativo ou sem permissão).");
         }
 
-        if (alugueisAtivos.containsKey(ciclistaId)) {
-            throw new IllegalStateException("Ciclista já possui um aluguel ativo.");
-        }
+        // Com o lock: confere e reserva (bicicleta fora da tranca, ciclista marcado). A cobrança
+        // corre sem lock e o resultado é gravado depois, com o lock de novo
+        Dados dados = dados();
+        Tranca trancaInicio;
+        UUID bicicletaId;
+        synchronized (lockDe(ciclistaId)) {
+            if (dados.ativos.porCiclista(ciclistaId) != null || dados.reservados.contains(ciclistaId)) {
+                throw new IllegalStateException("Ciclista já possui um aluguel ativo.");
+            }
 
-        UUID bicicletaId = simularBuscarBicicletaLivre(trancaInicioId);
-        if (bicicletaId == null) {
-            throw new IllegalStateException("Nenhuma bicicleta disponível nesta tranca.");
+            trancaInicio = Tranca.getTranca(trancaInicioId);
+            if (trancaInicio == null) {
+                throw new IllegalArgumentException("Tranca não cadastrada.");
+            }
+            bicicletaId = trancaInicio.retirarBicicleta();
+            if (bicicletaId == null) {
+                throw new IllegalStateException("Nenhuma bicicleta disponível nesta tranca.");
+            }
+            dados.reservados.add(ciclistaId);
         }
 
-
-        if (!simularCobrarValorFixo(ciclistaId, 10.00)) {
+        Double valorFixo = Tarifario.atual().getFixoCentavos() / 100.0;
+        boolean cobrado = false;
+        try {
+            cobrado = cobrarValorFixo(ciclistaId, valorFixo);
+        } finally {
+            if (!cobrado) {
+                synchronized (lockDe(ciclistaId)) {
+                    dados.reservados.remove(ciclistaId);
+                    recolocarBicicleta(trancaInicio, bicicletaId);
+                    dados.eventos.anexar(new EventoAluguel.CobrancaRecusada(null, ciclistaId, LocalDateTime.now(),
+                            valorFixo, false));
+                }
+            }
+        }
+        if (!cobrado) {
             throw new IllegalStateException("Cobrança inicial falhou. Aluguel não autorizado.");
         }
 
-        Aluguel novoAluguel = new Aluguel(ciclistaId, trancaInicioId, bicicletaId);
+        // Id só para o aluguel que existe; horaInicio é do relógio, lida uma vez logo antes
+        Aluguel aluguel;
+        UUID aluguelId;
+        synchronized (lockDe(ciclistaId)) {
+            dados.reservados.remove(ciclistaId);
+            LocalDateTime horaInicio = LocalDateTime.now();
+            aluguelId = GeradoresId.atual().proximo();
+            dados.eventos.anexar(new EventoAluguel.CobrancaRealizada(aluguelId, ciclistaId, LocalDateTime.now(), valorFixo, false));
+            dados.eventos.anexar(new EventoAluguel.AluguelIniciado(aluguelId, ciclistaId, horaInicio,
+                    trancaInicioId, bicicletaId, valorFixo));
+            agendarAtraso(dados, aluguelId, ciclistaId, horaInicio, Tarifario.atual().getFranquiaMinutos());
+            aluguel = dados.ativos.porCiclista(ciclistaId);
+        }
 
-        simularLiberarTrancaENotificar(trancaInicioId, bicicletaId, ciclistaId);
+        // Só entra no log a liberação que o equipamento confirmou
+        if (liberarTrancaENotificar(trancaInicioId, bicicletaId, ciclistaId)) {
+            synchronized (lockDe(ciclistaId)) {
+                dados.eventos.anexar(new EventoAluguel.TrancaLiberada(aluguelId, ciclistaId, LocalDateTime.now(), trancaInicioId, bicicletaId));
+            }
+        }
+        return aluguel;
+    }
 
-        return novoAluguel;
+    // Modo particionado: o aluguel ativo sai com o ciclista para o nó 'destino' e os prazos de
+    // atraso param de correr aqui. Devolve o aluguel transferido (null se não havia)
+    public static Aluguel transferirAtivo(UUID ciclistaId, String destino) {
+        Dados dados = dados();
+        synchronized (lockDe(ciclistaId)) {
+            Aluguel ativo = dados.ativos.porCiclista(ciclistaId);
+            if (ativo == null) {
+                return null;
+            }
+            dados.eventos.anexar(new EventoAluguel.AluguelTransferido(ativo.id, ciclistaId, LocalDateTime.now(), destino));
+            dados.atrasos.cancelar(dados.prazos.remove(ativo.id));
+            return ativo;
+        }
+    }
+
+    // ... e chega no nó de destino. O bloco em curso já foi pré-autorizado na origem, então o
+    // próximo prazo é o primeiro ainda não vencido
+    public static void receberAtivo(UUID aluguelId, UUID ciclistaId, UUID trancaInicioId, UUID bicicletaId,
+                                    LocalDateTime horaInicio, Double valorFixo, String origem) {
+        Dados dados = dados();
+        synchronized (lockDe(ciclistaId)) {
+            Aluguel atual = dados.ativos.porCiclista(ciclistaId);
+            if (atual == null && dados.reservados.contains(ciclistaId)) {
+                throw new IllegalStateException("Ciclista já possui um aluguel ativo.");
+            }
+            if (atual != null) {
+                if (atual.id.equals(aluguelId)) {
+                    return; // reenvio de uma transferência que já chegou
+                }
+                throw new IllegalStateException("Ciclista já possui um aluguel ativo.");
+            }
+            dados.eventos.anexar(new EventoAluguel.AluguelRecebido(aluguelId, ciclistaId, LocalDateTime.now(), origem,
+                    trancaInicioId, bicicletaId, horaInicio, valorFixo));
+            agendarAtraso(dados, aluguelId, ciclistaId, horaInicio, primeiroPrazoPendente(horaInicio));
+        }
     }
 
     // --- Lógica de Negócio (Devolução) ---
 
     public static Aluguel realizarDevolucao(UUID trancaFimId, UUID bicicletaId) {
-        UUID ciclistaId = simularBuscarCiclistaPorBicicleta(bicicletaId);
+        Dados dados = dados();
+        UUID ciclistaId = simularBuscarCiclistaPorBicicleta(dados, bicicletaId);
         if (ciclistaId == null) {
             throw new IllegalArgumentException("Esta bicicleta não está alugada ou ID inválido.");
         }
 
-        Aluguel aluguel = alugueisAtivos.get(ciclistaId);
-        if (aluguel == null) {
-            throw new IllegalStateException("Aluguel ativo não encontrado para esta bicicleta.");
-        }
-
-        aluguel.horaFim = LocalDateTime.now();
-        aluguel.trancaFimId = trancaFimId;
+        // A devolução é gravada com o lock; cobrança do excedente e tranca vêm depois, sem ele
+        Aluguel aluguel;
+        Double valorExtra;
+        synchronized (lockDe(ciclistaId)) {
+            aluguel = dados.ativos.porCiclista(ciclistaId);
+            if (aluguel == null || !aluguel.bicicletaId.equals(bicicletaId)) {
+                throw new IllegalStateException("Aluguel ativo não encontrado para esta bicicleta.");
+            }
+            Tranca trancaFim = Tranca.getTranca(trancaFimId);
+            if (trancaFim == null) {
+                throw new IllegalArgumentException("Tranca não cadastrada.");
+            }
+            if (!trancaFim.travar(bicicletaId)) {
+                throw new IllegalStateException("Tranca ocupada.");
+            }
 
-        aluguel.valorExtra = simularCalcularCustoAdicional(aluguel.horaInicio, aluguel.horaFim);
+            LocalDateTime horaFim = LocalDateTime.now();
+            valorExtra = calcularCustoAdicional(Tarifario.atual(), aluguel.horaInicio, horaFim) / 100.0;
+            dados.eventos.anexar(new EventoAluguel.AluguelDevolvido(aluguel.id, ciclistaId, horaFim, trancaFimId, bicicletaId, valorExtra));
+            dados.atrasos.cancelar(dados.prazos.remove(aluguel.id));
+        }
 
-        if (aluguel.valorExtra > 0) {
-            if (!simularCobrarValorAdicional(ciclistaId, aluguel.valorExtra)) {
+        if (valorExtra > 0) {
+            boolean cobrado = cobrarValorAdicional(ciclistaId, valorExtra);
+            synchronized (lockDe(ciclistaId)) {
+                if (cobrado) {
+                    dados.eventos.anexar(new EventoAluguel.CobrancaRealizada(aluguel.id, ciclistaId, LocalDateTime.now(), valorExtra, true));
+                } else {
+                    dados.eventos.anexar(new EventoAluguel.CobrancaRecusada(aluguel.id, ciclistaId, LocalDateTime.now(), valorExtra, true));
+                }
+            }
+            if (!cobrado) {
                 System.out.println("Aviso: Cobrança extra falhou para o ciclista " + ciclistaId);
             }
         }
 
-        simularAtualizarTrancaENotificar(trancaFimId, bicicletaId, ciclistaId, aluguel.valorExtra);
-
-        alugueisAtivos.remove(ciclistaId);
+        if (atualizarTrancaENotificar(trancaFimId, bicicletaId, ciclistaId, valorExtra)) {
+            synchronized (lockDe(ciclistaId)) {
+                dados.eventos.anexar(new EventoAluguel.TrancaTravada(aluguel.id, ciclistaId, LocalDateTime.now(), trancaFimId, bicicletaId));
+            }
+        }
+        return dados.historico.porId().get(aluguel.id);
+    }
 
-        return aluguel;
+    // Cobrança recusada: a bicicleta volta para a tranca de onde saiu (ou outra da estação,
+    // se uma devolução ocupou a tranca nesse meio tempo)
+    private static void recolocarBicicleta(Tranca tranca, UUID bicicletaId) {
+        if (!tranca.travar(bicicletaId)) {
+            Estacao estacao = Estacao.getEstacao(tranca.getEstacaoId());
+            if (estacao == null || estacao.travarEmQualquer(bicicletaId) == null) {
+                System.out.println("Aviso: bicicleta " + bicicletaId + " sem tranca livre para voltar.");
+            }
+        }
     }
 
-    private static UUID simularBuscarBicicletaLivre(UUID trancaId) {
-        // Simula buscar a primeira bicicleta disponível na tranca
-        // O ID real da bicicleta seria retornado aqui.
-        return UUID.randomUUID();
+    private static boolean cobrarValorFixo(UUID ciclistaId, Double valor) {
+        return ServicosExternos.cobrar(ciclistaId, valor);
     }
 
-    private static Boolean simularCobrarValorFixo(UUID ciclistaId, Double valor) {
-        // Simula chamada ao Microsserviço de Cobrança
-        return true;
+    private static boolean preAutorizarCobranca(UUID ciclistaId, Double valor) {
+        return ServicosExternos.preAutorizar(ciclistaId, valor);
     }
 
-    private static void simularLiberarTrancaENotificar(UUID trancaId, UUID bicicletaId, UUID ciclistaId) {
-        // Simula chamada ao Microsserviço de Tranca e Notificação
-        System.out.println("Tranca " + trancaId + " liberada. Bicicleta " + bicicletaId + " retirada. Ciclista " + ciclistaId + " notificado.");
+    // O aluguel já foi cobrado: se o equipamento não confirmar, fica o aviso para a operação.
+    // false = liberação não confirmada
+    private static boolean liberarTrancaENotificar(UUID trancaId, UUID bicicletaId, UUID ciclistaId) {
+        boolean liberada = ServicosExternos.acionarTranca(trancaId, bicicletaId, false);
+        if (liberada) {
+            System.out.println("Tranca " + trancaId + " liberada. Bicicleta " + bicicletaId + " retirada. Ciclista " + ciclistaId + " notificado.");
+        } else {
+            System.out.println("Aviso: tranca " + trancaId + " não confirmou a liberação da bicicleta " + bicicletaId + ".");
+        }
+        ServicosExternos.notificar(emailDe(ciclistaId), "Aluguel iniciado", "Bicicleta " + bicicletaId + " retirada da tranca " + trancaId + ".");
+        return liberada;
     }
 
-    private static UUID simularBuscarCiclistaPorBicicleta(UUID bicicletaId) {
+    private static UUID simularBuscarCiclistaPorBicicleta(Dados dados, UUID bicicletaId) {
         // Simula buscar o ciclista que alugou a bicicleta
         // Retorna o ID do ciclista.
-        return alugueisAtivos.entrySet().stream()
-                .filter(entry -> entry.getValue().bicicletaId.equals(bicicletaId))
-                .map(Map.Entry::getKey)
-                .findFirst()
-                .orElse(null);
+        return dados.ativos.ciclistaPorBicicleta(bicicletaId);
     }
 
-    private static Double simularCalcularCustoAdicional(LocalDateTime inicio, LocalDateTime fim) {
-        // Simula cálculo de custo extra baseado no tempo (Ex: 1 hora extra)
+    // Excedente em centavos pelas regras de tarifas.properties (ciclista ainda não tem plano)
+    private static long calcularCustoAdicional(Tarifario tarifario, LocalDateTime inicio, LocalDateTime fim) {
         long duracaoMinutos = java.time.Duration.between(inicio, fim).toMinutes();
-        if (duracaoMinutos > 60) {
-            return (double) ((duracaoMinutos - 60) / 60) * 5.00; // Cobra R$5 por hora extra
-        }
-        return 0.00;
+        return tarifario.custoExtraCentavos(Tarifario.PLANO_PADRAO, Tarifario.horaSemana(inicio), duracaoMinutos);
     }
 
-    private static Boolean simularCobrarValorAdicional(UUID ciclistaId, Double valor) {
-        // Simula chamada ao Microsserviço de Cobrança para taxa extra
-        return true;
+    private static boolean cobrarValorAdicional(UUID ciclistaId, Double valor) {
+        return ServicosExternos.cobrar(ciclistaId, valor);
     }
 
-    private static void simularAtualizarTrancaENotificar(UUID trancaFimId, UUID bicicletaId, UUID ciclistaId, Double valorExtra) {
-        // Simula chamada ao Microsserviço de Tranca e Notificação
-        System.out.println("Tranca " + trancaFimId + " travada. Bicicleta " + bicicletaId + " devolvida. Ciclista " + ciclistaId + " notificado sobre taxa extra de R$" + valorExtra);
+    // false = travamento não confirmado
+    private static boolean atualizarTrancaENotificar(UUID trancaFimId, UUID bicicletaId, UUID ciclistaId, Double valorExtra) {
+        boolean travada = ServicosExternos.acionarTranca(trancaFimId, bicicletaId, true);
+        if (travada) {
+            System.out.println("Tranca " + trancaFimId + " travada. Bicicleta " + bicicletaId + " devolvida. Ciclista " + ciclistaId + " notificado sobre taxa extra de R$" + valorExtra);
+        } else {
+            System.out.println("Aviso: tranca " + trancaFimId + " não confirmou o travamento da bicicleta " + bicicletaId + ".");
+        }
+        ServicosExternos.notificar(emailDe(ciclistaId), "Bicicleta devolvida",
+                "Bicicleta " + bicicletaId + " devolvida na tranca " + trancaFimId + ". Taxa extra: R$" + valorExtra + ".");
+        return travada;
+    }
+
+    private static String emailDe(UUID ciclistaId) {
+        Ciclista ciclista = Ciclista.getCiclistaPorId(ciclistaId);
+        return ciclista == null ? null : ciclista.getEmail();
     }
-}
\ No newline at end of file
+}
@@ -1,58 +1,156 @@
 package com.mycompany.app.models;
 
+import com.mycompany.app.replicacao.Replicacao;
 import com.mycompany.app.repositories.CartaoCreditoRepositorio;
+import com.mycompany.app.util.MapaUUID;
 import org.mockito.Mockito;
 
 import java.util.*;
 import java.util.regex.Pattern;
 
+/**
+ * Snapshot imutável do cartão de um ciclista; alterações publicam uma nova versão
+ * no storage com compare-and-set.
+ */
 public class CartaoCredito {
     private static final CartaoCreditoRepositorio mockRepo = Mockito.mock(CartaoCreditoRepositorio.class);
-    private static final Map<UUID, CartaoCredito> storage = new HashMap<>();
 
-    private UUID idCiclista;
-    private String nomeTitular;
-    private String numero;
-    private Date validade;
-    private String cvv;
+    private final UUID idCiclista;
+    private final String nomeTitular;
+    private final String numero;
+    private final Date validade;
+    private final String cvv;
+    private final long versao;
+
+    // Cartões de uma época ({@link Epoca}), por id do ciclista
+    static final class Dados {
+        final MapaUUID<CartaoCredito> storage = new MapaUUID<>();
+    }
+
+    private static Dados dados() {
+        return Epoca.atual().cartoes;
+    }
 
     public CartaoCredito(UUID idCiclista, String nomeTitular, String numero, Date validade, String cvv) {
+        this(idCiclista, nomeTitular, numero, validade, cvv, 1);
+
+        // Simula salvamento no storage (save/update)
+        dados().storage.put(this.idCiclista, this);
+        Replicacao.cartaoGravado(this);
+
+        // Mockito setup (opcional, mas para manter o padrão)
+        synchronized (mockRepo) {
+            Mockito.when(mockRepo.findByCiclistaId(this.idCiclista))
+                    .thenReturn(Optional.of(this));
+        }
+    }
+
+    // Construtor de cópia usado para gerar a próxima versão (não grava no storage)
+    private CartaoCredito(UUID idCiclista, String nomeTitular, String numero, Date validade, String cvv, long versao) {
         this.idCiclista = idCiclista;
         this.nomeTitular = nomeTitular;
         this.numero = numero;
-        this.validade = validade;
+        this.validade = validade == null ? null : new Date(validade.getTime());
         this.cvv = cvv;
+        this.versao = versao;
+    }
 
-        // Simula salvamento no storage (save/update)
-        storage.put(this.idCiclista, this);
+    // Recria um snapshot a partir de dados de outro nó, sem gravar no storage
+    public static CartaoCredito reconstruir(UUID idCiclista, String nomeTitular, String numero, Date validade, String cvv, long versao) {
+        return new CartaoCredito(idCiclista, nomeTitular, numero, validade, cvv, versao);
+    }
 
-        // Mockito setup (opcional, mas para manter o padrão)
-        Mockito.when(mockRepo.findByCiclistaId(this.idCiclista))
-                .thenReturn(Optional.of(this));
+    // Modo particionado (o cartão chega e sai junto com o ciclista) e réplicas de leitura
+    public static void importar(CartaoCredito cartao) {
+        gravar(dados(), cartao);
+        Replicacao.cartaoGravado(cartao);
+    }
+
+    static void gravar(Dados dados, CartaoCredito cartao) {
+        dados.storage.put(cartao.idCiclista, cartao);
+    }
+
+    public static CartaoCredito remover(UUID idCiclista) {
+        CartaoCredito removido = dados().storage.remove(idCiclista);
+        if (removido != null) {
+            Replicacao.removido(Replicacao.CARTAO, idCiclista);
+        }
+        return removido;
+    }
+
+    public static List<CartaoCredito> listarTodos() {
+        return new ArrayList<>(dados().storage.values());
     }
 
     public static CartaoCredito getCartaoCreditoPorCiclistaId(UUID idCiclista) {
-        return storage.get(idCiclista);
+        return dados().storage.get(idCiclista);
+    }
+
+    // Na ordem dos ids de ciclista, com null para quem não tem cartão
+    public static List<CartaoCredito> getCartoesPorCiclistaIds(List<UUID> idsCiclista) {
+        return dados().storage.getTodos(idsCiclista);
     }
 
     public static CartaoCredito alterarDadosCartao(UUID idCiclista, String nomeTitular, String numero, Date validade, String cvv) {
-        CartaoCredito cartaoExistente = storage.get(idCiclista);
+        return alterarDadosCartao(idCiclista, null, nomeTitular, numero, validade, cvv);
+    }
 
-        if (cartaoExistente == null) {
-            return null;
+    // Alteração condicional: com versaoEsperada != null só grava se ninguém alterou antes (If-Match)
+    public static CartaoCredito alterarDadosCartao(UUID idCiclista, Long versaoEsperada, String nomeTitular, String numero, Date validade, String cvv) {
+        MapaUUID<CartaoCredito> storage = dados().storage;
+        while (true) {
+            CartaoCredito cartaoExistente = storage.get(idCiclista);
+
+            if (cartaoExistente == null) {
+                return null;
+            }
+            if (versaoEsperada != null && versaoEsperada != cartaoExistente.versao) {
+                throw new VersaoDesatualizadaException(cartaoExistente.versao);
+            }
+
+            CartaoCredito novo = new CartaoCredito(idCiclista, nomeTitular, numero, validade, cvv, cartaoExistente.versao + 1);
+            if (storage.replace(idCiclista, cartaoExistente, novo)) {
+                Replicacao.cartaoGravado(novo);
+                return novo;
+            }
         }
+    }
 
-        cartaoExistente.nomeTitular = nomeTitular;
-        cartaoExistente.numero = numero;
-        cartaoExistente.validade = validade;
-        cartaoExistente.cvv = cvv;
+    public UUID getIdCiclista() {
+        return idCiclista;
+    }
+
+    public String getNomeTitular() {
+        return nomeTitular;
+    }
 
-        return cartaoExistente;
+    public String getNumero() {
+        return numero;
     }
 
+    public Date getValidade() {
+        return validade == null ? null : new Date(validade.getTime());
+    }
+
+    public String getCvv() {
+        return cvv;
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    // Troca só os cartões da época; o resto continua o mesmo
     public static void restaurar() {
-        Mockito.reset(mockRepo);
-        storage.clear();
+        Epoca.trocar(epoca -> epoca.com(new Dados()));
+        descartarDerivados();
+        Replicacao.restaurado(Replicacao.CARTAO);
+    }
+
+    static void descartarDerivados() {
+        synchronized (mockRepo) {
+            Mockito.reset(mockRepo);
+        }
     }
 
     public static Boolean validarValidade(Date validade) {
@@ -72,4 +170,4 @@ public class CartaoCredito {
         if (nomeTitular == null || nomeTitular.trim().isEmpty()) return false;
         return nomeTitular.trim().split(" ").length >= 2;
     }
-}
\ No newline at end of file
+}
@@ -1,84 +1,312 @@
 package com.mycompany.app.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.mycompany.app.eventos.FeedAlteracoes;
+import com.mycompany.app.particao.Particoes;
+import com.mycompany.app.replicacao.Replicacao;
 import com.mycompany.app.repositories.CiclistaRepositorio;
+import com.mycompany.app.util.IndicePrefixo;
+import com.mycompany.app.util.MapaUUID;
 import org.mockito.Mockito;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
 
+/**
+ * Snapshot imutável de um ciclista. Toda alteração cria uma nova versão e a troca
+ * no storage com compare-and-set, então quem está serializando um ciclista nunca
+ * vê um objeto pela metade.
+ */
 public class Ciclista {
     private static final CiclistaRepositorio mockRepo = Mockito.mock(CiclistaRepositorio.class);
-    private static final Map<UUID, Ciclista> storage = new HashMap<>();
-    private UUID id;
-    private String email;
-    private String nacionalidade;
-    private String cpf;
-    private String passaporte;
-    private Date validadePassaporte;
-    private String pais;
-    private Date nascimento;
-    private String nome;
-    private String senha;
-    private String urlFoto;
-    private Boolean status;
-    private Boolean statusPermicaoAluguel;
-    private UUID bicicletaId = null;
+    // Geração das leituras derivadas de cada ciclista (permiteAluguel, bicicletaAlugada), por faixa
+    // de id: avança depois de cada alteração do ciclista ou do seu aluguel ativo
+    private static final int FAIXAS_GERACAO = 1024;
+    private static final AtomicLongArray geracoes = new AtomicLongArray(FAIXAS_GERACAO);
+    // Avança depois de qualquer alteração no storage (chave do cache da listagem completa)
+    private static final AtomicLong versaoStorage = new AtomicLong();
+    private final UUID id;
+    private final String email;
+    private final String nacionalidade;
+    private final String cpf;
+    private final String passaporte;
+    private final Date validadePassaporte;
+    private final String pais;
+    private final Date nascimento;
+    private final String nome;
+    private final String senha;
+    private final String urlFoto;
+    private final Boolean status;
+    private final Boolean statusPermicaoAluguel;
+    private final UUID bicicletaId;
+    private final long versao;
+
+    // Storage e índices de uma época ({@link Epoca}); gerações e versão do storage são globais
+    static final class Dados {
+        final MapaUUID<Ciclista> storage = new MapaUUID<>();
+        final IndiceDocumentos documentos = new IndiceDocumentos();
+        final IndicePrefixo indiceNome = new IndicePrefixo();
+    }
+
+    private static Dados dados() {
+        return Epoca.atual().ciclistas;
+    }
 
     public Ciclista(String email, String nacionalidade, String cpf, String passaporte,
                     Date validadePassaporte, String pais, Date nascimento,
                     String nome, String senha, String urlFoto) {
 
-        this.id = UUID.randomUUID();
-        while (validarID(this.id)) {
-            this.id = UUID.randomUUID();
-        }
-
+        this.id = Particoes.proximoId();
         this.email = email;
         this.nacionalidade = nacionalidade;
         this.cpf = cpf;
         this.passaporte = passaporte;
-        this.validadePassaporte = validadePassaporte;
+        this.validadePassaporte = copiar(validadePassaporte);
         this.pais = pais;
-        this.nascimento = nascimento;
+        this.nascimento = copiar(nascimento);
         this.nome = nome;
         this.senha = senha;
         this.urlFoto = urlFoto;
         this.status = false;
         this.statusPermicaoAluguel =  false;
+        this.bicicletaId = null;
+        this.versao = 1;
 
-        storage.put(this.id, this);
+        // Lança DocumentoEmUsoException se o CPF/passaporte já for de outro ciclista
+        Dados dados = dados();
+        dados.documentos.reservar(this.id, this.cpf, this.passaporte, this.pais);
+        dados.storage.put(this.id, this);
+        leituraAlterada(this.id);
+        versaoStorage.incrementAndGet();
+        dados.indiceNome.indexar(this.id, this.nome);
+        FeedAlteracoes.principal().publicar(FeedAlteracoes.TOPICO_CICLISTA, "cadastrado", this.id, this.id, this);
+        Replicacao.ciclistaGravado(this);
 
-        Mockito.when(mockRepo.buscarPorID(this.id))
-                .thenReturn(true);
+        // O stubbing do Mockito não é thread-safe: cadastros concorrentes se atropelavam
+        synchronized (mockRepo) {
+            Mockito.when(mockRepo.buscarPorID(this.id))
+                    .thenReturn(true);
 
-        Mockito.when(mockRepo.buscarPorEmail(this.email))
-                .thenReturn(true);
+            Mockito.when(mockRepo.buscarPorEmail(this.email))
+                    .thenReturn(true);
 
-        Mockito.when(mockRepo.getCiclistaPorId(this.id))
-                .thenReturn(this);
+            Mockito.when(mockRepo.getCiclistaPorId(this.id))
+                    .thenReturn(this);
 
-        Mockito.when(mockRepo.findAll())
-                .thenReturn(new ArrayList<>(storage.values()));
+            Mockito.when(mockRepo.findAll())
+                    .thenReturn(new ArrayList<>(dados.storage.values()));
+        }
     }
 
-    public void alterarDados(String email, String nacionalidade, String cpf, String passaporte,
-                             Date validadePassaporte, String pais, Date nascimento,
-                             String nome, String senha, String urlFoto){
+    // Construtor de cópia usado para gerar a próxima versão (não grava no storage)
+    private Ciclista(Ciclista anterior, String email, String nacionalidade, String cpf, String passaporte,
+                     Date validadePassaporte, String pais, Date nascimento,
+                     String nome, String senha, String urlFoto, Boolean status, Boolean statusPermicaoAluguel) {
+        this.id = anterior.id;
         this.email = email;
         this.nacionalidade = nacionalidade;
         this.cpf = cpf;
         this.passaporte = passaporte;
-        this.validadePassaporte = validadePassaporte;
+        this.validadePassaporte = copiar(validadePassaporte);
         this.pais = pais;
-        this.nascimento = nascimento;
+        this.nascimento = copiar(nascimento);
         this.nome = nome;
         this.senha = senha;
         this.urlFoto = urlFoto;
+        this.status = status;
+        this.statusPermicaoAluguel = statusPermicaoAluguel;
+        this.bicicletaId = anterior.bicicletaId;
+        this.versao = anterior.versao + 1;
+    }
+
+    // Construtor completo usado para reidratar um ciclista vindo de um repositório
+    private Ciclista(UUID id, String email, String nacionalidade, String cpf, String passaporte,
+                     Date validadePassaporte, String pais, Date nascimento, String nome, String senha,
+                     String urlFoto, Boolean status, Boolean statusPermicaoAluguel, UUID bicicletaId, long versao) {
+        this.id = id;
+        this.email = email;
+        this.nacionalidade = nacionalidade;
+        this.cpf = cpf;
+        this.passaporte = passaporte;
+        this.validadePassaporte = copiar(validadePassaporte);
+        this.pais = pais;
+        this.nascimento = copiar(nascimento);
+        this.nome = nome;
+        this.senha = senha;
+        this.urlFoto = urlFoto;
+        this.status = status;
+        this.statusPermicaoAluguel = statusPermicaoAluguel;
+        this.bicicletaId = bicicletaId;
+        this.versao = versao;
+    }
+
+    // Recria um snapshot a partir de dados persistidos, sem gravar no storage
+    public static Ciclista reconstruir(UUID id, String email, String nacionalidade, String cpf, String passaporte,
+                                       Date validadePassaporte, String pais, Date nascimento, String nome, String senha,
+                                       String urlFoto, Boolean status, Boolean statusPermicaoAluguel, UUID bicicletaId, long versao) {
+        return new Ciclista(id, email, nacionalidade, cpf, passaporte, validadePassaporte, pais, nascimento,
+                nome, senha, urlFoto, status, statusPermicaoAluguel, bicicletaId, versao);
+    }
+
+    // Um ciclista que chegou de outro nó (snapshot de reconstruir, com id e versão): transferência
+    // do modo particionado ou réplica de leitura. Um reenvio substitui o que já tinha chegado.
+    public static void importar(Ciclista ciclista) {
+        Dados dados = dados();
+        synchronized (dados.documentos.lockDe(ciclista.id)) {
+            gravar(dados, ciclista);
+            Replicacao.ciclistaGravado(ciclista);
+        }
+    }
 
-        storage.put(this.id, this);
+    // Grava um snapshot pronto nos storages de uma época (a atual ou uma ainda sendo montada)
+    static void gravar(Dados dados, Ciclista ciclista) {
+        synchronized (dados.documentos.lockDe(ciclista.id)) {
+            dados.documentos.reservar(ciclista.id, ciclista.cpf, ciclista.passaporte, ciclista.pais);
+            Ciclista anterior = dados.storage.put(ciclista.id, ciclista);
+            if (anterior == null) {
+                dados.indiceNome.indexar(ciclista.id, ciclista.nome);
+            } else {
+                dados.documentos.liberarNaoUsados(ciclista.id, anterior, ciclista);
+                dados.indiceNome.atualizar(ciclista.id, new String[]{anterior.nome}, new String[]{ciclista.nome});
+            }
+            leituraAlterada(ciclista.id);
+            versaoStorage.incrementAndGet();
+        }
     }
-    private Boolean validarID(UUID id) {
-        return storage.containsKey(id);
+
+    // ... e o que saiu daqui para outro nó: deixa o storage e os índices. Devolve o snapshot removido
+    public static Ciclista remover(UUID id) {
+        Dados dados = dados();
+        synchronized (dados.documentos.lockDe(id)) {
+            Ciclista atual = dados.storage.remove(id);
+            if (atual == null) {
+                return null;
+            }
+            dados.documentos.liberar(id, atual);
+            dados.indiceNome.remover(id, atual.nome);
+            leituraAlterada(id);
+            versaoStorage.incrementAndGet();
+            Replicacao.removido(Replicacao.CICLISTA, id);
+            return atual;
+        }
+    }
+
+    // Alteração condicional: com versaoEsperada != null só grava se ninguém alterou antes (If-Match).
+    // Retorna a nova versão, que passa a ser a visível no storage.
+    public Ciclista alterarDados(Long versaoEsperada, String email, String nacionalidade, String cpf, String passaporte,
+                             Date validadePassaporte, String pais, Date nascimento,
+                             String nome, String senha, String urlFoto){
+        Dados dados = dados();
+        synchronized (dados.documentos.lockDe(this.id)) {
+            return trocarVersao(dados, versaoEsperada, "alterado", atual -> new Ciclista(atual, email, nacionalidade, cpf, passaporte,
+                    validadePassaporte, pais, nascimento, nome, senha, urlFoto, atual.status, atual.statusPermicaoAluguel));
+        }
+    }
+
+    // Lê a versão atual, monta a próxima e tenta publicá-la com compare-and-set.
+    // Sem If-Match repete até conseguir; com If-Match qualquer corrida vira 412.
+    // A nova versão vai para o feed como "ciclista.<tipo>"; alterações concorrentes do mesmo
+    // ciclista podem chegar fora de ordem no feed, por isso o snapshot leva a versão.
+    // Chamado sempre com documentos.lockDe(id), que serializa os escritores dos índices.
+    private Ciclista trocarVersao(Dados dados, Long versaoEsperada, String tipo, UnaryOperator<Ciclista> proximaVersao) {
+        while (true) {
+            Ciclista atual = dados.storage.get(this.id);
+            if (atual == null) {
+                throw new IllegalStateException("Ciclista removido durante a alteração.");
+            }
+            if (versaoEsperada != null && versaoEsperada != atual.versao) {
+                throw new VersaoDesatualizadaException(atual.versao);
+            }
+
+            Ciclista novo = proximaVersao.apply(atual);
+            boolean mudouDocumentos = !IndiceDocumentos.mesmasChaves(atual, novo);
+            if (mudouDocumentos) {
+                dados.documentos.reservar(this.id, novo.cpf, novo.passaporte, novo.pais);
+            }
+            if (dados.storage.replace(this.id, atual, novo)) {
+                leituraAlterada(this.id);
+                versaoStorage.incrementAndGet();
+                if (mudouDocumentos) {
+                    dados.documentos.liberarNaoUsados(this.id, atual, novo);
+                }
+                dados.indiceNome.atualizar(this.id, new String[]{atual.nome}, new String[]{novo.nome});
+                FeedAlteracoes.principal().publicar(FeedAlteracoes.TOPICO_CICLISTA, tipo, this.id, this.id, novo);
+                Replicacao.ciclistaGravado(novo);
+                return novo;
+            }
+            // perdeu a corrida: desfaz a reserva de documentos que a versão atual não usa
+            if (mudouDocumentos) {
+                dados.documentos.liberarNaoUsados(this.id, novo, atual);
+            }
+        }
+    }
+
+    private static Date copiar(Date data) {
+        return data == null ? null : new Date(data.getTime());
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getNacionalidade() {
+        return nacionalidade;
+    }
+
+    public String getCpf() {
+        return cpf;
+    }
+
+    public String getPassaporte() {
+        return passaporte;
+    }
+
+    public Date getValidadePassaporte() {
+        return copiar(validadePassaporte);
+    }
+
+    public String getPais() {
+        return pais;
+    }
+
+    public Date getNascimento() {
+        return copiar(nascimento);
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    @JsonIgnore
+    public String getSenha() {
+        return senha;
+    }
+
+    public String getUrlFoto() {
+        return urlFoto;
+    }
+
+    public Boolean getStatus() {
+        return status;
+    }
+
+    public Boolean getStatusPermicaoAluguel() {
+        return statusPermicaoAluguel;
+    }
+
+    public UUID getBicicletaId() {
+        return bicicletaId;
+    }
+
+    public long getVersao() {
+        return versao;
     }
 
     public static Boolean validarSintaxeEmail(String email) {
@@ -87,7 +315,7 @@ public class Ciclista {
     }
 
     public static Boolean validarEmail(String email) {
-        return storage.values().stream().anyMatch(c -> c.email.equalsIgnoreCase(email));
+        return dados().storage.values().stream().anyMatch(c -> c.email.equalsIgnoreCase(email));
     }
 
     public Boolean verificarMudancaEmail(String email){
@@ -128,38 +356,115 @@ public class Ciclista {
         return senhaA.matches(regex);
     }
 
+    public static long versaoStorage() {
+        return versaoStorage.get();
+    }
+
     public static List<Ciclista> listarTodos() {
-        return new ArrayList<>(storage.values());
+        return new ArrayList<>(dados().storage.values());
+    }
+
+    // Muda sempre que algo que permiteAluguel ou bicicletaAlugada devolvem pode ter mudado
+    public static long geracaoLeitura(UUID id) {
+        return geracoes.get(faixaGeracao(id));
+    }
+
+    static void leituraAlterada(UUID id) {
+        geracoes.incrementAndGet(faixaGeracao(id));
+    }
+
+    static void invalidarLeituras() {
+        for (int i = 0; i < FAIXAS_GERACAO; i++) {
+            geracoes.incrementAndGet(i);
+        }
+    }
+
+    private static int faixaGeracao(UUID id) {
+        return (id.hashCode() & 0x7fffffff) % FAIXAS_GERACAO;
     }
 
     public static Ciclista getCiclistaPorId(UUID id) {
-        return storage.get(id);
+        return dados().storage.get(id);
     }
 
-    public void alterarStatusCiclista(Boolean status) {
-        this.status = status;
+    // Na ordem dos ids, com null para os que não existem
+    public static List<Ciclista> getCiclistasPorIds(List<UUID> ids) {
+        return dados().storage.getTodos(ids);
+    }
+
+    public static Ciclista buscarPorCpf(String cpf) {
+        Dados dados = dados();
+        UUID id = dados.documentos.buscarCpf(cpf);
+        return id == null ? null : dados.storage.get(id);
+    }
+
+    public static Ciclista buscarPorPassaporte(String passaporte, String pais) {
+        Dados dados = dados();
+        UUID id = dados.documentos.buscarPassaporte(passaporte, pais);
+        return id == null ? null : dados.storage.get(id);
+    }
+
+    // Busca por prefixo de qualquer palavra do nome, paginada (pagina começa em 0)
+    public static List<Ciclista> buscarPorNome(String prefixo, int pagina, int tamanho) {
+        Dados dados = dados();
+        return dados.indiceNome.buscar(prefixo, pagina, tamanho, dados.storage::get, c -> new String[]{c.nome});
+    }
+
+    // true se o CPF ou passaporte+país já pertence a um ciclista diferente de ignorarId
+    public static boolean documentoEmUso(String cpf, String passaporte, String pais, UUID ignorarId) {
+        return dados().documentos.emUso(cpf, passaporte, pais, ignorarId);
+    }
+
+    // Ativar o cadastro libera o aluguel; desativar bloqueia
+    // Mesmo lock de alterarDados: toda troca de versão de um ciclista passa por ele
+    public Ciclista alterarStatusCiclista(Boolean status) {
+        Dados dados = dados();
+        synchronized (dados.documentos.lockDe(this.id)) {
+            return trocarVersao(dados, null, Boolean.TRUE.equals(status) ? "ativado" : "desativado", atual -> new Ciclista(atual, atual.email, atual.nacionalidade, atual.cpf,
+                    atual.passaporte, atual.validadePassaporte, atual.pais, atual.nascimento, atual.nome,
+                    atual.senha, atual.urlFoto, status, status));
+        }
     }
 
     public boolean verificarPermissaoAluguel() {
         return (this.status && this.statusPermicaoAluguel);
     }
 
+    // Troca só os ciclistas da época; o resto continua o mesmo
     public static void restaurar() {
-        Mockito.reset(mockRepo);
-        storage.clear();
+        Epoca.trocar(epoca -> epoca.com(new Dados()));
+        descartarDerivados();
+        Replicacao.restaurado(Replicacao.CICLISTA);
+    }
+
+    // Depois de trocar os ciclistas: nada calculado sobre os anteriores continua valendo
+    static void descartarDerivados() {
+        synchronized (mockRepo) {
+            Mockito.reset(mockRepo);
+        }
+        invalidarLeituras();
+        versaoStorage.incrementAndGet();
     }
 
     public Object retornarBicicletaAlugada () {
-        if (bicicletaId != null) {
+        // A bicicleta vem do aluguel ativo; o campo só é preenchido em ciclistas reconstruídos
+        UUID bicicleta = bicicletaId;
+        if (bicicleta == null) {
+            Aluguel ativo = Aluguel.getAluguelAtivoPorCiclistaId(this.id);
+            bicicleta = ativo == null ? null : ativo.getBicicletaId();
+        }
+
+        if (bicicleta != null) {
             // Cria um Map para simular o objeto JSON com o ID da bicicleta
             Map<String, Object> bicicletaData = new HashMap<>();
-            bicicletaData.put("id", this.bicicletaId.toString());
+            bicicletaData.put("id", bicicleta.toString());
 
             // return Bicicleta.retornarDadosId(bicicletaId);
 
             return bicicletaData; // Retorna o Map simples
         }
 
-        return null;
+        // Sem aluguel ativo: objeto vazio (ctx.json não aceita null)
+        return Collections.emptyMap();
     }
 }
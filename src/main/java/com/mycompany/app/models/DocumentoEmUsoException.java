@@ -0,0 +1,11 @@
+package com.mycompany.app.models;
+
+/**
+ * Lançada quando o CPF ou o passaporte (no mesmo país) já pertence a outro ciclista.
+ */
+public class DocumentoEmUsoException extends RuntimeException {
+
+    public DocumentoEmUsoException(String documento) {
+        super(documento + " já cadastrado para outro ciclista.");
+    }
+}
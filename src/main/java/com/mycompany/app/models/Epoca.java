@@ -0,0 +1,189 @@
+package com.mycompany.app.models;
+
+import com.mycompany.app.eventos.EventoAluguel;
+import com.mycompany.app.replicacao.Replicacao;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Todos os storages do serviço (ciclistas, cartões, funcionários, estações e trancas, log de
+ * aluguéis) atrás de uma única referência volátil. Restaurar o banco ou carregar uma fixture
+ * monta uma época nova fora do ar e a publica com uma escrita: quem lê vê a época anterior
+ * inteira ou a nova inteira, nunca um storage já limpo ao lado de outro ainda cheio.
+ *
+ * Cada operação pega a época uma vez e faz tudo nela. Uma escrita que começou antes da troca
+ * termina na época antiga e se perde com ela, como se tivesse acontecido antes do reset. As
+ * versões dos storages e as gerações de leitura continuam globais e avançam na troca, então
+ * nenhum cache confunde o conteúdo de uma época com o de outra.
+ *
+ * Os restaurar() de cada modelo trocam só a parte dele: a época nova compartilha o resto com a
+ * anterior.
+ */
+public final class Epoca {
+
+    // Trocas de época e assinaturas que precisam seguir todas as épocas
+    static final Object lockTroca = new Object();
+    private static final AtomicLong numeracao = new AtomicLong();
+    private static volatile Epoca atual = inicial();
+
+    final Ciclista.Dados ciclistas;
+    final CartaoCredito.Dados cartoes;
+    final Funcionario.Dados funcionarios;
+    final Estacao.Dados estacoes;
+    final Aluguel.Dados alugueis;
+    private final long numero;
+    private volatile boolean publicada;
+
+    private Epoca(Ciclista.Dados ciclistas, CartaoCredito.Dados cartoes, Funcionario.Dados funcionarios,
+                  Estacao.Dados estacoes, Aluguel.Dados alugueis) {
+        this.ciclistas = ciclistas;
+        this.cartoes = cartoes;
+        this.funcionarios = funcionarios;
+        this.estacoes = estacoes;
+        this.alugueis = alugueis;
+        this.numero = numeracao.incrementAndGet();
+    }
+
+    private static Epoca inicial() {
+        Epoca epoca = vazia();
+        epoca.alugueis.acompanhar();
+        epoca.publicada = true;
+        return epoca;
+    }
+
+    // Época sem nada, ainda fora do ar: preencha e depois publique
+    public static Epoca vazia() {
+        return new Epoca(new Ciclista.Dados(), new CartaoCredito.Dados(), new Funcionario.Dados(),
+                new Estacao.Dados(), new Aluguel.Dados());
+    }
+
+    public static Epoca atual() {
+        return atual;
+    }
+
+    /**
+     * Põe a época no ar no lugar da atual, de uma vez. Depois da troca descarta o que foi
+     * calculado sobre a anterior (caches, mocks) e, no líder da replicação, faz as réplicas
+     * recarregarem o snapshot em vez de receber o conteúdo novo registro a registro.
+     */
+    public static void publicar(Epoca nova) {
+        synchronized (lockTroca) {
+            if (nova.publicada) {
+                throw new IllegalStateException("Época " + nova.numero + " já foi publicada.");
+            }
+            nova.alugueis.acompanhar();
+            nova.publicada = true;
+            atual = nova;
+        }
+        Ciclista.descartarDerivados();
+        CartaoCredito.descartarDerivados();
+        Funcionario.descartarDerivados();
+        Replicacao.epocaTrocada();
+    }
+
+    // Troca parte dos storages (o restaurar de um modelo); o resto vem da época atual
+    static void trocar(UnaryOperator<Epoca> troca) {
+        synchronized (lockTroca) {
+            Epoca nova = troca.apply(atual);
+            nova.alugueis.acompanhar();
+            nova.publicada = true;
+            atual = nova;
+        }
+    }
+
+    Epoca com(Ciclista.Dados ciclistas) {
+        return new Epoca(ciclistas, cartoes, funcionarios, estacoes, alugueis);
+    }
+
+    Epoca com(CartaoCredito.Dados cartoes) {
+        return new Epoca(ciclistas, cartoes, funcionarios, estacoes, alugueis);
+    }
+
+    Epoca com(Funcionario.Dados funcionarios) {
+        return new Epoca(ciclistas, cartoes, funcionarios, estacoes, alugueis);
+    }
+
+    Epoca com(Estacao.Dados estacoes) {
+        return new Epoca(ciclistas, cartoes, funcionarios, estacoes, alugueis);
+    }
+
+    Epoca com(Aluguel.Dados alugueis) {
+        return new Epoca(ciclistas, cartoes, funcionarios, estacoes, alugueis);
+    }
+
+    public long getNumero() {
+        return numero;
+    }
+
+    // --- Preenchimento, só antes de publicar. Pode ser chamado de várias threads ---
+
+    // Snapshot pronto (Ciclista.reconstruir); CPF/passaporte repetido lança DocumentoEmUsoException
+    public Epoca adicionar(Ciclista ciclista) {
+        exigirForaDoAr();
+        Ciclista.gravar(ciclistas, ciclista);
+        return this;
+    }
+
+    public Epoca adicionar(CartaoCredito cartao) {
+        exigirForaDoAr();
+        CartaoCredito.gravar(cartoes, cartao);
+        return this;
+    }
+
+    public Epoca adicionar(Funcionario funcionario) {
+        exigirForaDoAr();
+        Funcionario.gravar(funcionarios, funcionario);
+        return this;
+    }
+
+    // bicicletas[i] travada na tranca idsTrancas[i] (null = tranca livre)
+    public Estacao adicionarEstacao(UUID id, UUID[] idsTrancas, UUID[] bicicletas) {
+        exigirForaDoAr();
+        if (idsTrancas.length != bicicletas.length) {
+            throw new IllegalArgumentException("Uma bicicleta (ou null) por tranca.");
+        }
+        return Estacao.carregar(estacoes, id, idsTrancas, bicicletas);
+    }
+
+    // Aluguel completo (horaFim != null) ou ativo; o ativo tem o próximo prazo de atraso agendado
+    public Epoca adicionarAluguel(UUID id, UUID ciclistaId, UUID trancaInicioId, UUID bicicletaId,
+                                  LocalDateTime horaInicio, Double valorFixo, LocalDateTime horaFim,
+                                  UUID trancaFimId, Double valorExtra) {
+        exigirForaDoAr();
+        Aluguel.carregar(alugueis, id, ciclistaId, trancaInicioId, bicicletaId, horaInicio, valorFixo,
+                horaFim, trancaFimId, valorExtra);
+        return this;
+    }
+
+    // Evento cru, na ordem do log de origem (snapshot de réplica)
+    public Epoca anexar(EventoAluguel evento) {
+        exigirForaDoAr();
+        alugueis.eventos.anexar(evento);
+        return this;
+    }
+
+    private void exigirForaDoAr() {
+        if (publicada) {
+            throw new IllegalStateException("Época " + numero + " já está no ar; use as operações dos modelos.");
+        }
+    }
+
+    public Map<String, Object> tamanhos() {
+        Map<String, Object> tamanhos = new LinkedHashMap<>();
+        tamanhos.put("epoca", numero);
+        tamanhos.put("ciclistas", ciclistas.storage.size());
+        tamanhos.put("cartoes", cartoes.storage.size());
+        tamanhos.put("funcionarios", funcionarios.storage.size());
+        tamanhos.put("estacoes", estacoes.estacoes.size());
+        tamanhos.put("trancas", estacoes.trancas.size());
+        tamanhos.put("alugueis", alugueis.historico.porId().size());
+        tamanhos.put("alugueisAtivos", alugueis.ativos.tamanho());
+        tamanhos.put("eventosAluguel", alugueis.eventos.tamanho());
+        return tamanhos;
+    }
+}
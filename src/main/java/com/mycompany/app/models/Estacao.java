@@ -0,0 +1,146 @@
+package com.mycompany.app.models;
+
+import com.mycompany.app.util.GeradoresId;
+import com.mycompany.app.util.MapaUUID;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estação com suas trancas e o contador de bicicletas disponíveis, mantido a cada retirada e
+ * devolução (consultar a disponibilidade não percorre as trancas).
+ */
+public final class Estacao {
+    public static final int MAXIMO_TRANCAS = 1000;
+
+    // Estações e trancas de uma época ({@link Epoca})
+    static final class Dados {
+        final MapaUUID<Estacao> estacoes = new MapaUUID<>();
+        final MapaUUID<Tranca> trancas = new MapaUUID<>();
+        // bicicleta travada -> tranca (bicicletas em uso não estão aqui)
+        final MapaUUID<UUID> trancaPorBicicleta = new MapaUUID<>();
+    }
+
+    static Dados dados() {
+        return Epoca.atual().estacoes;
+    }
+
+    // Storages da época em que a estação foi cadastrada; as trancas atualizam os índices dela
+    final Dados daEpoca;
+    private final UUID id;
+    private final Tranca[] trancas;
+    private final AtomicInteger disponiveis = new AtomicInteger();
+
+    // bicicletas[i] começa travada na tranca i (null = tranca livre)
+    private Estacao(Dados daEpoca, UUID id, UUID[] idsTrancas, UUID[] bicicletas) {
+        this.daEpoca = daEpoca;
+        this.id = id;
+        this.trancas = new Tranca[idsTrancas.length];
+        int travadas = 0;
+        for (int i = 0; i < idsTrancas.length; i++) {
+            trancas[i] = new Tranca(this, idsTrancas[i], bicicletas[i]);
+            if (bicicletas[i] != null) {
+                travadas++;
+            }
+        }
+        disponiveis.set(travadas);
+    }
+
+    // Cria a estação com as trancas e bicicletas novas nas primeiras trancas
+    public static Estacao cadastrar(int quantidadeTrancas, int quantidadeBicicletas) {
+        if (quantidadeTrancas < 1 || quantidadeTrancas > MAXIMO_TRANCAS) {
+            throw new IllegalArgumentException("Quantidade de trancas deve estar entre 1 e " + MAXIMO_TRANCAS + ".");
+        }
+        if (quantidadeBicicletas < 0 || quantidadeBicicletas > quantidadeTrancas) {
+            throw new IllegalArgumentException("Quantidade de bicicletas deve estar entre 0 e o número de trancas.");
+        }
+        UUID id = GeradoresId.atual().proximo();
+        UUID[] idsTrancas = new UUID[quantidadeTrancas];
+        UUID[] bicicletas = new UUID[quantidadeTrancas];
+        for (int i = 0; i < quantidadeTrancas; i++) {
+            idsTrancas[i] = GeradoresId.atual().proximo();
+            bicicletas[i] = i < quantidadeBicicletas ? GeradoresId.atual().proximo() : null;
+        }
+        Dados dados = dados();
+        Estacao estacao = new Estacao(dados, id, idsTrancas, bicicletas);
+        dados.estacoes.put(estacao.id, estacao);
+        return estacao;
+    }
+
+    // Estação com ids já definidos (fixture) numa época ainda sendo montada
+    static Estacao carregar(Dados dados, UUID id, UUID[] idsTrancas, UUID[] bicicletas) {
+        if (idsTrancas.length < 1 || idsTrancas.length > MAXIMO_TRANCAS) {
+            throw new IllegalArgumentException("Quantidade de trancas deve estar entre 1 e " + MAXIMO_TRANCAS + ".");
+        }
+        Estacao estacao = new Estacao(dados, id, idsTrancas, bicicletas);
+        dados.estacoes.put(estacao.id, estacao);
+        return estacao;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public List<Tranca> getTrancas() {
+        return Collections.unmodifiableList(Arrays.asList(trancas));
+    }
+
+    public int getBicicletasDisponiveis() {
+        return disponiveis.get();
+    }
+
+    public int getTrancasLivres() {
+        return trancas.length - disponiveis.get();
+    }
+
+    void bicicletaRetirada() {
+        disponiveis.decrementAndGet();
+    }
+
+    void bicicletaTravada() {
+        disponiveis.incrementAndGet();
+    }
+
+    // Retira qualquer bicicleta da estação; começa numa tranca aleatória para que retiradas
+    // simultâneas não disputem sempre a primeira. Devolve a bicicleta ou null se não há.
+    public UUID retirarQualquer() {
+        int inicio = ThreadLocalRandom.current().nextInt(trancas.length);
+        for (int i = 0; i < trancas.length && disponiveis.get() > 0; i++) {
+            UUID bicicleta = trancas[(inicio + i) % trancas.length].retirarBicicleta();
+            if (bicicleta != null) {
+                return bicicleta;
+            }
+        }
+        return null;
+    }
+
+    // Trava a bicicleta numa tranca livre (mesma busca de retirarQualquer); devolve a tranca ou null se a estação está cheia
+    public Tranca travarEmQualquer(UUID bicicletaId) {
+        int inicio = ThreadLocalRandom.current().nextInt(trancas.length);
+        for (int i = 0; i < trancas.length && disponiveis.get() < trancas.length; i++) {
+            Tranca tranca = trancas[(inicio + i) % trancas.length];
+            if (tranca.travar(bicicletaId)) {
+                return tranca;
+            }
+        }
+        return null;
+    }
+
+    public static Estacao getEstacao(UUID id) {
+        return dados().estacoes.get(id);
+    }
+
+    public static List<Estacao> listarTodas() {
+        return new ArrayList<>(dados().estacoes.values());
+    }
+
+    // Troca estações e trancas da época; o resto continua o mesmo
+    public static void restaurar() {
+        Epoca.trocar(epoca -> epoca.com(new Dados()));
+    }
+}
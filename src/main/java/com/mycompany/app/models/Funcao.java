@@ -0,0 +1,96 @@
+package com.mycompany.app.models;
+
+import com.mycompany.app.util.IndicePrefixo;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Função de um funcionário, internada: textos que diferem só em caixa, acento ou espaços
+ * ("Reparador", " reparador ") viram a mesma instância, com um código inteiro sequencial.
+ * Funciona como um enum que aceita funções novas; comparação por identidade é válida.
+ *
+ * A tabela de internação é da época ({@link Registro} em Funcionario.Dados): some com
+ * /restaurarBanco e com a troca de época, e o nome exibido é a grafia do primeiro cadastro
+ * dentro dela. O número de funções distintas por época é limitado
+ * ({@code aluguel.funcionario.maxFuncoes}), já que o texto vem do corpo das requisições.
+ */
+public final class Funcao {
+
+    static final int MAXIMO_FUNCOES = Integer.getInteger("aluguel.funcionario.maxFuncoes", 1000);
+    static final int TAMANHO_MAXIMO = 60;
+
+    // Presentes em todo registro, sempre com os mesmos códigos
+    public static final Funcao ADMINISTRATIVO = new Funcao(0, "Administrativo");
+    public static final Funcao REPARADOR = new Funcao(1, "Reparador");
+
+    // Tabela de internação de uma época
+    static final class Registro {
+        private final ConcurrentHashMap<String, Funcao> funcoes = new ConcurrentHashMap<>();
+        private final AtomicInteger proximoCodigo = new AtomicInteger();
+
+        Registro() {
+            for (Funcao conhecida : List.of(ADMINISTRATIVO, REPARADOR)) {
+                funcoes.put(IndicePrefixo.normalizar(conhecida.nome), conhecida);
+                proximoCodigo.incrementAndGet();
+            }
+        }
+
+        // Interna a função (cria se ainda não existe); null para texto vazio
+        Funcao de(String texto) {
+            String chave = IndicePrefixo.normalizar(texto);
+            if (chave.isEmpty()) {
+                return null;
+            }
+            return funcoes.computeIfAbsent(chave, k -> new Funcao(proximoCodigo.getAndIncrement(), texto.trim()));
+        }
+
+        Funcao buscar(String texto) {
+            return funcoes.get(IndicePrefixo.normalizar(texto));
+        }
+
+        // Vazia, já registrada, ou nova com vaga e tamanho aceitável
+        boolean aceita(String texto) {
+            String chave = IndicePrefixo.normalizar(texto);
+            return chave.isEmpty() || funcoes.containsKey(chave)
+                    || (chave.length() <= TAMANHO_MAXIMO && funcoes.size() < MAXIMO_FUNCOES);
+        }
+    }
+
+    private final int codigo;
+    private final String nome;
+
+    private Funcao(int codigo, String nome) {
+        this.codigo = codigo;
+        this.nome = nome;
+    }
+
+    // Interna na época atual
+    public static Funcao de(String texto) {
+        return Epoca.atual().funcionarios.funcoes.de(texto);
+    }
+
+    // Só consulta a época atual, sem registrar: usado nos filtros de busca
+    public static Funcao buscar(String texto) {
+        return Epoca.atual().funcionarios.funcoes.buscar(texto);
+    }
+
+    // Ainda fora de qualquer registro (snapshot vindo de outro processo); internada ao ser gravada
+    static Funcao avulsa(String texto) {
+        return texto == null || texto.isBlank() ? null : new Funcao(-1, texto.trim());
+    }
+
+    public int getCodigo() {
+        return codigo;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    @Override
+    public String toString() {
+        return nome;
+    }
+}
@@ -1,63 +1,220 @@
 package com.mycompany.app.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.mycompany.app.replicacao.Replicacao;
 import com.mycompany.app.repositories.FuncionarioRepositorio;
+import com.mycompany.app.util.GeradoresId;
+import com.mycompany.app.util.IndicePrefixo;
+import com.mycompany.app.util.MapaUUID;
 import org.mockito.Mockito;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
+/**
+ * Snapshot imutável de um funcionário; alterações publicam uma nova versão no storage
+ * com compare-and-set (mesmo esquema de {@link Ciclista}).
+ */
 public class Funcionario {
     private static final FuncionarioRepositorio mockRepo = Mockito.mock(FuncionarioRepositorio.class);
-    private static final Map<UUID, Funcionario> storage = new HashMap<>();
+    // Avança depois de qualquer alteração no storage (chave do cache da listagem completa)
+    private static final AtomicLong versaoStorage = new AtomicLong();
 
-    private UUID matricula;
-    private String senha;
-    private String confirmacaoSenha;
-    private String email;
-    private String nome;
-    private String idade;
-    private String funcao;
-    private String cpf;
+    private final UUID matricula;
+    private final String senha;
+    private final String confirmacaoSenha;
+    private final String email;
+    private final String nome;
+    private final String idade;
+    private final Funcao funcao;
+    private final String cpf;
+    private final long versao;
 
-    public Funcionario(String senha, String confirmacaoSenha, String email, String nome, String idade, String funcao, String cpf) {
-        this.matricula = UUID.randomUUID();
+    // Storage e índices de uma época ({@link Epoca}); a versão do storage é global
+    static final class Dados {
+        final MapaUUID<Funcionario> storage = new MapaUUID<>();
+        final IndicePrefixo indiceBusca = new IndicePrefixo();
+        final IndiceFuncao indiceFuncao = new IndiceFuncao();
+        final Funcao.Registro funcoes = new Funcao.Registro();
+    }
 
-        while (validarMatricula(this.matricula)) {
-            this.matricula = UUID.randomUUID();
-        }
+    private static Dados dados() {
+        return Epoca.atual().funcionarios;
+    }
 
+    public Funcionario(String senha, String confirmacaoSenha, String email, String nome, String idade, String funcao, String cpf) {
+        Dados dados = dados();
+        this.matricula = GeradoresId.atual().proximo();
         this.senha = senha;
         this.confirmacaoSenha = confirmacaoSenha;
         this.email = email;
         this.nome = nome;
         this.idade = idade;
-        this.funcao = funcao;
+        this.funcao = dados.funcoes.de(funcao);
         this.cpf = cpf;
+        this.versao = 1;
 
-        storage.put(this.matricula, this);
-
-        Mockito.when(mockRepo.getFuncionarioMatricula(this.matricula))
-                .thenReturn(this);
+        dados.storage.put(this.matricula, this);
+        dados.indiceBusca.indexar(this.matricula, this.nome, this.email);
+        dados.indiceFuncao.adicionar(this.funcao, this.matricula);
+        versaoStorage.incrementAndGet();
+        Replicacao.funcionarioGravado(this);
 
-        Mockito.when(mockRepo.findAll())
-                .thenReturn(new ArrayList<>(storage.values()));
-    }
+        // O stubbing do Mockito não é thread-safe: cadastros concorrentes se atropelavam
+        synchronized (mockRepo) {
+            Mockito.when(mockRepo.getFuncionarioMatricula(this.matricula))
+                    .thenReturn(this);
 
-    private Boolean validarMatricula(UUID matricula) {
-        return storage.containsKey(matricula);
+            Mockito.when(mockRepo.findAll())
+                    .thenReturn(new ArrayList<>(dados.storage.values()));
+        }
     }
 
-    public void alterarDados(String senha, String confirmacaoSenha, String email, String nome, String idade, String funcao, String cpf){
+    // Construtor de cópia usado para gerar a próxima versão (não grava no storage)
+    private Funcionario(Funcionario anterior, String senha, String confirmacaoSenha, String email, String nome, String idade, Funcao funcao, String cpf) {
+        this.matricula = anterior.matricula;
+        this.senha = senha;
+        this.confirmacaoSenha = confirmacaoSenha;
         this.email = email;
-        this.cpf = cpf;
         this.nome = nome;
+        this.idade = idade;
+        this.funcao = funcao;
+        this.cpf = cpf;
+        this.versao = anterior.versao + 1;
+    }
+
+    // Mesma versão, com a função internada no registro de outra época
+    private Funcionario(Funcionario origem, Funcao funcao) {
+        this.matricula = origem.matricula;
+        this.senha = origem.senha;
+        this.confirmacaoSenha = origem.confirmacaoSenha;
+        this.email = origem.email;
+        this.nome = origem.nome;
+        this.idade = origem.idade;
+        this.funcao = funcao;
+        this.cpf = origem.cpf;
+        this.versao = origem.versao;
+    }
+
+    // Construtor completo usado para reidratar um funcionário vindo de outro processo
+    private Funcionario(UUID matricula, String senha, String confirmacaoSenha, String email, String nome, String idade,
+                        String funcao, String cpf, long versao) {
+        this.matricula = matricula;
         this.senha = senha;
         this.confirmacaoSenha = confirmacaoSenha;
+        this.email = email;
+        this.nome = nome;
         this.idade = idade;
-        this.funcao = funcao;
+        this.funcao = Funcao.avulsa(funcao);
+        this.cpf = cpf;
+        this.versao = versao;
+    }
+
+    // Recria um snapshot a partir de dados de outro processo, sem gravar no storage
+    public static Funcionario reconstruir(UUID matricula, String senha, String confirmacaoSenha, String email, String nome,
+                                          String idade, String funcao, String cpf, long versao) {
+        return new Funcionario(matricula, senha, confirmacaoSenha, email, nome, idade, funcao, cpf, versao);
+    }
+
+    // Grava um snapshot pronto (réplica de leitura), substituindo a versão que houver
+    public static void importar(Funcionario funcionario) {
+        Dados dados = dados();
+        synchronized (dados.indiceFuncao.lockDe(funcionario.matricula)) {
+            Replicacao.funcionarioGravado(gravar(dados, funcionario));
+        }
+    }
+
+    // Grava um snapshot pronto nos storages de uma época (a atual ou uma ainda sendo montada),
+    // com a função internada no registro dessa época. Devolve o snapshot gravado
+    static Funcionario gravar(Dados dados, Funcionario recebido) {
+        Funcao funcao = recebido.funcao == null ? null : dados.funcoes.de(recebido.funcao.getNome());
+        Funcionario funcionario = funcao == recebido.funcao ? recebido : new Funcionario(recebido, funcao);
+        synchronized (dados.indiceFuncao.lockDe(funcionario.matricula)) {
+            Funcionario anterior = dados.storage.put(funcionario.matricula, funcionario);
+            if (anterior == null) {
+                dados.indiceBusca.indexar(funcionario.matricula, funcionario.nome, funcionario.email);
+                dados.indiceFuncao.adicionar(funcionario.funcao, funcionario.matricula);
+            } else {
+                dados.indiceBusca.atualizar(funcionario.matricula, new String[]{anterior.nome, anterior.email},
+                        new String[]{funcionario.nome, funcionario.email});
+                dados.indiceFuncao.mover(funcionario.matricula, anterior.funcao, funcionario.funcao);
+            }
+            versaoStorage.incrementAndGet();
+            return funcionario;
+        }
+    }
+
+    // Alteração condicional: com versaoEsperada != null só grava se ninguém alterou antes (If-Match).
+    // Retorna a nova versão, que passa a ser a visível no storage. O lock por matrícula mantém
+    // os índices na mesma ordem das versões publicadas.
+    public Funcionario alterarDados(Long versaoEsperada, String senha, String confirmacaoSenha, String email, String nome, String idade, String funcao, String cpf){
+        Dados dados = dados();
+        synchronized (dados.indiceFuncao.lockDe(this.matricula)) {
+            while (true) {
+                Funcionario atual = dados.storage.get(this.matricula);
+                if (atual == null) {
+                    throw new IllegalStateException("Funcionário removido durante a alteração.");
+                }
+                if (versaoEsperada != null && versaoEsperada != atual.versao) {
+                    throw new VersaoDesatualizadaException(atual.versao);
+                }
+
+                Funcionario novo = new Funcionario(atual, senha, confirmacaoSenha, email, nome, idade, dados.funcoes.de(funcao), cpf);
+                if (dados.storage.replace(this.matricula, atual, novo)) {
+                    dados.indiceBusca.atualizar(this.matricula, new String[]{atual.nome, atual.email}, new String[]{novo.nome, novo.email});
+                    dados.indiceFuncao.mover(this.matricula, atual.funcao, novo.funcao);
+                    versaoStorage.incrementAndGet();
+                    Replicacao.funcionarioGravado(novo);
+                    return novo;
+                }
+            }
+        }
+    }
 
-        storage.put(this.matricula, this);
+    public UUID getMatricula() {
+        return matricula;
     }
+
+    @JsonIgnore
+    public String getSenha() {
+        return senha;
+    }
+
+    @JsonIgnore
+    public String getConfirmacaoSenha() {
+        return confirmacaoSenha;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getIdade() {
+        return idade;
+    }
+
+    public String getFuncao() {
+        return funcao == null ? null : funcao.getNome();
+    }
+
+    @JsonIgnore
+    public Funcao getFuncaoNormalizada() {
+        return funcao;
+    }
+
+    public String getCpf() {
+        return cpf;
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
     public Boolean verificarMudancaEmail(String email){
         if (email.equals(this.email)) {
             return false;
@@ -68,7 +225,7 @@ public class Funcionario {
     public Map<String, Object> getFuncionario (String matriculaString) {
 
         UUID matricula = UUID.fromString(matriculaString);
-        Funcionario funcionario = storage.get(matricula);
+        Funcionario funcionario = dados().storage.get(matricula);
 
         if (funcionario == null) {
             return null;
@@ -88,17 +245,17 @@ public class Funcionario {
             funcionarioInformacoes.put("idade", 0);
         }
 
-        funcionarioInformacoes.put("funcao", funcionario.funcao);
+        funcionarioInformacoes.put("funcao", funcionario.getFuncao());
         funcionarioInformacoes.put("cpf", funcionario.cpf);
 
         return funcionarioInformacoes;
     }
     public static List<Funcionario> listarTodos() {
-        return new ArrayList<>(storage.values());
+        return new ArrayList<>(dados().storage.values());
     }
 
     public static Funcionario getFuncionarioMatricula(UUID matricula) {
-        return storage.get(matricula);
+        return dados().storage.get(matricula);
     }
 
     public static Boolean validarSintaxeEmail(String email) {
@@ -107,7 +264,7 @@ public class Funcionario {
     }
 
     public static Boolean validarEmailEmUso(String email) {
-        return storage.values().stream().anyMatch(c -> c.email.equalsIgnoreCase(email));
+        return dados().storage.values().stream().anyMatch(c -> c.email.equalsIgnoreCase(email));
     }
 
     public static Boolean validarCPF(String cpf) {
@@ -119,6 +276,11 @@ public class Funcionario {
         return nome.trim().split(" ").length >= 2;
     }
 
+    // Função nova só com vaga no registro da época e até 60 caracteres
+    public static Boolean validarFuncao(String funcao) {
+        return dados().funcoes.aceita(funcao);
+    }
+
     public static Boolean validarSenha(String senhaA, String senhaB) {
         if (senhaA == null || !senhaA.equals(senhaB)) return false;
         // Exemplo: Mínimo 6 caracteres, maiúscula e minúscula
@@ -127,11 +289,67 @@ public class Funcionario {
     }
 
     public static Boolean remover(UUID matricula) {
-        return storage.remove(matricula) != null;
+        Dados dados = dados();
+        synchronized (dados.indiceFuncao.lockDe(matricula)) {
+            Funcionario removido = dados.storage.remove(matricula);
+            if (removido == null) {
+                return false;
+            }
+            dados.indiceBusca.remover(matricula, removido.nome, removido.email);
+            dados.indiceFuncao.remover(removido.funcao, matricula);
+            versaoStorage.incrementAndGet();
+            Replicacao.removido(Replicacao.FUNCIONARIO, matricula);
+            return true;
+        }
+    }
+
+    // Funcionários de uma função, paginados pela matrícula (pagina começa em 0).
+    // Função nunca cadastrada devolve lista vazia, sem registrá-la.
+    public static List<Funcionario> listarPorFuncao(String funcao, int pagina, int tamanho) {
+        Dados dados = dados();
+        List<Funcionario> funcionarios = new ArrayList<>(tamanho);
+        for (UUID matricula : dados.indiceFuncao.pagina(dados.funcoes.buscar(funcao), pagina, tamanho)) {
+            Funcionario funcionario = dados.storage.get(matricula);
+            if (funcionario != null) {
+                funcionarios.add(funcionario);
+            }
+        }
+        return funcionarios;
+    }
+
+    public static int contarPorFuncao(String funcao) {
+        Dados dados = dados();
+        return dados.indiceFuncao.contar(dados.funcoes.buscar(funcao));
     }
 
+    // Nome da função -> quantidade de funcionários, em tempo proporcional ao número de funções
+    public static Map<String, Integer> contagemPorFuncao() {
+        Map<String, Integer> contagem = new LinkedHashMap<>();
+        dados().indiceFuncao.contagens().forEach((funcao, quantidade) -> contagem.put(funcao.getNome(), quantidade));
+        return contagem;
+    }
+
+    // Busca por prefixo de palavra do nome ou do email, paginada (pagina começa em 0)
+    public static List<Funcionario> buscar(String prefixo, int pagina, int tamanho) {
+        Dados dados = dados();
+        return dados.indiceBusca.buscar(prefixo, pagina, tamanho, dados.storage::get, f -> new String[]{f.nome, f.email});
+    }
+
+    public static long versaoStorage() {
+        return versaoStorage.get();
+    }
+
+    // Troca só os funcionários da época; o resto continua o mesmo
     public static void restaurar() {
-        Mockito.reset(mockRepo);
-        storage.clear();
+        Epoca.trocar(epoca -> epoca.com(new Dados()));
+        descartarDerivados();
+        Replicacao.restaurado(Replicacao.FUNCIONARIO);
+    }
+
+    static void descartarDerivados() {
+        synchronized (mockRepo) {
+            Mockito.reset(mockRepo);
+        }
+        versaoStorage.incrementAndGet();
     }
-}
\ No newline at end of file
+}
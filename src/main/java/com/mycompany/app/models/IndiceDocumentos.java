@@ -0,0 +1,138 @@
+package com.mycompany.app.models;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índices únicos de documento dos ciclistas: CPF normalizado e passaporte + país.
+ * Cada entrada aponta para o id do dono; a unicidade é garantida pelo putIfAbsent,
+ * sem lock global. Alterações de documento de um mesmo ciclista são serializadas por
+ * {@link #lockDe(UUID)} (locks por faixa de id), para que a liberação das chaves antigas
+ * não corra com outra alteração do mesmo ciclista.
+ */
+final class IndiceDocumentos {
+
+    private static final int FAIXAS_LOCK = 64;
+    private static final Pattern NAO_DIGITO = Pattern.compile("\\D");
+    private static final Pattern NAO_ALFANUMERICO = Pattern.compile("[^A-Za-z0-9]");
+    private static final Pattern ACENTO = Pattern.compile("\\p{M}");
+
+    private final ConcurrentHashMap<String, UUID> porCpf = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, UUID> porPassaporte = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[FAIXAS_LOCK];
+
+    IndiceDocumentos() {
+        for (int i = 0; i < FAIXAS_LOCK; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    Object lockDe(UUID id) {
+        return locks[(id.hashCode() & 0x7fffffff) % FAIXAS_LOCK];
+    }
+
+    // Só os dígitos; null quando não há CPF
+    static String chaveCpf(String cpf) {
+        if (cpf == null) {
+            return null;
+        }
+        String digitos = NAO_DIGITO.matcher(cpf).replaceAll("");
+        return digitos.isEmpty() ? null : digitos;
+    }
+
+    // Passaporte em maiúsculas e só alfanumérico + país sem acentos em minúsculas
+    static String chavePassaporte(String passaporte, String pais) {
+        if (passaporte == null) {
+            return null;
+        }
+        String numero = NAO_ALFANUMERICO.matcher(passaporte).replaceAll("").toUpperCase(Locale.ROOT);
+        if (numero.isEmpty()) {
+            return null;
+        }
+        String paisNormalizado = pais == null ? ""
+                : ACENTO.matcher(Normalizer.normalize(pais.trim(), Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        return numero + "|" + paisNormalizado;
+    }
+
+    UUID buscarCpf(String cpf) {
+        String chave = chaveCpf(cpf);
+        return chave == null ? null : porCpf.get(chave);
+    }
+
+    UUID buscarPassaporte(String passaporte, String pais) {
+        String chave = chavePassaporte(passaporte, pais);
+        return chave == null ? null : porPassaporte.get(chave);
+    }
+
+    boolean emUso(String cpf, String passaporte, String pais, UUID ignorarId) {
+        UUID donoCpf = buscarCpf(cpf);
+        if (donoCpf != null && !donoCpf.equals(ignorarId)) {
+            return true;
+        }
+        UUID donoPassaporte = buscarPassaporte(passaporte, pais);
+        return donoPassaporte != null && !donoPassaporte.equals(ignorarId);
+    }
+
+    // Reserva os documentos para o id; em conflito desfaz o que acabou de reservar e lança exceção
+    void reservar(UUID id, String cpf, String passaporte, String pais) {
+        String chaveCpf = chaveCpf(cpf);
+        boolean reservouCpf = false;
+        if (chaveCpf != null) {
+            UUID dono = porCpf.putIfAbsent(chaveCpf, id);
+            if (dono != null && !dono.equals(id)) {
+                throw new DocumentoEmUsoException("CPF");
+            }
+            reservouCpf = dono == null;
+        }
+
+        String chavePassaporte = chavePassaporte(passaporte, pais);
+        if (chavePassaporte != null) {
+            UUID dono = porPassaporte.putIfAbsent(chavePassaporte, id);
+            if (dono != null && !dono.equals(id)) {
+                if (reservouCpf) {
+                    porCpf.remove(chaveCpf, id);
+                }
+                throw new DocumentoEmUsoException("Passaporte");
+            }
+        }
+    }
+
+    static boolean mesmasChaves(Ciclista a, Ciclista b) {
+        return Objects.equals(chaveCpf(a.getCpf()), chaveCpf(b.getCpf()))
+                && Objects.equals(chavePassaporte(a.getPassaporte(), a.getPais()), chavePassaporte(b.getPassaporte(), b.getPais()));
+    }
+
+    // Libera as chaves do snapshot 'anterior' que o snapshot 'atual' não usa
+    void liberarNaoUsados(UUID id, Ciclista anterior, Ciclista atual) {
+        String cpfAnterior = chaveCpf(anterior.getCpf());
+        if (cpfAnterior != null && !cpfAnterior.equals(chaveCpf(atual.getCpf()))) {
+            porCpf.remove(cpfAnterior, id);
+        }
+        String passaporteAnterior = chavePassaporte(anterior.getPassaporte(), anterior.getPais());
+        if (passaporteAnterior != null
+                && !passaporteAnterior.equals(chavePassaporte(atual.getPassaporte(), atual.getPais()))) {
+            porPassaporte.remove(passaporteAnterior, id);
+        }
+    }
+
+    // Libera todas as chaves do snapshot que ainda apontam para o id
+    void liberar(UUID id, Ciclista ciclista) {
+        String cpf = chaveCpf(ciclista.getCpf());
+        if (cpf != null) {
+            porCpf.remove(cpf, id);
+        }
+        String passaporte = chavePassaporte(ciclista.getPassaporte(), ciclista.getPais());
+        if (passaporte != null) {
+            porPassaporte.remove(passaporte, id);
+        }
+    }
+
+    void limpar() {
+        porCpf.clear();
+        porPassaporte.clear();
+    }
+}
@@ -0,0 +1,113 @@
+package com.mycompany.app.models;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Índice dos funcionários por {@link Funcao}: membros ordenados por matrícula (para paginação
+ * estável) e um contador por função, para contagem em tempo constante.
+ * Alterações de um mesmo funcionário são serializadas por {@link #lockDe(UUID)}, para que as
+ * mudanças de função cheguem ao índice na mesma ordem em que foram publicadas no storage.
+ */
+final class IndiceFuncao {
+
+    private static final int FAIXAS_LOCK = 64;
+
+    private static final class Grupo {
+        final ConcurrentSkipListSet<UUID> membros = new ConcurrentSkipListSet<>();
+        final AtomicInteger contagem = new AtomicInteger();
+    }
+
+    private final ConcurrentHashMap<Funcao, Grupo> grupos = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[FAIXAS_LOCK];
+
+    IndiceFuncao() {
+        for (int i = 0; i < FAIXAS_LOCK; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    Object lockDe(UUID id) {
+        return locks[(id.hashCode() & 0x7fffffff) % FAIXAS_LOCK];
+    }
+
+    void adicionar(Funcao funcao, UUID id) {
+        if (funcao == null) {
+            return;
+        }
+        Grupo grupo = grupos.computeIfAbsent(funcao, f -> new Grupo());
+        if (grupo.membros.add(id)) {
+            grupo.contagem.incrementAndGet();
+        }
+    }
+
+    void remover(Funcao funcao, UUID id) {
+        if (funcao == null) {
+            return;
+        }
+        Grupo grupo = grupos.get(funcao);
+        if (grupo != null && grupo.membros.remove(id)) {
+            grupo.contagem.decrementAndGet();
+        }
+    }
+
+    void mover(UUID id, Funcao anterior, Funcao atual) {
+        if (anterior == atual) {
+            return;
+        }
+        remover(anterior, id);
+        adicionar(atual, id);
+    }
+
+    int contar(Funcao funcao) {
+        Grupo grupo = funcao == null ? null : grupos.get(funcao);
+        return grupo == null ? 0 : grupo.contagem.get();
+    }
+
+    // Funções com ao menos um funcionário, na ordem do código
+    Map<Funcao, Integer> contagens() {
+        List<Funcao> funcoes = new ArrayList<>();
+        grupos.forEach((funcao, grupo) -> {
+            if (grupo.contagem.get() > 0) {
+                funcoes.add(funcao);
+            }
+        });
+        funcoes.sort(Comparator.comparingInt(Funcao::getCodigo));
+        Map<Funcao, Integer> contagens = new LinkedHashMap<>();
+        for (Funcao funcao : funcoes) {
+            int quantidade = contar(funcao);
+            if (quantidade > 0) {
+                contagens.put(funcao, quantidade);
+            }
+        }
+        return contagens;
+    }
+
+    List<UUID> pagina(Funcao funcao, int pagina, int tamanho) {
+        List<UUID> ids = new ArrayList<>(tamanho);
+        Grupo grupo = funcao == null ? null : grupos.get(funcao);
+        if (grupo == null) {
+            return ids;
+        }
+        Iterator<UUID> it = grupo.membros.iterator();
+        for (long pular = (long) pagina * tamanho; pular > 0 && it.hasNext(); pular--) {
+            it.next();
+        }
+        while (it.hasNext() && ids.size() < tamanho) {
+            ids.add(it.next());
+        }
+        return ids;
+    }
+
+    void limpar() {
+        grupos.clear();
+    }
+}
@@ -0,0 +1,69 @@
+package com.mycompany.app.models;
+
+import com.mycompany.app.eventos.EventoAluguel;
+import com.mycompany.app.eventos.Projecao;
+import com.mycompany.app.util.MapaUUID;
+
+import java.util.UUID;
+
+/**
+ * Aluguéis em andamento: ciclista -> aluguel, e bicicleta -> ciclista para achar o aluguel
+ * na devolução sem varrer os ativos.
+ *
+ * Na reconstrução paralela a partição é o ciclista, o que deixa o mapa por ciclista exato.
+ */
+final class ProjecaoAlugueisAtivos implements Projecao<EventoAluguel> {
+
+    private final MapaUUID<Aluguel> porCiclista = new MapaUUID<>();
+    private final MapaUUID<UUID> ciclistaPorBicicleta = new MapaUUID<>();
+
+    Aluguel porCiclista(UUID ciclistaId) {
+        return porCiclista.get(ciclistaId);
+    }
+
+    UUID ciclistaPorBicicleta(UUID bicicletaId) {
+        return ciclistaPorBicicleta.get(bicicletaId);
+    }
+
+    int tamanho() {
+        return porCiclista.size();
+    }
+
+    @Override
+    public void aplicar(long sequencia, EventoAluguel evento) {
+        if (evento instanceof EventoAluguel.AluguelIniciado iniciado) {
+            porCiclista.put(iniciado.ciclistaId(), Aluguel.iniciado(iniciado));
+            ciclistaPorBicicleta.put(iniciado.bicicletaId(), iniciado.ciclistaId());
+        } else if (evento instanceof EventoAluguel.AluguelDevolvido devolvido) {
+            porCiclista.remove(devolvido.ciclistaId());
+            ciclistaPorBicicleta.remove(devolvido.bicicletaId());
+        } else if (evento instanceof EventoAluguel.AluguelRecebido recebido) {
+            porCiclista.put(recebido.ciclistaId(), Aluguel.recebido(recebido));
+            ciclistaPorBicicleta.put(recebido.bicicletaId(), recebido.ciclistaId());
+        } else if (evento instanceof EventoAluguel.AluguelTransferido transferido) {
+            Aluguel ativo = porCiclista.remove(transferido.ciclistaId());
+            if (ativo != null) {
+                ciclistaPorBicicleta.remove(ativo.getBicicletaId());
+            }
+        }
+    }
+
+    @Override
+    public Object chaveParticao(EventoAluguel evento) {
+        return evento.ciclistaId();
+    }
+
+    @Override
+    public void limpar() {
+        porCiclista.clear();
+        ciclistaPorBicicleta.clear();
+    }
+
+    // Em paralelo, o aluguel de um ciclista pode ser aplicado depois da devolução da mesma
+    // bicicleta por outro; o índice por bicicleta é refeito a partir dos ativos, que são exatos
+    @Override
+    public void aoConcluirReconstrucao() {
+        ciclistaPorBicicleta.clear();
+        porCiclista.forEach((ciclistaId, aluguel) -> ciclistaPorBicicleta.put(aluguel.getBicicletaId(), ciclistaId));
+    }
+}
@@ -0,0 +1,52 @@
+package com.mycompany.app.models;
+
+import com.mycompany.app.eventos.EventoAluguel;
+import com.mycompany.app.eventos.FeedAlteracoes;
+import com.mycompany.app.eventos.Projecao;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Leva início, atraso e fim de aluguel para o {@link FeedAlteracoes}. É assinada depois do histórico,
+ * então o snapshot publicado já é o que GET devolveria. Não guarda estado: limpar e
+ * reconstruir não republicam nada.
+ */
+final class ProjecaoFeedAlugueis implements Projecao<EventoAluguel> {
+
+    private final FeedAlteracoes feed;
+    private final ProjecaoHistoricoAlugueis historico;
+
+    ProjecaoFeedAlugueis(FeedAlteracoes feed, ProjecaoHistoricoAlugueis historico) {
+        this.feed = feed;
+        this.historico = historico;
+    }
+
+    @Override
+    public void aplicar(long sequencia, EventoAluguel evento) {
+        if (evento instanceof EventoAluguel.AluguelEmAtraso atraso) {
+            Map<String, Object> dados = new LinkedHashMap<>();
+            dados.put("aluguel", historico.porId().get(atraso.aluguelId()));
+            dados.put("minutos", atraso.minutos());
+            dados.put("valorPreAutorizado", atraso.valorPreAutorizado());
+            dados.put("preAutorizado", atraso.preAutorizado());
+            feed.publicar(FeedAlteracoes.TOPICO_ALUGUEL, "atrasado", atraso.aluguelId(), atraso.ciclistaId(), dados);
+            return;
+        }
+
+        String tipo;
+        if (evento instanceof EventoAluguel.AluguelIniciado) {
+            tipo = "iniciado";
+        } else if (evento instanceof EventoAluguel.AluguelDevolvido) {
+            tipo = "encerrado";
+        } else {
+            return;
+        }
+        feed.publicar(FeedAlteracoes.TOPICO_ALUGUEL, tipo, evento.aluguelId(), evento.ciclistaId(),
+                historico.porId().get(evento.aluguelId()));
+    }
+
+    @Override
+    public void limpar() {
+    }
+}
@@ -0,0 +1,66 @@
+package com.mycompany.app.models;
+
+import com.mycompany.app.eventos.EventoAluguel;
+import com.mycompany.app.eventos.Projecao;
+import com.mycompany.app.util.GeradorIdV7;
+
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Histórico de todos os aluguéis, ordenado por id; com ids UUIDv7 essa é também a ordem
+ * de criação, o que deixa a consulta por período como um recorte do mapa.
+ *
+ * O id e a horaInicio são lidos um depois do outro (e o UUIDv7 pode andar à frente do relógio
+ * quando a sequência estoura), então o recorte usa como folga a maior distância já vista entre
+ * o instante do id e a horaInicio ({@link #desvioMaximoMs()}).
+ */
+final class ProjecaoHistoricoAlugueis implements Projecao<EventoAluguel> {
+
+    private final ConcurrentSkipListMap<UUID, Aluguel> porId = new ConcurrentSkipListMap<>();
+    private final LongAccumulator desvioMaximoMs = new LongAccumulator(Math::max, 0);
+
+    ConcurrentSkipListMap<UUID, Aluguel> porId() {
+        return porId;
+    }
+
+    long desvioMaximoMs() {
+        return desvioMaximoMs.get();
+    }
+
+    private void gravar(Aluguel aluguel) {
+        porId.put(aluguel.getId(), aluguel);
+        if (aluguel.getId().version() == 7) {
+            long inicioMs = aluguel.getHoraInicio().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            desvioMaximoMs.accumulate(Math.abs(GeradorIdV7.instanteDe(aluguel.getId()).toEpochMilli() - inicioMs));
+        }
+    }
+
+    @Override
+    public void aplicar(long sequencia, EventoAluguel evento) {
+        if (evento instanceof EventoAluguel.AluguelIniciado iniciado) {
+            gravar(Aluguel.iniciado(iniciado));
+        } else if (evento instanceof EventoAluguel.AluguelDevolvido devolvido) {
+            porId.computeIfPresent(devolvido.aluguelId(), (id, aluguel) -> aluguel.devolvido(devolvido));
+        } else if (evento instanceof EventoAluguel.AluguelRecebido recebido) {
+            gravar(Aluguel.recebido(recebido));
+        } else if (evento instanceof EventoAluguel.AluguelTransferido transferido) {
+            // o histórico do aluguel continua no nó que o recebeu
+            porId.remove(transferido.aluguelId());
+        }
+    }
+
+    // Os eventos de um aluguel são todos do mesmo ciclista
+    @Override
+    public Object chaveParticao(EventoAluguel evento) {
+        return evento.ciclistaId();
+    }
+
+    @Override
+    public void limpar() {
+        porId.clear();
+        desvioMaximoMs.reset();
+    }
+}
@@ -0,0 +1,26 @@
+package com.mycompany.app.models;
+
+import com.mycompany.app.eventos.EventoAluguel;
+import com.mycompany.app.eventos.Projecao;
+
+/**
+ * Avança a geração de leitura do ciclista ({@link Ciclista#geracaoLeitura}) quando um aluguel
+ * começa ou termina, para que bicicletaAlugada não devolva uma resposta compartilhada de antes.
+ * É assinada depois dos aluguéis ativos, então a geração muda só quando a leitura nova já vale.
+ */
+final class ProjecaoLeiturasCiclista implements Projecao<EventoAluguel> {
+
+    @Override
+    public void aplicar(long sequencia, EventoAluguel evento) {
+        if (evento instanceof EventoAluguel.AluguelIniciado || evento instanceof EventoAluguel.AluguelDevolvido
+                || evento instanceof EventoAluguel.AluguelRecebido || evento instanceof EventoAluguel.AluguelTransferido) {
+            Ciclista.leituraAlterada(evento.ciclistaId());
+        }
+    }
+
+    // Log limpo: nenhum ciclista tem mais aluguel ativo
+    @Override
+    public void limpar() {
+        Ciclista.invalidarLeituras();
+    }
+}
@@ -0,0 +1,74 @@
+package com.mycompany.app.models;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Uma tranca de uma {@link Estacao}, vazia ou com uma bicicleta travada.
+ *
+ * Retirar e travar são um compare-and-set na própria tranca: dois ciclistas disputando a mesma
+ * bicicleta não usam lock, um deles simplesmente perde o CAS. O contador da estação é ajustado
+ * depois do CAS, então pode ficar um instante defasado, mas nunca deriva.
+ */
+public final class Tranca {
+    private final UUID id;
+    private final Estacao estacao;
+    private final AtomicReference<UUID> bicicleta;
+
+    Tranca(Estacao estacao, UUID id, UUID bicicleta) {
+        this.id = id;
+        this.estacao = estacao;
+        this.bicicleta = new AtomicReference<>(bicicleta);
+        estacao.daEpoca.trancas.put(this.id, this);
+        if (bicicleta != null) {
+            estacao.daEpoca.trancaPorBicicleta.put(bicicleta, this.id);
+        }
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getEstacaoId() {
+        return estacao.getId();
+    }
+
+    // Bicicleta travada agora (null = tranca livre)
+    public UUID getBicicleta() {
+        return bicicleta.get();
+    }
+
+    // Libera a bicicleta travada; null se a tranca estava vazia ou outro ciclista levou antes
+    public UUID retirarBicicleta() {
+        while (true) {
+            UUID atual = bicicleta.get();
+            if (atual == null) {
+                return null;
+            }
+            if (bicicleta.compareAndSet(atual, null)) {
+                estacao.daEpoca.trancaPorBicicleta.remove(atual);
+                estacao.bicicletaRetirada();
+                return atual;
+            }
+        }
+    }
+
+    // Trava a bicicleta se a tranca estiver livre
+    public boolean travar(UUID bicicletaId) {
+        if (!bicicleta.compareAndSet(null, bicicletaId)) {
+            return false;
+        }
+        estacao.daEpoca.trancaPorBicicleta.put(bicicletaId, this.id);
+        estacao.bicicletaTravada();
+        return true;
+    }
+
+    public static Tranca getTranca(UUID id) {
+        return Estacao.dados().trancas.get(id);
+    }
+
+    // Tranca onde a bicicleta está travada (null se em uso ou desconhecida)
+    public static UUID getTrancaDaBicicleta(UUID bicicletaId) {
+        return Estacao.dados().trancaPorBicicleta.get(bicicletaId);
+    }
+}
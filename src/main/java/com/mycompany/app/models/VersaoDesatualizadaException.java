@@ -0,0 +1,18 @@
+package com.mycompany.app.models;
+
+/**
+ * Lançada quando uma alteração condicional (If-Match) chega com uma versão
+ * diferente da versão atual da entidade, ou seja, outro cliente já gravou antes.
+ */
+public class VersaoDesatualizadaException extends RuntimeException {
+    private final long versaoAtual;
+
+    public VersaoDesatualizadaException(long versaoAtual) {
+        super("Versão desatualizada: a versão atual é " + versaoAtual + ".");
+        this.versaoAtual = versaoAtual;
+    }
+
+    public long getVersaoAtual() {
+        return versaoAtual;
+    }
+}
@@ -0,0 +1,90 @@
+package com.mycompany.app.particao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Anel de hash consistente: cada nó ocupa {@code virtuais} pontos do anel de 64 bits e uma
+ * chave pertence ao primeiro ponto no sentido horário a partir do seu hash. Com os pontos
+ * virtuais a carga fica perto de 1/n por nó, e entrar ou sair um nó só move as chaves dos
+ * arcos dele (~1/n do total), sem reembaralhar o resto.
+ *
+ * Imutável: mudar os membros é montar outro anel. A ordem dos nós é a informada; o primeiro
+ * é o {@link #principal()}.
+ */
+public final class AnelHash {
+
+    private final List<String> nos;
+    private final long[] pontos;   // ordenados
+    private final int[] donoPonto; // índice em nos do dono de cada ponto
+
+    public AnelHash(List<String> nos, int virtuais) {
+        if (nos.isEmpty() || virtuais < 1) {
+            throw new IllegalArgumentException("O anel precisa de pelo menos um nó e um ponto virtual por nó.");
+        }
+        this.nos = List.copyOf(new LinkedHashSet<>(nos));
+        int total = this.nos.size() * virtuais;
+        long[] chaves = new long[total];
+        int k = 0;
+        for (int no = 0; no < this.nos.size(); no++) {
+            for (int v = 0; v < virtuais; v++) {
+                // 16 bits baixos guardam o nó para a ordenação levar o dono junto
+                chaves[k++] = (hash(this.nos.get(no) + "#" + v) & ~0xFFFFL) | no;
+            }
+        }
+        Arrays.sort(chaves);
+        this.pontos = new long[total];
+        this.donoPonto = new int[total];
+        for (int i = 0; i < total; i++) {
+            pontos[i] = chaves[i] & ~0xFFFFL;
+            donoPonto[i] = (int) (chaves[i] & 0xFFFF);
+        }
+    }
+
+    public List<String> getNos() {
+        return nos;
+    }
+
+    public String principal() {
+        return nos.get(0);
+    }
+
+    public String dono(UUID chave) {
+        return nos.get(donoPonto[ponto(hash(chave))]);
+    }
+
+    // Primeiro ponto >= h, dando a volta no fim do anel
+    private int ponto(long h) {
+        int i = Arrays.binarySearch(pontos, h);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return i == pontos.length ? 0 : i;
+    }
+
+    static long hash(UUID chave) {
+        return misturar(chave.getMostSignificantBits() ^ Long.rotateLeft(misturar(chave.getLeastSignificantBits()), 32));
+    }
+
+    // FNV-1a de 64 bits com a mistura final do MurmurHash3
+    static long hash(String texto) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : texto.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return misturar(h);
+    }
+
+    private static long misturar(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,109 @@
+package com.mycompany.app.particao;
+
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Leva ao dono as requisições de chaves que não são deste nó. Por padrão a requisição é
+ * repassada (proxy) e a resposta do dono volta como está; com
+ * {@code aluguel.particao.redirecionar=true} o cliente recebe um 307 para o dono e refaz a
+ * chamada lá, o que tira este nó do caminho mas custa uma ida e volta a mais ao cliente.
+ *
+ * Cada salto acrescenta o nó ao cabeçalho {@link #CABECALHO_VIA}; o roteamento não devolve a
+ * requisição a quem já passou por ela e desiste depois de {@link #MAXIMO_SALTOS} (anéis
+ * diferentes entre nós no meio de um rebalanceamento não viram um laço).
+ */
+public final class Encaminhador {
+
+    public static final String CABECALHO_VIA = "X-Particao-Via";
+    // Nó que atendeu; vai em toda resposta de rota com chave
+    public static final String CABECALHO_NO = "X-Particao-No";
+    public static final int MAXIMO_SALTOS = 3;
+
+    private static final boolean REDIRECIONAR = Boolean.getBoolean("aluguel.particao.redirecionar");
+    private static final Duration TIMEOUT = Duration.ofMillis(Long.getLong("aluguel.particao.timeoutMs", 5000));
+    // Chamadas entre nós (anel, transferências) podem pegar o outro nó ainda frio
+    private static final Duration TIMEOUT_INTERNO = Duration.ofMillis(Long.getLong("aluguel.particao.timeoutInternoMs", 30000));
+    // Cabeçalhos da requisição que importam para os handlers; o resto (Host, Content-Length...) é do HttpClient
+    private static final List<String> REPASSADOS = List.of(Header.CONTENT_TYPE, Header.ACCEPT, Header.IF_MATCH);
+    private static final List<String> DEVOLVIDOS = List.of(Header.CONTENT_TYPE, Header.ETAG, Header.VARY, CABECALHO_NO);
+
+    private static final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(TIMEOUT)
+            .build();
+
+    private Encaminhador() {
+    }
+
+    // Nós por onde a requisição já passou
+    public static List<String> via(Context ctx) {
+        String via = ctx.header(CABECALHO_VIA);
+        return via == null || via.isBlank() ? List.of() : Arrays.asList(via.split(","));
+    }
+
+    // Repassa (ou redireciona) a requisição para o nó 'destino' e escreve a resposta dele
+    public static void encaminhar(Context ctx, String destino) {
+        String caminho = ctx.path() + (ctx.queryString() == null ? "" : "?" + ctx.queryString());
+        Particoes.contarEncaminhada(REDIRECIONAR);
+        if (REDIRECIONAR) {
+            ctx.redirect(destino + caminho, HttpStatus.TEMPORARY_REDIRECT);
+            return;
+        }
+
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(destino + caminho))
+                .timeout(TIMEOUT)
+                .header(CABECALHO_VIA, String.join(",", adicionar(via(ctx), Particoes.getEu())))
+                .method(ctx.method().name(), HttpRequest.BodyPublishers.ofByteArray(ctx.bodyAsBytes()));
+        for (String cabecalho : REPASSADOS) {
+            String valor = ctx.header(cabecalho);
+            if (valor != null) {
+                requisicao.header(cabecalho, valor);
+            }
+        }
+
+        try {
+            HttpResponse<byte[]> resposta = http.send(requisicao.build(), HttpResponse.BodyHandlers.ofByteArray());
+            for (String cabecalho : DEVOLVIDOS) {
+                resposta.headers().firstValue(cabecalho).ifPresent(valor -> ctx.header(cabecalho, valor));
+            }
+            ctx.status(resposta.statusCode()).result(resposta.body());
+        } catch (IOException e) {
+            ctx.status(HttpStatus.SERVICE_UNAVAILABLE).result("Nó " + destino + " indisponível: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ctx.status(HttpStatus.SERVICE_UNAVAILABLE).result("Encaminhamento para " + destino + " interrompido.");
+        }
+    }
+
+    // Chamada interna entre nós (transferência, aviso de conclusão, localização de bicicleta)
+    public static CompletableFuture<HttpResponse<String>> enviar(String destino, String metodo, String caminho, String corpoJson) {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(destino + caminho))
+                .timeout(TIMEOUT_INTERNO)
+                .header(CABECALHO_VIA, Particoes.getEu());
+        if (corpoJson == null) {
+            requisicao.method(metodo, HttpRequest.BodyPublishers.noBody());
+        } else {
+            requisicao.header(Header.CONTENT_TYPE, "application/json")
+                    .method(metodo, HttpRequest.BodyPublishers.ofString(corpoJson));
+        }
+        return http.sendAsync(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static List<String> adicionar(List<String> via, String no) {
+        String[] nova = via.toArray(new String[via.size() + 1]);
+        nova[via.size()] = no;
+        return Arrays.asList(nova);
+    }
+}
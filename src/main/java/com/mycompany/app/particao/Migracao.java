@@ -0,0 +1,183 @@
+package com.mycompany.app.particao;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.models.Ciclista;
+import io.javalin.json.JavalinJackson;
+
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Rebalanceamento: troca o anel e entrega, em segundo plano, as chaves que este nó perdeu.
+ *
+ * Cada chave vai sob o lock de escrita dela ({@link Particoes#lockDe(UUID)}): o destino grava
+ * ciclista, cartão e aluguel ativo, e só depois da confirmação a origem os apaga. Se o destino
+ * não confirmar, a chave continua aqui e segue sendo atendida aqui; a passada tenta de novo
+ * algumas vezes e, se não der, fica em {@code falhasTransferencia} até o próximo rebalanceamento.
+ *
+ * Ao terminar a passada o nó avisa todos os outros ({@code POST /particao/concluida}); cada nó
+ * esquece o anel anterior quando todos os nós dos dois anéis avisaram. Os avisos levam a lista
+ * do anel novo, então um aviso de um rebalanceamento antigo não encerra o atual.
+ */
+public final class Migracao {
+
+    private static final int TENTATIVAS = 3;
+    private static final ObjectMapper mapper = JavalinJackson.defaultMapper();
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "migracao-particao");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static volatile String versao;          // nós do anel novo, separados por vírgula
+    private static final Set<String> pendentes = ConcurrentHashMap.newKeySet();
+    // Avisos que chegaram antes do anel novo (a propagação do PUT ainda não tinha passado aqui)
+    private static final Map<String, Set<String>> adiantados = new ConcurrentHashMap<>();
+    private static volatile boolean migrando;
+
+    private Migracao() {
+    }
+
+    /**
+     * Passa a usar o anel com {@code nos} e começa a entregar as chaves que mudaram de dono.
+     * Devolve os nós envolvidos (os dos dois anéis), que precisam todos receber o mesmo anel.
+     */
+    public static synchronized Set<String> redefinir(List<String> nos) {
+        AnelHash novo = new AnelHash(nos, Particoes.VIRTUAIS);
+        AnelHash atual = Particoes.getAnel();
+        Set<String> envolvidos = new LinkedHashSet<>(novo.getNos());
+        if (atual != null) {
+            envolvidos.addAll(atual.getNos());
+        }
+        String versaoNova = String.join(",", novo.getNos());
+        if (atual != null && versaoNova.equals(String.join(",", atual.getNos()))) {
+            return envolvidos; // mesmo anel: nada a mover
+        }
+
+        versao = versaoNova;
+        pendentes.clear();
+        pendentes.addAll(envolvidos);
+        Set<String> jaConcluidos = adiantados.remove(versaoNova);
+        if (jaConcluidos != null) {
+            pendentes.removeAll(jaConcluidos);
+        }
+        adiantados.clear();
+        Particoes.trocarAnel(novo);
+        migrando = true;
+        executor.execute(() -> migrar(versaoNova, envolvidos));
+        return envolvidos;
+    }
+
+    private static void migrar(String versaoPassada, Set<String> envolvidos) {
+        String eu = Particoes.getEu();
+        for (Ciclista ciclista : Ciclista.listarTodos()) {
+            if (!versaoPassada.equals(versao)) {
+                return; // redefinido de novo: a passada nova percorre tudo outra vez
+            }
+            UUID id = ciclista.getId();
+            String dono = Particoes.dono(id);
+            if (dono.equals(eu)) {
+                continue;
+            }
+            boolean entregue = false;
+            for (int tentativa = 0; tentativa < TENTATIVAS && !entregue; tentativa++) {
+                entregue = transferir(id, dono);
+            }
+            if (!entregue) {
+                Particoes.falhasTransferencia.increment();
+            }
+        }
+
+        migrando = false;
+        String aviso = json(Map.of("no", eu, "nos", versaoPassada));
+        for (String no : envolvidos) {
+            if (no.equals(eu)) {
+                concluir(eu, versaoPassada);
+                continue;
+            }
+            try {
+                Encaminhador.enviar(no, "POST", "/particao/concluida", aviso).get();
+            } catch (ExecutionException e) {
+                System.out.println("Aviso: nó " + no + " não recebeu o fim da migração: " + e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Entrega uma chave ao novo dono; true se ela não está mais aqui
+    static boolean transferir(UUID ciclistaId, String destino) {
+        Lock escrita = Particoes.lockDe(ciclistaId).writeLock();
+        escrita.lock();
+        try {
+            Transferencia transferencia = Transferencia.de(ciclistaId);
+            if (transferencia == null) {
+                return true;
+            }
+            HttpResponse<String> resposta = Encaminhador.enviar(destino, "POST", "/particao/receber", json(transferencia)).get();
+            if (resposta.statusCode() / 100 != 2) {
+                System.out.println("Aviso: " + destino + " recusou o ciclista " + ciclistaId + ": HTTP "
+                        + resposta.statusCode() + " " + resposta.body());
+                return false;
+            }
+            Transferencia.remover(ciclistaId, destino);
+            Particoes.transferidas.increment();
+            return true;
+        } catch (ExecutionException e) {
+            System.out.println("Aviso: falha ao transferir o ciclista " + ciclistaId + " para " + destino + ": " + e);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    // Lado de quem recebe a chave. Sem lock: até o ciclista aparecer aqui (último passo de
+    // aplicar) as requisições dele seguem indo para a origem, que segura a chave
+    public static void receber(Transferencia transferencia, String origem) {
+        transferencia.aplicar(origem);
+        Particoes.recebidas.increment();
+    }
+
+    // O nó 'no' terminou de entregar as chaves do anel 'nos'
+    public static synchronized void concluir(String no, String nos) {
+        if (!nos.equals(versao)) {
+            adiantados.computeIfAbsent(nos, v -> ConcurrentHashMap.newKeySet()).add(no);
+            return;
+        }
+        pendentes.remove(no);
+        if (pendentes.isEmpty()) {
+            Particoes.encerrarRebalanceamento();
+        }
+    }
+
+    public static Map<String, Object> estatisticas() {
+        Map<String, Object> estatisticas = new LinkedHashMap<>(Particoes.estatisticas());
+        estatisticas.put("migrando", migrando);
+        estatisticas.put("pendentes", List.copyOf(pendentes));
+        estatisticas.put("ciclistasLocais", Ciclista.listarTodos().size());
+        return estatisticas;
+    }
+
+    private static String json(Object valor) {
+        try {
+            return mapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.mycompany.app.particao;
+
+import com.mycompany.app.util.GeradorId;
+import com.mycompany.app.util.GeradoresId;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Modo particionado: cada ciclista, com o cartão e o aluguel ativo, mora no nó dono do seu id
+ * no {@link AnelHash}. Liga com {@code aluguel.particao.nos} (URLs base dos nós, separadas por
+ * vírgula); {@code aluguel.particao.eu} é a URL deste nó. Sem a lista o serviço roda sozinho e
+ * é dono de tudo, como antes.
+ *
+ * Durante um rebalanceamento ({@link Migracao}) o anel novo já vale para o roteamento e o
+ * anterior fica guardado até todos os nós entregarem as chaves que perderam: enquanto isso o
+ * novo dono de uma chave que ainda não chegou procura no dono anterior.
+ *
+ * Cada chave tem um lock de leitura/escrita (por faixa de id): requisições atendidas aqui
+ * seguram a leitura; a transferência da chave para outro nó segura a escrita, então nenhuma
+ * alteração se perde no meio da entrega.
+ */
+public final class Particoes {
+
+    private static final int FAIXAS_LOCK = 1024;
+    static final int VIRTUAIS = Integer.getInteger("aluguel.particao.virtuais", 128);
+
+    private static final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[FAIXAS_LOCK];
+    private static volatile String eu;
+    private static volatile AnelHash anel;     // null = modo particionado desligado
+    private static volatile AnelHash anterior; // != null enquanto há chaves em trânsito
+
+    static final LongAdder encaminhadas = new LongAdder();
+    static final LongAdder redirecionadas = new LongAdder();
+    static final LongAdder transferidas = new LongAdder();
+    static final LongAdder recebidas = new LongAdder();
+    static final LongAdder falhasTransferencia = new LongAdder();
+
+    static {
+        for (int i = 0; i < FAIXAS_LOCK; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    private Particoes() {
+    }
+
+    // nos = lista separada por vírgula (null ou vazia desliga); eu = URL deste nó
+    public static synchronized void configurar(String nos, String urlEu) {
+        eu = normalizar(urlEu);
+        anterior = null;
+        anel = nos == null || nos.isBlank() ? null : new AnelHash(nos(nos), VIRTUAIS);
+    }
+
+    public static List<String> nos(String lista) {
+        List<String> nos = new ArrayList<>();
+        for (String no : lista.split(",")) {
+            if (!no.isBlank()) {
+                nos.add(normalizar(no));
+            }
+        }
+        return nos;
+    }
+
+    static String normalizar(String url) {
+        String limpa = url.trim();
+        return limpa.endsWith("/") ? limpa.substring(0, limpa.length() - 1) : limpa;
+    }
+
+    public static boolean ativo() {
+        return anel != null;
+    }
+
+    public static String getEu() {
+        return eu;
+    }
+
+    public static AnelHash getAnel() {
+        return anel;
+    }
+
+    public static AnelHash getAnterior() {
+        return anterior;
+    }
+
+    // Anel novo passa a valer já; o atual vira o anterior até a migração terminar
+    static synchronized void trocarAnel(AnelHash novo) {
+        anterior = anel;
+        anel = novo;
+    }
+
+    static synchronized void encerrarRebalanceamento() {
+        anterior = null;
+    }
+
+    // Dono da chave pelo anel atual (null com o modo desligado)
+    public static String dono(UUID chave) {
+        AnelHash atual = anel;
+        return atual == null ? null : atual.dono(chave);
+    }
+
+    // Dono pelo anel anterior, só durante o rebalanceamento
+    public static String donoAnterior(UUID chave) {
+        AnelHash antes = anterior;
+        return antes == null ? null : antes.dono(chave);
+    }
+
+    // Este nó ainda não entrou no anel (vai entrar no próximo rebalanceamento) ou está saindo
+    public static boolean foraDoAnel() {
+        AnelHash atual = anel;
+        return atual != null && !atual.getNos().contains(eu);
+    }
+
+    /**
+     * Id para um ciclista novo que caia num arco deste nó: o cadastro fica onde chegou, sem
+     * encaminhar. Com n nós são n sorteios em média. Fora do anel não há arco a escolher.
+     */
+    public static UUID proximoId() {
+        GeradorId gerador = GeradoresId.atual();
+        UUID id = gerador.proximo();
+        AnelHash atual = anel;
+        if (atual == null || !atual.getNos().contains(eu)) {
+            return id;
+        }
+        while (!eu.equals(atual.dono(id))) {
+            id = gerador.proximo();
+        }
+        return id;
+    }
+
+    public static ReentrantReadWriteLock lockDe(UUID chave) {
+        return locks[(chave.hashCode() & 0x7fffffff) % FAIXAS_LOCK];
+    }
+
+    public static void contarEncaminhada(boolean redirecionada) {
+        (redirecionada ? redirecionadas : encaminhadas).increment();
+    }
+
+    public static Map<String, Object> estatisticas() {
+        AnelHash atual = anel;
+        AnelHash antes = anterior;
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("ativo", atual != null);
+        estatisticas.put("eu", eu);
+        estatisticas.put("nos", atual == null ? List.of() : atual.getNos());
+        estatisticas.put("anteriores", antes == null ? null : antes.getNos());
+        estatisticas.put("encaminhadas", encaminhadas.sum());
+        estatisticas.put("redirecionadas", redirecionadas.sum());
+        estatisticas.put("transferidas", transferidas.sum());
+        estatisticas.put("recebidas", recebidas.sum());
+        estatisticas.put("falhasTransferencia", falhasTransferencia.sum());
+        return estatisticas;
+    }
+}
@@ -0,0 +1,92 @@
+package com.mycompany.app.particao;
+
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.CartaoCredito;
+import com.mycompany.app.models.Ciclista;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Tudo o que muda de nó junto com um ciclista no rebalanceamento: o próprio ciclista (com a
+ * senha, que o JSON público omite), o cartão e o aluguel ativo. Cartão e aluguel podem faltar.
+ */
+public record Transferencia(DadosCiclista ciclista, DadosCartao cartao, DadosAluguel aluguel) {
+
+    public record DadosCiclista(UUID id, String email, String nacionalidade, String cpf, String passaporte,
+                                Date validadePassaporte, String pais, Date nascimento, String nome, String senha,
+                                String urlFoto, Boolean status, Boolean statusPermicaoAluguel, UUID bicicletaId,
+                                long versao) {
+
+        public static DadosCiclista de(Ciclista c) {
+            return new DadosCiclista(c.getId(), c.getEmail(), c.getNacionalidade(), c.getCpf(), c.getPassaporte(),
+                    c.getValidadePassaporte(), c.getPais(), c.getNascimento(), c.getNome(), c.getSenha(),
+                    c.getUrlFoto(), c.getStatus(), c.getStatusPermicaoAluguel(), c.getBicicletaId(), c.getVersao());
+        }
+
+        public Ciclista ciclista() {
+            return Ciclista.reconstruir(id, email, nacionalidade, cpf, passaporte, validadePassaporte, pais,
+                    nascimento, nome, senha, urlFoto, status, statusPermicaoAluguel, bicicletaId, versao);
+        }
+    }
+
+    public record DadosCartao(String nomeTitular, String numero, Date validade, String cvv, long versao) {
+
+        public static DadosCartao de(CartaoCredito cartao) {
+            return new DadosCartao(cartao.getNomeTitular(), cartao.getNumero(), cartao.getValidade(),
+                    cartao.getCvv(), cartao.getVersao());
+        }
+
+        public CartaoCredito cartao(UUID idCiclista) {
+            return CartaoCredito.reconstruir(idCiclista, nomeTitular, numero, validade, cvv, versao);
+        }
+    }
+
+    public record DadosAluguel(UUID id, UUID trancaInicioId, UUID bicicletaId, LocalDateTime horaInicio,
+                               Double valorFixo) {
+    }
+
+    // Estado atual do ciclista neste nó; null se ele não está aqui
+    static Transferencia de(UUID ciclistaId) {
+        Ciclista c = Ciclista.getCiclistaPorId(ciclistaId);
+        if (c == null) {
+            return null;
+        }
+        CartaoCredito cartao = CartaoCredito.getCartaoCreditoPorCiclistaId(ciclistaId);
+        Aluguel aluguel = Aluguel.getAluguelAtivoPorCiclistaId(ciclistaId);
+        return new Transferencia(
+                DadosCiclista.de(c),
+                cartao == null ? null : DadosCartao.de(cartao),
+                aluguel == null ? null : new DadosAluguel(aluguel.getId(), aluguel.getTrancaInicioId(),
+                        aluguel.getBicicletaId(), aluguel.getHoraInicio(), aluguel.getValorFixo()));
+    }
+
+    // No destino: grava cartão e aluguel ativo e por último o ciclista, que é o que faz o
+    // roteamento atender a chave aqui. Se o ciclista não entra (documento de outro ciclista
+    // deste nó), desfaz o resto e a chave continua na origem
+    void aplicar(String origem) {
+        DadosCiclista c = ciclista;
+        if (cartao != null) {
+            CartaoCredito.importar(cartao.cartao(c.id()));
+        }
+        if (aluguel != null) {
+            Aluguel.receberAtivo(aluguel.id(), c.id(), aluguel.trancaInicioId(), aluguel.bicicletaId(),
+                    aluguel.horaInicio(), aluguel.valorFixo(), origem);
+        }
+        try {
+            Ciclista.importar(c.ciclista());
+        } catch (RuntimeException e) {
+            Aluguel.transferirAtivo(c.id(), origem);
+            CartaoCredito.remover(c.id());
+            throw e;
+        }
+    }
+
+    // Na origem, depois que o destino confirmou
+    static void remover(UUID ciclistaId, String destino) {
+        Aluguel.transferirAtivo(ciclistaId, destino);
+        CartaoCredito.remover(ciclistaId);
+        Ciclista.remover(ciclistaId);
+    }
+}
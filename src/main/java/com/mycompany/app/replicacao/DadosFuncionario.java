@@ -0,0 +1,19 @@
+package com.mycompany.app.replicacao;
+
+import com.mycompany.app.models.Funcionario;
+
+import java.util.UUID;
+
+// Funcionário completo (com as senhas, que o JSON público omite) para as réplicas
+public record DadosFuncionario(UUID matricula, String senha, String confirmacaoSenha, String email, String nome,
+                               String idade, String funcao, String cpf, long versao) {
+
+    public static DadosFuncionario de(Funcionario f) {
+        return new DadosFuncionario(f.getMatricula(), f.getSenha(), f.getConfirmacaoSenha(), f.getEmail(),
+                f.getNome(), f.getIdade(), f.getFuncao(), f.getCpf(), f.getVersao());
+    }
+
+    public Funcionario funcionario() {
+        return Funcionario.reconstruir(matricula, senha, confirmacaoSenha, email, nome, idade, funcao, cpf, versao);
+    }
+}
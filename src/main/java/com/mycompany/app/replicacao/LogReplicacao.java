@@ -0,0 +1,76 @@
+package com.mycompany.app.replicacao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lado do líder: as últimas {@code capacidade} mutações, com offset global crescente (mesmo
+ * esquema de anel do {@link com.mycompany.app.eventos.FeedAlteracoes}). As réplicas pedem a
+ * partir do próximo offset que precisam; quem ficou para trás do anel recebe "reinicio" e
+ * recarrega pelo snapshot.
+ *
+ * Uma troca de época ({@link com.mycompany.app.models.Epoca}) invalida todos os offsets já
+ * registrados: as réplicas recebem "reinicio" e recarregam a época nova inteira.
+ *
+ * A leitura espera (long poll) até chegar algo novo ou vencer o prazo, então uma réplica em dia
+ * recebe cada mutação logo depois do registro sem ficar consultando em laço.
+ */
+final class LogReplicacao {
+
+    private final Mutacao[] anel;
+    private final int mascara;
+    private long proximo; // guardado por this
+    private long inicio;  // offsets abaixo deste não valem mais (guardado por this)
+
+    LogReplicacao(int capacidade) {
+        if (capacidade < 1) {
+            throw new IllegalArgumentException("Capacidade do log de replicação deve ser positiva.");
+        }
+        int tamanho = Integer.highestOneBit(capacidade - 1) << 1;
+        this.anel = new Mutacao[Math.max(1, tamanho)];
+        this.mascara = anel.length - 1;
+    }
+
+    synchronized long registrar(String loja, String tipo, UUID id, Long sequencia, Object dados) {
+        Mutacao mutacao = new Mutacao(proximo, loja, tipo, id, sequencia, dados);
+        anel[(int) (proximo & mascara)] = mutacao;
+        proximo++;
+        notifyAll();
+        return mutacao.offset();
+    }
+
+    // Pula um offset e descarta os anteriores: até a réplica em dia (desde == proximo) fica para trás
+    synchronized void reiniciar() {
+        proximo++;
+        inicio = proximo;
+        notifyAll();
+    }
+
+    // Último offset registrado (-1 se nada foi registrado)
+    synchronized long ultimo() {
+        return proximo - 1;
+    }
+
+    // Até 'maximo' mutações a partir de 'desde', esperando até 'esperaMs' se ainda não há nenhuma
+    synchronized Mutacao.Lote ler(long desde, int maximo, long esperaMs) throws InterruptedException {
+        long prazo = System.currentTimeMillis() + esperaMs;
+        while (desde == proximo) {
+            long resta = prazo - System.currentTimeMillis();
+            if (resta <= 0) {
+                break;
+            }
+            wait(resta);
+        }
+        long maisAntigo = Math.max(inicio, proximo - anel.length);
+        if (desde < maisAntigo || desde > proximo) {
+            return new Mutacao.Lote(proximo - 1, true, List.of());
+        }
+        long ate = Math.min(proximo, desde + maximo);
+        List<Mutacao> mutacoes = new ArrayList<>((int) (ate - desde));
+        for (long offset = desde; offset < ate; offset++) {
+            mutacoes.add(anel[(int) (offset & mascara)]);
+        }
+        return new Mutacao.Lote(proximo - 1, false, mutacoes);
+    }
+}
@@ -0,0 +1,24 @@
+package com.mycompany.app.replicacao;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Uma alteração de um dos storages replicados, na ordem em que o líder a registrou.
+ *
+ * {@code loja} é {@link Replicacao#CICLISTA}, {@link Replicacao#CARTAO},
+ * {@link Replicacao#FUNCIONARIO} ou {@link Replicacao#ALUGUEL}. Para os três primeiros
+ * {@code tipo} é "gravado" (dados = snapshot completo, com versão), "removido" ou
+ * "restaurado" (storage esvaziado, sem id). Para aluguel {@code tipo} é o nome do
+ * {@link com.mycompany.app.eventos.EventoAluguel} e {@code sequencia} a posição dele no log.
+ */
+public record Mutacao(long offset, String loja, String tipo, UUID id, Long sequencia, Object dados) {
+
+    /** Resposta de GET /replicacao/mutacoes: {@code reinicio} = o offset pedido saiu do anel. */
+    public record Lote(long ultimo, boolean reinicio, List<Mutacao> mutacoes) {
+    }
+
+    /** Estado completo do líder como mutações, válido a partir de {@code offset} + 1. */
+    public record Snapshot(long offset, List<Mutacao> mutacoes) {
+    }
+}
@@ -0,0 +1,203 @@
+package com.mycompany.app.replicacao;
+
+import com.mycompany.app.eventos.EventoAluguel;
+import com.mycompany.app.eventos.Projecao;
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.CartaoCredito;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Funcionario;
+import com.mycompany.app.particao.Transferencia.DadosCartao;
+import com.mycompany.app.particao.Transferencia.DadosCiclista;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Replicação líder-seguidor para escalar as leituras.
+ *
+ * Com {@code aluguel.replicacao.papel=lider} cada alteração dos quatro storages (ciclistas,
+ * cartões, funcionários e o log de eventos de aluguel) é registrada, em ordem, num
+ * {@link LogReplicacao}. Com {@code papel=seguidor} e {@code aluguel.replicacao.lider=<url>} o
+ * processo carrega um snapshot do líder e segue aplicando o log ({@link Seguidor}); atende as
+ * leituras de ciclista, cartão e funcionário enquanto o atraso estiver dentro de
+ * {@code aluguel.replicacao.atrasoMaximoMs} e manda o resto (escritas, estações, feed,
+ * /restaurarBanco) ao líder. Sem a propriedade nada é registrado e o processo é nó único.
+ *
+ * Os snapshots levam a versão: alterações concorrentes de um mesmo registro podem chegar ao log
+ * fora de ordem e a réplica fica com a maior. Eventos de aluguel levam a sequência do log e são
+ * aplicados exatamente uma vez, na mesma ordem.
+ */
+public final class Replicacao {
+
+    public static final String CICLISTA = "ciclista";
+    public static final String CARTAO = "cartao";
+    public static final String FUNCIONARIO = "funcionario";
+    public static final String ALUGUEL = "aluguel";
+
+    static final String GRAVADO = "gravado";
+    static final String REMOVIDO = "removido";
+    static final String RESTAURADO = "restaurado";
+
+    public static final long ATRASO_MAXIMO_MS = Long.getLong("aluguel.replicacao.atrasoMaximoMs", 1000);
+
+    private static volatile LogReplicacao log;   // só no líder
+    private static volatile Seguidor seguidor;   // só nas réplicas
+
+    private Replicacao() {
+    }
+
+    public static synchronized void configurar(String papel, String lider) {
+        if (papel == null || papel.isBlank()) {
+            return;
+        }
+        switch (papel.trim()) {
+            case "lider" -> {
+                log = new LogReplicacao(Integer.getInteger("aluguel.replicacao.capacidade", 1 << 18));
+                Aluguel.acompanharEventos(new ProjecaoReplicacao());
+            }
+            case "seguidor" -> {
+                if (lider == null || lider.isBlank()) {
+                    throw new IllegalArgumentException("Réplica sem aluguel.replicacao.lider.");
+                }
+                seguidor = new Seguidor(lider.trim().replaceAll("/+$", ""));
+            }
+            default -> throw new IllegalArgumentException("aluguel.replicacao.papel deve ser lider ou seguidor: " + papel);
+        }
+    }
+
+    public static boolean ehLider() {
+        return log != null;
+    }
+
+    public static boolean ehSeguidor() {
+        return seguidor != null;
+    }
+
+    public static Seguidor getSeguidor() {
+        return seguidor;
+    }
+
+    // Réplica: começa a acompanhar o líder e espera a primeira sincronização
+    public static boolean iniciarSeguidor(Duration prazo) throws InterruptedException {
+        seguidor.iniciar();
+        return seguidor.aguardarSincronizacao(prazo);
+    }
+
+    public static void ciclistaGravado(Ciclista ciclista) {
+        LogReplicacao atual = log;
+        if (atual != null) {
+            atual.registrar(CICLISTA, GRAVADO, ciclista.getId(), null, DadosCiclista.de(ciclista));
+        }
+    }
+
+    public static void cartaoGravado(CartaoCredito cartao) {
+        LogReplicacao atual = log;
+        if (atual != null) {
+            atual.registrar(CARTAO, GRAVADO, cartao.getIdCiclista(), null, DadosCartao.de(cartao));
+        }
+    }
+
+    public static void funcionarioGravado(Funcionario funcionario) {
+        LogReplicacao atual = log;
+        if (atual != null) {
+            atual.registrar(FUNCIONARIO, GRAVADO, funcionario.getMatricula(), null, DadosFuncionario.de(funcionario));
+        }
+    }
+
+    public static void removido(String loja, UUID id) {
+        LogReplicacao atual = log;
+        if (atual != null) {
+            atual.registrar(loja, REMOVIDO, id, null, null);
+        }
+    }
+
+    public static void restaurado(String loja) {
+        LogReplicacao atual = log;
+        if (atual != null) {
+            atual.registrar(loja, RESTAURADO, null, null, null);
+        }
+    }
+
+    // Líder: a época inteira foi trocada (/restaurarBanco, fixture); as réplicas recarregam o snapshot
+    public static void epocaTrocada() {
+        LogReplicacao atual = log;
+        if (atual != null) {
+            atual.reiniciar();
+        }
+    }
+
+    // Líder: mutações a partir de 'desde' (long poll de até esperaMs)
+    public static Mutacao.Lote mutacoes(long desde, int maximo, long esperaMs) throws InterruptedException {
+        return exigirLog().ler(desde, maximo, esperaMs);
+    }
+
+    /**
+     * Líder: tudo o que está nos storages, como mutações. O offset é lido antes da cópia, que não
+     * trava os escritores; o que mudar durante a cópia vem de novo no log depois do offset e a
+     * réplica resolve pela versão (cadastros) ou pela sequência (eventos de aluguel). Se a época
+     * trocar durante a cópia, o offset já não vale e a réplica pede outro snapshot.
+     */
+    public static Mutacao.Snapshot snapshot() {
+        LogReplicacao atual = exigirLog();
+        long offset = atual.ultimo();
+        List<Mutacao> mutacoes = new ArrayList<>();
+        for (String loja : List.of(CICLISTA, CARTAO, FUNCIONARIO, ALUGUEL)) {
+            mutacoes.add(new Mutacao(-1, loja, RESTAURADO, null, null, null));
+        }
+        for (Ciclista c : Ciclista.listarTodos()) {
+            mutacoes.add(new Mutacao(-1, CICLISTA, GRAVADO, c.getId(), null, DadosCiclista.de(c)));
+        }
+        for (CartaoCredito c : CartaoCredito.listarTodos()) {
+            mutacoes.add(new Mutacao(-1, CARTAO, GRAVADO, c.getIdCiclista(), null, DadosCartao.de(c)));
+        }
+        for (Funcionario f : Funcionario.listarTodos()) {
+            mutacoes.add(new Mutacao(-1, FUNCIONARIO, GRAVADO, f.getMatricula(), null, DadosFuncionario.de(f)));
+        }
+        Aluguel.eventos().percorrer(0, Aluguel.eventos().tamanho(), (sequencia, evento) ->
+                mutacoes.add(new Mutacao(-1, ALUGUEL, evento.getClass().getSimpleName(), evento.aluguelId(), sequencia, evento)));
+        return new Mutacao.Snapshot(offset, mutacoes);
+    }
+
+    private static LogReplicacao exigirLog() {
+        LogReplicacao atual = log;
+        if (atual == null) {
+            throw new IllegalStateException("Este processo não é o líder da replicação.");
+        }
+        return atual;
+    }
+
+    public static Map<String, Object> estatisticas() {
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        LogReplicacao atual = log;
+        Seguidor replica = seguidor;
+        estatisticas.put("papel", atual != null ? "lider" : replica != null ? "seguidor" : "desligada");
+        if (atual != null) {
+            estatisticas.put("ultimoOffset", atual.ultimo());
+        }
+        if (replica != null) {
+            estatisticas.putAll(replica.estatisticas());
+            estatisticas.put("atrasoMaximoMs", ATRASO_MAXIMO_MS);
+        }
+        return estatisticas;
+    }
+
+    // Eventos de aluguel entram no log dentro do lock do armazém, na ordem das sequências. Segue
+    // o log de cada época nova; o reset do log de aluguéis é registrado pelo Aluguel.restaurar
+    private static final class ProjecaoReplicacao implements Projecao<EventoAluguel> {
+        @Override
+        public void aplicar(long sequencia, EventoAluguel evento) {
+            LogReplicacao atual = log;
+            if (atual != null) {
+                atual.registrar(ALUGUEL, evento.getClass().getSimpleName(), evento.aluguelId(), sequencia, evento);
+            }
+        }
+
+        @Override
+        public void limpar() {
+        }
+    }
+}
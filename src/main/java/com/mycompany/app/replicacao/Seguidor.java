@@ -0,0 +1,265 @@
+package com.mycompany.app.replicacao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.eventos.EventoAluguel;
+import com.mycompany.app.handlers.Formatos;
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.CartaoCredito;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Epoca;
+import com.mycompany.app.models.Funcionario;
+import com.mycompany.app.particao.Transferencia.DadosCartao;
+import com.mycompany.app.particao.Transferencia.DadosCiclista;
+import io.javalin.http.Header;
+import io.javalin.json.JavalinJackson;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lado da réplica: uma thread que carrega o snapshot do líder numa {@link Epoca} nova, publicada
+ * de uma vez, e depois aplica o log em ordem pelo mesmo caminho de gravação dos storages
+ * (índices, gerações de leitura e projeções de aluguel ficam iguais aos do líder).
+ *
+ * O atraso informado é limitado por cima: cada consulta que volta com tudo o que o líder tinha
+ * registrado marca o instante em que foi <em>enviada</em> como "em dia", e o atraso é o tempo
+ * desde então. Parado, o líder responde o long poll a cada {@code esperaMs}, então o atraso de
+ * uma réplica em dia fica perto disso mesmo sem escritas.
+ *
+ * Qualquer inconsistência ao aplicar (lacuna nas sequências de aluguel, documento em uso por
+ * outra versão que ainda não chegou) descarta o estado e recarrega o snapshot.
+ */
+public final class Seguidor {
+
+    private static final int MAXIMO_LOTE = Integer.getInteger("aluguel.replicacao.lote", 2000);
+    private static final long ESPERA_MS = Long.getLong("aluguel.replicacao.esperaMs", 100);
+    private static final Map<String, Class<? extends EventoAluguel>> TIPOS_EVENTO = new HashMap<>();
+
+    static {
+        for (Class<?> tipo : EventoAluguel.class.getPermittedSubclasses()) {
+            TIPOS_EVENTO.put(tipo.getSimpleName(), tipo.asSubclass(EventoAluguel.class));
+        }
+    }
+
+    private final String lider;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper json = JavalinJackson.defaultMapper();
+    private final CountDownLatch primeiraSincronizacao = new CountDownLatch(1);
+
+    private volatile long proximo = -1;           // próximo offset do líder a aplicar; -1 = recarregar snapshot
+    private volatile long ultimoLider = -1;
+    private volatile long sincronizadoEm;         // currentTimeMillis do envio da última consulta em dia; 0 = nunca
+    private final LongAdder aplicadas = new LongAdder();
+    private final LongAdder snapshots = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+
+    Seguidor(String lider) {
+        this.lider = lider;
+    }
+
+    public String getLider() {
+        return lider;
+    }
+
+    void iniciar() {
+        Thread thread = new Thread(this::acompanhar, "replicacao-seguidor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    boolean aguardarSincronizacao(Duration prazo) throws InterruptedException {
+        return primeiraSincronizacao.await(prazo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Limite superior de quanto as leituras daqui podem estar atrás do líder
+    public long atrasoMs() {
+        long em = sincronizadoEm;
+        return em == 0 ? Long.MAX_VALUE : Math.max(0, System.currentTimeMillis() - em);
+    }
+
+    public long getOffset() {
+        return proximo - 1;
+    }
+
+    private void acompanhar() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (proximo < 0) {
+                    carregarSnapshot();
+                }
+                long envio = System.currentTimeMillis();
+                Mutacao.Lote lote = pedir("/replicacao/mutacoes?desde=" + proximo + "&maximo=" + MAXIMO_LOTE
+                        + "&esperaMs=" + ESPERA_MS, Mutacao.Lote.class, Duration.ofMillis(ESPERA_MS).plusSeconds(10));
+                if (lote.reinicio()) {
+                    proximo = -1;
+                    continue;
+                }
+                for (Mutacao mutacao : lote.mutacoes()) {
+                    aplicar(mutacao);
+                    proximo = mutacao.offset() + 1;
+                }
+                ultimoLider = lote.ultimo();
+                if (proximo > lote.ultimo()) {
+                    sincronizadoEm = envio;
+                    primeiraSincronizacao.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                falhas.increment();
+                esperar(500); // líder fora do ar: tenta de novo sem perder a posição
+            } catch (RuntimeException e) {
+                falhas.increment();
+                System.out.println("Aviso: réplica recarregando o snapshot do líder: " + e);
+                proximo = -1;
+                esperar(100);
+            }
+        }
+    }
+
+    // Troca todo o estado pelo do líder; enquanto isso as leituras vão para o líder
+    private void carregarSnapshot() throws IOException, InterruptedException {
+        sincronizadoEm = 0;
+        Mutacao.Snapshot snapshot = pedir("/replicacao/snapshot", Mutacao.Snapshot.class, Duration.ofMinutes(2));
+        Epoca epoca = Epoca.vazia();
+        for (Mutacao mutacao : snapshot.mutacoes()) {
+            carregar(epoca, mutacao);
+        }
+        Epoca.publicar(epoca);
+        proximo = snapshot.offset() + 1;
+        snapshots.increment();
+    }
+
+    // O snapshot só tem gravações (uma por registro) e os eventos de aluguel em ordem
+    private void carregar(Epoca epoca, Mutacao mutacao) {
+        if (Replicacao.RESTAURADO.equals(mutacao.tipo())) {
+            return;
+        }
+        switch (mutacao.loja()) {
+            case Replicacao.CICLISTA -> epoca.adicionar(json.convertValue(mutacao.dados(), DadosCiclista.class).ciclista());
+            case Replicacao.CARTAO -> epoca.adicionar(json.convertValue(mutacao.dados(), DadosCartao.class).cartao(mutacao.id()));
+            case Replicacao.FUNCIONARIO -> epoca.adicionar(json.convertValue(mutacao.dados(), DadosFuncionario.class).funcionario());
+            case Replicacao.ALUGUEL -> epoca.anexar(json.convertValue(mutacao.dados(), tipoEvento(mutacao)));
+            default -> throw new IllegalStateException("Storage desconhecido: " + mutacao.loja());
+        }
+        aplicadas.increment();
+    }
+
+    private static Class<? extends EventoAluguel> tipoEvento(Mutacao mutacao) {
+        Class<? extends EventoAluguel> tipo = TIPOS_EVENTO.get(mutacao.tipo());
+        if (tipo == null) {
+            throw new IllegalStateException("Evento de aluguel desconhecido: " + mutacao.tipo());
+        }
+        return tipo;
+    }
+
+    private <T> T pedir(String caminho, Class<T> tipo, Duration timeout) throws IOException, InterruptedException {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(lider + caminho))
+                .timeout(timeout)
+                .header(Header.ACCEPT, Formatos.SMILE)
+                .GET()
+                .build();
+        HttpResponse<byte[]> resposta = http.send(requisicao, HttpResponse.BodyHandlers.ofByteArray());
+        if (resposta.statusCode() != 200) {
+            throw new IOException("Líder respondeu " + resposta.statusCode() + " em " + caminho);
+        }
+        ObjectMapper binario = Formatos.mapper(resposta.headers().firstValue(Header.CONTENT_TYPE).orElse(null));
+        return (binario != null ? binario : json).readValue(resposta.body(), tipo);
+    }
+
+    private void aplicar(Mutacao mutacao) {
+        switch (mutacao.loja()) {
+            case Replicacao.CICLISTA -> {
+                switch (mutacao.tipo()) {
+                    case Replicacao.GRAVADO -> {
+                        DadosCiclista dados = json.convertValue(mutacao.dados(), DadosCiclista.class);
+                        Ciclista atual = Ciclista.getCiclistaPorId(dados.id());
+                        if (atual == null || atual.getVersao() < dados.versao()) {
+                            Ciclista.importar(dados.ciclista());
+                        }
+                    }
+                    case Replicacao.REMOVIDO -> Ciclista.remover(mutacao.id());
+                    default -> Ciclista.restaurar();
+                }
+            }
+            case Replicacao.CARTAO -> {
+                switch (mutacao.tipo()) {
+                    case Replicacao.GRAVADO -> {
+                        DadosCartao dados = json.convertValue(mutacao.dados(), DadosCartao.class);
+                        CartaoCredito atual = CartaoCredito.getCartaoCreditoPorCiclistaId(mutacao.id());
+                        if (atual == null || atual.getVersao() < dados.versao()) {
+                            CartaoCredito.importar(dados.cartao(mutacao.id()));
+                        }
+                    }
+                    case Replicacao.REMOVIDO -> CartaoCredito.remover(mutacao.id());
+                    default -> CartaoCredito.restaurar();
+                }
+            }
+            case Replicacao.FUNCIONARIO -> {
+                switch (mutacao.tipo()) {
+                    case Replicacao.GRAVADO -> {
+                        DadosFuncionario dados = json.convertValue(mutacao.dados(), DadosFuncionario.class);
+                        Funcionario atual = Funcionario.getFuncionarioMatricula(dados.matricula());
+                        if (atual == null || atual.getVersao() < dados.versao()) {
+                            Funcionario.importar(dados.funcionario());
+                        }
+                    }
+                    case Replicacao.REMOVIDO -> Funcionario.remover(mutacao.id());
+                    default -> Funcionario.restaurar();
+                }
+            }
+            case Replicacao.ALUGUEL -> {
+                if (Replicacao.RESTAURADO.equals(mutacao.tipo())) {
+                    Aluguel.restaurar();
+                    break;
+                }
+                Class<? extends EventoAluguel> tipo = tipoEvento(mutacao);
+                long esperada = Aluguel.eventos().tamanho();
+                if (mutacao.sequencia() < esperada) {
+                    break; // já veio no snapshot
+                }
+                if (mutacao.sequencia() > esperada) {
+                    throw new IllegalStateException("Lacuna no log de aluguéis: esperava " + esperada
+                            + ", chegou " + mutacao.sequencia());
+                }
+                Aluguel.eventos().anexar(json.convertValue(mutacao.dados(), tipo));
+            }
+            default -> throw new IllegalStateException("Storage desconhecido: " + mutacao.loja());
+        }
+        aplicadas.increment();
+    }
+
+    private static void esperar(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    Map<String, Object> estatisticas() {
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        long atraso = atrasoMs();
+        estatisticas.put("lider", lider);
+        estatisticas.put("offset", getOffset());
+        estatisticas.put("ultimoOffsetLider", ultimoLider);
+        estatisticas.put("atrasoMs", atraso == Long.MAX_VALUE ? null : atraso);
+        estatisticas.put("mutacoesAplicadas", aplicadas.sum());
+        estatisticas.put("snapshots", snapshots.sum());
+        estatisticas.put("falhas", falhas.sum());
+        return estatisticas;
+    }
+}
@@ -0,0 +1,50 @@
+package com.mycompany.app.repositories;
+
+import com.mycompany.app.models.Ciclista;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Backend de {@link CiclistaRepositorio} em memória (no heap), guardando os próprios
+ * snapshots de {@link Ciclista}. Serve de referência para o {@link CiclistaRepositorioOffHeap}.
+ */
+public class CiclistaRepositorioMemoria implements CiclistaRepositorio {
+    private final Map<UUID, Ciclista> storage = new ConcurrentHashMap<>();
+    private final Map<String, UUID> porEmail = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(Ciclista ciclista) {
+        Ciclista anterior = storage.put(ciclista.getId(), ciclista);
+        if (anterior != null && anterior.getEmail() != null) {
+            porEmail.remove(anterior.getEmail().toLowerCase(Locale.ROOT), ciclista.getId());
+        }
+        if (ciclista.getEmail() != null) {
+            porEmail.put(ciclista.getEmail().toLowerCase(Locale.ROOT), ciclista.getId());
+        }
+    }
+
+    @Override
+    public Boolean buscarPorID(UUID id) {
+        return storage.containsKey(id);
+    }
+
+    @Override
+    public Boolean buscarPorEmail(String email) {
+        return email != null && porEmail.containsKey(email.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public Ciclista getCiclistaPorId(UUID id) {
+        return storage.get(id);
+    }
+
+    @Override
+    public List<Ciclista> findAll() {
+        return new ArrayList<>(storage.values());
+    }
+}
@@ -0,0 +1,461 @@
+package com.mycompany.app.repositories;
+
+import com.mycompany.app.models.Ciclista;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Backend de {@link CiclistaRepositorio} que guarda os ciclistas fora do heap, para
+ * aguentar milhões de registros sem que o GC tenha que percorrer dezenas de objetos
+ * por ciclista.
+ *
+ * Cada ciclista ocupa um registro de tamanho fixo em buffers diretos:
+ * UUIDs viram dois longs, os Booleans viram bits de um int, as datas viram epoch days
+ * (no fuso padrão, então a hora do dia é descartada) e as Strings ficam numa arena
+ * append-only, referenciadas por posição e tamanho. País e nacionalidade, que se
+ * repetem muito, são deduplicados num dicionário e gravados como códigos.
+ *
+ * Objetos {@link Ciclista} só são criados na leitura. Uma alteração regrava o registro
+ * no mesmo lugar e acrescenta as Strings novas na arena (as antigas não são recuperadas).
+ */
+public class CiclistaRepositorioOffHeap implements CiclistaRepositorio {
+
+    // --- Layout do registro (em bytes) ---
+    private static final int OFF_ID_MSB = 0;
+    private static final int OFF_ID_LSB = 8;
+    private static final int OFF_VERSAO = 16;
+    private static final int OFF_BICICLETA_MSB = 24;
+    private static final int OFF_BICICLETA_LSB = 32;
+    private static final int OFF_EMAIL = 40;
+    private static final int OFF_CPF = 48;
+    private static final int OFF_PASSAPORTE = 56;
+    private static final int OFF_NOME = 64;
+    private static final int OFF_SENHA = 72;
+    private static final int OFF_URL_FOTO = 80;
+    private static final int OFF_FLAGS = 88;
+    private static final int OFF_VALIDADE_PASSAPORTE = 92;
+    private static final int OFF_NASCIMENTO = 96;
+    private static final int OFF_NACIONALIDADE = 100;
+    private static final int OFF_PAIS = 104;
+    static final int TAMANHO_REGISTRO = 112;
+
+    // --- Bits do campo de flags ---
+    private static final int FLAG_STATUS = 1;
+    private static final int FLAG_STATUS_NULO = 1 << 1;
+    private static final int FLAG_PERMISSAO = 1 << 2;
+    private static final int FLAG_PERMISSAO_NULO = 1 << 3;
+    private static final int FLAG_TEM_BICICLETA = 1 << 4;
+    private static final int FLAG_TEM_VALIDADE = 1 << 5;
+    private static final int FLAG_TEM_NASCIMENTO = 1 << 6;
+
+    private static final long REF_NULA = -1L;
+    private static final int CODIGO_NULO = -1;
+
+    // Registros por segmento e tamanho de cada segmento da arena
+    private static final int BITS_REGISTROS_POR_SEGMENTO = 16;
+    private static final int REGISTROS_POR_SEGMENTO = 1 << BITS_REGISTROS_POR_SEGMENTO;
+    private static final int TAMANHO_SEGMENTO_ARENA = 16 * 1024 * 1024;
+
+    private static final ZoneId FUSO = ZoneId.systemDefault();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<ByteBuffer> segmentosRegistros = new ArrayList<>();
+    private int quantidade = 0;
+
+    private final List<ByteBuffer> segmentosArena = new ArrayList<>();
+    private int posicaoArena = TAMANHO_SEGMENTO_ARENA; // força a criação do primeiro segmento
+    private long bytesArena = 0;
+
+    // Dicionário de país / nacionalidade
+    private final Map<String, Integer> codigosDicionario = new HashMap<>();
+    private final List<String> valoresDicionario = new ArrayList<>();
+
+    // Índice id -> registro (endereçamento aberto, slot + 1; 0 = vazio)
+    private long[] indiceMsb = new long[1024];
+    private long[] indiceLsb = new long[1024];
+    private int[] indiceRegistro = new int[1024];
+
+    // Índice hash(email) -> registro; entradas antigas ficam até o próximo rehash e são
+    // descartadas na leitura porque o email do registro é sempre conferido
+    private long[] emailHash = new long[1024];
+    private int[] emailRegistro = new int[1024];
+    private int entradasEmail = 0;
+
+    @Override
+    public void save(Ciclista ciclista) {
+        lock.writeLock().lock();
+        try {
+            UUID id = ciclista.getId();
+            int registro = buscarRegistro(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (registro < 0) {
+                registro = novoRegistro();
+                inserirIndice(id.getMostSignificantBits(), id.getLeastSignificantBits(), registro);
+            }
+            gravar(registro, ciclista);
+            inserirEmail(ciclista.getEmail(), registro);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Boolean buscarPorID(UUID id) {
+        lock.readLock().lock();
+        try {
+            return buscarRegistro(id.getMostSignificantBits(), id.getLeastSignificantBits()) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Boolean buscarPorEmail(String email) {
+        if (email == null) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return buscarRegistroPorEmail(email) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Ciclista getCiclistaPorId(UUID id) {
+        lock.readLock().lock();
+        try {
+            int registro = buscarRegistro(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            return registro < 0 ? null : ler(registro);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Ciclista> findAll() {
+        lock.readLock().lock();
+        try {
+            List<Ciclista> todos = new ArrayList<>(quantidade);
+            for (int registro = 0; registro < quantidade; registro++) {
+                todos.add(ler(registro));
+            }
+            return todos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return quantidade;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Bytes efetivamente ocupados fora do heap (registros + arena de Strings)
+    public long bytesForaDoHeap() {
+        lock.readLock().lock();
+        try {
+            return (long) quantidade * TAMANHO_REGISTRO + bytesArena;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Registros ---
+
+    private int novoRegistro() {
+        int registro = quantidade;
+        if ((registro >>> BITS_REGISTROS_POR_SEGMENTO) == segmentosRegistros.size()) {
+            segmentosRegistros.add(ByteBuffer.allocateDirect(REGISTROS_POR_SEGMENTO * TAMANHO_REGISTRO));
+        }
+        quantidade++;
+        return registro;
+    }
+
+    private ByteBuffer segmento(int registro) {
+        return segmentosRegistros.get(registro >>> BITS_REGISTROS_POR_SEGMENTO);
+    }
+
+    private static int base(int registro) {
+        return (registro & (REGISTROS_POR_SEGMENTO - 1)) * TAMANHO_REGISTRO;
+    }
+
+    private void gravar(int registro, Ciclista ciclista) {
+        ByteBuffer buf = segmento(registro);
+        int base = base(registro);
+
+        buf.putLong(base + OFF_ID_MSB, ciclista.getId().getMostSignificantBits());
+        buf.putLong(base + OFF_ID_LSB, ciclista.getId().getLeastSignificantBits());
+        buf.putLong(base + OFF_VERSAO, ciclista.getVersao());
+
+        int flags = 0;
+        if (ciclista.getStatus() == null) flags |= FLAG_STATUS_NULO;
+        else if (ciclista.getStatus()) flags |= FLAG_STATUS;
+        if (ciclista.getStatusPermicaoAluguel() == null) flags |= FLAG_PERMISSAO_NULO;
+        else if (ciclista.getStatusPermicaoAluguel()) flags |= FLAG_PERMISSAO;
+
+        UUID bicicletaId = ciclista.getBicicletaId();
+        if (bicicletaId != null) {
+            flags |= FLAG_TEM_BICICLETA;
+            buf.putLong(base + OFF_BICICLETA_MSB, bicicletaId.getMostSignificantBits());
+            buf.putLong(base + OFF_BICICLETA_LSB, bicicletaId.getLeastSignificantBits());
+        }
+
+        Date validade = ciclista.getValidadePassaporte();
+        if (validade != null) {
+            flags |= FLAG_TEM_VALIDADE;
+            buf.putInt(base + OFF_VALIDADE_PASSAPORTE, paraEpochDay(validade));
+        }
+        Date nascimento = ciclista.getNascimento();
+        if (nascimento != null) {
+            flags |= FLAG_TEM_NASCIMENTO;
+            buf.putInt(base + OFF_NASCIMENTO, paraEpochDay(nascimento));
+        }
+        buf.putInt(base + OFF_FLAGS, flags);
+
+        buf.putInt(base + OFF_NACIONALIDADE, codigoDicionario(ciclista.getNacionalidade()));
+        buf.putInt(base + OFF_PAIS, codigoDicionario(ciclista.getPais()));
+
+        buf.putLong(base + OFF_EMAIL, gravarString(ciclista.getEmail()));
+        buf.putLong(base + OFF_CPF, gravarString(ciclista.getCpf()));
+        buf.putLong(base + OFF_PASSAPORTE, gravarString(ciclista.getPassaporte()));
+        buf.putLong(base + OFF_NOME, gravarString(ciclista.getNome()));
+        buf.putLong(base + OFF_SENHA, gravarString(ciclista.getSenha()));
+        buf.putLong(base + OFF_URL_FOTO, gravarString(ciclista.getUrlFoto()));
+    }
+
+    private Ciclista ler(int registro) {
+        ByteBuffer buf = segmento(registro);
+        int base = base(registro);
+
+        UUID id = new UUID(buf.getLong(base + OFF_ID_MSB), buf.getLong(base + OFF_ID_LSB));
+        int flags = buf.getInt(base + OFF_FLAGS);
+
+        Boolean status = (flags & FLAG_STATUS_NULO) != 0 ? null : (flags & FLAG_STATUS) != 0;
+        Boolean permissao = (flags & FLAG_PERMISSAO_NULO) != 0 ? null : (flags & FLAG_PERMISSAO) != 0;
+        UUID bicicletaId = (flags & FLAG_TEM_BICICLETA) == 0 ? null
+                : new UUID(buf.getLong(base + OFF_BICICLETA_MSB), buf.getLong(base + OFF_BICICLETA_LSB));
+        Date validade = (flags & FLAG_TEM_VALIDADE) == 0 ? null : deEpochDay(buf.getInt(base + OFF_VALIDADE_PASSAPORTE));
+        Date nascimento = (flags & FLAG_TEM_NASCIMENTO) == 0 ? null : deEpochDay(buf.getInt(base + OFF_NASCIMENTO));
+
+        return Ciclista.reconstruir(
+                id,
+                lerString(buf.getLong(base + OFF_EMAIL)),
+                valorDicionario(buf.getInt(base + OFF_NACIONALIDADE)),
+                lerString(buf.getLong(base + OFF_CPF)),
+                lerString(buf.getLong(base + OFF_PASSAPORTE)),
+                validade,
+                valorDicionario(buf.getInt(base + OFF_PAIS)),
+                nascimento,
+                lerString(buf.getLong(base + OFF_NOME)),
+                lerString(buf.getLong(base + OFF_SENHA)),
+                lerString(buf.getLong(base + OFF_URL_FOTO)),
+                status,
+                permissao,
+                bicicletaId,
+                buf.getLong(base + OFF_VERSAO)
+        );
+    }
+
+    private static int paraEpochDay(Date data) {
+        return (int) data.toInstant().atZone(FUSO).toLocalDate().toEpochDay();
+    }
+
+    private static Date deEpochDay(int epochDay) {
+        return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(FUSO).toInstant());
+    }
+
+    // --- Arena de Strings ---
+
+    // Referência = posição global na arena (40 bits altos) + tamanho em bytes (24 bits baixos)
+    private long gravarString(String valor) {
+        if (valor == null) {
+            return REF_NULA;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= (1 << 24)) {
+            throw new IllegalArgumentException("String grande demais para a arena: " + bytes.length + " bytes.");
+        }
+        if (posicaoArena + bytes.length > TAMANHO_SEGMENTO_ARENA) {
+            segmentosArena.add(ByteBuffer.allocateDirect(TAMANHO_SEGMENTO_ARENA));
+            posicaoArena = 0;
+        }
+        int segmento = segmentosArena.size() - 1;
+        segmentosArena.get(segmento).put(posicaoArena, bytes);
+
+        long posicaoGlobal = (long) segmento * TAMANHO_SEGMENTO_ARENA + posicaoArena;
+        posicaoArena += bytes.length;
+        bytesArena += bytes.length;
+        return (posicaoGlobal << 24) | bytes.length;
+    }
+
+    private String lerString(long referencia) {
+        if (referencia == REF_NULA) {
+            return null;
+        }
+        long posicaoGlobal = referencia >>> 24;
+        int tamanho = (int) (referencia & 0xFFFFFF);
+        ByteBuffer arena = segmentosArena.get((int) (posicaoGlobal / TAMANHO_SEGMENTO_ARENA));
+        byte[] bytes = new byte[tamanho];
+        arena.get((int) (posicaoGlobal % TAMANHO_SEGMENTO_ARENA), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean stringIgualIgnorandoCaixa(long referencia, String valor) {
+        String armazenado = lerString(referencia);
+        return armazenado != null && armazenado.equalsIgnoreCase(valor);
+    }
+
+    // --- Dicionário ---
+
+    private int codigoDicionario(String valor) {
+        if (valor == null) {
+            return CODIGO_NULO;
+        }
+        Integer codigo = codigosDicionario.get(valor);
+        if (codigo == null) {
+            codigo = valoresDicionario.size();
+            valoresDicionario.add(valor);
+            codigosDicionario.put(valor, codigo);
+        }
+        return codigo;
+    }
+
+    private String valorDicionario(int codigo) {
+        return codigo == CODIGO_NULO ? null : valoresDicionario.get(codigo);
+    }
+
+    // --- Índice por id ---
+
+    private static int espalhar(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private int buscarRegistro(long msb, long lsb) {
+        int mascara = indiceRegistro.length - 1;
+        int i = espalhar(msb ^ (lsb * 31)) & mascara;
+        while (indiceRegistro[i] != 0) {
+            if (indiceMsb[i] == msb && indiceLsb[i] == lsb) {
+                return indiceRegistro[i] - 1;
+            }
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    private void inserirIndice(long msb, long lsb, int registro) {
+        if ((quantidade) * 2 > indiceRegistro.length) {
+            redimensionarIndice();
+        }
+        colocarIndice(indiceMsb, indiceLsb, indiceRegistro, msb, lsb, registro + 1);
+    }
+
+    private static void colocarIndice(long[] msbs, long[] lsbs, int[] registros, long msb, long lsb, int valor) {
+        int mascara = registros.length - 1;
+        int i = espalhar(msb ^ (lsb * 31)) & mascara;
+        while (registros[i] != 0) {
+            i = (i + 1) & mascara;
+        }
+        msbs[i] = msb;
+        lsbs[i] = lsb;
+        registros[i] = valor;
+    }
+
+    private void redimensionarIndice() {
+        int novoTamanho = indiceRegistro.length * 2;
+        long[] msbs = new long[novoTamanho];
+        long[] lsbs = new long[novoTamanho];
+        int[] registros = new int[novoTamanho];
+        for (int i = 0; i < indiceRegistro.length; i++) {
+            if (indiceRegistro[i] != 0) {
+                colocarIndice(msbs, lsbs, registros, indiceMsb[i], indiceLsb[i], indiceRegistro[i]);
+            }
+        }
+        indiceMsb = msbs;
+        indiceLsb = lsbs;
+        indiceRegistro = registros;
+    }
+
+    // --- Índice por email ---
+
+    private static long hashEmail(String email) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < email.length(); i++) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(email.charAt(i)));
+        }
+        return h;
+    }
+
+    private int buscarRegistroPorEmail(String email) {
+        long hash = hashEmail(email);
+        int mascara = emailRegistro.length - 1;
+        int i = espalhar(hash) & mascara;
+        while (emailRegistro[i] != 0) {
+            int registro = emailRegistro[i] - 1;
+            if (emailHash[i] == hash
+                    && stringIgualIgnorandoCaixa(segmento(registro).getLong(base(registro) + OFF_EMAIL), email)) {
+                return registro;
+            }
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    private void inserirEmail(String email, int registro) {
+        if (email == null) {
+            return;
+        }
+        long hash = hashEmail(email);
+        int mascara = emailRegistro.length - 1;
+        int i = espalhar(hash) & mascara;
+        while (emailRegistro[i] != 0) {
+            if (emailHash[i] == hash && emailRegistro[i] == registro + 1) {
+                return; // já indexado
+            }
+            i = (i + 1) & mascara;
+        }
+        emailHash[i] = hash;
+        emailRegistro[i] = registro + 1;
+        entradasEmail++;
+
+        if (entradasEmail * 2 > emailRegistro.length) {
+            reconstruirIndiceEmail();
+        }
+    }
+
+    // Reconstrói a partir dos registros, descartando entradas de emails antigos
+    private void reconstruirIndiceEmail() {
+        int novoTamanho = Integer.highestOneBit(Math.max(1024, quantidade * 4));
+        emailHash = new long[novoTamanho];
+        emailRegistro = new int[novoTamanho];
+        entradasEmail = 0;
+        int mascara = novoTamanho - 1;
+        for (int registro = 0; registro < quantidade; registro++) {
+            String email = lerString(segmento(registro).getLong(base(registro) + OFF_EMAIL));
+            if (email == null) {
+                continue;
+            }
+            long hash = hashEmail(email);
+            int i = espalhar(hash) & mascara;
+            while (emailRegistro[i] != 0) {
+                i = (i + 1) & mascara;
+            }
+            emailHash[i] = hash;
+            emailRegistro[i] = registro + 1;
+            entradasEmail++;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.mycompany.app.tarifas;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Regras de preço do aluguel (tarifas.properties) compiladas em tabelas.
+ *
+ * Na carga as faixas viram o valor acumulado por número de blocos excedentes, o pico vira um
+ * fator por hora da semana e os planos viram um índice com o teto. Precificar uma corrida é
+ * então só aritmética em long (centavos) e três leituras de array: sem alocação, sem Double
+ * e sem percorrer regras. Instâncias são imutáveis; trocar as regras é publicar outra em
+ * {@link #definir(Tarifario)}.
+ */
+public final class Tarifario {
+
+    public static final String PROPRIEDADE_ARQUIVO = "aluguel.tarifas";
+    public static final int HORAS_SEMANA = 7 * 24;
+    public static final int PLANO_PADRAO = 0;
+    private static final int FATOR_NEUTRO = 1000;
+
+    private static volatile Tarifario atual = carregarConfigurado();
+
+    private final Properties propriedades;
+    private final long fixoCentavos;
+    private final long franquiaMinutos;
+    private final long blocoMinutos;
+    // acumulado[k] = valor de k blocos excedentes; depois do fim da tabela cada bloco custa precoUltimoBloco
+    private final long[] acumulado;
+    private final long precoUltimoBloco;
+    private final int[] fatorMilPorHora;
+    private final String[] planos;
+    private final long[] tetoPorPlano;
+
+    private Tarifario(Properties propriedades) {
+        this.propriedades = propriedades;
+        this.fixoCentavos = naoNegativo(propriedades, "tarifa.fixo.centavos", 1000);
+        this.franquiaMinutos = naoNegativo(propriedades, "tarifa.franquia.minutos", 60);
+        this.blocoMinutos = naoNegativo(propriedades, "tarifa.bloco.minutos", 60);
+        if (blocoMinutos == 0) {
+            throw new IllegalArgumentException("tarifa.bloco.minutos deve ser positivo.");
+        }
+
+        long[][] faixas = lerFaixas(propriedades.getProperty("tarifa.faixas", "1:500"));
+        // a tabela cobre pelo menos um dia de blocos; além disso é uma reta
+        int tamanho = (int) Math.max(faixas[faixas.length - 1][0], (24 * 60 + blocoMinutos - 1) / blocoMinutos) + 1;
+        this.acumulado = new long[tamanho];
+        int faixa = 0;
+        for (int bloco = 1; bloco < tamanho; bloco++) {
+            while (faixa + 1 < faixas.length && faixas[faixa + 1][0] <= bloco) {
+                faixa++;
+            }
+            acumulado[bloco] = acumulado[bloco - 1] + faixas[faixa][1];
+        }
+        this.precoUltimoBloco = faixas[faixas.length - 1][1];
+
+        this.fatorMilPorHora = new int[HORAS_SEMANA];
+        Arrays.fill(fatorMilPorHora, FATOR_NEUTRO);
+        int fatorPico = (int) naoNegativo(propriedades, "tarifa.pico.fatorMil", FATOR_NEUTRO);
+        boolean[] diasPico = intervalos(propriedades.getProperty("tarifa.pico.dias", ""), 1, 8, true, "tarifa.pico.dias");
+        boolean[] horasPico = intervalos(propriedades.getProperty("tarifa.pico.horas", ""), 0, 24, false, "tarifa.pico.horas");
+        for (int dia = 1; dia <= 7; dia++) {
+            for (int hora = 0; hora < 24; hora++) {
+                if (diasPico[dia] && horasPico[hora]) {
+                    fatorMilPorHora[(dia - 1) * 24 + hora] = fatorPico;
+                }
+            }
+        }
+
+        this.planos = propriedades.getProperty("tarifa.planos", "padrao").trim().split("\\s*,\\s*");
+        this.tetoPorPlano = new long[planos.length];
+        for (int i = 0; i < planos.length; i++) {
+            if (planos[i].isEmpty() || Arrays.asList(planos).indexOf(planos[i]) != i) {
+                throw new IllegalArgumentException("tarifa.planos vazio ou repetido: " + planos[i]);
+            }
+            tetoPorPlano[i] = numero(propriedades, "tarifa.plano." + planos[i] + ".teto.centavos", -1);
+        }
+    }
+
+    // Compila as regras; lança IllegalArgumentException com a chave problemática
+    public static Tarifario de(Properties propriedades) {
+        Properties copia = new Properties();
+        copia.putAll(propriedades);
+        return new Tarifario(copia);
+    }
+
+    // Regras em texto (formato .properties) aplicadas por cima das desta instância
+    public Tarifario com(String ajustes) {
+        Properties combinadas = new Properties();
+        combinadas.putAll(propriedades);
+        try {
+            combinadas.load(new StringReader(ajustes));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Regras de tarifa ilegíveis: " + e.getMessage());
+        }
+        return new Tarifario(combinadas);
+    }
+
+    public static Tarifario atual() {
+        return atual;
+    }
+
+    public static void definir(Tarifario tarifario) {
+        atual = Objects.requireNonNull(tarifario);
+    }
+
+    // -Daluguel.tarifas=arquivo ou, sem ela, o tarifas.properties do classpath
+    public static Tarifario carregarConfigurado() {
+        Properties propriedades = new Properties();
+        String arquivo = System.getProperty(PROPRIEDADE_ARQUIVO);
+        try (InputStream entrada = arquivo != null
+                ? Files.newInputStream(Path.of(arquivo))
+                : Tarifario.class.getResourceAsStream("/tarifas.properties")) {
+            if (entrada != null) {
+                propriedades.load(entrada);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível ler as tarifas de " + arquivo, e);
+        }
+        return new Tarifario(propriedades);
+    }
+
+    // Hora da semana (0 = segunda 00h) usada pela tabela de pico
+    public static int horaSemana(LocalDateTime instante) {
+        return (instante.getDayOfWeek().getValue() - 1) * 24 + instante.getHour();
+    }
+
+    public long getFixoCentavos() {
+        return fixoCentavos;
+    }
+
+    // Minutos cobertos pelo valor fixo; depois deles o aluguel está em atraso
+    public long getFranquiaMinutos() {
+        return franquiaMinutos;
+    }
+
+    public long getBlocoMinutos() {
+        return blocoMinutos;
+    }
+
+    // Índice do plano ou -1 se não existir
+    public int plano(String nome) {
+        for (int i = 0; i < planos.length; i++) {
+            if (planos[i].equalsIgnoreCase(nome)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public List<String> getPlanos() {
+        return List.of(planos);
+    }
+
+    // Valor excedente de uma corrida, em centavos
+    public long custoExtraCentavos(int plano, int horaSemana, long minutos) {
+        if (minutos <= franquiaMinutos) {
+            return 0;
+        }
+        long blocos = (minutos - franquiaMinutos) / blocoMinutos;
+        int ultimo = acumulado.length - 1;
+        long valor = blocos <= ultimo
+                ? acumulado[(int) blocos]
+                : acumulado[ultimo] + (blocos - ultimo) * precoUltimoBloco;
+
+        int fator = fatorMilPorHora[horaSemana];
+        if (fator != FATOR_NEUTRO) {
+            valor = (valor * fator + FATOR_NEUTRO / 2) / FATOR_NEUTRO;
+        }
+        long teto = tetoPorPlano[plano];
+        return teto >= 0 && valor > teto ? teto : valor;
+    }
+
+    // Precifica n corridas de uma vez; saida[i] recebe o excedente em centavos. Devolve o total.
+    public long precificar(int plano, int[] horasSemana, long[] minutos, long[] saida, int n) {
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            long valor = custoExtraCentavos(plano, horasSemana[i], minutos[i]);
+            saida[i] = valor;
+            total += valor;
+        }
+        return total;
+    }
+
+    private static long numero(Properties propriedades, String chave, long padrao) {
+        String valor = propriedades.getProperty(chave);
+        if (valor == null || valor.isBlank()) {
+            return padrao;
+        }
+        try {
+            return Long.parseLong(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(chave + " não é um número: " + valor);
+        }
+    }
+
+    private static long naoNegativo(Properties propriedades, String chave, long padrao) {
+        long valor = numero(propriedades, chave, padrao);
+        if (valor < 0) {
+            throw new IllegalArgumentException(chave + " não pode ser negativo.");
+        }
+        return valor;
+    }
+
+    // "1:500,4:400" -> {{1,500},{4,400}}
+    private static long[][] lerFaixas(String texto) {
+        String[] partes = texto.trim().split("\\s*,\\s*");
+        long[][] faixas = new long[partes.length][];
+        for (int i = 0; i < partes.length; i++) {
+            String[] faixa = partes[i].split("\\s*:\\s*");
+            try {
+                faixas[i] = new long[]{Long.parseLong(faixa[0]), Long.parseLong(faixa[1])};
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("tarifa.faixas inválida: " + partes[i]);
+            }
+            long inicioEsperado = i == 0 ? 1 : faixas[i - 1][0] + 1;
+            if ((i == 0 && faixas[i][0] != 1) || faixas[i][0] < inicioEsperado || faixas[i][1] < 0) {
+                throw new IllegalArgumentException("tarifa.faixas deve começar no bloco 1, crescer e ter valores >= 0: " + partes[i]);
+            }
+        }
+        return faixas;
+    }
+
+    // "1-5,7" -> marcados; dias são "de segunda a sexta" (fim incluso), horas "das 7 às 9" (7 e 8)
+    private static boolean[] intervalos(String texto, int minimo, int limite, boolean fimIncluso, String chave) {
+        boolean[] marcados = new boolean[limite];
+        if (texto.isBlank()) {
+            return marcados;
+        }
+        for (String parte : texto.trim().split("\\s*,\\s*")) {
+            String[] extremos = parte.split("\\s*-\\s*");
+            try {
+                int de = Integer.parseInt(extremos[0]);
+                int ate = extremos.length > 1 ? Integer.parseInt(extremos[1]) + (fimIncluso ? 1 : 0) : de + 1;
+                if (extremos.length > 2 || de < minimo || ate > limite || de >= ate) {
+                    throw new IllegalArgumentException(chave + " fora do intervalo: " + parte);
+                }
+                Arrays.fill(marcados, de, ate, true);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(chave + " inválido: " + parte);
+            }
+        }
+        return marcados;
+    }
+}
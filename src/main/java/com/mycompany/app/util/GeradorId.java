@@ -0,0 +1,17 @@
+package com.mycompany.app.util;
+
+import java.util.UUID;
+
+/**
+ * Estratégia de geração de ids das entidades. A implementação em uso é escolhida em
+ * {@link GeradoresId}.
+ */
+public interface GeradorId {
+
+    UUID proximo();
+
+    // true quando a ordem natural dos ids segue a ordem de criação (permite busca por faixa de tempo)
+    default boolean ordenadoPorTempo() {
+        return false;
+    }
+}
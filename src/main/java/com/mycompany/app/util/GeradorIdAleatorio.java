@@ -0,0 +1,15 @@
+package com.mycompany.app.util;
+
+import java.util.UUID;
+
+/**
+ * UUID versão 4 (comportamento antigo). Usa o SecureRandom compartilhado da JVM,
+ * então é o gerador mais lento sob concorrência.
+ */
+public class GeradorIdAleatorio implements GeradorId {
+
+    @Override
+    public UUID proximo() {
+        return UUID.randomUUID();
+    }
+}
@@ -0,0 +1,67 @@
+package com.mycompany.app.util;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * UUID versão 7 (RFC 9562): 48 bits de timestamp em milissegundos seguidos de bits
+ * "aleatórios", o que deixa os ids ordenados pelo momento de criação.
+ *
+ * Nada é compartilhado entre threads no caminho quente: cada thread tem seu próprio
+ * estado e usa o ThreadLocalRandom. Os bits aleatórios são usados assim:
+ * <ul>
+ *   <li>rand_a (12 bits): sequência da thread dentro do mesmo milissegundo;</li>
+ *   <li>rand_b (62 bits): 30 bits com o número da thread + 32 bits aleatórios.</li>
+ * </ul>
+ * Como (milissegundo, sequência) só cresce dentro de uma thread e o número da thread é
+ * único no processo, dois ids gerados na mesma JVM nunca colidem. Se a sequência estoura
+ * ou o relógio volta, a thread passa a usar o milissegundo seguinte ao último usado.
+ */
+public class GeradorIdV7 implements GeradorId {
+
+    private static final AtomicInteger proximaThread = new AtomicInteger();
+
+    private static final class EstadoThread {
+        final long numeroThread = proximaThread.getAndIncrement() & 0x3FFFFFFFL;
+        long ultimoMs = -1;
+        int sequencia;
+    }
+
+    private static final ThreadLocal<EstadoThread> estado = ThreadLocal.withInitial(EstadoThread::new);
+
+    @Override
+    public UUID proximo() {
+        EstadoThread e = estado.get();
+        long agora = System.currentTimeMillis();
+
+        if (agora > e.ultimoMs) {
+            e.ultimoMs = agora;
+            e.sequencia = 0;
+        } else if (++e.sequencia > 0xFFF) {
+            e.ultimoMs++;
+            e.sequencia = 0;
+        }
+
+        long msb = (e.ultimoMs << 16) | 0x7000L | e.sequencia;
+        long lsb = 0x8000000000000000L
+                | (e.numeroThread << 32)
+                | (ThreadLocalRandom.current().nextInt() & 0xFFFFFFFFL);
+        return new UUID(msb, lsb);
+    }
+
+    @Override
+    public boolean ordenadoPorTempo() {
+        return true;
+    }
+
+    // Menor UUIDv7 possível no instante dado (limite inclusivo para buscas por faixa)
+    public static UUID limiteInferior(Instant instante) {
+        return new UUID((instante.toEpochMilli() << 16) | 0x7000L, 0x8000000000000000L);
+    }
+
+    public static Instant instanteDe(UUID id) {
+        return Instant.ofEpochMilli(id.getMostSignificantBits() >>> 16);
+    }
+}
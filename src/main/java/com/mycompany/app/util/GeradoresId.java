@@ -0,0 +1,34 @@
+package com.mycompany.app.util;
+
+/**
+ * Ponto único de escolha do gerador de ids. O padrão é UUIDv7 e pode ser trocado pela
+ * propriedade de sistema {@code aluguel.gerador.id} ({@code v7} ou {@code aleatorio})
+ * ou em tempo de execução com {@link #definir(GeradorId)}.
+ */
+public final class GeradoresId {
+
+    private static volatile GeradorId atual = criar(System.getProperty("aluguel.gerador.id", "v7"));
+
+    private GeradoresId() {
+    }
+
+    public static GeradorId atual() {
+        return atual;
+    }
+
+    public static void definir(GeradorId gerador) {
+        atual = gerador;
+    }
+
+    public static GeradorId criar(String nome) {
+        switch (nome.toLowerCase()) {
+            case "v7":
+                return new GeradorIdV7();
+            case "aleatorio":
+            case "v4":
+                return new GeradorIdAleatorio();
+            default:
+                throw new IllegalArgumentException("Gerador de id desconhecido: " + nome);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.mycompany.app.util;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Índice ordenado para busca por prefixo ("busca enquanto digita").
+ *
+ * Cada texto indexado é normalizado (minúsculas, sem acento) e gera uma entrada por
+ * palavra, com o resto do texto a partir dela: "Ana Maria Silva" entra como
+ * "ana maria silva", "maria silva" e "silva". Assim "sil" e "ana m" acham o mesmo
+ * registro. A busca é um recorte do skip list, O(log n + página).
+ *
+ * As entradas são mantidas de forma incremental, só por quem grava (sob o lock da entidade).
+ * A busca confere o snapshot atual da entidade e pula entradas que não correspondem mais,
+ * sem mexer no índice: uma remoção na leitura poderia apagar uma chave que uma gravação
+ * concorrente acabou de recolocar.
+ */
+public class IndicePrefixo {
+
+    private static final char SEPARADOR = '\u0000';
+    private static final Pattern ACENTO = Pattern.compile("\\p{M}");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    private final ConcurrentSkipListMap<String, UUID> entradas = new ConcurrentSkipListMap<>();
+
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcento = ACENTO.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcento.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    // Sufixos do texto que começam em cada palavra
+    private static List<String> termos(String texto) {
+        String normalizado = normalizar(texto);
+        List<String> termos = new ArrayList<>();
+        if (normalizado.isEmpty()) {
+            return termos;
+        }
+        termos.add(normalizado);
+        for (int i = normalizado.indexOf(' '); i >= 0; i = normalizado.indexOf(' ', i + 1)) {
+            termos.add(normalizado.substring(i + 1));
+        }
+        return termos;
+    }
+
+    private static String chave(String termo, UUID id) {
+        return termo + SEPARADOR + id;
+    }
+
+    public void indexar(UUID id, String... textos) {
+        for (String texto : textos) {
+            for (String termo : termos(texto)) {
+                entradas.put(chave(termo, id), id);
+            }
+        }
+    }
+
+    public void remover(UUID id, String... textos) {
+        for (String texto : textos) {
+            for (String termo : termos(texto)) {
+                entradas.remove(chave(termo, id), id);
+            }
+        }
+    }
+
+    public void atualizar(UUID id, String[] antigos, String[] novos) {
+        if (Arrays.equals(antigos, novos)) {
+            return;
+        }
+        remover(id, antigos);
+        indexar(id, novos);
+    }
+
+    public void limpar() {
+        entradas.clear();
+    }
+
+    public int tamanho() {
+        return entradas.size();
+    }
+
+    // true se algum dos textos tem uma palavra (com o resto do texto) começando pelo prefixo
+    public static boolean corresponde(String prefixoNormalizado, String... textos) {
+        for (String texto : textos) {
+            for (String termo : termos(texto)) {
+                if (termo.startsWith(prefixoNormalizado)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Busca paginada (pagina começa em 0). {@code carregar} devolve o snapshot atual pelo id
+     * (ou null se não existe mais) e {@code textos} extrai os textos indexados desse snapshot.
+     */
+    public <T> List<T> buscar(String prefixo, int pagina, int tamanho,
+                              Function<UUID, T> carregar, Function<T, String[]> textos) {
+        String prefixoNormalizado = normalizar(prefixo);
+        List<T> resultado = new ArrayList<>(Math.min(tamanho, 64));
+        if (prefixoNormalizado.isEmpty() || tamanho <= 0) {
+            return resultado;
+        }
+
+        long pular = (long) Math.max(0, pagina) * tamanho;
+        Set<UUID> vistos = new HashSet<>();
+        NavigableMap<String, UUID> faixa = entradas.subMap(prefixoNormalizado, true, prefixoNormalizado + Character.MAX_VALUE, false);
+
+        for (Map.Entry<String, UUID> entrada : faixa.entrySet()) {
+            UUID id = entrada.getValue();
+            if (!vistos.add(id)) {
+                continue;
+            }
+            T atual = carregar.apply(id);
+            if (atual == null || !corresponde(prefixoNormalizado, textos.apply(atual))) {
+                vistos.remove(id); // entrada velha; quem grava a remove
+                continue;
+            }
+            if (pular > 0) {
+                pular--;
+                continue;
+            }
+            resultado.add(atual);
+            if (resultado.size() == tamanho) {
+                break;
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,111 @@
+package com.mycompany.app.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight para leituras quentes: chamadas simultâneas com a mesma chave esperam uma única
+ * execução de {@code calcular} e recebem o mesmo array de bytes (a resposta já serializada).
+ * O resultado continua valendo por {@code janelaMs} para quem chegar logo depois.
+ *
+ * Cada resultado é marcado com a geração da chave lida antes de calcular; quem chega com outra
+ * geração não o aproveita e calcula de novo. Quem altera os dados incrementa a geração depois de
+ * alterar, então uma leitura nunca devolve um valor de antes de uma alteração que já terminou.
+ * Os arrays devolvidos são compartilhados e não podem ser modificados.
+ */
+public final class LeituraCompartilhada<K> {
+
+    private static final class Entrada {
+        final long geracao;
+        final CompletableFuture<byte[]> valor = new CompletableFuture<>();
+        volatile long calculadoEm; // 0 enquanto calcula
+
+        Entrada(long geracao) {
+            this.geracao = geracao;
+        }
+    }
+
+    private final Map<K, Entrada> entradas = new ConcurrentHashMap<>();
+    private final long janelaNs;
+    private final int maxEntradas;
+    private final LongAdder calculos = new LongAdder();
+    private final LongAdder compartilhadas = new LongAdder();
+
+    public LeituraCompartilhada(long janelaMs, int maxEntradas) {
+        this.janelaNs = TimeUnit.MILLISECONDS.toNanos(janelaMs);
+        this.maxEntradas = maxEntradas;
+    }
+
+    // calcular pode devolver null (ex.: não encontrado), que também é compartilhado
+    public byte[] obter(K chave, long geracao, Supplier<byte[]> calcular) {
+        while (true) {
+            Entrada atual = entradas.get(chave);
+            if (atual != null && atual.geracao == geracao && valida(atual)) {
+                compartilhadas.increment();
+                return aguardar(atual);
+            }
+
+            Entrada nova = new Entrada(geracao);
+            boolean minha = atual == null ? entradas.putIfAbsent(chave, nova) == null : entradas.replace(chave, atual, nova);
+            if (!minha) {
+                continue; // outra thread trocou a entrada primeiro: usa a dela
+            }
+            calculos.increment();
+            try {
+                byte[] valor = calcular.get();
+                nova.calculadoEm = System.nanoTime();
+                nova.valor.complete(valor);
+                if (entradas.size() > maxEntradas) {
+                    podar();
+                }
+                return valor;
+            } catch (RuntimeException | Error e) {
+                entradas.remove(chave, nova); // a próxima chamada tenta de novo
+                nova.valor.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    public void limpar() {
+        entradas.clear();
+    }
+
+    public long getCalculos() {
+        return calculos.sum();
+    }
+
+    public long getCompartilhadas() {
+        return compartilhadas.sum();
+    }
+
+    private boolean valida(Entrada entrada) {
+        long calculadoEm = entrada.calculadoEm;
+        return calculadoEm == 0 ? !entrada.valor.isDone() : System.nanoTime() - calculadoEm < janelaNs;
+    }
+
+    private static byte[] aguardar(Entrada entrada) {
+        try {
+            return entrada.valor.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    // Tira as vencidas; se ainda estiver acima do limite (tudo recente), descarta tudo
+    private void podar() {
+        long agora = System.nanoTime();
+        entradas.values().removeIf(entrada -> entrada.calculadoEm != 0 && agora - entrada.calculadoEm >= janelaNs);
+        if (entradas.size() > maxEntradas) {
+            entradas.clear();
+        }
+    }
+}
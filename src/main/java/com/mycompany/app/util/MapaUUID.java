@@ -0,0 +1,380 @@
+package com.mycompany.app.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Mapa UUID -> V com endereçamento aberto, guardando a chave como dois longs em arrays
+ * primitivos (sem objetos UUID nem nós de HashMap por entrada).
+ *
+ * Leituras não usam lock: cada valor é publicado com release depois das chaves do slot,
+ * e a chave de um slot nunca muda enquanto a tabela estiver em uso. O {@link #replace}
+ * também é lock-free (compare-and-set no slot). Inserções, remoções e redimensionamentos
+ * usam o lock do segmento; o mapa é dividido em segmentos para que cadastros em paralelo
+ * não disputem um lock único.
+ *
+ * Remoções deixam uma marca no slot, que só é limpa no próximo rehash do segmento.
+ */
+public class MapaUUID<V> {
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    // Slot de uma chave removida (a chave continua ocupando o slot até o rehash)
+    private static final Object REMOVIDO = new Object();
+
+    // Slot congelado durante um redimensionamento; leitores usam o valor, escritores esperam a nova tabela
+    private static final class Movido {
+        final Object valor;
+
+        Movido(Object valor) {
+            this.valor = valor;
+        }
+    }
+
+    private static final class Tabela {
+        final long[] msb;
+        final long[] lsb;
+        final Object[] valores;
+        final int mascara;
+
+        Tabela(int capacidade) {
+            msb = new long[capacidade];
+            lsb = new long[capacidade];
+            valores = new Object[capacidade];
+            mascara = capacidade - 1;
+        }
+    }
+
+    private static final class Segmento {
+        volatile Tabela tabela;
+        int ocupados;      // slots com chave (inclui removidos); só acessado com o lock
+        volatile int vivos;
+
+        Segmento(int capacidade) {
+            tabela = new Tabela(capacidade);
+        }
+    }
+
+    private static final int CAPACIDADE_INICIAL_SEGMENTO = 16;
+
+    private final Segmento[] segmentos;
+    private final int deslocamentoSegmento;
+
+    public MapaUUID() {
+        this(16);
+    }
+
+    public MapaUUID(int quantidadeSegmentos) {
+        int quantidade = 1;
+        while (quantidade < quantidadeSegmentos) {
+            quantidade <<= 1;
+        }
+        segmentos = new Segmento[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            segmentos[i] = new Segmento(CAPACIDADE_INICIAL_SEGMENTO);
+        }
+        deslocamentoSegmento = 32 - Integer.numberOfTrailingZeros(quantidade);
+    }
+
+    private static int espalhar(long msb, long lsb) {
+        long h = msb ^ Long.rotateLeft(lsb, 29);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private Segmento segmento(int hash) {
+        return deslocamentoSegmento == 32 ? segmentos[0] : segmentos[hash >>> deslocamentoSegmento];
+    }
+
+    // Procura o slot da chave; retorna -1 se a chave nunca foi inserida na tabela
+    private static int procurar(Tabela t, int hash, long msb, long lsb) {
+        int i = hash & t.mascara;
+        while (true) {
+            Object v = SLOTS.getAcquire(t.valores, i);
+            if (v == null) {
+                return -1;
+            }
+            if (t.msb[i] == msb && t.lsb[i] == lsb) {
+                return i;
+            }
+            i = (i + 1) & t.mascara;
+        }
+    }
+
+    private static Object desembrulhar(Object v) {
+        if (v instanceof Movido) {
+            v = ((Movido) v).valor;
+        }
+        return v == REMOVIDO ? null : v;
+    }
+
+    // --- Leitura (sem lock) ---
+
+    public V get(UUID chave) {
+        return get(chave.getMostSignificantBits(), chave.getLeastSignificantBits());
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long msb, long lsb) {
+        int hash = espalhar(msb, lsb);
+        Tabela t = segmento(hash).tabela;
+        int i = procurar(t, hash, msb, lsb);
+        return i < 0 ? null : (V) desembrulhar(SLOTS.getAcquire(t.valores, i));
+    }
+
+    /**
+     * Busca várias chaves de uma vez; o resultado segue a ordem de {@code chaves}, com null para
+     * as ausentes. Calcula todos os hashes e pega as tabelas antes de sondar, então as leituras
+     * de memória de chaves diferentes não ficam esperando umas pelas outras.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> getTodos(List<UUID> chaves) {
+        int n = chaves.size();
+        int[] hashes = new int[n];
+        Tabela[] tabelas = new Tabela[n];
+        for (int k = 0; k < n; k++) {
+            UUID chave = chaves.get(k);
+            hashes[k] = espalhar(chave.getMostSignificantBits(), chave.getLeastSignificantBits());
+            tabelas[k] = segmento(hashes[k]).tabela;
+        }
+        List<V> resultado = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            UUID chave = chaves.get(k);
+            Tabela t = tabelas[k];
+            int i = procurar(t, hashes[k], chave.getMostSignificantBits(), chave.getLeastSignificantBits());
+            resultado.add(i < 0 ? null : (V) desembrulhar(SLOTS.getAcquire(t.valores, i)));
+        }
+        return resultado;
+    }
+
+    public boolean containsKey(UUID chave) {
+        return get(chave) != null;
+    }
+
+    public int size() {
+        int total = 0;
+        for (Segmento s : segmentos) {
+            total += s.vivos;
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Cópia dos valores presentes; cada valor é lido de forma consistente, o conjunto é fracamente consistente
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> valores = new ArrayList<>(size());
+        for (Segmento s : segmentos) {
+            Object[] slots = s.tabela.valores;
+            for (int i = 0; i < slots.length; i++) {
+                Object v = desembrulhar(SLOTS.getAcquire(slots, i));
+                if (v != null) {
+                    valores.add((V) v);
+                }
+            }
+        }
+        return valores;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<UUID, ? super V> acao) {
+        for (Segmento s : segmentos) {
+            Tabela t = s.tabela;
+            for (int i = 0; i < t.valores.length; i++) {
+                Object v = desembrulhar(SLOTS.getAcquire(t.valores, i));
+                if (v != null) {
+                    acao.accept(new UUID(t.msb[i], t.lsb[i]), (V) v);
+                }
+            }
+        }
+    }
+
+    // --- Compare-and-set (sem lock) ---
+
+    // Troca o valor só se o atual for exatamente 'esperado' (comparação por identidade)
+    public boolean replace(UUID chave, V esperado, V novo) {
+        if (esperado == null || novo == null) {
+            throw new NullPointerException();
+        }
+        long msb = chave.getMostSignificantBits();
+        long lsb = chave.getLeastSignificantBits();
+        int hash = espalhar(msb, lsb);
+        Segmento s = segmento(hash);
+
+        while (true) {
+            Tabela t = s.tabela;
+            int i = procurar(t, hash, msb, lsb);
+            if (i < 0) {
+                return false;
+            }
+            Object atual = SLOTS.getAcquire(t.valores, i);
+            if (atual instanceof Movido) {
+                aguardarNovaTabela(s, t);
+                continue;
+            }
+            if (atual != esperado) {
+                return false;
+            }
+            if (SLOTS.compareAndSet(t.valores, i, esperado, novo)) {
+                return true;
+            }
+            // outro escritor mexeu no slot; relê para decidir
+        }
+    }
+
+    private static void aguardarNovaTabela(Segmento s, Tabela antiga) {
+        while (s.tabela == antiga) {
+            Thread.onSpinWait();
+        }
+    }
+
+    // --- Escrita (lock do segmento) ---
+
+    public V put(UUID chave, V valor) {
+        return inserir(chave, valor, false);
+    }
+
+    public V putIfAbsent(UUID chave, V valor) {
+        return inserir(chave, valor, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V inserir(UUID chave, V valor, boolean somenteSeAusente) {
+        if (valor == null) {
+            throw new NullPointerException();
+        }
+        long msb = chave.getMostSignificantBits();
+        long lsb = chave.getLeastSignificantBits();
+        int hash = espalhar(msb, lsb);
+        Segmento s = segmento(hash);
+
+        synchronized (s) {
+            Tabela t = s.tabela;
+            int i = procurar(t, hash, msb, lsb);
+            if (i >= 0) {
+                while (true) {
+                    Object atual = SLOTS.getAcquire(t.valores, i);
+                    if (somenteSeAusente && atual != REMOVIDO) {
+                        return (V) atual;
+                    }
+                    if (SLOTS.compareAndSet(t.valores, i, atual, valor)) {
+                        if (atual == REMOVIDO) {
+                            s.vivos++;
+                            return null;
+                        }
+                        return (V) atual;
+                    }
+                }
+            }
+
+            if ((s.ocupados + 1) * 4 > t.valores.length * 3) {
+                t = redimensionar(s);
+            }
+            i = hash & t.mascara;
+            while (SLOTS.getAcquire(t.valores, i) != null) {
+                i = (i + 1) & t.mascara;
+            }
+            t.msb[i] = msb;
+            t.lsb[i] = lsb;
+            SLOTS.setRelease(t.valores, i, valor);
+            s.ocupados++;
+            s.vivos++;
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(UUID chave) {
+        long msb = chave.getMostSignificantBits();
+        long lsb = chave.getLeastSignificantBits();
+        int hash = espalhar(msb, lsb);
+        Segmento s = segmento(hash);
+
+        synchronized (s) {
+            Tabela t = s.tabela;
+            int i = procurar(t, hash, msb, lsb);
+            if (i < 0) {
+                return null;
+            }
+            Object atual = SLOTS.getAndSet(t.valores, i, REMOVIDO);
+            if (atual == REMOVIDO) {
+                return null;
+            }
+            s.vivos--;
+            return (V) atual;
+        }
+    }
+
+    public void clear() {
+        for (Segmento s : segmentos) {
+            synchronized (s) {
+                Tabela antiga = s.tabela;
+                congelar(antiga);
+                s.tabela = new Tabela(CAPACIDADE_INICIAL_SEGMENTO);
+                s.ocupados = 0;
+                s.vivos = 0;
+            }
+        }
+    }
+
+    // Copia os vivos para uma tabela nova (o dobro, ou o mesmo tamanho se só havia removidos)
+    private static Tabela redimensionar(Segmento s) {
+        Tabela antiga = s.tabela;
+        int capacidade = antiga.valores.length;
+        if (s.vivos * 2 >= capacidade) {
+            capacidade *= 2;
+        }
+        Tabela nova = new Tabela(capacidade);
+        int ocupados = 0;
+
+        congelar(antiga);
+        for (int i = 0; i < antiga.valores.length; i++) {
+            Object v = antiga.valores[i];
+            if (v == null) {
+                continue;
+            }
+            Object valor = ((Movido) v).valor;
+            if (valor == REMOVIDO) {
+                continue;
+            }
+            int j = espalhar(antiga.msb[i], antiga.lsb[i]) & nova.mascara;
+            while (nova.valores[j] != null) {
+                j = (j + 1) & nova.mascara;
+            }
+            nova.msb[j] = antiga.msb[i];
+            nova.lsb[j] = antiga.lsb[i];
+            nova.valores[j] = valor;
+            ocupados++;
+        }
+
+        s.ocupados = ocupados;
+        s.tabela = nova; // publicação volatile de toda a tabela nova
+        return nova;
+    }
+
+    // Congela todos os slots preenchidos para que nenhum replace concorrente se perca na cópia
+    private static void congelar(Tabela t) {
+        for (int i = 0; i < t.valores.length; i++) {
+            while (true) {
+                Object v = SLOTS.getAcquire(t.valores, i);
+                if (v == null || v instanceof Movido) {
+                    break;
+                }
+                if (SLOTS.compareAndSet(t.valores, i, v, new Movido(v))) {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.mycompany.app.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Roda de temporização (hashed timing wheel): {@code slots} baldes de {@code tickMs} cada,
+ * com um contador de voltas para prazos além de uma volta da roda.
+ *
+ * Agendar e cancelar são O(1) (lista duplamente encadeada no balde do prazo). Cada tick
+ * percorre só o seu balde, e um agendamento é visitado uma vez por volta até vencer; com a
+ * volta maior que o prazo típico, isso é O(1) por agendamento independente de quantos há.
+ * Um prazo nunca vence antes da hora, no máximo um tick depois.
+ *
+ * O tempo é o que o chamador passa em {@link #avancar(long, Consumer)}, o que deixa a roda
+ * testável sem relógio. Thread-safe; os vencidos são entregues fora do lock.
+ */
+public final class RodaTemporizacao<T> {
+
+    /** Handle de um prazo agendado, para cancelar. */
+    public static final class Agendamento<T> {
+        private final long prazoMs;
+        private final T valor;
+        private long voltas;
+        private int slot = -1; // -1 = fora da roda (vencido ou cancelado)
+        private Agendamento<T> anterior;
+        private Agendamento<T> proximo;
+
+        private Agendamento(long prazoMs, T valor) {
+            this.prazoMs = prazoMs;
+            this.valor = valor;
+        }
+
+        public long getPrazoMs() {
+            return prazoMs;
+        }
+
+        public T getValor() {
+            return valor;
+        }
+    }
+
+    private final long tickMs;
+    private long inicioMs;
+    private final Agendamento<T>[] baldes;
+    private final int mascara;
+    private long tickAtual; // próximo tick a processar
+    private int tamanho;
+
+    @SuppressWarnings("unchecked")
+    public RodaTemporizacao(long tickMs, int slots, long inicioMs) {
+        if (tickMs <= 0 || slots <= 0 || Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("tickMs deve ser positivo e slots uma potência de 2.");
+        }
+        this.tickMs = tickMs;
+        this.inicioMs = inicioMs;
+        this.baldes = (Agendamento<T>[]) new Agendamento[slots];
+        this.mascara = slots - 1;
+    }
+
+    public synchronized Agendamento<T> agendar(long prazoMs, T valor) {
+        Agendamento<T> agendamento = new Agendamento<>(prazoMs, valor);
+        // arredonda para cima: o tick t só é processado quando o tempo já passou de inicio + t*tick
+        long tick = Math.max(tickAtual, Math.floorDiv(prazoMs - inicioMs + tickMs - 1, tickMs));
+        agendamento.voltas = (tick - tickAtual) / baldes.length;
+        agendamento.slot = (int) (tick & mascara);
+        Agendamento<T> cabeca = baldes[agendamento.slot];
+        agendamento.proximo = cabeca;
+        if (cabeca != null) {
+            cabeca.anterior = agendamento;
+        }
+        baldes[agendamento.slot] = agendamento;
+        tamanho++;
+        return agendamento;
+    }
+
+    // false se já tinha vencido ou sido cancelado
+    public synchronized boolean cancelar(Agendamento<T> agendamento) {
+        if (agendamento == null || agendamento.slot < 0) {
+            return false;
+        }
+        retirar(agendamento);
+        return true;
+    }
+
+    /**
+     * Processa os ticks até {@code agoraMs} e entrega os prazos vencidos, em ordem de tick.
+     * O consumidor pode agendar de novo. Devolve quantos venceram.
+     */
+    public int avancar(long agoraMs, Consumer<T> aoVencer) {
+        List<T> vencidos = new ArrayList<>();
+        synchronized (this) {
+            while (inicioMs + tickAtual * tickMs <= agoraMs) {
+                Agendamento<T> atual = baldes[(int) (tickAtual & mascara)];
+                while (atual != null) {
+                    Agendamento<T> seguinte = atual.proximo;
+                    if (atual.voltas == 0) {
+                        retirar(atual);
+                        vencidos.add(atual.valor);
+                    } else {
+                        atual.voltas--;
+                    }
+                    atual = seguinte;
+                }
+                tickAtual++;
+            }
+        }
+        for (T valor : vencidos) {
+            aoVencer.accept(valor);
+        }
+        return vencidos.size();
+    }
+
+    public synchronized int tamanho() {
+        return tamanho;
+    }
+
+    // Descarta tudo e recomeça a contar os ticks a partir de inicioMs
+    public synchronized void limpar(long inicioMs) {
+        for (int i = 0; i < baldes.length; i++) {
+            for (Agendamento<T> atual = baldes[i]; atual != null; atual = atual.proximo) {
+                atual.slot = -1;
+            }
+            baldes[i] = null;
+        }
+        tamanho = 0;
+        tickAtual = 0;
+        this.inicioMs = inicioMs;
+    }
+
+    private void retirar(Agendamento<T> agendamento) {
+        if (agendamento.anterior != null) {
+            agendamento.anterior.proximo = agendamento.proximo;
+        } else {
+            baldes[agendamento.slot] = agendamento.proximo;
+        }
+        if (agendamento.proximo != null) {
+            agendamento.proximo.anterior = agendamento.anterior;
+        }
+        agendamento.anterior = null;
+        agendamento.proximo = null;
+        agendamento.slot = -1;
+        tamanho--;
+    }
+}
@@ -2,16 +2,31 @@ package com.mycompany.app;
 
 import com.mycompany.app.handlers.AluguelHandler;
 import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Estacao;
+import com.mycompany.app.util.GeradorId;
+import com.mycompany.app.util.GeradorIdAleatorio;
+import com.mycompany.app.util.GeradorIdV7;
+import com.mycompany.app.util.GeradoresId;
 import io.javalin.http.Context;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.javalin.http.HttpStatus.*;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
@@ -30,6 +45,59 @@ class AluguelTest {
         when(mockCtx.status(any(io.javalin.http.HttpStatus.class))).thenReturn(mockCtx);
     }
 
+    @AfterEach
+    void tearDown() {
+        GeradoresId.definir(new GeradorIdV7());
+        Ciclista.restaurar();
+        Aluguel.restaurar();
+        Estacao.restaurar();
+    }
+
+    // UUIDv7 à frente do relógio, como depois de estourar a sequência do milissegundo
+    private static GeradorId adiantado(long ms) {
+        AtomicInteger sequencia = new AtomicInteger();
+        return new GeradorId() {
+            @Override
+            public UUID proximo() {
+                long msb = ((System.currentTimeMillis() + ms) << 16) | 0x7000L | (sequencia.getAndIncrement() & 0xFFF);
+                return new UUID(msb, 0x8000000000000000L | (ThreadLocalRandom.current().nextLong() >>> 2));
+            }
+
+            @Override
+            public boolean ordenadoPorTempo() {
+                return true;
+            }
+        };
+    }
+
+    // --- Modelo: horaInicio e listarPorPeriodo ---
+
+    @Test
+    @DisplayName("Aluguel - horaInicio vem do relógio e listarPorPeriodo filtra por ela, mesmo com o id adiantado")
+    void periodoPelaHoraInicio() throws Exception {
+        GeradoresId.definir(adiantado(50));
+        Ciclista ciclista = new Ciclista("periodo@teste.com", "brasileira", "52998224725", null, null,
+                "Brasil", new Date(0), "Ana Periodo", "Senha1", null);
+        ciclista.alterarStatusCiclista(true);
+        Estacao estacao = Estacao.cadastrar(1, 1);
+
+        Aluguel aluguel = Aluguel.realizarAluguel(ciclista.getId(), estacao.getTrancas().get(0).getId());
+        LocalDateTime depois = LocalDateTime.now();
+        assertFalse(aluguel.getHoraInicio().isAfter(depois), "horaInicio à frente do relógio");
+        assertTrue(GeradorIdV7.instanteDe(aluguel.getId()).toEpochMilli()
+                - aluguel.getHoraInicio().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() >= 50);
+
+        Instant inicio = aluguel.getHoraInicio().atZone(ZoneId.systemDefault()).toInstant();
+        Instant fim = inicio.plusMillis(1);
+        for (GeradorId gerador : List.of(adiantado(50), new GeradorIdAleatorio())) {
+            GeradoresId.definir(gerador);
+            assertEquals(List.of(aluguel.getId()),
+                    Aluguel.listarPorPeriodo(inicio, fim).stream().map(Aluguel::getId).toList());
+            assertTrue(Aluguel.listarPorPeriodo(inicio.minusSeconds(1), inicio).isEmpty());
+            assertTrue(Aluguel.listarPorPeriodo(fim, fim.plusSeconds(1)).isEmpty());
+        }
+    }
+
     // --- Testes para realizarAluguel ---
 
     @Test
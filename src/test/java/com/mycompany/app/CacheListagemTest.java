@@ -0,0 +1,126 @@
+package com.mycompany.app;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Funcionario;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheListagemTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Javalin app;
+
+    @BeforeEach
+    void setUp() {
+        Prontidao prontidao = new Prontidao();
+        app = App.criar(prontidao).start(0);
+        prontidao.marcarPronto();
+    }
+
+    @AfterEach
+    void tearDown() {
+        app.stop();
+        Ciclista.restaurar();
+        Funcionario.restaurar();
+    }
+
+    private HttpResponse<byte[]> get(String caminho, String acceptEncoding) throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + caminho));
+        if (acceptEncoding != null) {
+            requisicao.header("Accept-Encoding", acceptEncoding);
+        }
+        return HttpClient.newHttpClient().send(requisicao.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String corpo(HttpResponse<byte[]> resposta) throws Exception {
+        if (resposta.headers().firstValue("Content-Encoding").orElse("").equals("gzip")) {
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(resposta.body()))) {
+                return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+        return new String(resposta.body(), StandardCharsets.UTF_8);
+    }
+
+    private static void cadastrarFuncionarios(int quantidade) {
+        for (int i = 0; i < quantidade; i++) {
+            new Funcionario("Senha1", "Senha1", "func" + i + "@cache.com", "Funcionario Cache " + i,
+                    "30", "Reparador", "52998224725");
+        }
+    }
+
+    @Test
+    @DisplayName("GET /funcionario - gzip só para quem aceita, mesmo conteúdo nas duas codificações")
+    void negociacao() throws Exception {
+        cadastrarFuncionarios(40);
+
+        HttpResponse<byte[]> semGzip = get("/funcionario", null);
+        assertEquals(200, semGzip.statusCode());
+        assertTrue(semGzip.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals("Accept-Encoding", semGzip.headers().firstValue("Vary").orElse(null));
+        assertEquals(40, mapper.readTree(corpo(semGzip)).size());
+
+        HttpResponse<byte[]> comGzip = get("/funcionario", "br, gzip;q=0.8");
+        assertEquals("gzip", comGzip.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(comGzip.body().length < semGzip.body().length);
+        assertEquals(comGzip.body().length, comGzip.headers().firstValueAsLong("Content-Length").orElse(-1));
+        assertEquals(corpo(semGzip), corpo(comGzip));
+
+        assertEquals("gzip", get("/funcionario", "*").headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(get("/funcionario", "gzip;q=0, *").headers().firstValue("Content-Encoding").isEmpty());
+        assertTrue(get("/funcionario", "identity").headers().firstValue("Content-Encoding").isEmpty());
+    }
+
+    @Test
+    @DisplayName("GET /funcionario - listagem pequena não é comprimida")
+    void abaixoDoMinimo() throws Exception {
+        cadastrarFuncionarios(1);
+
+        HttpResponse<byte[]> resposta = get("/funcionario", "gzip");
+        assertEquals(200, resposta.statusCode());
+        assertTrue(resposta.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals(1, mapper.readTree(corpo(resposta)).size());
+    }
+
+    @Test
+    @DisplayName("GET /ciclista e /funcionario - qualquer alteração invalida o corpo em cache")
+    void invalidacao() throws Exception {
+        Ciclista ana = new Ciclista("ana@cache.com", "brasileira", "52998224725", null, null,
+                "Brasil", new Date(0), "Ana Cache", "Senha1", null);
+        assertEquals(1, mapper.readTree(corpo(get("/ciclista", "gzip"))).size());
+
+        new Ciclista("bia@cache.com", "brasileira", "11144477735", null, null,
+                "Brasil", new Date(0), "Bia Cache", "Senha1", null);
+        assertEquals(2, mapper.readTree(corpo(get("/ciclista", null))).size());
+
+        ana.alterarStatusCiclista(true);
+        JsonNode ciclistas = mapper.readTree(corpo(get("/ciclista", "gzip")));
+        for (JsonNode ciclista : ciclistas) {
+            if (ciclista.get("id").asText().equals(ana.getId().toString())) {
+                assertTrue(ciclista.get("status").asBoolean());
+            }
+        }
+
+        cadastrarFuncionarios(40);
+        JsonNode funcionarios = mapper.readTree(corpo(get("/funcionario", "gzip")));
+        assertEquals(40, funcionarios.size());
+        assertTrue(Funcionario.remover(UUID.fromString(funcionarios.get(0).get("matricula").asText())));
+        assertEquals(39, mapper.readTree(corpo(get("/funcionario", "gzip"))).size());
+    }
+}
@@ -3,6 +3,7 @@ package com.mycompany.app;
 import com.mycompany.app.handlers.CartaoCreditoHandler;
 import com.mycompany.app.models.CartaoCredito;
 import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.VersaoDesatualizadaException;
 import io.javalin.http.Context;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,6 +19,7 @@ import java.util.UUID;
 import static io.javalin.http.HttpStatus.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -141,6 +143,25 @@ class CartaoCreditoTest {
         }
     }
 
+    @Test
+    @DisplayName("PUT /cartaoDeCredito/{idCiclista} - Falha: If-Match desatualizado (412)")
+    void alterarCartaoPorCiclistaId_VersaoDesatualizada() throws Exception {
+        when(mockCtx.header("If-Match")).thenReturn("\"1\"");
+
+        try (MockedStatic<Ciclista> mockedCiclista = Mockito.mockStatic(Ciclista.class);
+             MockedStatic<CartaoCredito> mockedCartao = Mockito.mockStatic(CartaoCredito.class)) {
+
+            mockedCiclista.when(() -> Ciclista.getCiclistaPorId(ciclistaId)).thenReturn(mockCiclista);
+            mockValidacoesSucesso(mockedCartao);
+            mockedCartao.when(() -> CartaoCredito.alterarDadosCartao(any(UUID.class), eq(1L), anyString(), anyString(), any(Date.class), anyString()))
+                    .thenThrow(new VersaoDesatualizadaException(2));
+
+            CartaoCreditoHandler.alterarCartaoPorCiclistaId.handle(mockCtx);
+
+            verify(mockCtx).status(PRECONDITION_FAILED);
+        }
+    }
+
     // --- Testes de Falha Específicos do Handler (Validações) ---
 
     @Test
@@ -239,4 +260,4 @@ class CartaoCreditoTest {
             verify(mockCtx).result(anyString());
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.mycompany.app;
+
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.DocumentoEmUsoException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CiclistaDocumentoTest {
+
+    private final Date validade = new Date(System.currentTimeMillis() + 365L * 24 * 3600 * 1000);
+
+    @AfterEach
+    void tearDown() {
+        Ciclista.restaurar();
+    }
+
+    private Ciclista brasileiro(String email, String cpf) {
+        return new Ciclista(email, "Brasileira", cpf, null, null, "Brasil", null,
+                "Nome Sobrenome", "Senha123", null);
+    }
+
+    @Test
+    @DisplayName("Índice - busca por CPF normalizado e rejeita duplicado")
+    void cpfUnico() {
+        Ciclista ciclista = brasileiro("a@teste.com", "12345678901");
+
+        assertSame(ciclista, Ciclista.buscarPorCpf("123.456.789-01"));
+        assertTrue(Ciclista.documentoEmUso("12345678901", null, null, null));
+        assertFalse(Ciclista.documentoEmUso("12345678901", null, null, ciclista.getId()));
+        assertThrows(DocumentoEmUsoException.class, () -> brasileiro("b@teste.com", "123.456.789-01"));
+        assertEquals(1, Ciclista.listarTodos().size());
+    }
+
+    @Test
+    @DisplayName("Índice - passaporte é único por país")
+    void passaportePorPais() {
+        Ciclista argentino = new Ciclista("ar@teste.com", "Argentina", null, "ab-123", validade, "Argentina",
+                null, "Nome Sobrenome", "Senha123", null);
+        new Ciclista("pe@teste.com", "Peruana", null, "AB123", validade, "Peru",
+                null, "Nome Sobrenome", "Senha123", null);
+
+        assertSame(argentino, Ciclista.buscarPorPassaporte("AB123", "argentina"));
+        assertThrows(DocumentoEmUsoException.class, () -> new Ciclista("x@teste.com", "Argentina", null, "AB123",
+                validade, "Argentina", null, "Nome Sobrenome", "Senha123", null));
+    }
+
+    @Test
+    @DisplayName("Índice - alterarDados move o CPF e libera o antigo")
+    void alterarDadosAtualizaIndice() {
+        Ciclista ciclista = brasileiro("a@teste.com", "11111111111");
+        Ciclista outro = brasileiro("b@teste.com", "22222222222");
+
+        Ciclista alterado = ciclista.alterarDados(null, "a@teste.com", "Brasileira", "33333333333", null, null,
+                "Brasil", null, "Nome Sobrenome", "Senha123", null);
+
+        assertNull(Ciclista.buscarPorCpf("11111111111"));
+        assertSame(alterado, Ciclista.buscarPorCpf("33333333333"));
+        assertThrows(DocumentoEmUsoException.class, () -> outro.alterarDados(null, "b@teste.com", "Brasileira",
+                "33333333333", null, null, "Brasil", null, "Nome Sobrenome", "Senha123", null));
+        assertSame(outro, Ciclista.buscarPorCpf("22222222222"));
+        assertNotNull(brasileiro("c@teste.com", "11111111111"));
+    }
+
+    @Test
+    @DisplayName("Índice - ativação concorrente com troca de CPF não republica documento antigo")
+    void ativacaoConcorrenteComTrocaDeCpf() throws Exception {
+        Ciclista ciclista = brasileiro("a@teste.com", "10000000000");
+        String[] cpfs = {"10000000000", "20000000000", "30000000000"};
+
+        Thread documentos = new Thread(() -> {
+            for (int i = 1; i <= 300; i++) {
+                ciclista.alterarDados(null, "a@teste.com", "Brasileira", cpfs[i % cpfs.length], null, null,
+                        "Brasil", null, "Nome Sobrenome", "Senha123", null);
+            }
+        });
+        Thread status = new Thread(() -> {
+            for (int i = 0; i < 300; i++) {
+                ciclista.alterarStatusCiclista(i % 2 == 0);
+            }
+        });
+        documentos.start();
+        status.start();
+        documentos.join();
+        status.join();
+
+        Ciclista atual = Ciclista.getCiclistaPorId(ciclista.getId());
+        assertEquals(cpfs[300 % cpfs.length], atual.getCpf());
+        assertEquals(601, atual.getVersao());
+        for (String cpf : cpfs) {
+            assertEquals(cpf.equals(atual.getCpf()), Ciclista.buscarPorCpf(cpf) != null, cpf);
+        }
+    }
+}
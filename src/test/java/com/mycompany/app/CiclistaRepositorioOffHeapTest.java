@@ -0,0 +1,83 @@
+package com.mycompany.app;
+
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.repositories.CiclistaRepositorioOffHeap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CiclistaRepositorioOffHeapTest {
+
+    private static Date data(int ano, int mes, int dia) {
+        return Date.from(LocalDate.of(ano, mes, dia).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static Ciclista ciclista(UUID id, String email, String nome, long versao) {
+        return Ciclista.reconstruir(id, email, "Argentina", null, "AB123456", data(2030, 1, 15),
+                "Argentina", data(1990, 5, 20), nome, "Senha123", null, true, false,
+                UUID.randomUUID(), versao);
+    }
+
+    @Test
+    @DisplayName("Off-heap - grava e lê o mesmo ciclista")
+    void saveEGet() {
+        CiclistaRepositorioOffHeap repositorio = new CiclistaRepositorioOffHeap();
+        UUID id = UUID.randomUUID();
+        Ciclista original = ciclista(id, "Ana@Exemplo.com", "Ana Rosa", 3);
+
+        repositorio.save(original);
+        Ciclista lido = repositorio.getCiclistaPorId(id);
+
+        assertEquals(id, lido.getId());
+        assertEquals("Ana@Exemplo.com", lido.getEmail());
+        assertEquals("Argentina", lido.getNacionalidade());
+        assertNull(lido.getCpf());
+        assertEquals("AB123456", lido.getPassaporte());
+        assertEquals(original.getValidadePassaporte(), lido.getValidadePassaporte());
+        assertEquals(original.getNascimento(), lido.getNascimento());
+        assertEquals("Ana Rosa", lido.getNome());
+        assertEquals("Senha123", lido.getSenha());
+        assertNull(lido.getUrlFoto());
+        assertTrue(lido.getStatus());
+        assertFalse(lido.getStatusPermicaoAluguel());
+        assertEquals(original.getBicicletaId(), lido.getBicicletaId());
+        assertEquals(3, lido.getVersao());
+    }
+
+    @Test
+    @DisplayName("Off-heap - regravação atualiza o registro e o índice de email")
+    void saveAtualiza() {
+        CiclistaRepositorioOffHeap repositorio = new CiclistaRepositorioOffHeap();
+        UUID id = UUID.randomUUID();
+        repositorio.save(ciclista(id, "antigo@exemplo.com", "Nome Antigo", 1));
+        repositorio.save(ciclista(id, "novo@exemplo.com", "Nome Novo", 2));
+
+        assertEquals(1, repositorio.tamanho());
+        assertEquals("Nome Novo", repositorio.getCiclistaPorId(id).getNome());
+        assertTrue(repositorio.buscarPorEmail("NOVO@exemplo.com"));
+        assertFalse(repositorio.buscarPorEmail("antigo@exemplo.com"));
+    }
+
+    @Test
+    @DisplayName("Off-heap - muitos registros atravessam vários segmentos")
+    void muitosRegistros() {
+        CiclistaRepositorioOffHeap repositorio = new CiclistaRepositorioOffHeap();
+        int quantidade = 150_000;
+        for (int i = 0; i < quantidade; i++) {
+            repositorio.save(ciclista(new UUID(i, i), "c" + i + "@exemplo.com", "Nome " + i, 1));
+        }
+
+        assertEquals(quantidade, repositorio.findAll().size());
+        assertEquals("Nome 149999", repositorio.getCiclistaPorId(new UUID(149_999, 149_999)).getNome());
+        assertTrue(repositorio.buscarPorID(new UUID(70_000, 70_000)));
+        assertFalse(repositorio.buscarPorID(new UUID(-1, -1)));
+        assertTrue(repositorio.buscarPorEmail("c12345@exemplo.com"));
+        assertNull(repositorio.getCiclistaPorId(UUID.randomUUID()));
+    }
+}
@@ -1,8 +1,12 @@
 package com.mycompany.app;
 
 import com.mycompany.app.handlers.CiclistaHandler;
+import com.mycompany.app.models.Aluguel;
 import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Estacao;
+import com.mycompany.app.models.VersaoDesatualizadaException;
 import io.javalin.http.Context;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,14 +14,21 @@ import org.mockito.MockedConstruction;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import static io.javalin.http.HttpStatus.*;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class CiclistaTest {
@@ -45,6 +56,13 @@ class CiclistaTest {
         when(mockCtx.pathParam("idCiclista")).thenReturn(ciclistaId.toString());
     }
 
+    @AfterEach
+    void tearDown() {
+        Ciclista.restaurar();
+        Aluguel.restaurar();
+        Estacao.restaurar();
+    }
+
     private void mockValidacoesSucesso(MockedStatic<Ciclista> mockedCiclista) {
         mockedCiclista.when(() -> Ciclista.validarSintaxeEmail(anyString())).thenReturn(true);
         mockedCiclista.when(() -> Ciclista.validarEmail(anyString())).thenReturn(false); // Sucesso: não existe
@@ -129,6 +147,28 @@ class CiclistaTest {
         }
     }
 
+    // --- TESTES: ativarCiclista (POST) e permiteAluguel (GET) ---
+
+    @Test
+    @DisplayName("POST /ciclista/{idCiclista}/ativar - Ativar libera o aluguel e desativar bloqueia")
+    void ativarCiclista_LiberaAluguel() throws Exception {
+        Ciclista ciclista = new Ciclista("ativar@teste.com", "brasileira", "52998224725", null, null,
+                "Brasil", new Date(0), "Ana Ativar", "Senha1", null);
+        when(mockCtx.pathParam("idCiclista")).thenReturn(ciclista.getId().toString());
+        assertFalse(ciclista.verificarPermissaoAluguel());
+
+        CiclistaHandler.validarPermissaoAluguel.handle(mockCtx);
+        CiclistaHandler.ativarCiclista.handle(mockCtx);
+        CiclistaHandler.validarPermissaoAluguel.handle(mockCtx);
+
+        verify(mockCtx).result(aryEq("false".getBytes(StandardCharsets.UTF_8)));
+        verify(mockCtx).result("Ciclista Ativado");
+        verify(mockCtx).result(aryEq("true".getBytes(StandardCharsets.UTF_8)));
+        Ciclista ativo = Ciclista.getCiclistaPorId(ciclista.getId());
+        assertTrue(ativo.verificarPermissaoAluguel());
+        assertFalse(ativo.alterarStatusCiclista(false).verificarPermissaoAluguel());
+    }
+
     // --- TESTES: retornarBicicletaAlugada (GET) ---
 
     @Test
@@ -146,10 +186,31 @@ class CiclistaTest {
             CiclistaHandler.retornarBicicletaAlugada.handle(mockCtx);
 
             verify(mockCtx).status(OK);
-            verify(mockCtx).json(dadosBike);
+            verify(mockCtx).result(aryEq("{\"id\":\"bike-123\"}".getBytes(StandardCharsets.UTF_8)));
         }
     }
 
+    @Test
+    @DisplayName("GET /ciclista/{idCiclista}/bicicletaAlugada - Bicicleta do aluguel ativo, e {} sem aluguel (200 OK)")
+    void retornarBicicletaAlugada_AluguelAtivo() throws Exception {
+        Ciclista ciclista = new Ciclista("bicicleta@teste.com", "brasileira", "52998224725", null, null,
+                "Brasil", new Date(0), "Ana Bicicleta", "Senha1", null);
+        ciclista.alterarStatusCiclista(true);
+        when(mockCtx.pathParam("idCiclista")).thenReturn(ciclista.getId().toString());
+        Estacao estacao = Estacao.cadastrar(2, 1);
+
+        CiclistaHandler.retornarBicicletaAlugada.handle(mockCtx);
+        Aluguel aluguel = Aluguel.realizarAluguel(ciclista.getId(), estacao.getTrancas().get(0).getId());
+        CiclistaHandler.retornarBicicletaAlugada.handle(mockCtx);
+        Aluguel.realizarDevolucao(estacao.getTrancas().get(1).getId(), aluguel.getBicicletaId());
+        CiclistaHandler.retornarBicicletaAlugada.handle(mockCtx);
+
+        // Nunca null: o corpo é um objeto JSON, vazio antes do aluguel e depois da devolução
+        verify(mockCtx, times(2)).result(aryEq("{}".getBytes(StandardCharsets.UTF_8)));
+        verify(mockCtx).result(aryEq(("{\"id\":\"" + aluguel.getBicicletaId() + "\"}").getBytes(StandardCharsets.UTF_8)));
+        verify(mockCtx, times(3)).status(OK);
+    }
+
     @Test
     @DisplayName("GET /ciclista/{idCiclista}/bicicleta - Ciclista Não Encontrado (404)")
     void retornarBicicletaAlugada_NaoEncontrado() throws Exception {
@@ -173,4 +234,83 @@ class CiclistaTest {
         verify(mockCtx).status(UNPROCESSABLE_CONTENT);
         verify(mockCtx).result(contains("ID de ciclista inválido"));
     }
-}
\ No newline at end of file
+
+    // --- TESTES: alterarDados (PUT) com If-Match ---
+
+    @Test
+    @DisplayName("PUT /ciclista/{idCiclista} - If-Match desatualizado (412)")
+    void alterarDados_VersaoDesatualizada() throws Exception {
+        Ciclista mockCiclistaInstancia = mock(Ciclista.class);
+        when(mockCtx.body()).thenReturn(jsonCadastroBase);
+        when(mockCtx.header("If-Match")).thenReturn("\"3\"");
+        doThrow(new VersaoDesatualizadaException(4)).when(mockCiclistaInstancia)
+                .alterarDados(eq(3L), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+
+        try (MockedStatic<Ciclista> mockedCiclista = Mockito.mockStatic(Ciclista.class)) {
+            mockedCiclista.when(() -> Ciclista.getCiclistaPorId(ciclistaId)).thenReturn(mockCiclistaInstancia);
+            mockValidacoesSucesso(mockedCiclista);
+
+            CiclistaHandler.alterarDados.handle(mockCtx);
+
+            verify(mockCtx).status(PRECONDITION_FAILED);
+            verify(mockCtx).result(contains("versão atual é 4"));
+        }
+    }
+
+    @Test
+    @DisplayName("PUT /ciclista/{idCiclista} - Sem If-Match devolve a nova versão com ETag (200 OK)")
+    void alterarDados_SemIfMatch() throws Exception {
+        Ciclista mockCiclistaInstancia = mock(Ciclista.class);
+        Ciclista mockCiclistaAlterado = mock(Ciclista.class);
+        when(mockCiclistaAlterado.getVersao()).thenReturn(2L);
+        when(mockCiclistaInstancia.alterarDados(isNull(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(mockCiclistaAlterado);
+        when(mockCtx.body()).thenReturn(jsonCadastroBase);
+
+        try (MockedStatic<Ciclista> mockedCiclista = Mockito.mockStatic(Ciclista.class)) {
+            mockedCiclista.when(() -> Ciclista.getCiclistaPorId(ciclistaId)).thenReturn(mockCiclistaInstancia);
+            mockValidacoesSucesso(mockedCiclista);
+
+            CiclistaHandler.alterarDados.handle(mockCtx);
+
+            verify(mockCtx).header("ETag", "\"2\"");
+            verify(mockCtx).status(OK);
+            verify(mockCtx).json(mockCiclistaAlterado);
+        }
+    }
+
+    // --- TESTES: índice de documentos ---
+
+    @Test
+    @DisplayName("POST /ciclista - Falha: CPF já cadastrado (409)")
+    void cadastrarCiclista_DocumentoEmUso() throws Exception {
+        when(mockCtx.body()).thenReturn(jsonCadastroBase);
+
+        try (MockedStatic<Ciclista> mockedCiclista = Mockito.mockStatic(Ciclista.class)) {
+            mockValidacoesSucesso(mockedCiclista);
+            mockedCiclista.when(() -> Ciclista.documentoEmUso(eq("12345678901"), any(), eq("Brasil"), isNull())).thenReturn(true);
+
+            CiclistaHandler.cadastrarCiclista.handle(mockCtx);
+
+            verify(mockCtx).status(CONFLICT);
+            verify(mockCtx).result("Documento já cadastrado para outro ciclista.");
+        }
+    }
+
+    @Test
+    @DisplayName("GET /ciclista?cpf= - Busca pelo índice de CPF (200 OK)")
+    void listarCiclistas_PorCpf() throws Exception {
+        Ciclista mockCiclistaInstancia = mock(Ciclista.class);
+        when(mockCtx.queryParam("cpf")).thenReturn("123.456.789-01");
+
+        try (MockedStatic<Ciclista> mockedCiclista = Mockito.mockStatic(Ciclista.class)) {
+            mockedCiclista.when(() -> Ciclista.buscarPorCpf("123.456.789-01")).thenReturn(mockCiclistaInstancia);
+
+            CiclistaHandler.listarCiclistas.handle(mockCtx);
+
+            verify(mockCtx).status(OK);
+            verify(mockCtx).json(mockCiclistaInstancia);
+            mockedCiclista.verify(Ciclista::listarTodos, never());
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.mycompany.app;
+
+import com.mycompany.app.clientes.ClienteServico;
+import com.mycompany.app.clientes.DependenciaIndisponivelException;
+import com.mycompany.app.clientes.DisjuntorCircuito;
+import com.mycompany.app.clientes.PoliticaCliente;
+import com.mycompany.app.clientes.ServicosExternos;
+import com.mycompany.app.eventos.EventoAluguel;
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Estacao;
+import com.mycompany.app.models.Tranca;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClienteServicoTest {
+
+    private final List<AutoCloseable> abertos = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ServicosExternos.configurar(null, null, null, PoliticaCliente.padrao());
+        for (AutoCloseable aberto : abertos) {
+            aberto.close();
+        }
+        Ciclista.restaurar();
+        Aluguel.restaurar();
+        Estacao.restaurar();
+    }
+
+    private DependenciaSimulada dependencia() throws Exception {
+        DependenciaSimulada dependencia = new DependenciaSimulada(0);
+        abertos.add(dependencia);
+        return dependencia;
+    }
+
+    private static PoliticaCliente politica(long timeoutMs, int tentativas, Long hedgeMs, int concorrentes) {
+        return new PoliticaCliente(Duration.ofMillis(timeoutMs), Duration.ofMillis(timeoutMs * tentativas + 500), tentativas,
+                hedgeMs == null ? null : Duration.ofMillis(hedgeMs), concorrentes, 4, 0.5, Duration.ofMillis(300));
+    }
+
+    @Test
+    @DisplayName("Cliente - hedge corta a requisição lenta e as repetições levam a mesma chave")
+    void hedgeCortaCauda() throws Exception {
+        DependenciaSimulada dependencia = dependencia().lentas(2, 3000);
+        ClienteServico cliente = new ClienteServico("teste", dependencia.url(), politica(5000, 1, 50L, 10));
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, cliente.enviar("POST", "/cobranca", "{}").statusCode());
+        }
+        // a primeira requisição de cada chamada é a lenta; sem hedge cada chamada levaria 3 s
+        assertTrue(System.nanoTime() - inicio < 3_000_000_000L, "o hedge não cortou as lentas");
+        assertEquals(20, dependencia.getRecebidas());
+        assertEquals(10, dependencia.getRepetidas());
+        cliente.fechar();
+    }
+
+    @Test
+    @DisplayName("Cliente - timeout e retry esgotados viram DependenciaIndisponivelException dentro do prazo")
+    void timeoutERetry() throws Exception {
+        DependenciaSimulada dependencia = dependencia().travada(true);
+        ClienteServico cliente = new ClienteServico("teste", dependencia.url(), politica(200, 2, null, 10));
+
+        long inicio = System.nanoTime();
+        assertThrows(DependenciaIndisponivelException.class, () -> cliente.enviar("GET", "/x", null));
+        assertTrue(System.nanoTime() - inicio < 1_500_000_000L);
+        assertEquals(2, dependencia.getRecebidas());
+        assertEquals(1, dependencia.getRepetidas());
+        cliente.fechar();
+    }
+
+    @Test
+    @DisplayName("Cliente - circuito abre com falhas, recusa sem chamar e fecha depois de um teste bem-sucedido")
+    void disjuntor() throws Exception {
+        DependenciaSimulada dependencia = dependencia().falhas(1);
+        ClienteServico cliente = new ClienteServico("teste", dependencia.url(), politica(500, 1, null, 10));
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(DependenciaIndisponivelException.class, () -> cliente.enviar("GET", "/x", null));
+        }
+        assertEquals(DisjuntorCircuito.Estado.ABERTO, cliente.getEstadoCircuito());
+        int recebidas = dependencia.getRecebidas();
+        assertThrows(DependenciaIndisponivelException.class, () -> cliente.enviar("GET", "/x", null));
+        assertEquals(recebidas, dependencia.getRecebidas());
+
+        dependencia.falhas(0);
+        Thread.sleep(400);
+        assertEquals(200, cliente.enviar("GET", "/x", null).statusCode());
+        assertEquals(DisjuntorCircuito.Estado.FECHADO, cliente.getEstadoCircuito());
+        cliente.fechar();
+    }
+
+    @Test
+    @DisplayName("Cliente - chamada de teste do meio-aberto interrompida conta como falha e não trava o circuito")
+    void testeMeioAbertoInterrompido() throws Exception {
+        DependenciaSimulada dependencia = dependencia().falhas(1);
+        ClienteServico cliente = new ClienteServico("teste", dependencia.url(), politica(2000, 1, null, 10));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(DependenciaIndisponivelException.class, () -> cliente.enviar("GET", "/x", null));
+        }
+        assertEquals(DisjuntorCircuito.Estado.ABERTO, cliente.getEstadoCircuito());
+
+        dependencia.falhas(0).travada(true);
+        Thread.sleep(400);
+        Thread teste = new Thread(() -> assertThrows(DependenciaIndisponivelException.class,
+                () -> cliente.enviar("GET", "/x", null)));
+        teste.start();
+        Thread.sleep(200);
+        assertEquals(DisjuntorCircuito.Estado.MEIO_ABERTO, cliente.getEstadoCircuito());
+        teste.interrupt();
+        teste.join(2000);
+        assertFalse(teste.isAlive());
+        assertEquals(DisjuntorCircuito.Estado.ABERTO, cliente.getEstadoCircuito());
+
+        dependencia.travada(false);
+        Thread.sleep(400);
+        assertEquals(200, cliente.enviar("GET", "/x", null).statusCode());
+        assertEquals(DisjuntorCircuito.Estado.FECHADO, cliente.getEstadoCircuito());
+        cliente.fechar();
+    }
+
+    @Test
+    @DisplayName("Cliente - anteparo cheio recusa na hora em vez de enfileirar threads")
+    void anteparo() throws Exception {
+        DependenciaSimulada dependencia = dependencia().latencia(1000);
+        ClienteServico cliente = new ClienteServico("teste", dependencia.url(), politica(3000, 1, null, 2));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Integer>> lentas = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                lentas.add(executor.submit(() -> cliente.enviar("GET", "/x", null).statusCode()));
+            }
+            Thread.sleep(300);
+            long inicio = System.nanoTime();
+            assertThrows(DependenciaIndisponivelException.class, () -> cliente.enviar("GET", "/x", null));
+            assertTrue(System.nanoTime() - inicio < 100_000_000L);
+            for (Future<Integer> lenta : lentas) {
+                assertEquals(200, lenta.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        cliente.fechar();
+    }
+
+    @Test
+    @DisplayName("Aluguel - Cobrança fora do ar recusa o aluguel e devolve a bicicleta à tranca")
+    void cobrancaForaDoAr() throws Exception {
+        DependenciaSimulada cobranca = dependencia().falhas(1);
+        ServicosExternos.configurar(cobranca.url(), null, null, politica(200, 2, null, 10));
+
+        Ciclista ciclista = new Ciclista("cobranca@teste.com", "brasileira", "52998224725", null, null,
+                "Brasil", new Date(0), "Ana Cobranca", "Senha1", null);
+        ciclista.alterarStatusCiclista(true);
+        Estacao estacao = Estacao.cadastrar(1, 1);
+        Tranca tranca = estacao.getTrancas().get(0);
+
+        IllegalStateException erro = assertThrows(IllegalStateException.class,
+                () -> Aluguel.realizarAluguel(ciclista.getId(), tranca.getId()));
+        assertTrue(erro.getMessage().contains("Cobrança inicial falhou"));
+        assertEquals(1, estacao.getBicicletasDisponiveis());
+        assertNotNull(tranca.getBicicleta());
+        assertNull(Aluguel.getAluguelAtivoPorCiclistaId(ciclista.getId()));
+        // A recusa não inventa id de aluguel: nenhum aluguel existiu
+        List<EventoAluguel> eventos = new ArrayList<>();
+        Aluguel.eventos().percorrer(0, Long.MAX_VALUE, (seq, evento) -> eventos.add(evento));
+        assertEquals(1, eventos.size());
+        assertInstanceOf(EventoAluguel.CobrancaRecusada.class, eventos.get(0));
+        assertNull(eventos.get(0).aluguelId());
+        assertTrue(Aluguel.listarTodos().isEmpty());
+
+        cobranca.falhas(0);
+        assertNotNull(Aluguel.realizarAluguel(ciclista.getId(), tranca.getId()));
+    }
+
+    @Test
+    @DisplayName("Aluguel - Equipamento sem confirmar a tranca (503) não grava TrancaLiberada nem TrancaTravada")
+    void trancaSemConfirmacao() throws Exception {
+        DependenciaSimulada equipamento = dependencia().falhas(1);
+        ServicosExternos.configurar(null, equipamento.url(), null, politica(200, 1, null, 10));
+
+        Ciclista ciclista = new Ciclista("tranca@teste.com", "brasileira", "52998224725", null, null,
+                "Brasil", new Date(0), "Ana Tranca", "Senha1", null);
+        ciclista.alterarStatusCiclista(true);
+        Estacao estacao = Estacao.cadastrar(2, 1);
+
+        Aluguel aluguel = Aluguel.realizarAluguel(ciclista.getId(), estacao.getTrancas().get(0).getId());
+        assertNotNull(aluguel);
+        Aluguel.realizarDevolucao(estacao.getTrancas().get(1).getId(), aluguel.getBicicletaId());
+        assertTrue(equipamento.getRecebidas() >= 2);
+
+        List<Class<?>> tipos = new ArrayList<>();
+        Aluguel.eventos().percorrer(0, Long.MAX_VALUE, (seq, evento) -> tipos.add(evento.getClass()));
+        assertTrue(tipos.contains(EventoAluguel.AluguelIniciado.class));
+        assertTrue(tipos.contains(EventoAluguel.AluguelDevolvido.class));
+        assertFalse(tipos.contains(EventoAluguel.TrancaLiberada.class), "tipos: " + tipos);
+        assertFalse(tipos.contains(EventoAluguel.TrancaTravada.class), "tipos: " + tipos);
+    }
+
+    // Dois ciclistas cujos ids caem na mesma das 64 faixas de lock do Aluguel
+    private static List<Ciclista> mesmaFaixaDeLock() {
+        Map<Integer, Ciclista> porFaixa = new HashMap<>();
+        Date validade = new Date(System.currentTimeMillis() + 365L * 24 * 3600_000);
+        for (int i = 0; ; i++) {
+            Ciclista ciclista = new Ciclista("faixa" + i + "@teste.com", "estrangeira", null, "FX" + i, validade,
+                    "Argentina", new Date(0), "Ana Faixa", "Senha1", null);
+            ciclista.alterarStatusCiclista(true);
+            Ciclista outro = porFaixa.putIfAbsent((ciclista.getId().hashCode() & 0x7fffffff) % 64, ciclista);
+            if (outro != null) {
+                return List.of(outro, ciclista);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Aluguel - Cobrança lenta não segura a faixa de lock de outro ciclista nem a thread de atrasos")
+    void cobrancaLentaForaDoLock() throws Exception {
+        DependenciaSimulada cobranca = dependencia().latencia(600);
+        ServicosExternos.configurar(cobranca.url(), null, null, politica(3000, 1, null, 10));
+        List<Ciclista> ciclistas = mesmaFaixaDeLock();
+        Estacao estacao = Estacao.cadastrar(2, 2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            long inicio = System.nanoTime();
+            List<Future<Aluguel>> alugueis = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                UUID ciclistaId = ciclistas.get(i).getId();
+                UUID trancaId = estacao.getTrancas().get(i).getId();
+                alugueis.add(executor.submit(() -> Aluguel.realizarAluguel(ciclistaId, trancaId)));
+            }
+            for (Future<Aluguel> aluguel : alugueis) {
+                assertNotNull(aluguel.get());
+            }
+            // em série (cobrança dentro do lock) seriam 2 × 600 ms
+            assertTrue(System.nanoTime() - inicio < 1_100_000_000L, "cobranças serializadas pelo lock");
+        } finally {
+            executor.shutdown();
+        }
+
+        long inicio = System.nanoTime();
+        assertEquals(2, Aluguel.verificarAtrasos(System.currentTimeMillis() + 61 * 60_000));
+        assertTrue(System.nanoTime() - inicio < 300_000_000L, "a thread de atrasos esperou a pré-autorização");
+        AtomicInteger atrasos = new AtomicInteger();
+        long limite = System.currentTimeMillis() + 5000;
+        while (atrasos.get() < 2 && System.currentTimeMillis() < limite) {
+            Thread.sleep(50);
+            atrasos.set(0);
+            Aluguel.eventos().percorrer(0, Long.MAX_VALUE, (seq, evento) -> {
+                if (evento instanceof EventoAluguel.AluguelEmAtraso) {
+                    atrasos.incrementAndGet();
+                }
+            });
+        }
+        assertEquals(2, atrasos.get());
+        assertEquals(2, Aluguel.atrasosPendentes());
+    }
+}
@@ -0,0 +1,124 @@
+package com.mycompany.app;
+
+import com.mycompany.app.clientes.ClienteServico;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dublê local de Cobrança / Equipamento / Externo (HttpServer do JDK) com injeção de falhas:
+ * latência fixa, uma requisição lenta a cada tantas, uma fração de 503 e um modo "travado" em
+ * que nada é respondido. Responde 200 "{}" a qualquer rota. Requisições com um
+ * Idempotency-Key já visto contam como repetidas.
+ *
+ * Também roda sozinho, para subir o serviço apontando para ele:
+ * java ... com.mycompany.app.DependenciaSimulada [porta] [latenciaMs] [fracaoFalhas] [lentaACada] [latenciaLentaMs]
+ */
+public class DependenciaSimulada implements AutoCloseable {
+
+    private final HttpServer servidor;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger recebidas = new AtomicInteger();
+    private final AtomicInteger repetidas = new AtomicInteger();
+    private final Set<String> chaves = ConcurrentHashMap.newKeySet();
+    private volatile long latenciaMs;
+    private volatile int lentasACada;
+    private volatile long latenciaLentasMs;
+    private volatile double fracaoFalhas;
+    private volatile boolean travada;
+
+    public DependenciaSimulada(int porta) throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("localhost", porta), 0);
+        servidor.setExecutor(executor);
+        servidor.createContext("/", this::responder);
+        servidor.start();
+    }
+
+    public static void main(String[] args) throws IOException {
+        DependenciaSimulada dependencia = new DependenciaSimulada(args.length > 0 ? Integer.parseInt(args[0]) : 8200);
+        dependencia.latencia(args.length > 1 ? Long.parseLong(args[1]) : 0);
+        dependencia.falhas(args.length > 2 ? Double.parseDouble(args[2]) : 0);
+        dependencia.lentas(args.length > 3 ? Integer.parseInt(args[3]) : 0, args.length > 4 ? Long.parseLong(args[4]) : 0);
+        System.out.println("Dependência simulada em " + dependencia.url());
+    }
+
+    public String url() {
+        return "http://localhost:" + servidor.getAddress().getPort();
+    }
+
+    public DependenciaSimulada latencia(long ms) {
+        this.latenciaMs = ms;
+        return this;
+    }
+
+    // Uma a cada {@code aCada} requisições demora latenciaMs a mais (cauda longa); 0 desliga
+    public DependenciaSimulada lentas(int aCada, long latenciaMs) {
+        this.latenciaLentasMs = latenciaMs;
+        this.lentasACada = aCada;
+        return this;
+    }
+
+    public DependenciaSimulada falhas(double fracao) {
+        this.fracaoFalhas = fracao;
+        return this;
+    }
+
+    // Aceita a conexão e não responde nunca (até destravar)
+    public DependenciaSimulada travada(boolean travada) {
+        this.travada = travada;
+        return this;
+    }
+
+    public int getRecebidas() {
+        return recebidas.get();
+    }
+
+    public int getRepetidas() {
+        return repetidas.get();
+    }
+
+    private void responder(HttpExchange troca) throws IOException {
+        try (troca) {
+            int numero = recebidas.incrementAndGet();
+            troca.getRequestBody().readAllBytes();
+            String chave = troca.getRequestHeaders().getFirst(ClienteServico.CABECALHO_IDEMPOTENCIA);
+            if (chave != null && !chaves.add(chave)) {
+                repetidas.incrementAndGet();
+            }
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int aCada = lentasACada;
+            long espera = latenciaMs + (aCada > 0 && numero % aCada == 1 % aCada ? latenciaLentasMs : 0);
+            while (travada || espera > 0) {
+                Thread.sleep(travada ? 50 : espera);
+                espera = 0;
+            }
+            int status = random.nextDouble() < fracaoFalhas ? 503 : 200;
+            byte[] corpo = "{}".getBytes(StandardCharsets.UTF_8);
+            troca.getResponseHeaders().set("Content-Type", "application/json");
+            troca.sendResponseHeaders(status, corpo.length);
+            try (OutputStream saida = troca.getResponseBody()) {
+                saida.write(corpo);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        travada = false;
+        servidor.stop(0);
+        executor.shutdownNow();
+    }
+}
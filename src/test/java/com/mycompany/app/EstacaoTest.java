@@ -0,0 +1,127 @@
+package com.mycompany.app;
+
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Estacao;
+import com.mycompany.app.models.Tranca;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EstacaoTest {
+
+    @AfterEach
+    void tearDown() {
+        Aluguel.restaurar();
+        Ciclista.restaurar();
+        Estacao.restaurar();
+    }
+
+    private static void emParalelo(int threads, Runnable tarefa) throws InterruptedException {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> lista = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    largada.await();
+                    tarefa.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+            lista.add(thread);
+        }
+        largada.countDown();
+        for (Thread thread : lista) {
+            thread.join();
+        }
+    }
+
+    @Test
+    @DisplayName("Tranca - só um ciclista leva a bicicleta disputada e a tranca só aceita uma devolução")
+    void disputaPelaMesmaTranca() throws Exception {
+        Estacao estacao = Estacao.cadastrar(1, 1);
+        Tranca tranca = estacao.getTrancas().get(0);
+        UUID bicicleta = tranca.getBicicleta();
+        assertEquals(tranca.getId(), Tranca.getTrancaDaBicicleta(bicicleta));
+
+        Set<UUID> retiradas = ConcurrentHashMap.newKeySet();
+        AtomicInteger vazias = new AtomicInteger();
+        emParalelo(8, () -> {
+            UUID retirada = tranca.retirarBicicleta();
+            if (retirada == null) {
+                vazias.incrementAndGet();
+            } else {
+                retiradas.add(retirada);
+            }
+        });
+        assertEquals(Set.of(bicicleta), retiradas);
+        assertEquals(7, vazias.get());
+        assertEquals(0, estacao.getBicicletasDisponiveis());
+        assertNull(Tranca.getTrancaDaBicicleta(bicicleta));
+
+        assertTrue(tranca.travar(bicicleta));
+        assertFalse(tranca.travar(UUID.randomUUID()));
+        assertEquals(1, estacao.getBicicletasDisponiveis());
+    }
+
+    @Test
+    @DisplayName("Estacao - contadores batem depois de retiradas e devoluções concorrentes")
+    void contadoresSobConcorrencia() throws Exception {
+        Estacao estacao = Estacao.cadastrar(32, 16);
+        emParalelo(8, () -> {
+            for (int i = 0; i < 20_000; i++) {
+                UUID bicicleta = estacao.retirarQualquer();
+                if (bicicleta != null) {
+                    assertNotNull(estacao.travarEmQualquer(bicicleta));
+                }
+            }
+        });
+        long ocupadas = estacao.getTrancas().stream().filter(t -> t.getBicicleta() != null).count();
+        assertEquals(16, ocupadas);
+        assertEquals(16, estacao.getBicicletasDisponiveis());
+        assertEquals(16, estacao.getTrancasLivres());
+        assertThrows(IllegalArgumentException.class, () -> Estacao.cadastrar(2, 3));
+    }
+
+    @Test
+    @DisplayName("Aluguel - retira a bicicleta da tranca informada e devolve só em tranca livre")
+    void aluguelUsaInventario() {
+        Ciclista ciclista = new Ciclista("estacao@teste.com", "brasileira", "52998224725", null, null,
+                "Brasil", new Date(0), "Ana Estacao", "Senha1", null).alterarStatusCiclista(true);
+        Estacao estacao = Estacao.cadastrar(3, 2);
+        Tranca comBicicleta = estacao.getTrancas().get(0);
+        UUID bicicleta = comBicicleta.getBicicleta();
+
+        assertThrows(IllegalArgumentException.class, () -> Aluguel.realizarAluguel(ciclista.getId(), UUID.randomUUID()));
+        assertThrows(IllegalStateException.class,
+                () -> Aluguel.realizarAluguel(ciclista.getId(), estacao.getTrancas().get(2).getId()));
+
+        Aluguel aluguel = Aluguel.realizarAluguel(ciclista.getId(), comBicicleta.getId());
+        assertEquals(bicicleta, aluguel.getBicicletaId());
+        assertNull(comBicicleta.getBicicleta());
+        assertEquals(1, estacao.getBicicletasDisponiveis());
+
+        // tranca ocupada não recebe a devolução e o aluguel continua ativo
+        assertThrows(IllegalStateException.class,
+                () -> Aluguel.realizarDevolucao(estacao.getTrancas().get(1).getId(), bicicleta));
+        assertNotNull(Aluguel.getAluguelAtivoPorCiclistaId(ciclista.getId()));
+
+        Aluguel.realizarDevolucao(estacao.getTrancas().get(2).getId(), bicicleta);
+        assertEquals(bicicleta, estacao.getTrancas().get(2).getBicicleta());
+        assertEquals(2, estacao.getBicicletasDisponiveis());
+        assertNull(Aluguel.getAluguelAtivoPorCiclistaId(ciclista.getId()));
+    }
+}
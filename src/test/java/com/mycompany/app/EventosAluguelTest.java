@@ -0,0 +1,163 @@
+package com.mycompany.app;
+
+import com.mycompany.app.eventos.ArmazemEventos;
+import com.mycompany.app.eventos.EventoAluguel;
+import com.mycompany.app.eventos.Projecao;
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Estacao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventosAluguelTest {
+
+    @BeforeEach
+    void setUp() {
+        Aluguel.restaurar();
+        Ciclista.restaurar();
+        Estacao.restaurar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Aluguel.restaurar();
+        Ciclista.restaurar();
+        Estacao.restaurar();
+    }
+
+    private Ciclista ciclistaAtivo() {
+        Ciclista ciclista = new Ciclista("evento@teste.com", "brasileira", "12345678901", null, null, null,
+                null, "Ciclista Evento", "Senha1", null);
+        return ciclista.alterarStatusCiclista(true);
+    }
+
+    @Test
+    @DisplayName("Aluguel - aluguel e devolução gravam eventos e atualizam as projeções")
+    void cicloDeVida() {
+        Ciclista ciclista = ciclistaAtivo();
+        Estacao estacao = Estacao.cadastrar(2, 1);
+        UUID tranca = estacao.getTrancas().get(0).getId();
+
+        Aluguel aluguel = Aluguel.realizarAluguel(ciclista.getId(), tranca);
+        assertSame(aluguel, Aluguel.getAluguelAtivoPorCiclistaId(ciclista.getId()));
+        assertThrows(IllegalStateException.class, () -> Aluguel.realizarAluguel(ciclista.getId(), tranca));
+
+        Aluguel devolvido = Aluguel.realizarDevolucao(estacao.getTrancas().get(1).getId(), aluguel.getBicicletaId());
+        assertNotNull(devolvido.getHoraFim());
+        assertNull(aluguel.getHoraFim()); // o snapshot anterior não muda
+        assertNull(Aluguel.getAluguelAtivoPorCiclistaId(ciclista.getId()));
+        assertEquals(1, Aluguel.listarTodos().size());
+
+        List<Class<?>> tipos = new ArrayList<>();
+        Aluguel.eventos().percorrer(0, Long.MAX_VALUE, (sequencia, evento) -> tipos.add(evento.getClass()));
+        assertEquals(List.of(EventoAluguel.CobrancaRealizada.class, EventoAluguel.AluguelIniciado.class,
+                EventoAluguel.TrancaLiberada.class, EventoAluguel.AluguelDevolvido.class,
+                EventoAluguel.TrancaTravada.class), tipos);
+    }
+
+    @Test
+    @DisplayName("Aluguel - reconstrução paralela reproduz ativos e histórico, com bicicletas reaproveitadas")
+    void reconstrucaoParalela() {
+        SplittableRandom random = new SplittableRandom(3);
+        UUID[] ciclistas = new UUID[500];
+        UUID[] bicicletas = new UUID[200];
+        for (int i = 0; i < ciclistas.length; i++) {
+            ciclistas[i] = UUID.randomUUID();
+        }
+        for (int i = 0; i < bicicletas.length; i++) {
+            bicicletas[i] = UUID.randomUUID();
+        }
+
+        // Simula o caminho de escrita: bicicleta livre -> aluguel -> devolução pela mesma bicicleta
+        Map<UUID, UUID> aluguelPorCiclista = new HashMap<>();
+        Map<UUID, UUID> bicicletaPorCiclista = new HashMap<>();
+        Map<UUID, UUID> ciclistaPorBicicleta = new HashMap<>();
+        LocalDateTime agora = LocalDateTime.now();
+        for (int i = 0; i < 100_000; i++) {
+            UUID ciclista = ciclistas[random.nextInt(ciclistas.length)];
+            if (aluguelPorCiclista.containsKey(ciclista)) {
+                UUID bicicleta = bicicletaPorCiclista.remove(ciclista);
+                ciclistaPorBicicleta.remove(bicicleta);
+                Aluguel.eventos().anexar(new EventoAluguel.AluguelDevolvido(aluguelPorCiclista.remove(ciclista), ciclista,
+                        agora, UUID.randomUUID(), bicicleta, 0.0));
+            } else {
+                UUID bicicleta = bicicletas[random.nextInt(bicicletas.length)];
+                if (ciclistaPorBicicleta.containsKey(bicicleta)) {
+                    continue;
+                }
+                UUID aluguel = UUID.randomUUID();
+                aluguelPorCiclista.put(ciclista, aluguel);
+                bicicletaPorCiclista.put(ciclista, bicicleta);
+                ciclistaPorBicicleta.put(bicicleta, ciclista);
+                Aluguel.eventos().anexar(new EventoAluguel.AluguelIniciado(aluguel, ciclista, agora, UUID.randomUUID(), bicicleta, 10.0));
+            }
+        }
+        assertTrue(Aluguel.eventos().tamanho() > 16_384, "precisa passar pelo caminho paralelo");
+
+        int historico = Aluguel.listarTodos().size();
+        Aluguel.reconstruirProjecoes();
+
+        assertEquals(historico, Aluguel.listarTodos().size());
+        for (UUID ciclista : ciclistas) {
+            Aluguel ativo = Aluguel.getAluguelAtivoPorCiclistaId(ciclista);
+            assertEquals(aluguelPorCiclista.get(ciclista), ativo == null ? null : ativo.getId());
+        }
+        // O índice por bicicleta também precisa bater: devolve pelas bicicletas em uso
+        Estacao estacao = Estacao.cadastrar(bicicletas.length, 0);
+        int tranca = 0;
+        for (Map.Entry<UUID, UUID> emUso : ciclistaPorBicicleta.entrySet()) {
+            Aluguel devolvido = Aluguel.realizarDevolucao(estacao.getTrancas().get(tranca++).getId(), emUso.getKey());
+            assertEquals(emUso.getValue(), devolvido.getCiclistaId());
+        }
+    }
+
+    @Test
+    @DisplayName("ArmazemEventos - projeção nova assinada depois recebe o passado e o que vem")
+    void novaProjecao() {
+        ArmazemEventos<EventoAluguel> armazem = new ArmazemEventos<>();
+        UUID ciclista = UUID.randomUUID();
+        for (int i = 0; i < 20_000; i++) {
+            armazem.anexar(i % 4 == 0
+                    ? new EventoAluguel.CobrancaRecusada(UUID.randomUUID(), ciclista, LocalDateTime.now(), 10.0, false)
+                    : new EventoAluguel.CobrancaRealizada(UUID.randomUUID(), ciclista, LocalDateTime.now(), 10.0, false));
+        }
+
+        Map<Boolean, AtomicInteger> cobrancas = new ConcurrentHashMap<>();
+        armazem.assinar(new Projecao<>() {
+            @Override
+            public void aplicar(long sequencia, EventoAluguel evento) {
+                cobrancas.computeIfAbsent(evento instanceof EventoAluguel.CobrancaRecusada, k -> new AtomicInteger()).incrementAndGet();
+            }
+
+            @Override
+            public void limpar() {
+                cobrancas.clear();
+            }
+
+            @Override
+            public Object chaveParticao(EventoAluguel evento) {
+                return evento.aluguelId();
+            }
+        });
+        armazem.anexar(new EventoAluguel.CobrancaRecusada(UUID.randomUUID(), ciclista, LocalDateTime.now(), 10.0, false));
+
+        assertEquals(5_001, cobrancas.get(true).get());
+        assertEquals(15_000, cobrancas.get(false).get());
+        assertEquals(20_001, armazem.tamanho());
+        assertInstanceOf(EventoAluguel.CobrancaRecusada.class, armazem.ler(20_000));
+    }
+}
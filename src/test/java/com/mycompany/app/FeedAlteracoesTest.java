@@ -0,0 +1,183 @@
+package com.mycompany.app;
+
+import com.mycompany.app.eventos.FeedAlteracoes;
+import com.mycompany.app.eventos.FiltroAlteracoes;
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.CartaoCredito;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Estacao;
+import com.mycompany.app.models.Funcionario;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedAlteracoesTest {
+
+    private Javalin app;
+
+    @AfterEach
+    void tearDown() {
+        if (app != null) {
+            app.stop();
+        }
+        Ciclista.restaurar();
+        Funcionario.restaurar();
+        CartaoCredito.restaurar();
+        Aluguel.restaurar();
+        Estacao.restaurar();
+    }
+
+    // Destino que guarda "evento#offset" numa fila
+    private static final class Coletor implements FeedAlteracoes.Destino {
+        final BlockingQueue<String> recebidos = new LinkedBlockingQueue<>();
+        final CountDownLatch fechado = new CountDownLatch(1);
+
+        @Override
+        public void enviar(String evento, String dados, long offset) {
+            recebidos.add(evento + "#" + offset);
+        }
+
+        @Override
+        public void fechar() {
+            fechado.countDown();
+        }
+
+        String proximo() throws InterruptedException {
+            return recebidos.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    @DisplayName("Feed - filtra por tópico e ciclista e retoma a partir do último offset")
+    void filtroERetomada() throws Exception {
+        FeedAlteracoes feed = new FeedAlteracoes(8, 100, 1);
+        UUID ciclista = UUID.randomUUID();
+        feed.publicar("aluguel", "iniciado", UUID.randomUUID(), ciclista, null);     // 0
+        feed.publicar("ciclista", "ativado", ciclista, ciclista, null);              // 1
+        feed.publicar("aluguel", "iniciado", UUID.randomUUID(), UUID.randomUUID(), null); // 2
+
+        Coletor soAluguel = new Coletor();
+        feed.assinar(new FiltroAlteracoes(Set.of("aluguel"), null), 0L, soAluguel);
+        Coletor doCiclista = new Coletor();
+        feed.assinar(new FiltroAlteracoes(Set.of(), ciclista), -1L, doCiclista);
+
+        assertEquals("aluguel.iniciado#2", soAluguel.proximo());
+        assertEquals("aluguel.iniciado#0", doCiclista.proximo());
+        assertEquals("ciclista.ativado#1", doCiclista.proximo());
+
+        feed.publicar("aluguel", "encerrado", UUID.randomUUID(), ciclista, null);    // 3
+        assertEquals("aluguel.encerrado#3", soAluguel.proximo());
+        assertEquals("aluguel.encerrado#3", doCiclista.proximo());
+        assertEquals(3, feed.ultimoOffset());
+    }
+
+    @Test
+    @DisplayName("Feed - offset que saiu do anel (ou de outra execução) recebe feed.reinicio")
+    void reinicioQuandoOffsetPerdido() throws Exception {
+        FeedAlteracoes feed = new FeedAlteracoes(4, 100, 1);
+        for (int i = 0; i < 10; i++) {
+            feed.publicar("aluguel", "iniciado", UUID.randomUUID(), UUID.randomUUID(), null);
+        }
+
+        Coletor antigo = new Coletor();
+        feed.assinar(FiltroAlteracoes.TODAS, 2L, antigo);
+        assertEquals("feed.reinicio#9", antigo.proximo());
+
+        Coletor futuro = new Coletor();
+        feed.assinar(FiltroAlteracoes.TODAS, 50L, futuro);
+        assertEquals("feed.reinicio#9", futuro.proximo());
+
+        Coletor recente = new Coletor();
+        feed.assinar(FiltroAlteracoes.TODAS, 6L, recente);
+        assertEquals("aluguel.iniciado#7", recente.proximo());
+    }
+
+    @Test
+    @DisplayName("Feed - assinante lento é desconectado sem travar quem publica")
+    void assinanteLentoDesconectado() throws Exception {
+        FeedAlteracoes feed = new FeedAlteracoes(1024, 4, 1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch fechado = new CountDownLatch(1);
+        feed.assinar(FiltroAlteracoes.TODAS, null, new FeedAlteracoes.Destino() {
+            @Override
+            public void enviar(String evento, String dados, long offset) throws Exception {
+                liberar.await();
+            }
+
+            @Override
+            public void fechar() {
+                fechado.countDown();
+            }
+        });
+
+        // publicar só enfileira: não espera o assinante travado
+        for (int i = 0; i < 100; i++) {
+            feed.publicar("ciclista", "alterado", UUID.randomUUID(), null, null);
+        }
+        assertEquals(1, feed.getDesconectadosPorAtraso());
+
+        liberar.countDown();
+        assertTrue(fechado.await(5, TimeUnit.SECONDS));
+        assertEquals(0, feed.getAssinantes());
+    }
+
+    @Test
+    @DisplayName("GET /alteracoes - ativação e aluguel chegam por SSE e o encerramento fecha a conexão")
+    void feedSse() throws Exception {
+        Prontidao prontidao = new Prontidao();
+        prontidao.aoEncerrar(FeedAlteracoes.principal()::encerrarAssinantes);
+        app = App.criar(prontidao).start(0);
+        prontidao.marcarPronto();
+
+        Ciclista ciclista = new Ciclista("feed@teste.com", "brasileira", "52998224725", null, null,
+                "Brasil", new Date(0), "Ana Feed", "Senha1", null);
+        long antes = FeedAlteracoes.principal().ultimoOffset();
+
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + app.port()
+                        + "/alteracoes?ciclista=" + ciclista.getId() + "&desde=" + antes))
+                .header("Accept", "text/event-stream").build();
+        HttpResponse<Stream<String>> resposta = HttpClient.newHttpClient()
+                .sendAsync(requisicao, HttpResponse.BodyHandlers.ofLines()).get(5, TimeUnit.SECONDS);
+        assertEquals(200, resposta.statusCode());
+        BlockingQueue<String> eventos = new LinkedBlockingQueue<>();
+        Thread leitor = new Thread(() -> resposta.body()
+                .filter(linha -> linha.startsWith("event: "))
+                .forEach(linha -> eventos.add(linha.substring("event: ".length()))));
+        leitor.start();
+
+        ciclista.alterarStatusCiclista(true);
+        Aluguel.realizarAluguel(ciclista.getId(), Estacao.cadastrar(1, 1).getTrancas().get(0).getId());
+        new Ciclista("outro@teste.com", "brasileira", "11144477735", null, null,
+                "Brasil", new Date(0), "Outro Ciclista", "Senha1", null);
+
+        List<String> recebidos = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            recebidos.add(eventos.poll(5, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of("ciclista.ativado", "aluguel.iniciado"), recebidos);
+
+        assertTrue(prontidao.encerrar(Duration.ofSeconds(5)), "a conexão SSE segurou o encerramento");
+        leitor.join(5000);
+        assertFalse(leitor.isAlive());
+        assertNull(eventos.poll());
+    }
+}
@@ -0,0 +1,182 @@
+package com.mycompany.app;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.fixtures.Fixtures;
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.CartaoCredito;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Epoca;
+import com.mycompany.app.models.Estacao;
+import com.mycompany.app.models.Funcionario;
+import com.mycompany.app.models.Tranca;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixtureTest {
+
+    private static final UUID ANA = UUID.fromString("00000000-0000-0000-0000-0000000000a1");
+    private static final UUID JOHN = UUID.fromString("00000000-0000-0000-0000-0000000000a2");
+    private static final UUID ESTACAO = UUID.fromString("00000000-0000-0000-0000-0000000000e1");
+    private static final UUID TRANCA_OCUPADA = UUID.fromString("00000000-0000-0000-0000-0000000000f1");
+    private static final UUID TRANCA_LIVRE = UUID.fromString("00000000-0000-0000-0000-0000000000f2");
+    private static final UUID BICICLETA_TRAVADA = UUID.fromString("00000000-0000-0000-0000-0000000000b1");
+    private static final UUID BICICLETA_ALUGADA = UUID.fromString("00000000-0000-0000-0000-0000000000b2");
+    private static final UUID MATRICULA = UUID.fromString("00000000-0000-0000-0000-0000000000c1");
+
+    private static final String FIXTURE = """
+            {"ciclistas": [
+               {"id": "%s", "email": "ana@exemplo.com", "nacionalidade": "BRASILEIRA", "cpf": "12345678901",
+                "nome": "Ana Souza", "senha": "Senha1", "status": true, "statusPermicaoAluguel": true},
+               {"id": "%s", "email": "john@exemplo.com", "nacionalidade": "ESTRANGEIRA", "passaporte": "X1234567",
+                "pais": "US", "nome": "John Smith", "senha": "Senha1", "status": true}],
+             "cartoes": [
+               {"ciclista": "%s", "nomeTitular": "Ana Souza", "numero": "1234567890123456",
+                "validade": 4102444800000, "cvv": "123"}],
+             "funcionarios": [
+               {"matricula": "%s", "senha": "Senha1", "email": "func@exemplo.com", "nome": "Func Exemplo",
+                "idade": "30", "funcao": "Reparador", "cpf": "98765432100"}],
+             "estacoes": [
+               {"id": "%s", "trancas": [{"id": "%s", "bicicleta": "%s"}, {"id": "%s"}]}],
+             "alugueis": [
+               {"ciclista": "%s", "trancaInicio": "%s", "bicicleta": "%s", "horaInicio": "2030-01-01T10:00:00",
+                "valorFixo": 10.0},
+               {"ciclista": "%s", "trancaInicio": "%s", "bicicleta": "%s", "horaInicio": "2020-01-01T08:00:00",
+                "valorFixo": 10.0, "horaFim": "2020-01-01T09:00:00", "trancaFim": "%s", "valorExtra": 0.0}]}
+            """.formatted(ANA, JOHN, ANA, MATRICULA, ESTACAO, TRANCA_OCUPADA, BICICLETA_TRAVADA, TRANCA_LIVRE,
+            ANA, TRANCA_LIVRE, BICICLETA_ALUGADA, JOHN, TRANCA_OCUPADA, BICICLETA_TRAVADA, TRANCA_OCUPADA);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Javalin app;
+
+    @TempDir
+    Path diretorio;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.writeString(diretorio.resolve("basico.json"), FIXTURE);
+        Files.writeString(diretorio.resolve("quebrada.json"), "{\"bicicletas\": [{}]}");
+        System.setProperty("aluguel.fixtures.dir", diretorio.toString());
+        Prontidao prontidao = new Prontidao();
+        app = App.criar(prontidao).start(0);
+        prontidao.marcarPronto();
+    }
+
+    @AfterEach
+    void tearDown() {
+        app.stop();
+        System.clearProperty("aluguel.fixtures.dir");
+        Epoca.publicar(Epoca.vazia());
+    }
+
+    private HttpResponse<String> get(String caminho) throws Exception {
+        return HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + caminho)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("Fixture - /restaurarBanco?fixture carrega todos os storages de uma vez")
+    void carregaFixture() throws Exception {
+        HttpResponse<String> resposta = get("/restaurarBanco?fixture=basico");
+        assertEquals(200, resposta.statusCode(), resposta.body());
+        JsonNode tamanhos = mapper.readTree(resposta.body());
+        assertEquals(2, tamanhos.get("ciclistas").asInt());
+        assertEquals(1, tamanhos.get("cartoes").asInt());
+        assertEquals(1, tamanhos.get("funcionarios").asInt());
+        assertEquals(2, tamanhos.get("trancas").asInt());
+        assertEquals(1, tamanhos.get("alugueisAtivos").asInt());
+
+        assertEquals("Ana Souza", Ciclista.getCiclistaPorId(ANA).getNome());
+        assertEquals("Ana Souza", CartaoCredito.getCartaoCreditoPorCiclistaId(ANA).getNomeTitular());
+        assertNotNull(Funcionario.getFuncionarioMatricula(MATRICULA));
+        assertEquals(ESTACAO, Tranca.getTranca(TRANCA_LIVRE).getEstacaoId());
+        assertEquals(TRANCA_OCUPADA, Tranca.getTrancaDaBicicleta(BICICLETA_TRAVADA));
+        assertNull(Tranca.getTrancaDaBicicleta(BICICLETA_ALUGADA));
+        assertEquals(BICICLETA_ALUGADA, Aluguel.getAluguelAtivoPorCiclistaId(ANA).getBicicletaId());
+        assertNull(Aluguel.getAluguelAtivoPorCiclistaId(JOHN));
+        assertEquals(ANA, Aluguel.getCiclistaIdPorBicicleta(BICICLETA_ALUGADA));
+
+        // A fixture é o banco: a API enxerga o que veio do arquivo
+        assertEquals(200, get("/ciclista/" + JOHN).statusCode());
+        assertEquals(BICICLETA_ALUGADA.toString(),
+                mapper.readTree(get("/ciclista/" + ANA + "/bicicletaAlugada").body()).path("id").asText());
+
+        // Sem fixture volta tudo a vazio
+        assertEquals(200, get("/restaurarBanco").statusCode());
+        assertNull(Ciclista.getCiclistaPorId(ANA));
+        assertNull(Estacao.getEstacao(ESTACAO));
+        assertNull(Aluguel.getAluguelAtivoPorCiclistaId(ANA));
+    }
+
+    @Test
+    @DisplayName("Fixture - nome desconhecido é 404 e arquivo inválido é 422, sem mexer no banco")
+    void fixtureInvalida() throws Exception {
+        assertEquals(200, get("/restaurarBanco?fixture=basico").statusCode());
+        assertEquals(404, get("/restaurarBanco?fixture=inexistente").statusCode());
+        assertEquals(422, get("/restaurarBanco?fixture=quebrada").statusCode());
+        assertEquals(422, get("/restaurarBanco?fixture=..%2Fbasico").statusCode());
+        assertNotNull(Ciclista.getCiclistaPorId(ANA));
+    }
+
+    @Test
+    @DisplayName("Epoca - leitores veem a época anterior inteira ou a nova inteira")
+    void trocaAtomica() throws Exception {
+        Epoca cheia = Fixtures.carregar("basico");
+        Map<String, Object> esperado = cheia.tamanhos();
+        AtomicBoolean parar = new AtomicBoolean();
+        AtomicReference<String> erro = new AtomicReference<>();
+        Thread leitor = new Thread(() -> {
+            while (!parar.get()) {
+                Map<String, Object> visto = Epoca.atual().tamanhos();
+                int ciclistas = (Integer) visto.get("ciclistas");
+                boolean inteira = ciclistas == 0
+                        ? visto.get("trancas").equals(0) && visto.get("alugueisAtivos").equals(0)
+                        : visto.get("trancas").equals(esperado.get("trancas")) && visto.get("alugueisAtivos").equals(esperado.get("alugueisAtivos"));
+                if (!inteira) {
+                    erro.set("época parcial: " + visto);
+                }
+            }
+        });
+        leitor.start();
+        Epoca.publicar(cheia);
+        for (int i = 0; i < 200; i++) {
+            Epoca.publicar(i % 2 == 0 ? Epoca.vazia() : Fixtures.carregar("basico"));
+        }
+        parar.set(true);
+        leitor.join();
+        assertNull(erro.get(), erro.get());
+        assertThrows(IllegalStateException.class, () -> Epoca.publicar(cheia));
+        assertThrows(IllegalStateException.class, () -> cheia.adicionarEstacao(UUID.randomUUID(), new UUID[1], new UUID[1]));
+    }
+
+    @Test
+    @DisplayName("Epoca - restaurar de um modelo troca só a parte dele")
+    void restaurarParcial() throws Exception {
+        assertEquals(200, get("/restaurarBanco?fixture=basico").statusCode());
+        Ciclista.restaurar();
+        assertNull(Ciclista.getCiclistaPorId(ANA));
+        assertNotNull(CartaoCredito.getCartaoCreditoPorCiclistaId(ANA));
+        assertNotNull(Tranca.getTranca(TRANCA_LIVRE));
+        assertNotNull(Aluguel.getAluguelAtivoPorCiclistaId(ANA));
+        Aluguel.restaurar();
+        assertNull(Aluguel.getAluguelAtivoPorCiclistaId(ANA));
+        assertNotNull(Funcionario.getFuncionarioMatricula(MATRICULA));
+    }
+}
@@ -0,0 +1,109 @@
+package com.mycompany.app;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.mycompany.app.handlers.Formatos;
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.CartaoCredito;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Estacao;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormatosTest {
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+    private final ObjectMapper smile = new ObjectMapper(new SmileFactory());
+    private Javalin app;
+
+    @BeforeEach
+    void setUp() {
+        Prontidao prontidao = new Prontidao();
+        app = App.criar(prontidao).start(0);
+        prontidao.marcarPronto();
+    }
+
+    @AfterEach
+    void tearDown() {
+        app.stop();
+        Ciclista.restaurar();
+        CartaoCredito.restaurar();
+        Aluguel.restaurar();
+        Estacao.restaurar();
+    }
+
+    private HttpResponse<byte[]> enviar(String metodo, String caminho, String accept, String contentType, byte[] corpo)
+            throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + caminho))
+                .method(metodo, corpo == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(corpo));
+        if (accept != null) {
+            requisicao.header("Accept", accept);
+        }
+        if (contentType != null) {
+            requisicao.header("Content-Type", contentType);
+        }
+        return HttpClient.newHttpClient().send(requisicao.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Test
+    @DisplayName("GET /ciclista/{id} e /cartaoDeCredito/{id} - CBOR e Smile trazem os mesmos campos do JSON")
+    void respostaBinaria() throws Exception {
+        Ciclista ana = new Ciclista("ana@formato.com", "brasileira", "52998224725", null, null,
+                "Brasil", new Date(0), "Ana Formato", "Senha1", null);
+        new CartaoCredito(ana.getId(), "Ana Formato", "1234567890123456", new Date(System.currentTimeMillis() + 86_400_000L), "123");
+
+        for (String caminho : new String[]{"/ciclista/" + ana.getId(), "/cartaoDeCredito/" + ana.getId()}) {
+            HttpResponse<byte[]> comoJson = enviar("GET", caminho, null, null, null);
+            HttpResponse<byte[]> comoCbor = enviar("GET", caminho, Formatos.CBOR, null, null);
+            HttpResponse<byte[]> comoSmile = enviar("GET", caminho, Formatos.SMILE + ", application/json;q=0.5", null, null);
+
+            assertEquals(Formatos.CBOR, comoCbor.headers().firstValue("Content-Type").orElse(null));
+            assertEquals(Formatos.SMILE, comoSmile.headers().firstValue("Content-Type").orElse(null));
+            JsonNode esperado = json.readTree(comoJson.body());
+            assertEquals(esperado, cbor.readTree(comoCbor.body()));
+            assertEquals(esperado, smile.readTree(comoSmile.body()));
+            assertTrue(comoCbor.body().length < comoJson.body().length);
+        }
+
+        // JSON continua sendo o padrão quando o cliente aceita os dois com a mesma preferência
+        HttpResponse<byte[]> empate = enviar("GET", "/ciclista/" + ana.getId(), "application/json, " + Formatos.CBOR, null, null);
+        assertTrue(empate.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+    }
+
+    @Test
+    @DisplayName("POST /aluguel e /devolucao - corpo em CBOR, resposta em Smile")
+    void corpoBinario() throws Exception {
+        Ciclista ana = new Ciclista("ana@formato.com", "brasileira", "52998224725", null, null,
+                "Brasil", new Date(0), "Ana Formato", "Senha1", null);
+        ana.alterarStatusCiclista(true);
+        Estacao estacao = Estacao.cadastrar(2, 1);
+        String tranca = estacao.getTrancas().get(0).getId().toString();
+
+        HttpResponse<byte[]> aluguel = enviar("POST", "/aluguel", Formatos.SMILE, Formatos.CBOR,
+                cbor.writeValueAsBytes(Map.of("ciclista", ana.getId().toString(), "trancaInicio", tranca)));
+        assertEquals(200, aluguel.statusCode());
+        JsonNode corpo = smile.readTree(aluguel.body());
+        assertEquals(ana.getId().toString(), corpo.get("ciclistaId").asText());
+
+        HttpResponse<byte[]> devolucao = enviar("POST", "/devolucao", Formatos.CBOR, Formatos.CBOR + "; charset=binary",
+                cbor.writeValueAsBytes(Map.of("idTranca", estacao.getTrancas().get(1).getId().toString(),
+                        "idBicicleta", corpo.get("bicicletaId").asText())));
+        assertEquals(200, devolucao.statusCode());
+        assertEquals(corpo.get("id"), cbor.readTree(devolucao.body()).get("id"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.mycompany.app;
+
+import com.mycompany.app.models.Funcao;
+import com.mycompany.app.models.Funcionario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuncionarioFuncaoTest {
+
+    @BeforeEach
+    void setUp() {
+        Funcionario.restaurar();
+    }
+
+    private Funcionario cadastrar(int i, String funcao) {
+        return new Funcionario("Senha1", "Senha1", "func" + i + "@teste.com", "Nome Sobrenome", "30", funcao, "12345678901");
+    }
+
+    @Test
+    @DisplayName("Funcao - textos equivalentes viram a mesma instância")
+    void funcaoInternada() {
+        assertSame(Funcao.REPARADOR, Funcao.de("  reparador "));
+        assertSame(Funcao.ADMINISTRATIVO, Funcao.de("ADMINISTRATIVO"));
+        assertSame(Funcao.de("Técnico de Campo"), Funcao.de("tecnico  de campo"));
+        assertNull(Funcao.de(" "));
+        assertNull(Funcao.buscar("função nunca usada"));
+    }
+
+    @Test
+    @DisplayName("Funcionario - contagem e listagem por função acompanham alteração e remoção")
+    void contagemEListagem() {
+        Funcionario a = cadastrar(1, "Reparador");
+        cadastrar(2, "reparador");
+        cadastrar(3, "Administrativo");
+
+        assertEquals(2, Funcionario.contarPorFuncao("REPARADOR"));
+        assertEquals("Reparador", a.getFuncao());
+
+        a.alterarDados(null, "Senha1", "Senha1", a.getEmail(), a.getNome(), "31", "Administrativo", a.getCpf());
+        assertEquals(1, Funcionario.contarPorFuncao("Reparador"));
+        assertEquals(2, Funcionario.contarPorFuncao("Administrativo"));
+        assertEquals(2, Funcionario.contagemPorFuncao().get("Administrativo"));
+
+        assertTrue(Funcionario.remover(a.getMatricula()));
+        assertEquals(1, Funcionario.contarPorFuncao("Administrativo"));
+        assertEquals(0, Funcionario.contarPorFuncao("função nunca usada"));
+    }
+
+    @Test
+    @DisplayName("Funcao - registro é da época: restaurar esquece funções e grafias, contagem só com funcionários")
+    void registroPorEpoca() {
+        Funcionario a = cadastrar(1, "técnico de campo");
+        cadastrar(2, "Reparador");
+        Map<String, Integer> contagem = Funcionario.contagemPorFuncao();
+        assertEquals(Map.of("Reparador", 1, "técnico de campo", 1), contagem);
+        assertFalse(contagem.containsKey("Administrativo"));
+
+        assertTrue(Funcionario.remover(a.getMatricula()));
+        assertFalse(Funcionario.contagemPorFuncao().containsKey("técnico de campo"));
+
+        Funcionario.restaurar();
+        assertNull(Funcao.buscar("tecnico de campo"));
+        assertTrue(Funcionario.contagemPorFuncao().isEmpty());
+        assertEquals("Técnico de Campo", cadastrar(3, "Técnico de Campo").getFuncao());
+        assertSame(Funcao.REPARADOR, Funcao.de("reparador"));
+    }
+
+    @Test
+    @DisplayName("Funcionario - função nova recusada quando longa demais")
+    void funcaoValidada() {
+        assertTrue(Funcionario.validarFuncao(null));
+        assertTrue(Funcionario.validarFuncao("Mecânico"));
+        assertFalse(Funcionario.validarFuncao("x".repeat(61)));
+    }
+
+    @Test
+    @DisplayName("Funcionario - listagem por função paginada sem repetição")
+    void listagemPaginada() {
+        for (int i = 0; i < 25; i++) {
+            cadastrar(i, i % 5 == 0 ? "Administrativo" : "Reparador");
+        }
+
+        Set<String> vistos = new HashSet<>();
+        for (int pagina = 0; pagina < 3; pagina++) {
+            for (Funcionario f : Funcionario.listarPorFuncao("reparador", pagina, 8)) {
+                assertEquals("Reparador", f.getFuncao());
+                assertTrue(vistos.add(f.getEmail()));
+            }
+        }
+        assertEquals(20, vistos.size());
+        assertTrue(Funcionario.listarPorFuncao("reparador", 3, 8).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Funcionario - trocas concorrentes de função mantêm a contagem exata")
+    void trocasConcorrentes() throws Exception {
+        List<Funcionario> funcionarios = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            funcionarios.add(cadastrar(i, "Reparador"));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            tarefas.add(executor.submit(() -> {
+                for (int j = 0; j < 500; j++) {
+                    Funcionario f = funcionarios.get(ThreadLocalRandom.current().nextInt(funcionarios.size()));
+                    String funcao = ThreadLocalRandom.current().nextBoolean() ? "Reparador" : "Administrativo";
+                    f.alterarDados(null, "Senha1", "Senha1", f.getEmail(), f.getNome(), "30", funcao, f.getCpf());
+                }
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+
+        long reparadores = Funcionario.listarTodos().stream().filter(f -> f.getFuncaoNormalizada() == Funcao.REPARADOR).count();
+        assertEquals(reparadores, Funcionario.contarPorFuncao("Reparador"));
+        assertEquals(20 - reparadores, Funcionario.contarPorFuncao("Administrativo"));
+    }
+}
@@ -2,6 +2,7 @@ package com.mycompany.app;
 
 import com.mycompany.app.handlers.FuncionarioHandler;
 import com.mycompany.app.models.Funcionario;
+import com.mycompany.app.models.VersaoDesatualizadaException;
 import io.javalin.http.Context;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,6 +16,8 @@ import java.util.UUID;
 import static io.javalin.http.HttpStatus.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class FuncionarioHandlerTest {
@@ -48,6 +51,7 @@ class FuncionarioHandlerTest {
         mockedFuncionario.when(() -> Funcionario.validarCPF(anyString())).thenReturn(true);
         mockedFuncionario.when(() -> Funcionario.validarNome(anyString())).thenReturn(true);
         mockedFuncionario.when(() -> Funcionario.validarSenha(anyString(), anyString())).thenReturn(true);
+        mockedFuncionario.when(() -> Funcionario.validarFuncao(any())).thenReturn(true);
     }
 
     // --- TESTES: cadastrarFuncionario (POST) ---
@@ -160,6 +164,103 @@ class FuncionarioHandlerTest {
         }
     }
 
+    // --- TESTES: alterarDadosFuncionario (PUT) com If-Match ---
+
+    @Test
+    @DisplayName("PUT /funcionario/{idFuncionario} - If-Match desatualizado (412)")
+    void alterarDados_VersaoDesatualizada() throws Exception {
+        Funcionario mockFuncionarioInstancia = mock(Funcionario.class);
+        when(mockCtx.body()).thenReturn(jsonCadastro);
+        when(mockCtx.header("If-Match")).thenReturn("\"1\"");
+        doThrow(new VersaoDesatualizadaException(2)).when(mockFuncionarioInstancia)
+                .alterarDados(eq(1L), any(), any(), any(), any(), any(), any(), any());
+
+        try (MockedStatic<Funcionario> mockedFuncionario = Mockito.mockStatic(Funcionario.class)) {
+            mockedFuncionario.when(() -> Funcionario.getFuncionarioMatricula(funcionarioId)).thenReturn(mockFuncionarioInstancia);
+            mockValidacoesSucesso(mockedFuncionario);
+
+            FuncionarioHandler.alterarDadosFuncionario.handle(mockCtx);
+
+            verify(mockCtx).status(PRECONDITION_FAILED);
+            verify(mockCtx).result(contains("versão atual é 2"));
+        }
+    }
+
+    @Test
+    @DisplayName("PUT /funcionario/{idFuncionario} - If-Match malformado não casa com nenhuma versão (412)")
+    void alterarDados_IfMatchMalformado() throws Exception {
+        Funcionario mockFuncionarioInstancia = mock(Funcionario.class);
+        when(mockCtx.body()).thenReturn(jsonCadastro);
+        when(mockCtx.header("If-Match")).thenReturn("\"abc\"");
+        doThrow(new VersaoDesatualizadaException(1)).when(mockFuncionarioInstancia)
+                .alterarDados(eq(-1L), any(), any(), any(), any(), any(), any(), any());
+
+        try (MockedStatic<Funcionario> mockedFuncionario = Mockito.mockStatic(Funcionario.class)) {
+            mockedFuncionario.when(() -> Funcionario.getFuncionarioMatricula(funcionarioId)).thenReturn(mockFuncionarioInstancia);
+            mockValidacoesSucesso(mockedFuncionario);
+
+            FuncionarioHandler.alterarDadosFuncionario.handle(mockCtx);
+
+            verify(mockFuncionarioInstancia).alterarDados(eq(-1L), any(), any(), any(), any(), any(), any(), any());
+            verify(mockCtx).status(PRECONDITION_FAILED);
+        }
+    }
+
+    @Test
+    @DisplayName("PUT /funcionario/{idFuncionario} - Sem If-Match devolve a nova versão com ETag (200 OK)")
+    void alterarDados_SemIfMatch() throws Exception {
+        Funcionario mockFuncionarioInstancia = mock(Funcionario.class);
+        Funcionario mockFuncionarioAlterado = mock(Funcionario.class);
+        when(mockFuncionarioAlterado.getVersao()).thenReturn(2L);
+        when(mockFuncionarioInstancia.alterarDados(isNull(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(mockFuncionarioAlterado);
+        when(mockCtx.body()).thenReturn(jsonCadastro);
+
+        try (MockedStatic<Funcionario> mockedFuncionario = Mockito.mockStatic(Funcionario.class)) {
+            mockedFuncionario.when(() -> Funcionario.getFuncionarioMatricula(funcionarioId)).thenReturn(mockFuncionarioInstancia);
+            mockValidacoesSucesso(mockedFuncionario);
+
+            FuncionarioHandler.alterarDadosFuncionario.handle(mockCtx);
+
+            verify(mockCtx).header("ETag", "\"2\"");
+            verify(mockCtx).status(OK);
+            verify(mockCtx).json(mockFuncionarioAlterado);
+        }
+    }
+
+    // --- TESTES: recuperarFuncionarioPorMatricula (GET) ---
+
+    @Test
+    @DisplayName("GET /funcionario/{idFuncionario} - Lê o parâmetro declarado na rota (200 OK)")
+    void recuperarFuncionario_Sucesso() throws Exception {
+        Funcionario mockFuncionarioInstancia = mock(Funcionario.class);
+        when(mockFuncionarioInstancia.getVersao()).thenReturn(3L);
+
+        try (MockedStatic<Funcionario> mockedFuncionario = Mockito.mockStatic(Funcionario.class)) {
+            mockedFuncionario.when(() -> Funcionario.getFuncionarioMatricula(funcionarioId)).thenReturn(mockFuncionarioInstancia);
+
+            FuncionarioHandler.recuperarFuncionarioPorMatricula.handle(mockCtx);
+
+            verify(mockCtx).pathParam("idFuncionario");
+            verify(mockCtx).header("ETag", "\"3\"");
+            verify(mockCtx).status(OK);
+            verify(mockCtx).json(mockFuncionarioInstancia);
+        }
+    }
+
+    @Test
+    @DisplayName("GET /funcionario/{idFuncionario} - Não Encontrado (404)")
+    void recuperarFuncionario_NaoEncontrado() throws Exception {
+        try (MockedStatic<Funcionario> mockedFuncionario = Mockito.mockStatic(Funcionario.class)) {
+            mockedFuncionario.when(() -> Funcionario.getFuncionarioMatricula(funcionarioId)).thenReturn(null);
+
+            FuncionarioHandler.recuperarFuncionarioPorMatricula.handle(mockCtx);
+
+            verify(mockCtx).status(NOT_FOUND);
+            verify(mockCtx).result("Funcionário não encontrado.");
+        }
+    }
+
     // --- TESTES: removerFuncionario (DELETE) ---
 
     @Test
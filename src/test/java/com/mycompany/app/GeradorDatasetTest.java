@@ -0,0 +1,112 @@
+package com.mycompany.app;
+
+import com.mycompany.app.fixtures.Fixtures;
+import com.mycompany.app.fixtures.GeradorDataset;
+import com.mycompany.app.fixtures.GeradorDataset.Tamanhos;
+import com.mycompany.app.models.CartaoCredito;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Epoca;
+import com.mycompany.app.models.Funcionario;
+import io.javalin.json.JavalinJackson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeradorDatasetTest {
+
+    private static final Tamanhos PEQUENO = new Tamanhos(10_000, 50, 40, 10, 2);
+
+    @TempDir
+    Path diretorio;
+
+    @AfterEach
+    void tearDown() {
+        Epoca.publicar(Epoca.vazia());
+    }
+
+    // Confere os dois dígitos verificadores
+    private static boolean cpfValido(String cpf) {
+        for (int n = 9; n <= 10; n++) {
+            int soma = 0;
+            for (int k = 0; k < n; k++) {
+                soma += (cpf.charAt(k) - '0') * (n + 1 - k);
+            }
+            int resto = soma % 11;
+            if (cpf.charAt(n) - '0' != (resto < 2 ? 0 : 11 - resto)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    @DisplayName("GeradorDataset - mesma semente dá o mesmo arquivo com qualquer número de threads")
+    void deterministico() throws Exception {
+        Path uma = diretorio.resolve("uma.json");
+        Path varias = diretorio.resolve("varias.json");
+        new GeradorDataset(7, PEQUENO, GeradorDataset.REFERENCIA, 1).escrever(uma);
+        new GeradorDataset(7, PEQUENO, GeradorDataset.REFERENCIA, 8).escrever(varias);
+        assertEquals(-1, Files.mismatch(uma, varias));
+
+        Path outra = diretorio.resolve("outra.json");
+        new GeradorDataset(8, PEQUENO, GeradorDataset.REFERENCIA, 8).escrever(outra);
+        assertNotEquals(-1, Files.mismatch(uma, outra));
+    }
+
+    @Test
+    @DisplayName("GeradorDataset - registros passam nas validações do cadastro")
+    void registrosValidos() {
+        Epoca.publicar(new GeradorDataset(11, PEQUENO).gerar());
+        List<Ciclista> ciclistas = Ciclista.listarTodos();
+        assertEquals(PEQUENO.ciclistas(), ciclistas.size());
+        Set<String> emails = new HashSet<>();
+        for (Ciclista c : ciclistas) {
+            assertTrue(Ciclista.validarSintaxeEmail(c.getEmail()), c.getEmail());
+            assertTrue(emails.add(c.getEmail().toLowerCase()), "email repetido " + c.getEmail());
+            assertTrue(Ciclista.validarNome(c.getNome()));
+            assertTrue(Ciclista.validarSenha(c.getSenha(), c.getSenha()), c.getSenha());
+            assertTrue(Ciclista.validarNacionalidade(c.getNacionalidade(), c.getCpf(), c.getPassaporte(),
+                    c.getValidadePassaporte(), c.getPais()));
+            if ("BRASILEIRA".equals(c.getNacionalidade())) {
+                assertTrue(cpfValido(c.getCpf()), c.getCpf());
+            }
+            assertNotNull(CartaoCredito.getCartaoCreditoPorCiclistaId(c.getId()));
+        }
+        for (Funcionario f : Funcionario.listarTodos()) {
+            assertTrue(Funcionario.validarSintaxeEmail(f.getEmail()));
+            assertTrue(Funcionario.validarSenha(f.getSenha(), f.getConfirmacaoSenha()));
+            assertTrue(cpfValido(f.getCpf()), f.getCpf());
+        }
+        assertEquals(PEQUENO.funcionarios(), Funcionario.listarTodos().size());
+    }
+
+    @Test
+    @DisplayName("GeradorDataset - arquivo e carga direta nos storages dão o mesmo banco")
+    void arquivoIgualAosStorages() throws Exception {
+        GeradorDataset gerador = new GeradorDataset(3, PEQUENO);
+        Map<String, Object> direto = gerador.gerar().tamanhos();
+        Path arquivo = diretorio.resolve("dataset.json");
+        gerador.escrever(arquivo);
+        Map<String, Object> lido;
+        try (InputStream entrada = Files.newInputStream(arquivo)) {
+            lido = Fixtures.ler(entrada, JavalinJackson.defaultMapper()).tamanhos();
+        }
+        direto.remove("epoca");
+        lido.remove("epoca");
+        assertEquals(direto, lido);
+        assertEquals(PEQUENO.estacoes() * PEQUENO.trancasPorEstacao(), direto.get("trancas"));
+        assertEquals(0, direto.get("alugueisAtivos"));
+        assertTrue((Integer) direto.get("alugueis") > PEQUENO.ciclistas());
+    }
+}
@@ -0,0 +1,85 @@
+package com.mycompany.app;
+
+import com.mycompany.app.util.GeradorIdV7;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeradorIdTest {
+
+    private final GeradorIdV7 gerador = new GeradorIdV7();
+
+    @Test
+    @DisplayName("UUIDv7 - versão, variante e timestamp")
+    void formato() {
+        long antes = System.currentTimeMillis();
+        UUID id = gerador.proximo();
+        long depois = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long ms = GeradorIdV7.instanteDe(id).toEpochMilli();
+        assertTrue(ms >= antes && ms <= depois + 1);
+    }
+
+    @Test
+    @DisplayName("UUIDv7 - ids de uma thread são estritamente crescentes")
+    void monotonicoPorThread() throws Exception {
+        // numa thread própria: a rajada adianta o relógio da thread e atrapalharia o teste de formato
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                UUID anterior = gerador.proximo();
+                for (int i = 0; i < 100_000; i++) {
+                    UUID atual = gerador.proximo();
+                    assertTrue(atual.compareTo(anterior) > 0);
+                    anterior = atual;
+                }
+                return null;
+            }).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("UUIDv7 - sem colisões entre threads")
+    void semColisoes() throws Exception {
+        int threads = 8;
+        int porThread = 50_000;
+        Set<UUID> todos = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < porThread; i++) {
+                        todos.add(gerador.proximo());
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * porThread, todos.size());
+    }
+
+    @Test
+    @DisplayName("UUIDv7 - limite inferior ordena antes dos ids do mesmo milissegundo")
+    void limiteInferior() {
+        UUID id = gerador.proximo();
+        Instant instante = GeradorIdV7.instanteDe(id);
+
+        assertTrue(GeradorIdV7.limiteInferior(instante).compareTo(id) <= 0);
+        assertTrue(GeradorIdV7.limiteInferior(instante.plusMillis(1)).compareTo(id) > 0);
+    }
+}
@@ -0,0 +1,100 @@
+package com.mycompany.app;
+
+import com.mycompany.app.util.IndicePrefixo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndicePrefixoTest {
+
+    private final Map<UUID, String> nomes = new HashMap<>();
+    private final IndicePrefixo indice = new IndicePrefixo();
+
+    private UUID cadastrar(String nome) {
+        UUID id = UUID.randomUUID();
+        nomes.put(id, nome);
+        indice.indexar(id, nome);
+        return id;
+    }
+
+    private List<String> buscar(String prefixo, int pagina, int tamanho) {
+        return indice.buscar(prefixo, pagina, tamanho, nomes::get, n -> new String[]{n});
+    }
+
+    @Test
+    @DisplayName("IndicePrefixo - prefixo de qualquer palavra, sem diferenciar acento e caixa")
+    void buscaPorPalavra() {
+        cadastrar("Ana Maria Silva");
+        cadastrar("João Souza");
+        cadastrar("Mário Andrade");
+
+        assertEquals(List.of("Ana Maria Silva"), buscar("sil", 0, 10));
+        assertEquals(List.of("Ana Maria Silva"), buscar("ANA M", 0, 10));
+        assertEquals(List.of("João Souza"), buscar("joao", 0, 10));
+        assertEquals(2, buscar("mar", 0, 10).size());
+        assertTrue(buscar("xyz", 0, 10).isEmpty());
+        assertTrue(buscar("  ", 0, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("IndicePrefixo - paginação sem repetir registros")
+    void paginacao() {
+        for (int i = 0; i < 25; i++) {
+            cadastrar("Pedro Pereira " + i);
+        }
+
+        List<String> primeira = buscar("pe", 0, 10);
+        List<String> terceira = buscar("pe", 2, 10);
+
+        assertEquals(10, primeira.size());
+        assertEquals(5, terceira.size());
+        assertEquals(10, primeira.stream().distinct().count());
+    }
+
+    @Test
+    @DisplayName("IndicePrefixo - atualização e remoção descartam o nome antigo")
+    void atualizacaoERemocao() {
+        UUID id = cadastrar("Carlos Lima");
+
+        nomes.put(id, "Carla Lima");
+        indice.atualizar(id, new String[]{"Carlos Lima"}, new String[]{"Carla Lima"});
+        assertTrue(buscar("carlos", 0, 10).isEmpty());
+        assertEquals(List.of("Carla Lima"), buscar("carla", 0, 10));
+
+        nomes.remove(id);
+        indice.remover(id, "Carla Lima");
+        assertTrue(buscar("lima", 0, 10).isEmpty());
+        assertEquals(0, indice.tamanho());
+    }
+
+    @Test
+    @DisplayName("IndicePrefixo - entrada velha é filtrada na busca, que não altera o índice")
+    void entradaVelha() {
+        UUID id = cadastrar("Beatriz Costa");
+        nomes.put(id, "Fernanda Costa"); // snapshot mudou e a gravação ainda não chegou ao índice
+
+        assertTrue(buscar("beatriz", 0, 10).isEmpty());
+        assertEquals(2, indice.tamanho());
+
+        // volta ao nome antigo: a entrada que a busca viu como velha continua lá
+        nomes.put(id, "Beatriz Costa");
+        assertEquals(List.of("Beatriz Costa"), buscar("beatriz", 0, 10));
+        assertEquals(List.of("Beatriz Costa"), buscar("costa", 0, 10));
+    }
+
+    @Test
+    @DisplayName("IndicePrefixo - página enorme não estoura o deslocamento")
+    void paginaEnorme() {
+        cadastrar("Gabriel Rocha");
+
+        assertTrue(buscar("gab", Integer.MAX_VALUE, 10).isEmpty());
+        assertTrue(buscar("gab", 1 << 30, 1 << 30).isEmpty());
+        assertEquals(List.of("Gabriel Rocha"), buscar("gab", -1, 10));
+    }
+}
@@ -0,0 +1,127 @@
+package com.mycompany.app;
+
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Estacao;
+import com.mycompany.app.models.Tranca;
+import com.mycompany.app.util.LeituraCompartilhada;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeituraCompartilhadaTest {
+
+    private Javalin app;
+
+    @AfterEach
+    void tearDown() {
+        if (app != null) {
+            app.stop();
+        }
+        Ciclista.restaurar();
+        Aluguel.restaurar();
+        Estacao.restaurar();
+    }
+
+    @Test
+    @DisplayName("Single-flight - leituras simultâneas da mesma chave fazem um cálculo e recebem o mesmo array")
+    void umCalculoPorRajada() throws Exception {
+        LeituraCompartilhada<String> leituras = new LeituraCompartilhada<>(10_000, 100);
+        CountDownLatch calculando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger calculos = new AtomicInteger();
+        byte[] resposta = "true".getBytes(StandardCharsets.UTF_8);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<byte[]>> leitores = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                leitores.add(executor.submit(() -> leituras.obter("a", 0, () -> {
+                    calculos.incrementAndGet();
+                    calculando.countDown();
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return resposta;
+                })));
+            }
+            assertTrue(calculando.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100); // os outros leitores chegam enquanto o primeiro calcula
+            liberar.countDown();
+            for (Future<byte[]> leitor : leitores) {
+                assertSame(resposta, leitor.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, calculos.get());
+        assertEquals(7, leituras.getCompartilhadas());
+    }
+
+    @Test
+    @DisplayName("Single-flight - geração nova, janela vencida e falha no cálculo levam a calcular de novo")
+    void recalculo() throws Exception {
+        LeituraCompartilhada<String> leituras = new LeituraCompartilhada<>(50, 100);
+        assertArrayEquals(new byte[]{1}, leituras.obter("a", 0, () -> new byte[]{1}));
+        assertArrayEquals(new byte[]{1}, leituras.obter("a", 0, () -> new byte[]{2}));
+        assertArrayEquals(new byte[]{3}, leituras.obter("a", 1, () -> new byte[]{3}));
+        Thread.sleep(80);
+        assertArrayEquals(new byte[]{4}, leituras.obter("a", 1, () -> new byte[]{4}));
+
+        assertThrows(IllegalStateException.class, () -> leituras.obter("b", 0, () -> {
+            throw new IllegalStateException("falhou");
+        }));
+        assertNull(leituras.obter("b", 0, () -> null));
+        assertEquals(5, leituras.getCalculos()); // a falha também conta
+    }
+
+    @Test
+    @DisplayName("GET permiteAluguel e bicicletaAlugada - ativação e aluguel aparecem na hora, dentro da janela")
+    void invalidacao() throws Exception {
+        Prontidao prontidao = new Prontidao();
+        app = App.criar(prontidao).start(0);
+        prontidao.marcarPronto();
+        Ciclista ciclista = new Ciclista("leitura@teste.com", "brasileira", "52998224725", null, null,
+                "Brasil", new Date(0), "Ana Leitura", "Senha1", null);
+        String base = "http://localhost:" + app.port() + "/ciclista/" + ciclista.getId();
+
+        assertEquals("false", get(base + "/permiteAluguel"));
+        ciclista.alterarStatusCiclista(true);
+        assertEquals("true", get(base + "/permiteAluguel"));
+
+        assertEquals("{}", get(base + "/bicicletaAlugada"));
+        Tranca tranca = Estacao.cadastrar(1, 1).getTrancas().get(0);
+        Aluguel aluguel = Aluguel.realizarAluguel(ciclista.getId(), tranca.getId());
+        assertEquals("{\"id\":\"" + aluguel.getBicicletaId() + "\"}", get(base + "/bicicletaAlugada"));
+        Aluguel.realizarDevolucao(tranca.getId(), aluguel.getBicicletaId());
+        assertEquals("{}", get(base + "/bicicletaAlugada"));
+    }
+
+    private static String get(String url) throws Exception {
+        HttpResponse<String> resposta = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(url)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, resposta.statusCode());
+        assertEquals("application/json", resposta.headers().firstValue("Content-Type").orElse(""));
+        return resposta.body();
+    }
+}
@@ -0,0 +1,131 @@
+package com.mycompany.app;
+
+import com.mycompany.app.acesso.AnalisadorAcesso;
+import com.mycompany.app.acesso.LogAcesso;
+import com.mycompany.app.models.Ciclista;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogAcessoTest {
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+    private Javalin app;
+
+    @TempDir
+    Path diretorio;
+
+    @BeforeEach
+    void setUp() {
+        Prontidao prontidao = new Prontidao();
+        app = App.criar(prontidao).start(0);
+        prontidao.marcarPronto();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        app.stop();
+        LogAcesso.encerrar();
+        Ciclista.restaurar();
+    }
+
+    private int enviar(String metodo, String caminho, String corpo) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + caminho))
+                .method(metodo, corpo == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+        return cliente.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Test
+    @DisplayName("LogAcesso - registra as rotas de ciclista e aluguel e o analisador agrega por rota e ciclista")
+    void registraEAnalisa() throws Exception {
+        LogAcesso log = LogAcesso.iniciar(diretorio, 8192, 1000, 1024);
+        UUID frequente = UUID.randomUUID();
+        for (int i = 0; i < 400; i++) {
+            assertEquals(404, enviar("GET", "/ciclista/" + frequente, null));
+        }
+        UUID outro = UUID.randomUUID();
+        enviar("GET", "/ciclista/" + outro + "/permiteAluguel", null);
+        int aluguel = enviar("POST", "/aluguel", "{\"ciclista\":\"" + outro + "\",\"trancaInicio\":\"" + UUID.randomUUID() + "\"}");
+        assertEquals(200, enviar("GET", "/estacao", null)); // fora do log
+        LogAcesso.encerrar();
+        assertEquals(0, log.getDescartados());
+        assertEquals(402, log.getGravados());
+
+        AnalisadorAcesso analisador = new AnalisadorAcesso(5);
+        analisador.ler(diretorio);
+        assertEquals(402, analisador.getAcessos());
+        assertTrue(analisador.getSegmentos() > 1, "segmentos: " + analisador.getSegmentos());
+
+        AnalisadorAcesso.Rota porId = analisador.getRota("GET /ciclista/{idCiclista}");
+        assertEquals(400, porId.getRequisicoes());
+        assertEquals(1.0, porId.getTaxa4xx());
+        assertEquals(0.0, porId.getTaxa5xx());
+        assertTrue(porId.percentilUs(0.5) > 0 && porId.percentilUs(0.5) <= porId.percentilUs(0.99));
+        assertTrue(porId.percentilUs(0.99) <= porId.getMaximoUs());
+        assertTrue(porId.getBytesMedios() > 0);
+        assertTrue(aluguel >= 400, "aluguel com tranca inexistente: " + aluguel);
+        assertEquals(1, analisador.getRota("POST /aluguel").getRequisicoes());
+        assertNotNull(analisador.getRota("GET /ciclista/{idCiclista}/permiteAluguel"));
+        assertNull(analisador.getRota("GET /estacao"));
+
+        Map<UUID, Long> top = analisador.getTopCiclistas(2);
+        assertEquals(frequente, top.keySet().iterator().next());
+        assertEquals(400L, top.get(frequente));
+        assertEquals(2L, top.get(outro)); // permiteAluguel e o corpo do aluguel
+    }
+
+    @Test
+    @DisplayName("LogAcesso - a listagem em cache, escrita direto na saída, sai com o tamanho do Content-Length")
+    void bytesDaListagemEmCache() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            new Ciclista("log" + i + "@teste.com", "brasileira", String.format("%011d", i), null, null,
+                    "Brasil", new Date(0), "Ana Log " + i, "Senha1", null);
+        }
+        LogAcesso.iniciar(diretorio, 8192, 1000, 1024);
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + "/ciclista")).build();
+        HttpResponse<byte[]> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, resposta.statusCode());
+        LogAcesso.encerrar();
+
+        AnalisadorAcesso analisador = new AnalisadorAcesso(1);
+        analisador.ler(diretorio);
+        AnalisadorAcesso.Rota listagem = analisador.getRota("GET /ciclista");
+        assertEquals(1, listagem.getRequisicoes());
+        assertTrue(resposta.body().length > 1000, "listagem de " + resposta.body().length + " bytes");
+        assertEquals(resposta.body().length, listagem.getBytesMedios());
+    }
+
+    @Test
+    @DisplayName("LogAcesso - rotaciona e mantém só os segmentos mais novos")
+    void rotacaoComRetencao() throws Exception {
+        LogAcesso log = LogAcesso.iniciar(diretorio, 4200, 2, 1024);
+        for (int i = 0; i < 400; i++) {
+            enviar("GET", "/ciclista/" + UUID.randomUUID() + "/bicicletaAlugada", null);
+        }
+        LogAcesso.encerrar();
+        assertEquals(2, LogAcesso.segmentos(diretorio).size());
+        assertTrue(log.getSegmentoAtual() > 2);
+
+        // Cada segmento repete as rotas: os que sobraram se leem sozinhos
+        AnalisadorAcesso analisador = new AnalisadorAcesso(1);
+        analisador.ler(diretorio);
+        assertTrue(analisador.getAcessos() > 0 && analisador.getAcessos() < 400);
+        assertEquals(analisador.getAcessos(),
+                analisador.getRota("GET /ciclista/{idCiclista}/bicicletaAlugada").getRequisicoes());
+    }
+}
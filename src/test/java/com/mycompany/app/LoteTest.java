@@ -0,0 +1,85 @@
+package com.mycompany.app;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.models.CartaoCredito;
+import com.mycompany.app.models.Ciclista;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoteTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Javalin app;
+
+    @BeforeEach
+    void setUp() {
+        Prontidao prontidao = new Prontidao();
+        app = App.criar(prontidao).start(0);
+        prontidao.marcarPronto();
+    }
+
+    @AfterEach
+    void tearDown() {
+        app.stop();
+        Ciclista.restaurar();
+        CartaoCredito.restaurar();
+    }
+
+    private HttpResponse<String> post(String caminho, String corpo) throws Exception {
+        return HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + caminho))
+                .POST(HttpRequest.BodyPublishers.ofString(corpo)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("POST /ciclista/batch e /cartaoDeCredito/batch - um item por id, na ordem, null para ausentes")
+    void lote() throws Exception {
+        Ciclista ana = new Ciclista("ana@lote.com", "brasileira", "52998224725", null, null,
+                "Brasil", new Date(0), "Ana Lote", "Senha1", null);
+        Ciclista bia = new Ciclista("bia@lote.com", "brasileira", "11144477735", null, null,
+                "Brasil", new Date(0), "Bia Lote", "Senha1", null);
+        new CartaoCredito(bia.getId(), "Bia Lote", "1234567890123456", new Date(System.currentTimeMillis() + 86_400_000L), "123");
+        UUID ausente = UUID.randomUUID();
+        String corpo = "{\"ids\":[\"" + bia.getId() + "\",\"" + ausente + "\",\"" + ana.getId() + "\",\"" + bia.getId() + "\"]}";
+
+        HttpResponse<String> ciclistas = post("/ciclista/batch", corpo);
+        assertEquals(200, ciclistas.statusCode());
+        JsonNode porId = mapper.readTree(ciclistas.body());
+        Iterator<String> chaves = porId.fieldNames();
+        assertEquals(List.of(bia.getId().toString(), ausente.toString(), ana.getId().toString()),
+                List.of(chaves.next(), chaves.next(), chaves.next()));
+        assertFalse(chaves.hasNext());
+        assertEquals("Bia Lote", porId.get(bia.getId().toString()).get("nome").asText());
+        assertTrue(porId.get(ausente.toString()).isNull());
+
+        JsonNode cartoes = mapper.readTree(post("/cartaoDeCredito/batch", corpo).body());
+        assertEquals("Bia Lote", cartoes.get(bia.getId().toString()).get("nomeTitular").asText());
+        assertTrue(cartoes.get(ana.getId().toString()).isNull());
+    }
+
+    @Test
+    @DisplayName("POST /ciclista/batch - corpo ou id inválido e lote grande demais dão 422")
+    void loteInvalido() throws Exception {
+        assertEquals(422, post("/ciclista/batch", "[]").statusCode());
+        assertEquals(422, post("/ciclista/batch", "{\"ids\":[\"nao-e-uuid\"]}").statusCode());
+        StringBuilder grande = new StringBuilder("{\"ids\":[");
+        for (int i = 0; i <= 1000; i++) {
+            grande.append(i == 0 ? "" : ",").append('"').append(UUID.randomUUID()).append('"');
+        }
+        assertEquals(422, post("/cartaoDeCredito/batch", grande.append("]}").toString()).statusCode());
+    }
+}
@@ -0,0 +1,152 @@
+package com.mycompany.app;
+
+import com.mycompany.app.util.MapaUUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaUUIDTest {
+
+    @Test
+    @DisplayName("MapaUUID - put, get, remove e reinserção")
+    void operacoesBasicas() {
+        MapaUUID<String> mapa = new MapaUUID<>();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+
+        assertNull(mapa.put(a, "a1"));
+        assertEquals("a1", mapa.put(a, "a2"));
+        assertEquals("a2", mapa.putIfAbsent(a, "a3"));
+        assertNull(mapa.putIfAbsent(b, "b1"));
+        assertEquals(2, mapa.size());
+
+        assertEquals("a2", mapa.remove(a));
+        assertNull(mapa.get(a));
+        assertFalse(mapa.containsKey(a));
+        assertNull(mapa.remove(a));
+        assertEquals(1, mapa.size());
+
+        assertNull(mapa.put(a, "a4"));
+        assertEquals("a4", mapa.get(a));
+        assertEquals(2, mapa.values().size());
+
+        mapa.clear();
+        assertTrue(mapa.isEmpty());
+        assertNull(mapa.get(b));
+    }
+
+    @Test
+    @DisplayName("MapaUUID - replace compara por identidade")
+    void replaceCompareAndSet() {
+        MapaUUID<String> mapa = new MapaUUID<>();
+        UUID chave = UUID.randomUUID();
+        String original = new String("v");
+        mapa.put(chave, original);
+
+        assertFalse(mapa.replace(chave, new String("v"), "outro"));
+        assertTrue(mapa.replace(chave, original, "novo"));
+        assertEquals("novo", mapa.get(chave));
+        assertFalse(mapa.replace(UUID.randomUUID(), "x", "y"));
+    }
+
+    @Test
+    @DisplayName("MapaUUID - inserções concorrentes com leitores e redimensionamento")
+    void insercoesConcorrentes() throws Exception {
+        MapaUUID<Integer> mapa = new MapaUUID<>(4);
+        int threads = 8;
+        int porThread = 20_000;
+        AtomicBoolean terminou = new AtomicBoolean(false);
+        AtomicInteger leiturasErradas = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 2);
+        try {
+            List<Future<?>> leitores = new ArrayList<>();
+            for (int l = 0; l < 2; l++) {
+                leitores.add(executor.submit(() -> {
+                    while (!terminou.get()) {
+                        for (int i = 0; i < 1000; i++) {
+                            Integer v = mapa.get(new UUID(0, i));
+                            if (v != null && v != i) {
+                                leiturasErradas.incrementAndGet();
+                            }
+                        }
+                    }
+                }));
+            }
+
+            List<Future<?>> escritores = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int inicio = t * porThread;
+                escritores.add(executor.submit(() -> {
+                    for (int i = inicio; i < inicio + porThread; i++) {
+                        mapa.put(new UUID(0, i), i);
+                    }
+                }));
+            }
+            for (Future<?> escritor : escritores) {
+                escritor.get();
+            }
+            terminou.set(true);
+            for (Future<?> leitor : leitores) {
+                leitor.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(0, leiturasErradas.get());
+        assertEquals(threads * porThread, mapa.size());
+        for (int i = 0; i < threads * porThread; i++) {
+            assertEquals(i, mapa.get(new UUID(0, i)));
+        }
+    }
+
+    @Test
+    @DisplayName("MapaUUID - replace concorrente não perde incrementos durante redimensionamento")
+    void replaceConcorrente() throws Exception {
+        MapaUUID<Integer> mapa = new MapaUUID<>(1);
+        UUID contador = new UUID(42, 42);
+        mapa.put(contador, 0);
+        int threads = 4;
+        int incrementos = 5_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < incrementos; i++) {
+                        while (true) {
+                            Integer atual = mapa.get(contador);
+                            if (mapa.replace(contador, atual, atual + 1)) {
+                                break;
+                            }
+                        }
+                    }
+                }));
+            }
+            // força vários redimensionamentos no mesmo segmento
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    mapa.put(new UUID(1, i), i);
+                }
+            }));
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * incrementos, mapa.get(contador));
+    }
+}
@@ -0,0 +1,137 @@
+package com.mycompany.app;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.bench.ClusterLocal;
+import com.mycompany.app.particao.AnelHash;
+import com.mycompany.app.particao.Encaminhador;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParticaoTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static List<UUID> chaves(int n) {
+        List<UUID> chaves = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            chaves.add(UUID.randomUUID());
+        }
+        return chaves;
+    }
+
+    @Test
+    @DisplayName("AnelHash - com pontos virtuais cada nó fica perto de 1/n das chaves")
+    void anelEquilibrado() {
+        AnelHash anel = new AnelHash(List.of("http://a:1", "http://b:2", "http://c:3", "http://d:4"), 128);
+        Map<String, Integer> contagem = new HashMap<>();
+        for (UUID chave : chaves(40_000)) {
+            contagem.merge(anel.dono(chave), 1, Integer::sum);
+        }
+        assertEquals(4, contagem.size());
+        contagem.values().forEach(n -> assertTrue(n > 7_000 && n < 13_000, "carga desequilibrada: " + contagem));
+    }
+
+    @Test
+    @DisplayName("AnelHash - um nó novo só tira chaves dos outros, ~1/n do total")
+    void anelMovimentoMinimo() {
+        AnelHash antes = new AnelHash(List.of("http://a:1", "http://b:2", "http://c:3"), 128);
+        AnelHash depois = new AnelHash(List.of("http://a:1", "http://b:2", "http://c:3", "http://d:4"), 128);
+        int movidas = 0;
+        List<UUID> chaves = chaves(20_000);
+        for (UUID chave : chaves) {
+            String dono = depois.dono(chave);
+            if (!dono.equals(antes.dono(chave))) {
+                assertEquals("http://d:4", dono, "chave mudou entre nós antigos");
+                movidas++;
+            }
+        }
+        assertTrue(movidas > 3_500 && movidas < 6_500, "movidas: " + movidas);
+    }
+
+    @Test
+    @DisplayName("AnelHash - o dono só depende dos membros, não da ordem nem da instância")
+    void anelDeterministico() {
+        AnelHash um = new AnelHash(List.of("http://a:1", "http://b:2", "http://c:3"), 64);
+        AnelHash outro = new AnelHash(List.of("http://c:3", "http://a:1", "http://b:2"), 64);
+        for (UUID chave : chaves(1_000)) {
+            assertEquals(um.dono(chave), outro.dono(chave));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new AnelHash(List.of(), 64));
+    }
+
+    @Test
+    @DisplayName("Particao - rebalanceamento 2 -> 3 processos sob leitura sem perder chave nem aluguel")
+    void rebalanceamentoEntreProcessos() throws Exception {
+        try (ClusterLocal cluster = new ClusterLocal()) {
+            List<String> anel = new ArrayList<>();
+            anel.add(cluster.iniciar(List.of()));
+            anel.add(cluster.iniciar(anel));
+            cluster.rebalancear(anel, Duration.ofSeconds(30));
+
+            List<String> ids = new ArrayList<>();
+            Map<String, String> bicicletas = new LinkedHashMap<>();
+            for (int n = 1; n <= 60; n++) {
+                String id = cluster.cadastrar(anel.get(n % 2), n);
+                ids.add(id);
+                if (n % 5 == 0) {
+                    bicicletas.put(id, cluster.alugar(id));
+                }
+            }
+
+            ClusterLocal.Leitura leitura = cluster.ler(ids, 4);
+            List<String> novo = new ArrayList<>(anel);
+            novo.add(cluster.iniciar(anel));
+            cluster.rebalancear(novo, Duration.ofSeconds(60));
+            Map<Integer, Long> status = leitura.parar();
+            assertEquals(List.of(200), List.copyOf(status.keySet()), "respostas durante o rebalanceamento: " + status);
+
+            Map<String, JsonNode> estados = cluster.estados();
+            assertTrue(estados.get(novo.get(2)).get("ciclistasLocais").asInt() > 0, "nó novo não recebeu chaves");
+            assertEquals(60, estados.values().stream().mapToInt(e -> e.get("ciclistasLocais").asInt()).sum());
+
+            AnelHash esperado = new AnelHash(novo, 128);
+            for (String id : ids) {
+                for (String no : novo) {
+                    HttpResponse<String> resposta = cluster.enviar(no, "GET", "/ciclista/" + id, null);
+                    assertEquals(200, resposta.statusCode());
+                    assertEquals(esperado.dono(UUID.fromString(id)),
+                            resposta.headers().firstValue(Encaminhador.CABECALHO_NO).orElse(null));
+                }
+                assertEquals(200, cluster.enviar(cluster.qualquerNo(), "GET", "/cartaoDeCredito/" + id, null).statusCode());
+            }
+
+            // Depois do /ready o cabeçalho do aquecimento não desliga o encaminhamento ao dono
+            for (String id : ids) {
+                String dono = esperado.dono(UUID.fromString(id));
+                String outro = novo.stream().filter(no -> !no.equals(dono)).findFirst().orElseThrow();
+                HttpResponse<String> resposta = cluster.enviar(outro, "GET", "/ciclista/" + id, null,
+                        Prontidao.CABECALHO_AQUECIMENTO, "x");
+                assertEquals(200, resposta.statusCode());
+                assertEquals(dono, resposta.headers().firstValue(Encaminhador.CABECALHO_NO).orElse(null));
+            }
+
+            // Aluguéis ativos seguiram o ciclista e a devolução chega ao dono por qualquer nó
+            for (Map.Entry<String, String> aluguel : bicicletas.entrySet()) {
+                JsonNode alugada = mapper.readTree(cluster.enviar(novo.get(0), "GET",
+                        "/ciclista/" + aluguel.getKey() + "/bicicletaAlugada", null).body());
+                assertEquals(aluguel.getValue(), alugada.path("id").asText(null));
+
+                cluster.devolver(aluguel.getKey(), aluguel.getValue());
+                assertTrue(mapper.readTree(cluster.enviar(cluster.qualquerNo(), "GET",
+                        "/ciclista/" + aluguel.getKey() + "/bicicletaAlugada", null).body()).isEmpty());
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.mycompany.app;
+
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.CartaoCredito;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Epoca;
+import com.mycompany.app.models.Estacao;
+import com.mycompany.app.models.Funcionario;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProntidaoTest {
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+    private Prontidao prontidao;
+    private Javalin app;
+
+    @BeforeEach
+    void setUp() {
+        prontidao = new Prontidao();
+        app = App.criar(prontidao).start(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        app.stop();
+        Ciclista.restaurar();
+        Funcionario.restaurar();
+        CartaoCredito.restaurar();
+        Aluguel.restaurar();
+        Estacao.restaurar();
+    }
+
+    private HttpResponse<String> get(String caminho, String token) throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + caminho));
+        if (token != null) {
+            requisicao.header(Prontidao.CABECALHO_AQUECIMENTO, token);
+        }
+        return cliente.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("Prontidao - só o aquecimento passa antes do /ready ficar verde")
+    void portaoDuranteAquecimento() throws Exception {
+        assertEquals(503, get("/ready", null).statusCode());
+        assertEquals(503, get("/ciclista", null).statusCode());
+        assertEquals(503, get("/ciclista", "token-errado").statusCode());
+        assertEquals(200, get("/ciclista", prontidao.getToken()).statusCode());
+
+        prontidao.marcarPronto();
+
+        assertEquals(200, get("/ready", null).statusCode());
+        assertEquals(200, get("/ciclista", null).statusCode());
+        // a listagem em cache é escrita de dentro do handler, então a resposta pode chegar
+        // antes do after que desconta a requisição
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (prontidao.getEmAndamento() > 0 && System.nanoTime() < limite) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, prontidao.getEmAndamento());
+    }
+
+    @Test
+    @DisplayName("Aquecimento - percorre as rotas sem erro e descarta os dados")
+    void aquecimentoDescartaDados() throws Exception {
+        Epoca antes = Epoca.atual();
+        Map<String, Object> vazia = antes.tamanhos();
+        new Aquecimento(app.port(), prontidao.getToken(), 5, Duration.ofSeconds(30)).executar();
+        prontidao.marcarPronto();
+
+        assertEquals("[]", get("/ciclista", null).body());
+        assertEquals("[]", get("/funcionario", null).body());
+        // Os dados sintéticos foram para uma época descartável, não para a que estava no ar
+        assertEquals(vazia, antes.tamanhos());
+        assertNotSame(antes, Epoca.atual());
+        Map<String, Object> depois = new HashMap<>(Epoca.atual().tamanhos());
+        depois.remove("epoca");
+        assertTrue(depois.values().stream().allMatch(n -> ((Number) n).longValue() == 0), "época depois: " + depois);
+    }
+
+    @Test
+    @DisplayName("Prontidao - encerramento espera a requisição em andamento e recusa novas")
+    void encerramentoGracioso() throws Exception {
+        CountDownLatch entrou = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        app.get("/lenta", ctx -> {
+            entrou.countDown();
+            liberar.await();
+            ctx.result("ok");
+        });
+        prontidao.marcarPronto();
+
+        CompletableFuture<HttpResponse<String>> lenta = cliente.sendAsync(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + "/lenta")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertTrue(entrou.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Boolean> encerrou = CompletableFuture.supplyAsync(() -> prontidao.encerrar(Duration.ofSeconds(5)));
+        Thread.sleep(100);
+        assertFalse(encerrou.isDone());
+        assertEquals(503, get("/ciclista", null).statusCode());
+
+        liberar.countDown();
+        assertTrue(encerrou.get(5, TimeUnit.SECONDS));
+        assertEquals("ok", lenta.get(5, TimeUnit.SECONDS).body());
+    }
+}
@@ -0,0 +1,130 @@
+package com.mycompany.app;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.bench.ClusterLocal;
+import com.mycompany.app.handlers.ReplicacaoHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicacaoTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // Repete até a condição valer ou o prazo acabar
+    private static void aguardar(Callable<Boolean> condicao, long prazoMs) throws Exception {
+        long limite = System.currentTimeMillis() + prazoMs;
+        while (!condicao.call()) {
+            assertTrue(System.currentTimeMillis() < limite, "condição não atingida em " + prazoMs + " ms");
+            Thread.sleep(20);
+        }
+    }
+
+    private static String nomeTitular(ClusterLocal cluster, String no, String id) throws Exception {
+        return mapper.readTree(cluster.enviar(no, "GET", "/cartaoDeCredito/" + id, null).body()).path("nomeTitular").asText();
+    }
+
+    @Test
+    @DisplayName("Replicacao - réplicas carregam o líder, seguem o log e atendem leituras dentro do atraso máximo")
+    void lideresSeguidores() throws Exception {
+        try (ClusterLocal cluster = new ClusterLocal()) {
+            String lider = cluster.iniciarComPropriedades("-Daluguel.replicacao.papel=lider");
+            List<String> ids = new ArrayList<>();
+            for (int n = 1; n <= 30; n++) {
+                ids.add(cluster.cadastrar(lider, n));
+            }
+            JsonNode estacao = mapper.readTree(ClusterLocal.exigir(cluster.enviar(lider, "POST", "/estacao",
+                    "{\"trancas\":2,\"bicicletas\":1}"), 201));
+            String bicicleta = mapper.readTree(ClusterLocal.exigir(cluster.enviar(lider, "POST", "/aluguel",
+                    "{\"ciclista\":\"" + ids.get(0) + "\",\"trancaInicio\":\"" + estacao.get("trancas").get(0).get("id").asText() + "\"}"),
+                    200)).get("bicicletaId").asText();
+            ClusterLocal.exigir(cluster.enviar(lider, "POST", "/funcionario",
+                    "{\"senha\":\"Senha1\",\"confirmaSenha\":\"Senha1\",\"email\":\"replica@exemplo.com\","
+                            + "\"nome\":\"Funcionario Replica\",\"idade\":\"30\",\"funcao\":\"Reparador\",\"cpf\":\"12345678901\"}"), 201);
+            String matricula = mapper.readTree(ClusterLocal.exigir(cluster.enviar(lider, "GET", "/funcionario", null), 200))
+                    .get(0).get("matricula").asText();
+
+            // Snapshot: tudo o que o líder tinha antes da réplica subir
+            String primeira = cluster.iniciarComPropriedades("-Daluguel.replicacao.papel=seguidor",
+                    "-Daluguel.replicacao.lider=" + lider);
+            for (String id : ids) {
+                HttpResponse<String> ciclista = cluster.enviar(primeira, "GET", "/ciclista/" + id, null);
+                assertEquals(200, ciclista.statusCode());
+                long atraso = Long.parseLong(ciclista.headers().firstValue(ReplicacaoHandler.CABECALHO_ATRASO).orElseThrow());
+                assertTrue(atraso <= 1000, "atraso " + atraso);
+                assertEquals(200, cluster.enviar(primeira, "GET", "/ciclista/" + id + "/permiteAluguel", null).statusCode());
+                assertEquals(200, cluster.enviar(primeira, "GET", "/cartaoDeCredito/" + id, null).statusCode());
+            }
+            assertEquals(bicicleta, mapper.readTree(cluster.enviar(primeira, "GET",
+                    "/ciclista/" + ids.get(0) + "/bicicletaAlugada", null).body()).path("id").asText());
+            assertEquals(200, cluster.enviar(primeira, "GET", "/funcionario/" + matricula, null).statusCode());
+
+            // Log: alteração no líder aparece na réplica; escrita na réplica vai para o líder
+            ClusterLocal.exigir(cluster.enviar(lider, "PUT", "/cartaoDeCredito/" + ids.get(1),
+                    "{\"nomeTitular\":\"Titular Alterado\",\"numero\":\"1234567890123456\",\"validade\":"
+                            + (System.currentTimeMillis() + 86_400_000L * 365) + ",\"cvv\":\"123\"}"), 200);
+            aguardar(() -> nomeTitular(cluster, primeira, ids.get(1)).equals("Titular Alterado"), 2000);
+            HttpResponse<String> escrita = cluster.enviar(primeira, "POST", "/ciclista/" + ids.get(2) + "/ativar", null);
+            assertEquals(307, escrita.statusCode());
+            assertEquals(lider + "/ciclista/" + ids.get(2) + "/ativar", escrita.headers().firstValue("Location").orElse(null));
+            // Depois do /ready o cabeçalho do aquecimento não dispensa o líder, com qualquer valor
+            HttpResponse<String> forjada = cluster.enviar(primeira, "PUT", "/cartaoDeCredito/" + ids.get(2),
+                    "{\"nomeTitular\":\"Titular Forjado\",\"numero\":\"1234567890123456\",\"validade\":"
+                            + (System.currentTimeMillis() + 86_400_000L * 365) + ",\"cvv\":\"123\"}",
+                    Prontidao.CABECALHO_AQUECIMENTO, "x");
+            assertEquals(307, forjada.statusCode());
+            assertNotEquals("Titular Forjado", nomeTitular(cluster, primeira, ids.get(2)));
+            assertEquals(307, cluster.enviar(primeira, "GET", "/estacao", null).statusCode());
+
+            // Segunda réplica sobe sob leitura contínua na primeira
+            List<String> caminhos = new ArrayList<>();
+            for (String id : ids) {
+                caminhos.add("/ciclista/" + id);
+                caminhos.add("/ciclista/" + id + "/permiteAluguel");
+                caminhos.add("/cartaoDeCredito/" + id);
+            }
+            ClusterLocal.Leitura uma = cluster.ler(List.of(primeira), caminhos, 4);
+            String segunda = cluster.iniciarComPropriedades("-Daluguel.replicacao.papel=seguidor",
+                    "-Daluguel.replicacao.lider=" + lider);
+            Map<Integer, Long> status = uma.parar();
+            assertEquals(List.of(200), List.copyOf(status.keySet()), "leituras na réplica: " + status);
+
+            // Só correção: vazão por número de réplicas fica em bench/ReplicasLeitura
+            ClusterLocal.Leitura duas = cluster.ler(List.of(primeira, segunda), caminhos, 4);
+            Thread.sleep(500);
+            status = duas.parar();
+            assertEquals(List.of(200), List.copyOf(status.keySet()), "leituras nas réplicas: " + status);
+
+            // Devolução no líder encerra o aluguel nas réplicas; as duas chegam ao mesmo offset
+            JsonNode livre = mapper.readTree(ClusterLocal.exigir(cluster.enviar(lider, "POST", "/estacao",
+                    "{\"trancas\":1,\"bicicletas\":0}"), 201));
+            ClusterLocal.exigir(cluster.enviar(lider, "POST", "/devolucao", "{\"idTranca\":\""
+                    + livre.get("trancas").get(0).get("id").asText() + "\",\"idBicicleta\":\"" + bicicleta + "\"}"), 200);
+            long ultimo = mapper.readTree(cluster.enviar(lider, "GET", "/replicacao", null).body()).get("ultimoOffset").asLong();
+            for (String replica : List.of(primeira, segunda)) {
+                aguardar(() -> mapper.readTree(cluster.enviar(replica, "GET", "/replicacao", null).body())
+                        .get("offset").asLong() >= ultimo, 2000);
+                assertTrue(mapper.readTree(cluster.enviar(replica, "GET",
+                        "/ciclista/" + ids.get(0) + "/bicicletaAlugada", null).body()).isEmpty());
+            }
+
+            // /restaurarBanco é escrita: vai ao líder, e as réplicas recarregam a época nova (vazia)
+            assertEquals(307, cluster.enviar(segunda, "GET", "/restaurarBanco", null).statusCode());
+            ClusterLocal.exigir(cluster.enviar(lider, "GET", "/restaurarBanco", null), 200);
+            long restaurado = mapper.readTree(cluster.enviar(lider, "GET", "/replicacao", null).body()).get("ultimoOffset").asLong();
+            aguardar(() -> mapper.readTree(cluster.enviar(segunda, "GET", "/replicacao", null).body())
+                    .get("offset").asLong() >= restaurado, 2000);
+            // Enquanto recarrega, a réplica manda as leituras ao líder (307)
+            aguardar(() -> cluster.enviar(segunda, "GET", "/ciclista/" + ids.get(0), null).statusCode() == 404, 2000);
+            assertEquals(404, cluster.enviar(segunda, "GET", "/funcionario/" + matricula, null).statusCode());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.mycompany.app;
+
+import com.mycompany.app.eventos.EventoAluguel;
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Estacao;
+import com.mycompany.app.util.RodaTemporizacao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RodaTemporizacaoTest {
+
+    @AfterEach
+    void tearDown() {
+        Aluguel.restaurar();
+        Ciclista.restaurar();
+        Estacao.restaurar();
+    }
+
+    @Test
+    @DisplayName("RodaTemporizacao - vence no máximo um tick depois, nunca antes do prazo e além de uma volta")
+    void venceNoPrazo() {
+        RodaTemporizacao<Long> roda = new RodaTemporizacao<>(10, 8, 0); // uma volta = 80 ms
+        SplittableRandom random = new SplittableRandom(7);
+        List<RodaTemporizacao.Agendamento<Long>> agendados = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            long prazo = random.nextLong(1, 2000);
+            agendados.add(roda.agendar(prazo, prazo));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(roda.cancelar(agendados.get(i)));
+        }
+        assertFalse(roda.cancelar(agendados.get(0)));
+        assertEquals(500, roda.tamanho());
+
+        List<Long> vencidos = new ArrayList<>();
+        for (long agora = 0; agora <= 2100; agora += 7) {
+            long instante = agora;
+            roda.avancar(agora, prazo -> {
+                assertTrue(prazo <= instante, "venceu antes do prazo");
+                assertTrue(prazo > instante - 7 - 10, "venceu mais de um tick atrasado");
+                vencidos.add(prazo);
+            });
+        }
+        assertEquals(500, vencidos.size());
+        assertEquals(0, roda.tamanho());
+    }
+
+    @Test
+    @DisplayName("RodaTemporizacao - prazo já passado vence no próximo avanço e o consumidor pode reagendar")
+    void prazoPassadoEReagendamento() {
+        RodaTemporizacao<String> roda = new RodaTemporizacao<>(100, 4, 0);
+        roda.avancar(1000, v -> fail());
+        roda.agendar(50, "atrasado");
+        List<String> vencidos = new ArrayList<>();
+        roda.avancar(1100, v -> {
+            vencidos.add(v);
+            if (v.equals("atrasado")) {
+                roda.agendar(1500, "seguinte");
+            }
+        });
+        assertEquals(List.of("atrasado"), vencidos);
+        roda.avancar(1499, vencidos::add);
+        assertEquals(1, vencidos.size());
+        roda.avancar(1500, vencidos::add);
+        assertEquals(List.of("atrasado", "seguinte"), vencidos);
+    }
+
+    private static void esperarReagendamento() throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (Aluguel.atrasosPendentes() == 0 && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("Aluguel - atraso ao fim da franquia e a cada bloco, cancelado na devolução")
+    void atrasoDeAluguel() throws Exception {
+        Ciclista ciclista = new Ciclista("atraso@teste.com", "brasileira", "52998224725", null, null,
+                "Brasil", new Date(0), "Ana Atraso", "Senha1", null);
+        ciclista.alterarStatusCiclista(true);
+        long agora = System.currentTimeMillis();
+        Estacao estacao = Estacao.cadastrar(2, 1);
+        Aluguel aluguel = Aluguel.realizarAluguel(ciclista.getId(), estacao.getTrancas().get(0).getId());
+        assertEquals(1, Aluguel.atrasosPendentes());
+
+        assertEquals(0, Aluguel.verificarAtrasos(agora + 59 * 60_000));
+        assertEquals(1, Aluguel.verificarAtrasos(agora + 61 * 60_000));
+        esperarReagendamento(); // a pré-autorização roda fora da thread de atrasos
+        assertEquals(1, Aluguel.verificarAtrasos(agora + 121 * 60_000));
+        esperarReagendamento();
+
+        List<EventoAluguel.AluguelEmAtraso> atrasos = new ArrayList<>();
+        Aluguel.eventos().percorrer(0, Long.MAX_VALUE, (seq, evento) -> {
+            if (evento instanceof EventoAluguel.AluguelEmAtraso atraso) {
+                atrasos.add(atraso);
+            }
+        });
+        assertEquals(2, atrasos.size());
+        assertEquals(60, atrasos.get(0).minutos());
+        assertEquals(5.0, atrasos.get(0).valorPreAutorizado());
+        assertEquals(120, atrasos.get(1).minutos());
+        assertEquals(10.0, atrasos.get(1).valorPreAutorizado());
+        assertEquals(aluguel.getId(), atrasos.get(1).aluguelId());
+        assertEquals(1, Aluguel.atrasosPendentes());
+
+        Aluguel.realizarDevolucao(estacao.getTrancas().get(1).getId(), aluguel.getBicicletaId());
+        assertEquals(0, Aluguel.atrasosPendentes());
+        assertEquals(0, Aluguel.verificarAtrasos(agora + 24 * 3600_000L));
+    }
+}
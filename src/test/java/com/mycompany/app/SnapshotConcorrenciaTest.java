@@ -0,0 +1,78 @@
+package com.mycompany.app;
+
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.VersaoDesatualizadaException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotConcorrenciaTest {
+
+    @AfterEach
+    void tearDown() {
+        Ciclista.restaurar();
+    }
+
+    private Ciclista novoCiclista() {
+        return new Ciclista("snap@teste.com", "Brasileira", "12345678901", null, null,
+                "Brasil", null, "Nome Sobrenome", "Senha123", "foto.jpg");
+    }
+
+    @Test
+    @DisplayName("Alteração gera nova versão e não muda o snapshot antigo")
+    void alterarDados_CopiaNaEscrita() {
+        Ciclista original = novoCiclista();
+
+        Ciclista alterado = original.alterarDados(1L, "novo@teste.com", "Brasileira", "12345678901", null, null,
+                "Brasil", null, "Outro Nome", "Senha123", "foto.jpg");
+
+        assertEquals("snap@teste.com", original.getEmail());
+        assertEquals(1, original.getVersao());
+        assertEquals("novo@teste.com", alterado.getEmail());
+        assertEquals(2, alterado.getVersao());
+        assertSame(alterado, Ciclista.getCiclistaPorId(original.getId()));
+    }
+
+    @Test
+    @DisplayName("If-Match com versão antiga é rejeitado")
+    void alterarDados_VersaoAntiga() {
+        Ciclista original = novoCiclista();
+        original.alterarStatusCiclista(true);
+
+        VersaoDesatualizadaException e = assertThrows(VersaoDesatualizadaException.class, () ->
+                original.alterarDados(1L, "novo@teste.com", "Brasileira", "12345678901", null, null,
+                        "Brasil", null, "Outro Nome", "Senha123", "foto.jpg"));
+        assertEquals(2, e.getVersaoAtual());
+    }
+
+    @Test
+    @DisplayName("Escritas concorrentes sem If-Match não se perdem")
+    void alterarDados_Concorrente() throws Exception {
+        Ciclista original = novoCiclista();
+        int escritas = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int i = 0; i < escritas; i++) {
+                String nome = "Nome " + i;
+                tarefas.add(executor.submit(() -> original.alterarDados(null, "snap@teste.com", "Brasileira",
+                        "12345678901", null, null, "Brasil", null, nome, "Senha123", "foto.jpg")));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1 + escritas, Ciclista.getCiclistaPorId(original.getId()).getVersao());
+    }
+}
@@ -0,0 +1,100 @@
+package com.mycompany.app;
+
+import com.mycompany.app.eventos.EventoAluguel;
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.tarifas.Tarifario;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TarifarioTest {
+
+    private static final int SEGUNDA_8H = Tarifario.horaSemana(LocalDateTime.of(2026, 10, 19, 8, 30));
+    private static final int DOMINGO_8H = Tarifario.horaSemana(LocalDateTime.of(2026, 10, 25, 8, 30));
+
+    private static Tarifario tarifario(String regras) {
+        return Tarifario.carregarConfigurado().com(regras);
+    }
+
+    @Test
+    @DisplayName("Tarifario - configuração padrão reproduz a cobrança antiga (R$10 + R$5 por hora cheia após 60 min)")
+    void padraoReproduzCobrancaAntiga() {
+        Tarifario padrao = Tarifario.carregarConfigurado();
+        assertEquals(1000, padrao.getFixoCentavos());
+        for (long minutos = -5; minutos <= 7 * 24 * 60; minutos++) {
+            long antigo = minutos > 60 ? Math.round(((minutos - 60) / 60) * 5.00 * 100) : 0;
+            assertEquals(antigo, padrao.custoExtraCentavos(Tarifario.PLANO_PADRAO, SEGUNDA_8H, minutos), "minutos=" + minutos);
+        }
+    }
+
+    @Test
+    @DisplayName("Tarifario - faixas, pico e teto por plano")
+    void faixasPicoETeto() {
+        Tarifario regras = tarifario("""
+                tarifa.faixas=1:500,3:300
+                tarifa.pico.dias=1-5
+                tarifa.pico.horas=7-9,17-19
+                tarifa.pico.fatorMil=1500
+                tarifa.planos=padrao,mensal
+                tarifa.plano.mensal.teto.centavos=1200
+                """);
+        int padrao = regras.plano("padrao");
+        int mensal = regras.plano("MENSAL");
+
+        // 4 blocos excedentes: 500 + 500 + 300 + 300
+        assertEquals(1600, regras.custoExtraCentavos(padrao, DOMINGO_8H, 60 + 4 * 60 + 59));
+        assertEquals(2400, regras.custoExtraCentavos(padrao, SEGUNDA_8H, 60 + 4 * 60));
+        assertEquals(1200, regras.custoExtraCentavos(mensal, SEGUNDA_8H, 60 + 4 * 60));
+        // 9h já não é pico; depois da tabela segue no preço da última faixa
+        int segunda9h = Tarifario.horaSemana(LocalDateTime.of(2026, 10, 19, 9, 0));
+        assertEquals(1000 + 300L * 98, regras.custoExtraCentavos(padrao, segunda9h, 60 + 100 * 60));
+        assertEquals(-1, regras.plano("anual"));
+    }
+
+    @Test
+    @DisplayName("Tarifario - regras inválidas apontam a chave")
+    void regrasInvalidas() {
+        assertThrows(IllegalArgumentException.class, () -> tarifario("tarifa.faixas=2:500"));
+        assertThrows(IllegalArgumentException.class, () -> tarifario("tarifa.faixas=1:500,1:400"));
+        assertThrows(IllegalArgumentException.class, () -> tarifario("tarifa.pico.horas=20-25"));
+        assertThrows(IllegalArgumentException.class, () -> tarifario("tarifa.bloco.minutos=0"));
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class,
+                () -> tarifario("tarifa.fixo.centavos=dez"));
+        assertTrue(erro.getMessage().contains("tarifa.fixo.centavos"));
+        assertThrows(IllegalArgumentException.class, () -> Tarifario.de(new Properties()).com("tarifa.planos=a,a"));
+    }
+
+    @Test
+    @DisplayName("Aluguel - reprecificação em lote das devoluções do dia não altera os aluguéis")
+    void reprecificacaoDoDia() {
+        try {
+            UUID aluguel = UUID.randomUUID();
+            UUID ciclista = UUID.randomUUID();
+            UUID bicicleta = UUID.randomUUID();
+            LocalDateTime fim = LocalDateTime.now();
+            Aluguel.eventos().anexar(new EventoAluguel.AluguelIniciado(aluguel, ciclista, fim.minusMinutes(190),
+                    UUID.randomUUID(), bicicleta, 10.0));
+            Aluguel.eventos().anexar(new EventoAluguel.AluguelDevolvido(aluguel, ciclista, fim,
+                    UUID.randomUUID(), bicicleta, 10.0));
+
+            Map<String, Object> resultado = Aluguel.reprecificarDevolvidosEm(fim.toLocalDate(),
+                    tarifario("tarifa.faixas=1:700"), Tarifario.PLANO_PADRAO);
+
+            assertEquals(1, resultado.get("quantidade"));
+            assertEquals(1000L, resultado.get("totalAtualCentavos"));
+            assertEquals(1400L, resultado.get("totalNovoCentavos"));
+            assertEquals(400L, resultado.get("diferencaCentavos"));
+            assertEquals(10.0, Aluguel.getAluguelPorId(aluguel).getValorExtra());
+            assertEquals(0, Aluguel.reprecificarDevolvidosEm(fim.toLocalDate().minusDays(1),
+                    Tarifario.atual(), Tarifario.PLANO_PADRAO).get("quantidade"));
+        } finally {
+            Aluguel.restaurar();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.mycompany.app.bench;
+
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.repositories.CiclistaRepositorio;
+import com.mycompany.app.repositories.CiclistaRepositorioMemoria;
+import com.mycompany.app.repositories.CiclistaRepositorioOffHeap;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Compara memória ocupada e latência de busca entre o repositório no heap e o off-heap.
+ *
+ * Uso: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.mycompany.app.bench.CiclistaRepositorioBenchmark -Dexec.args="1000000"
+ */
+public class CiclistaRepositorioBenchmark {
+
+    private static final String[] PAISES = {"Brasil", "Portugal", "Argentina", "Chile", "Uruguai"};
+    private static final String[] NACIONALIDADES = {"Brasileira", "Portuguesa", "Argentina", "Chilena", "Uruguaia"};
+
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int buscas = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+
+        UUID[] ids = new UUID[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            ids[i] = new UUID(i * 0x9E3779B97F4A7C15L, ~i);
+        }
+
+        medir("heap (ConcurrentHashMap)", CiclistaRepositorioMemoria::new, ids, buscas);
+        medir("off-heap", CiclistaRepositorioOffHeap::new, ids, buscas);
+    }
+
+    private static void medir(String nome, Supplier<CiclistaRepositorio> fabrica, UUID[] ids, int buscas) {
+        long heapAntes = heapUsado();
+        CiclistaRepositorio repositorio = fabrica.get();
+
+        long inicioCarga = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < ids.length; i++) {
+            repositorio.save(gerar(ids[i], i, random));
+        }
+        long cargaMs = (System.nanoTime() - inicioCarga) / 1_000_000;
+
+        long heapDepois = heapUsado();
+        long foraDoHeap = repositorio instanceof CiclistaRepositorioOffHeap
+                ? ((CiclistaRepositorioOffHeap) repositorio).bytesForaDoHeap() : 0;
+
+        // Aquece e mede buscas aleatórias
+        long nsExiste = medirBuscas(repositorio, ids, buscas, true);
+        long nsLeitura = medirBuscas(repositorio, ids, buscas, false);
+
+        System.out.printf("%-26s carga=%5d ms  heap=%6.1f B/ciclista  off-heap=%6.1f B/ciclista  "
+                        + "buscarPorID=%5.1f ns  getCiclistaPorId=%6.1f ns%n",
+                nome, cargaMs,
+                (heapDepois - heapAntes) / (double) ids.length,
+                foraDoHeap / (double) ids.length,
+                nsExiste / (double) buscas,
+                nsLeitura / (double) buscas);
+
+        // Mantém o repositório vivo até o fim da medição
+        if (repositorio.findAll().isEmpty()) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long medirBuscas(CiclistaRepositorio repositorio, UUID[] ids, int buscas, boolean soExiste) {
+        SplittableRandom random = new SplittableRandom(7);
+        long acumulador = 0;
+        for (int rodada = 0; rodada < 2; rodada++) { // rodada 0 = aquecimento
+            long inicio = System.nanoTime();
+            for (int i = 0; i < buscas; i++) {
+                UUID id = ids[random.nextInt(ids.length)];
+                if (soExiste) {
+                    acumulador += repositorio.buscarPorID(id) ? 1 : 0;
+                } else {
+                    acumulador += repositorio.getCiclistaPorId(id).getVersao();
+                }
+            }
+            long decorrido = System.nanoTime() - inicio;
+            if (rodada == 1) {
+                if (acumulador == 42) {
+                    System.out.print("");
+                }
+                return decorrido;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static Ciclista gerar(UUID id, int i, SplittableRandom random) {
+        int origem = random.nextInt(PAISES.length);
+        return Ciclista.reconstruir(
+                id,
+                "ciclista" + i + "@exemplo.com",
+                NACIONALIDADES[origem],
+                String.format("%011d", random.nextLong(100_000_000_000L)),
+                origem == 0 ? null : "P" + random.nextInt(10_000_000),
+                origem == 0 ? null : new Date(1_900_000_000_000L),
+                PAISES[origem],
+                new Date(631_152_000_000L + random.nextLong(900_000_000_000L)),
+                "Nome" + i + " Sobrenome" + random.nextInt(1000),
+                "Senha" + random.nextInt(100000) + "Aa",
+                "https://fotos.exemplo.com/" + i + ".jpg",
+                random.nextBoolean(),
+                false,
+                null,
+                1
+        );
+    }
+
+    private static long heapUsado() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
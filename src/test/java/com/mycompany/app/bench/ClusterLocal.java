@@ -0,0 +1,379 @@
+package com.mycompany.app.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.App;
+import com.mycompany.app.particao.AnelHash;
+import com.mycompany.app.particao.Encaminhador;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster local do modo particionado: cada nó é um processo {@link App} próprio (mesmo
+ * classpath, porta livre, sem aquecimento), então nada de estado estático é compartilhado.
+ * A saída de cada nó vai para target/cluster-&lt;porta&gt;.log.
+ * {@link ReplicasLeitura} usa os mesmos processos para líder e réplicas ({@link #iniciarComPropriedades}).
+ *
+ * O {@link #main} mede o cenário de crescer o cluster: sobe os nós iniciais, cadastra
+ * ciclistas (ativos, com cartão, parte alugando) por todos eles, mede a vazão de leituras
+ * espalhadas, adiciona nós e rebalanceia sob leitura contínua, confere que nenhuma chave se
+ * perdeu nem mudou e mede de novo. Cada leitura vai a um nó sorteado, como atrás de um
+ * balanceador sem afinidade.
+ *
+ * Uso: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.mycompany.app.bench.ClusterLocal
+ *        -Dexec.args="<nós iniciais> <nós finais> <ciclistas> <segundos de leitura> <threads>"
+ */
+public class ClusterLocal implements AutoCloseable {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final Map<String, Process> nos = new LinkedHashMap<>();
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    /**
+     * Sobe um nó numa porta livre e espera o /ready. {@code anel} é a lista de nós em vigor:
+     * um nó que está entrando sobe com o anel atual (sem ele) e entra no próximo PUT /particao.
+     */
+    public String iniciar(List<String> anel) throws Exception {
+        int porta = portaLivre();
+        String url = "http://localhost:" + porta;
+        List<String> lista = anel.isEmpty() ? List.of(url) : anel;
+        return subir(porta, "-Daluguel.particao.nos=" + String.join(",", lista), "-Daluguel.particao.eu=" + url);
+    }
+
+    // Sobe um nó fora do modo particionado, com as propriedades dadas (-Dchave=valor)
+    public String iniciarComPropriedades(String... propriedades) throws Exception {
+        return subir(portaLivre(), propriedades);
+    }
+
+    private String subir(int porta, String... propriedades) throws Exception {
+        String url = "http://localhost:" + porta;
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+        List<String> comando = new ArrayList<>(List.of(java, "-cp", classpath, "-Xmx256m", "-Daluguel.aquecimento=false"));
+        comando.addAll(List.of(propriedades));
+        comando.add(App.class.getName());
+        ProcessBuilder processo = new ProcessBuilder(comando);
+        processo.environment().put("PORT", String.valueOf(porta));
+        processo.redirectErrorStream(true);
+        processo.redirectOutput(new File("target", "cluster-" + porta + ".log"));
+        new File("target").mkdirs();
+        Process iniciado = processo.start();
+
+        // Só entra em getNos() (e nos sorteios de qualquerNo()) depois de pronto
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (System.nanoTime() < limite) {
+            try {
+                if (enviar(url, "GET", "/ready", null).statusCode() == 200) {
+                    nos.put(url, iniciado);
+                    return url;
+                }
+            } catch (IOException e) {
+                // ainda subindo
+            }
+            Thread.sleep(100);
+        }
+        iniciado.destroyForcibly();
+        throw new IllegalStateException("Nó " + url + " não ficou pronto (ver target/cluster-" + porta + ".log).");
+    }
+
+    public List<String> getNos() {
+        return new ArrayList<>(nos.keySet());
+    }
+
+    // PUT /particao num nó (que repassa aos outros) e espera todos esquecerem o anel anterior
+    public void rebalancear(List<String> anel, Duration prazo) throws Exception {
+        String corpo = mapper.writeValueAsString(Map.of("nos", anel));
+        HttpResponse<String> resposta = enviar(anel.get(0), "PUT", "/particao", corpo);
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException("PUT /particao: " + resposta.statusCode() + " " + resposta.body());
+        }
+        long limite = System.nanoTime() + prazo.toNanos();
+        while (!concluido()) {
+            if (System.nanoTime() > limite) {
+                throw new IllegalStateException("Rebalanceamento não terminou em " + prazo + ": " + estados());
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private boolean concluido() throws Exception {
+        for (JsonNode estado : estados().values()) {
+            if (!estado.get("anteriores").isNull() || estado.get("migrando").asBoolean()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // GET /particao de cada nó
+    public Map<String, JsonNode> estados() throws Exception {
+        Map<String, JsonNode> estados = new TreeMap<>();
+        for (String no : nos.keySet()) {
+            estados.put(no, mapper.readTree(enviar(no, "GET", "/particao", null).body()));
+        }
+        return estados;
+    }
+
+    public HttpResponse<String> enviar(String no, String metodo, String caminho, String corpo) throws IOException, InterruptedException {
+        return enviar(no, metodo, caminho, corpo, new String[0]);
+    }
+
+    // cabecalhos: pares nome, valor
+    public HttpResponse<String> enviar(String no, String metodo, String caminho, String corpo, String... cabecalhos)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(no + caminho)).timeout(Duration.ofSeconds(30));
+        if (cabecalhos.length > 0) {
+            requisicao.headers(cabecalhos);
+        }
+        if (corpo != null) {
+            requisicao.header("Content-Type", "application/json");
+        }
+        requisicao.method(metodo, corpo == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(corpo));
+        return cliente.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    public String qualquerNo() {
+        List<String> lista = getNos();
+        return lista.get(ThreadLocalRandom.current().nextInt(lista.size()));
+    }
+
+    /**
+     * Cadastra, ativa e dá cartão a um ciclista pelo nó 'no' e devolve o id. O cadastro fica
+     * no nó que o recebe (o id é sorteado dentro dos arcos dele), por isso a busca por CPF
+     * vai ao mesmo nó.
+     */
+    public String cadastrar(String no, int n) throws Exception {
+        String cpf = String.format("%011d", n);
+        String corpo = "{\"email\":\"cluster" + n + "@exemplo.com\",\"nacionalidade\":\"brasileira\",\"cpf\":\"" + cpf + "\","
+                + "\"nome\":\"Ciclista Cluster\",\"senha\":\"Senha1\",\"confirmaSenha\":\"Senha1\",\"nascimento\":\"1990-01-01\"}";
+        exigir(enviar(no, "POST", "/ciclista", corpo), 201);
+        String id = mapper.readTree(exigir(enviar(no, "GET", "/ciclista?cpf=" + cpf, null), 200)).get("id").asText();
+        exigir(enviar(qualquerNo(), "POST", "/ciclista/" + id + "/ativar", null), 200);
+        long validade = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365);
+        exigir(enviar(qualquerNo(), "PUT", "/cartaoDeCredito/" + id,
+                "{\"nomeTitular\":\"Ciclista Cluster\",\"numero\":\"1234567890123456\",\"validade\":" + validade + ",\"cvv\":\"123\"}"), 200);
+        return id;
+    }
+
+    /**
+     * Aluga uma bicicleta para o ciclista e devolve o id dela. Estações são de cada nó, então
+     * a tranca vem de uma estação cadastrada no nó que atende o ciclista (cabeçalho
+     * {@link Encaminhador#CABECALHO_NO}); o POST /aluguel vai a qualquer nó.
+     */
+    public String alugar(String ciclistaId) throws Exception {
+        HttpResponse<String> ciclista = enviar(qualquerNo(), "GET", "/ciclista/" + ciclistaId, null);
+        String dono = ciclista.headers().firstValue(Encaminhador.CABECALHO_NO).orElseThrow();
+        JsonNode estacao = mapper.readTree(exigir(enviar(dono, "POST", "/estacao", "{\"trancas\":2,\"bicicletas\":1}"), 201));
+        String tranca = estacao.get("trancas").get(0).get("id").asText();
+        JsonNode aluguel = mapper.readTree(exigir(enviar(qualquerNo(), "POST", "/aluguel",
+                "{\"ciclista\":\"" + ciclistaId + "\",\"trancaInicio\":\"" + tranca + "\"}"), 200));
+        return aluguel.get("bicicletaId").asText();
+    }
+
+    // Devolve a bicicleta numa tranca livre de uma estação nova no nó que atende o ciclista
+    public void devolver(String ciclistaId, String bicicletaId) throws Exception {
+        HttpResponse<String> ciclista = enviar(qualquerNo(), "GET", "/ciclista/" + ciclistaId, null);
+        String dono = ciclista.headers().firstValue(Encaminhador.CABECALHO_NO).orElseThrow();
+        JsonNode estacao = mapper.readTree(exigir(enviar(dono, "POST", "/estacao", "{\"trancas\":1,\"bicicletas\":0}"), 201));
+        String tranca = estacao.get("trancas").get(0).get("id").asText();
+        exigir(enviar(qualquerNo(), "POST", "/devolucao",
+                "{\"idTranca\":\"" + tranca + "\",\"idBicicleta\":\"" + bicicletaId + "\"}"), 200);
+    }
+
+    public static String exigir(HttpResponse<String> resposta, int status) {
+        if (resposta.statusCode() != status) {
+            throw new IllegalStateException(resposta.request().method() + " " + resposta.uri() + " -> "
+                    + resposta.statusCode() + " " + resposta.body());
+        }
+        return resposta.body();
+    }
+
+    /**
+     * Leituras contínuas de ciclistas sorteados em nós sorteados, em 'threads' threads, até
+     * {@link Leitura#parar()}; conta as respostas por status (-1 = erro de conexão).
+     */
+    public Leitura ler(List<String> ids, int threads) {
+        return new Leitura(null, ids.stream().map(id -> "/ciclista/" + id).toList(), threads);
+    }
+
+    // Como acima, com GETs de 'caminhos' sorteados só entre 'nos'. Redirecionamentos não são seguidos
+    public Leitura ler(List<String> nos, List<String> caminhos, int threads) {
+        return new Leitura(List.copyOf(nos), caminhos, threads);
+    }
+
+    public final class Leitura {
+        private final AtomicBoolean parar = new AtomicBoolean();
+        private final Map<Integer, AtomicLong> status = new ConcurrentHashMap<>();
+        private final List<Thread> leitores = new ArrayList<>();
+        private final long inicio = System.nanoTime();
+        private long duracao;
+
+        // nos == null: qualquer nó do cluster, inclusive os que entrarem durante a leitura
+        private Leitura(List<String> nos, List<String> caminhos, int threads) {
+            for (int t = 0; t < threads; t++) {
+                Thread leitor = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (!parar.get()) {
+                        String no = nos == null ? qualquerNo() : nos.get(random.nextInt(nos.size()));
+                        int codigo;
+                        try {
+                            codigo = enviar(no, "GET", caminhos.get(random.nextInt(caminhos.size())), null).statusCode();
+                        } catch (IOException e) {
+                            codigo = -1;
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        status.computeIfAbsent(codigo, c -> new AtomicLong()).incrementAndGet();
+                    }
+                }, "leitor-" + t);
+                leitor.setDaemon(true);
+                leitor.start();
+                leitores.add(leitor);
+            }
+        }
+
+        public Map<Integer, Long> parar() throws InterruptedException {
+            parar.set(true);
+            for (Thread leitor : leitores) {
+                leitor.join();
+            }
+            duracao = System.nanoTime() - inicio;
+            Map<Integer, Long> contagem = new TreeMap<>();
+            status.forEach((codigo, n) -> contagem.put(codigo, n.get()));
+            return contagem;
+        }
+
+        // Respostas até agora, de qualquer status
+        public long total() {
+            return status.values().stream().mapToLong(AtomicLong::get).sum();
+        }
+
+        public double porSegundo() {
+            return total() / (duracao / 1e9);
+        }
+    }
+
+    public static int portaLivre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iniciais = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int finais = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int quantidade = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        int segundos = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+
+        try (ClusterLocal cluster = new ClusterLocal()) {
+            List<String> anel = new ArrayList<>();
+            anel.add(cluster.iniciar(List.of()));
+            for (int i = 1; i < iniciais; i++) {
+                anel.add(cluster.iniciar(anel));
+            }
+            cluster.rebalancear(anel, Duration.ofMinutes(1));
+
+            // Cadastro espalhado; um em cada quatro fica alugando
+            List<String> ids = new ArrayList<>();
+            Map<String, String> bicicletas = new LinkedHashMap<>();
+            for (int n = 1; n <= quantidade; n++) {
+                String id = cluster.cadastrar(anel.get(n % anel.size()), n);
+                ids.add(id);
+                if (n % 4 == 0) {
+                    bicicletas.put(id, cluster.alugar(id));
+                }
+            }
+            System.out.printf("%d nós, %d ciclistas (%d alugando)%n", anel.size(), ids.size(), bicicletas.size());
+            relatarNos(cluster);
+
+            Leitura antes = cluster.ler(ids, threads);
+            Thread.sleep(segundos * 1000L);
+            System.out.printf("Leituras com %d nós: %s, %.0f req/s%n", anel.size(), antes.parar(), antes.porSegundo());
+
+            // Cresce o cluster sob leitura contínua
+            Leitura durante = cluster.ler(ids, threads);
+            long inicio = System.nanoTime();
+            List<String> novo = new ArrayList<>(anel);
+            for (int i = iniciais; i < finais; i++) {
+                novo.add(cluster.iniciar(anel));
+            }
+            cluster.rebalancear(novo, Duration.ofMinutes(5));
+            long rebalanceamento = System.nanoTime() - inicio;
+            System.out.printf("Rebalanceamento %d -> %d nós em %d ms; leituras durante: %s, %.0f req/s%n",
+                    anel.size(), novo.size(), TimeUnit.NANOSECONDS.toMillis(rebalanceamento),
+                    durante.parar(), durante.porSegundo());
+            relatarNos(cluster);
+
+            // Nada perdido: cada ciclista no dono pelo anel novo, com cartão e aluguel
+            AnelHash esperado = new AnelHash(novo, Integer.getInteger("aluguel.particao.virtuais", 128));
+            int erradas = 0;
+            for (String id : ids) {
+                HttpResponse<String> resposta = cluster.enviar(cluster.qualquerNo(), "GET", "/ciclista/" + id, null);
+                String dono = resposta.headers().firstValue(Encaminhador.CABECALHO_NO).orElse("?");
+                boolean cartao = cluster.enviar(cluster.qualquerNo(), "GET", "/cartaoDeCredito/" + id, null).statusCode() == 200;
+                String alugada = mapper.readTree(cluster.enviar(cluster.qualquerNo(), "GET",
+                        "/ciclista/" + id + "/bicicletaAlugada", null).body()).path("id").asText(null);
+                if (resposta.statusCode() != 200 || !dono.equals(esperado.dono(UUID.fromString(id)))
+                        || !cartao || !Objects.equals(alugada, bicicletas.get(id))) {
+                    erradas++;
+                }
+            }
+            System.out.printf("Conferência: %d de %d ciclistas fora do lugar ou incompletos%n", erradas, ids.size());
+
+            Leitura depois = cluster.ler(ids, threads);
+            Thread.sleep(segundos * 1000L);
+            System.out.printf("Leituras com %d nós: %s, %.0f req/s%n", novo.size(), depois.parar(), depois.porSegundo());
+        }
+        System.exit(0);
+    }
+
+    private static void relatarNos(ClusterLocal cluster) throws Exception {
+        cluster.estados().forEach((no, estado) -> System.out.printf("  %s: %d ciclistas, %d transferidos, %d recebidos, %d encaminhadas%n",
+                no, estado.get("ciclistasLocais").asInt(), estado.get("transferidas").asLong(),
+                estado.get("recebidas").asLong(), estado.get("encaminhadas").asLong()));
+    }
+
+    @Override
+    public void close() {
+        for (Process processo : nos.values()) {
+            processo.destroy();
+        }
+        for (Process processo : nos.values()) {
+            try {
+                if (!processo.waitFor(10, TimeUnit.SECONDS)) {
+                    processo.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                processo.destroyForcibly();
+            }
+        }
+        nos.clear();
+    }
+}
@@ -0,0 +1,96 @@
+package com.mycompany.app.bench;
+
+import com.mycompany.app.models.Estacao;
+import com.mycompany.app.models.Tranca;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Muitos ciclistas retirando e devolvendo bicicletas na mesma estação: o inventário sem lock
+ * ({@link Estacao#retirarQualquer()} / {@link Estacao#travarEmQualquer(UUID)}) comparado com
+ * as mesmas operações sob um lock por estação.
+ *
+ * Uso: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.mycompany.app.bench.EstacaoContencaoBenchmark -Dexec.args="8 20 16"
+ *      (threads, trancas, bicicletas)
+ */
+public class EstacaoContencaoBenchmark {
+
+    private static final long DURACAO_NS = 2_000_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int trancas = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int bicicletas = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+        for (int rodada = 0; rodada < 3; rodada++) {
+            Estacao semLock = Estacao.cadastrar(trancas, bicicletas);
+            double[] r1 = medir(threads, semLock, false);
+            Estacao comLock = Estacao.cadastrar(trancas, bicicletas);
+            double[] r2 = medir(threads, comLock, true);
+            System.out.printf("sem lock %,.0f ciclos/s (%.1f%% sem bicicleta)   lock por estação %,.0f ciclos/s (%.1f%% sem bicicleta)   [disponíveis %d/%d]%n",
+                    r1[0], r1[1], r2[0], r2[1], semLock.getBicicletasDisponiveis(), comLock.getBicicletasDisponiveis());
+            Estacao.restaurar();
+        }
+    }
+
+    // Cada ciclo é retirar + devolver; devolve {ciclos/s, % de tentativas sem bicicleta}
+    private static double[] medir(int threads, Estacao estacao, boolean comLock) throws InterruptedException {
+        LongAdder ciclos = new LongAdder();
+        LongAdder vazias = new LongAdder();
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> ciclistas = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long fim = System.nanoTime() + DURACAO_NS;
+                long feitos = 0;
+                long semBicicleta = 0;
+                while (System.nanoTime() < fim) {
+                    UUID bicicleta;
+                    if (comLock) {
+                        synchronized (estacao) {
+                            bicicleta = estacao.retirarQualquer();
+                        }
+                    } else {
+                        bicicleta = estacao.retirarQualquer();
+                    }
+                    if (bicicleta == null) {
+                        semBicicleta++;
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    Tranca tranca;
+                    do {
+                        if (comLock) {
+                            synchronized (estacao) {
+                                tranca = estacao.travarEmQualquer(bicicleta);
+                            }
+                        } else {
+                            tranca = estacao.travarEmQualquer(bicicleta);
+                        }
+                    } while (tranca == null);
+                    feitos++;
+                }
+                ciclos.add(feitos);
+                vazias.add(semBicicleta);
+            });
+            thread.start();
+            ciclistas.add(thread);
+        }
+        largada.countDown();
+        for (Thread thread : ciclistas) {
+            thread.join();
+        }
+        double tentativas = ciclos.sum() + vazias.sum();
+        return new double[]{ciclos.sum() / (DURACAO_NS / 1e9), tentativas == 0 ? 0 : 100 * vazias.sum() / tentativas};
+    }
+}
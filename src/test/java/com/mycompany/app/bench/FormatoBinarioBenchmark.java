@@ -0,0 +1,94 @@
+package com.mycompany.app.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.handlers.Formatos;
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.models.CartaoCredito;
+import com.mycompany.app.models.Ciclista;
+import com.mycompany.app.models.Estacao;
+import io.javalin.json.JavalinJackson;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tamanho do corpo e tempo de codificar/decodificar os DTOs que os outros serviços consomem
+ * (Ciclista, Aluguel, CartaoCredito e a listagem de ciclistas) em JSON, CBOR e Smile, com os
+ * mesmos mapeadores das respostas. A decodificação é para Map, como um consumidor genérico.
+ *
+ * Uso: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.mycompany.app.bench.FormatoBinarioBenchmark -Dexec.args="200000"
+ */
+public class FormatoBinarioBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int operacoes = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        Ciclista ciclista = new Ciclista("ana@bench.com", "brasileira", "52998224725", null, null,
+                "Brasil", new Date(0), "Ana Benchmark da Silva", "Senha1", "https://fotos.exemplo/ana.jpg");
+        ciclista.alterarStatusCiclista(true);
+        CartaoCredito cartao = new CartaoCredito(ciclista.getId(), "Ana Benchmark da Silva", "1234567890123456",
+                new Date(System.currentTimeMillis() + 365L * 86_400_000L), "123");
+        Estacao estacao = Estacao.cadastrar(2, 1);
+        Aluguel aluguel = Aluguel.realizarAluguel(ciclista.getId(), estacao.getTrancas().get(0).getId());
+        List<Ciclista> listagem = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            listagem.add(new Ciclista("ciclista" + i + "@bench.com", "estrangeira", null, "P" + (100000 + i),
+                    new Date(System.currentTimeMillis() + 86_400_000L), "Portugal", new Date(0),
+                    "Ciclista Benchmark " + i, "Senha1", null));
+        }
+
+        Map<String, ObjectMapper> formatos = Map.of(
+                "JSON", JavalinJackson.defaultMapper(),
+                "CBOR", Formatos.mapper(Formatos.CBOR),
+                "Smile", Formatos.mapper(Formatos.SMILE));
+        Map<String, Object> dtos = Map.of(
+                "Ciclista", ciclista,
+                "Aluguel", aluguel,
+                "CartaoCredito", cartao,
+                "100 ciclistas", listagem);
+
+        System.out.printf("%-14s %-6s %8s %12s %12s%n", "DTO", "fmt", "bytes", "encode ns", "decode ns");
+        for (String dto : List.of("Ciclista", "Aluguel", "CartaoCredito", "100 ciclistas")) {
+            Object valor = dtos.get(dto);
+            int n = dto.startsWith("100") ? operacoes / 100 : operacoes;
+            long bytesJson = 0;
+            for (String formato : List.of("JSON", "CBOR", "Smile")) {
+                ObjectMapper mapper = formatos.get(formato);
+                byte[] corpo = mapper.writeValueAsBytes(valor);
+                if (formato.equals("JSON")) {
+                    bytesJson = corpo.length;
+                }
+                Class<?> tipo = valor instanceof List ? List.class : Map.class;
+                double codificar = medir(n, () -> mapper.writeValueAsBytes(valor).length);
+                double decodificar = medir(n, () -> mapper.readValue(corpo, tipo).hashCode());
+                System.out.printf("%-14s %-6s %8d %12.0f %12.0f   (%3.0f%% do JSON)%n",
+                        dto, formato, corpo.length, codificar, decodificar, 100.0 * corpo.length / bytesJson);
+            }
+        }
+        System.exit(0);
+    }
+
+    private interface Operacao {
+        int executar() throws Exception;
+    }
+
+    // Melhor de 5 rodadas (as primeiras servem de aquecimento), em ns por operação
+    private static double medir(int n, Operacao operacao) throws Exception {
+        long melhor = Long.MAX_VALUE;
+        int sumidouro = 0;
+        for (int rodada = 0; rodada < 5; rodada++) {
+            long inicio = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                sumidouro += operacao.executar();
+            }
+            melhor = Math.min(melhor, System.nanoTime() - inicio);
+        }
+        if (sumidouro == 42) {
+            System.out.print("");
+        }
+        return (double) melhor / n;
+    }
+}
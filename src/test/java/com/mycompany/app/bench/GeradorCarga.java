@@ -0,0 +1,343 @@
+package com.mycompany.app.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.Aquecimento;
+import com.mycompany.app.App;
+import com.mycompany.app.Prontidao;
+import io.javalin.Javalin;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga de modelo aberto contra o app real por HTTP local.
+ *
+ * As chegadas seguem um processo de Poisson (intervalos exponenciais sorteados com semente
+ * fixa), independentes das respostas: se o servidor atrasa, as requisições se acumulam em vez
+ * de o gerador desacelerar. A latência conta a partir do instante planejado da chegada, então
+ * inclui a espera na fila do próprio gerador (sem omissão coordenada).
+ *
+ * Cada chegada sorteia uma operação do mix de uma estação: cadastro, ativação, aluguel,
+ * devolução, consulta de permiteAluguel e atualização de cartão. As operações andam sobre uma
+ * população de ciclistas que o próprio gerador cria; sem ciclista no estado certo a operação
+ * vira um cadastro. O mix pode ser trocado com {@code -Dcarga.mix=cadastro:10,aluguel:20,...}.
+ *
+ * Sem URL sobe o app no próprio processo (com aquecimento) numa porta livre.
+ *
+ * Uso: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.mycompany.app.bench.GeradorCarga
+ *        -Dexec.args="<chegadas/s> <segundos> <concorrencia> [url]"
+ */
+public class GeradorCarga {
+
+    enum Operacao {
+        CADASTRO(10), ATIVACAO(8), ALUGUEL(20), DEVOLUCAO(18), PERMITE_ALUGUEL(34), CARTAO(10);
+
+        final int pesoPadrao;
+
+        Operacao(int pesoPadrao) {
+            this.pesoPadrao = pesoPadrao;
+        }
+    }
+
+    private record Ciclista(String id, String bicicleta) {
+    }
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final long MAIOR_LATENCIA = TimeUnit.MINUTES.toNanos(1);
+
+    private final String base;
+    private final HttpClient cliente;
+    private final Map<String, Histogram> latencias = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> erros = new ConcurrentHashMap<>();
+    private final AtomicInteger sequencia = new AtomicInteger();
+
+    // População: cada ciclista está em no máximo uma fila (ou em uso por uma operação)
+    private final ConcurrentLinkedQueue<Ciclista> inativos = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Ciclista> livres = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Ciclista> alugando = new ConcurrentLinkedQueue<>();
+    // Trancas das estações cadastradas no início, separadas por estado
+    private final ConcurrentLinkedQueue<String> trancasComBicicleta = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> trancasLivres = new ConcurrentLinkedQueue<>();
+
+    GeradorCarga(String base, int concorrencia) {
+        this.base = base;
+        this.cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(Math.max(2, concorrencia / 4)))
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        double taxa = args.length > 0 ? Double.parseDouble(args[0]) : 200;
+        int segundos = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int concorrencia = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        String url = args.length > 3 ? args[3] : null;
+
+        Javalin app = null;
+        if (url == null) {
+            Prontidao prontidao = new Prontidao();
+            app = App.criar(prontidao).start(0);
+            new Aquecimento(app.port(), prontidao.getToken()).executar();
+            prontidao.marcarPronto();
+            url = "http://localhost:" + app.port();
+        }
+
+        GeradorCarga gerador = new GeradorCarga(url, concorrencia);
+        gerador.prepararEstacoes(Integer.getInteger("carga.estacoes", 20));
+        Operacao[] mix = mix(System.getProperty("carga.mix"));
+        long duracao = gerador.executar(taxa, segundos, concorrencia, mix, Long.getLong("carga.semente", 42));
+        gerador.relatar(duracao, taxa);
+
+        if (app != null) {
+            app.stop();
+        }
+        System.exit(0);
+    }
+
+    // Estações de 50 trancas, 40 com bicicleta
+    void prepararEstacoes(int quantidade) throws Exception {
+        for (int i = 0; i < quantidade; i++) {
+            HttpResponse<String> resposta = cliente.send(HttpRequest.newBuilder(URI.create(base + "/estacao"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"trancas\":50,\"bicicletas\":40}")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (resposta.statusCode() != 201) {
+                throw new IllegalStateException("Cadastro de estação falhou: " + resposta.statusCode());
+            }
+            for (JsonNode tranca : mapper.readTree(resposta.body()).get("trancas")) {
+                (tranca.get("bicicleta").isNull() ? trancasLivres : trancasComBicicleta).add(tranca.get("id").asText());
+            }
+        }
+    }
+
+    // Tabela com cada operação repetida conforme o peso; sortear uma posição segue o mix
+    static Operacao[] mix(String configuracao) {
+        Map<Operacao, Integer> pesos = new TreeMap<>();
+        for (Operacao operacao : Operacao.values()) {
+            pesos.put(operacao, configuracao == null ? operacao.pesoPadrao : 0);
+        }
+        if (configuracao != null) {
+            for (String item : configuracao.split(",")) {
+                String[] partes = item.trim().split(":");
+                pesos.put(Operacao.valueOf(partes[0].trim().toUpperCase()), Integer.parseInt(partes[1].trim()));
+            }
+        }
+        int total = pesos.values().stream().mapToInt(Integer::intValue).sum();
+        if (total <= 0) {
+            throw new IllegalArgumentException("Mix sem nenhuma operação: " + configuracao);
+        }
+        Operacao[] tabela = new Operacao[total];
+        int i = 0;
+        for (Map.Entry<Operacao, Integer> peso : pesos.entrySet()) {
+            for (int j = 0; j < peso.getValue(); j++) {
+                tabela[i++] = peso.getKey();
+            }
+        }
+        return tabela;
+    }
+
+    // Devolve a duração real da fase de chegadas + espera das pendentes, em nanos
+    long executar(double taxa, int segundos, int concorrencia, Operacao[] mix, long semente) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(concorrencia);
+        SplittableRandom random = new SplittableRandom(semente);
+
+        long inicio = System.nanoTime();
+        long fim = inicio + TimeUnit.SECONDS.toNanos(segundos);
+        long planejado = inicio;
+        while (true) {
+            planejado += (long) (-Math.log(1 - random.nextDouble()) / taxa * 1e9);
+            if (planejado >= fim) {
+                break;
+            }
+            LockSupport.parkNanos(planejado - System.nanoTime());
+            Operacao operacao = mix[random.nextInt(mix.length)];
+            long chegada = planejado;
+            executor.execute(() -> executar(operacao, chegada));
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.MINUTES);
+        return System.nanoTime() - inicio;
+    }
+
+    private void executar(Operacao operacao, long chegada) {
+        try {
+            switch (operacao) {
+                case ATIVACAO -> ativar(chegada);
+                case ALUGUEL -> alugar(chegada);
+                case DEVOLUCAO -> devolver(chegada);
+                case PERMITE_ALUGUEL -> consultarPermissao(chegada);
+                case CARTAO -> atualizarCartao(chegada);
+                default -> cadastrar(chegada);
+            }
+        } catch (Exception e) {
+            erros.computeIfAbsent(e.getClass().getSimpleName(), k -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private void cadastrar(long chegada) throws Exception {
+        int n = sequencia.incrementAndGet();
+        String cpf = String.format("%011d", n);
+        String corpo = "{\"email\":\"carga" + n + "@exemplo.com\",\"nacionalidade\":\"brasileira\",\"cpf\":\"" + cpf + "\","
+                + "\"nome\":\"Ciclista Carga\",\"senha\":\"Senha1\",\"confirmaSenha\":\"Senha1\",\"nascimento\":\"1990-01-01\"}";
+        if (enviar("POST /ciclista", "POST", "/ciclista", corpo, chegada, 201) == null) {
+            return;
+        }
+        JsonNode ciclista = json(enviar("GET /ciclista?cpf", "GET", "/ciclista?cpf=" + cpf, null, System.nanoTime(), 200));
+        if (ciclista != null) {
+            inativos.add(new Ciclista(ciclista.get("id").asText(), null));
+        }
+    }
+
+    private void ativar(long chegada) throws Exception {
+        Ciclista ciclista = inativos.poll();
+        if (ciclista == null) {
+            cadastrar(chegada);
+            return;
+        }
+        if (enviar("POST /ciclista/{id}/ativar", "POST", "/ciclista/" + ciclista.id() + "/ativar", null, chegada, 200) != null) {
+            livres.add(ciclista);
+        } else {
+            inativos.add(ciclista);
+        }
+    }
+
+    private void alugar(long chegada) throws Exception {
+        Ciclista ciclista = livres.poll();
+        if (ciclista == null) {
+            ativar(chegada);
+            return;
+        }
+        String tranca = trancasComBicicleta.poll();
+        if (tranca == null) {
+            livres.add(ciclista);
+            devolver(chegada);
+            return;
+        }
+        JsonNode aluguel = json(enviar("POST /aluguel", "POST", "/aluguel",
+                "{\"ciclista\":\"" + ciclista.id() + "\",\"trancaInicio\":\"" + tranca + "\"}", chegada, 200));
+        if (aluguel != null) {
+            alugando.add(new Ciclista(ciclista.id(), aluguel.get("bicicletaId").asText()));
+            trancasLivres.add(tranca);
+        } else {
+            livres.add(ciclista);
+            trancasComBicicleta.add(tranca);
+        }
+    }
+
+    private void devolver(long chegada) throws Exception {
+        Ciclista ciclista = alugando.poll();
+        if (ciclista == null) {
+            alugar(chegada);
+            return;
+        }
+        String tranca = trancasLivres.poll();
+        if (tranca == null) {
+            alugando.add(ciclista);
+            consultarPermissao(chegada);
+            return;
+        }
+        String corpo = "{\"idTranca\":\"" + tranca + "\",\"idBicicleta\":\"" + ciclista.bicicleta() + "\"}";
+        if (enviar("POST /devolucao", "POST", "/devolucao", corpo, chegada, 200) != null) {
+            livres.add(new Ciclista(ciclista.id(), null));
+            trancasComBicicleta.add(tranca);
+        } else {
+            alugando.add(ciclista);
+            trancasLivres.add(tranca);
+        }
+    }
+
+    // Estação consultando se o ciclista pode alugar (ativo ou alugando)
+    private void consultarPermissao(long chegada) throws Exception {
+        ConcurrentLinkedQueue<Ciclista> fila = ThreadLocalRandom.current().nextBoolean() ? livres : alugando;
+        Ciclista ciclista = fila.poll();
+        if (ciclista == null) {
+            cadastrar(chegada);
+            return;
+        }
+        try {
+            enviar("GET /ciclista/{id}/permiteAluguel", "GET", "/ciclista/" + ciclista.id() + "/permiteAluguel", null, chegada, 200);
+        } finally {
+            fila.add(ciclista);
+        }
+    }
+
+    private void atualizarCartao(long chegada) throws Exception {
+        Ciclista ciclista = livres.poll();
+        if (ciclista == null) {
+            cadastrar(chegada);
+            return;
+        }
+        long validade = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365);
+        String corpo = "{\"nomeTitular\":\"Ciclista Carga\",\"numero\":\"1234567890123456\",\"validade\":" + validade + ",\"cvv\":\"123\"}";
+        try {
+            enviar("PUT /cartaoDeCredito/{id}", "PUT", "/cartaoDeCredito/" + ciclista.id(), corpo, chegada, 200);
+        } finally {
+            livres.add(ciclista);
+        }
+    }
+
+    // Corpo da resposta, ou null se o status não for o esperado (contado como erro da rota)
+    private String enviar(String rota, String metodo, String caminho, String corpo, long desde, int esperado) throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(base + caminho)).timeout(Duration.ofSeconds(30));
+        if (corpo != null) {
+            requisicao.header("Content-Type", "application/json");
+        }
+        requisicao.method(metodo, corpo == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(corpo));
+        HttpResponse<String> resposta = cliente.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+
+        latencias.computeIfAbsent(rota, r -> new ConcurrentHistogram(MAIOR_LATENCIA, 3))
+                .recordValue(Math.min(MAIOR_LATENCIA, System.nanoTime() - desde));
+        if (resposta.statusCode() != esperado) {
+            erros.computeIfAbsent(rota + " -> " + resposta.statusCode(), k -> new AtomicLong()).incrementAndGet();
+            return null;
+        }
+        return resposta.body();
+    }
+
+    private static JsonNode json(String corpo) throws Exception {
+        return corpo == null ? null : mapper.readTree(corpo);
+    }
+
+    void relatar(long duracaoNanos, double taxa) {
+        double segundos = duracaoNanos / 1e9;
+        Histogram total = new Histogram(MAIOR_LATENCIA, 3);
+        System.out.printf("Chegadas: %.0f/s planejadas, %.1f s%n", taxa, segundos);
+        System.out.printf("%-34s %8s %9s %9s %9s %9s %9s %9s%n", "rota", "n", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        new TreeMap<>(latencias).forEach((rota, histograma) -> {
+            total.add(histograma);
+            linha(rota, histograma, segundos);
+        });
+        linha("total", total, segundos);
+        new TreeMap<>(erros).forEach((erro, quantidade) -> System.out.printf("erro %-40s %d%n", erro, quantidade.get()));
+        System.out.printf("População final: %d inativos, %d livres, %d alugando%n", inativos.size(), livres.size(), alugando.size());
+    }
+
+    private static void linha(String rota, Histogram histograma, double segundos) {
+        System.out.printf("%-34s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", rota, histograma.getTotalCount(),
+                histograma.getTotalCount() / segundos,
+                histograma.getValueAtPercentile(50) / 1e6, histograma.getValueAtPercentile(90) / 1e6,
+                histograma.getValueAtPercentile(99) / 1e6, histograma.getValueAtPercentile(99.9) / 1e6,
+                histograma.getMaxValue() / 1e6);
+    }
+}
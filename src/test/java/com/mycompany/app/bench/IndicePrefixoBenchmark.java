@@ -0,0 +1,75 @@
+package com.mycompany.app.bench;
+
+import com.mycompany.app.util.IndicePrefixo;
+import com.mycompany.app.util.MapaUUID;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Latência da busca por prefixo no {@link IndicePrefixo} comparada com a varredura linear
+ * que as listagens faziam (filtrar todos os registros por nome).
+ *
+ * Uso: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.mycompany.app.bench.IndicePrefixoBenchmark -Dexec.args="1000000"
+ */
+public class IndicePrefixoBenchmark {
+
+    private static final String[] PRENOMES = {"Ana", "Bruno", "Carla", "Diego", "Elisa", "Fábio", "Gabriela",
+            "Heitor", "Isabela", "João", "Larissa", "Marcos", "Natália", "Otávio", "Paula", "Rafael"};
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Lima", "Pereira",
+            "Costa", "Rodrigues", "Almeida", "Nascimento", "Araújo", "Ferreira", "Gomes", "Ribeiro"};
+
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int buscas = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        MapaUUID<String> nomes = new MapaUUID<>();
+        IndicePrefixo indice = new IndicePrefixo();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < quantidade; i++) {
+            String nome = PRENOMES[random.nextInt(PRENOMES.length)] + " "
+                    + SOBRENOMES[random.nextInt(SOBRENOMES.length)] + " "
+                    + SOBRENOMES[random.nextInt(SOBRENOMES.length)] + " " + i;
+            UUID id = UUID.randomUUID();
+            nomes.put(id, nome);
+            indice.indexar(id, nome);
+        }
+        System.out.printf("%d nomes, %d entradas no índice%n", quantidade, indice.tamanho());
+
+        String[] prefixos = new String[buscas];
+        for (int i = 0; i < buscas; i++) {
+            String base = random.nextBoolean()
+                    ? PRENOMES[random.nextInt(PRENOMES.length)] + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)]
+                    : SOBRENOMES[random.nextInt(SOBRENOMES.length)] + " " + random.nextInt(quantidade);
+            prefixos[i] = base.substring(0, 3 + random.nextInt(base.length() - 2));
+        }
+
+        // Aquecimento do JIT
+        long total = buscarTodos(indice, nomes, prefixos);
+        long inicio = System.nanoTime();
+        total += buscarTodos(indice, nomes, prefixos);
+        long duracao = System.nanoTime() - inicio;
+        System.out.printf("índice: %.1f us/busca (página de 20)%n", duracao / 1000.0 / buscas);
+
+        int varreduras = Math.max(1, Math.min(buscas, 20));
+        inicio = System.nanoTime();
+        for (int i = 0; i < varreduras; i++) {
+            String prefixo = IndicePrefixo.normalizar(prefixos[i]);
+            total += nomes.values().stream().filter(n -> IndicePrefixo.corresponde(prefixo, n)).limit(20).count();
+        }
+        duracao = System.nanoTime() - inicio;
+        System.out.printf("varredura: %.1f us/busca%n", duracao / 1000.0 / varreduras);
+        System.out.println("(checksum " + total + ")");
+    }
+
+    private static long buscarTodos(IndicePrefixo indice, MapaUUID<String> nomes, String[] prefixos) {
+        long total = 0;
+        for (String prefixo : prefixos) {
+            List<String> pagina = indice.buscar(prefixo, 0, 20, nomes::get, n -> new String[]{n});
+            total += pagina.size();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,92 @@
+package com.mycompany.app.bench;
+
+import com.mycompany.app.util.MapaUUID;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Compara memória por entrada e latência de busca de {@link MapaUUID} com HashMap e
+ * ConcurrentHashMap. As chaves consultadas são UUIDs novos (como os que chegam das rotas),
+ * não as mesmas instâncias inseridas.
+ *
+ * Uso: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.mycompany.app.bench.MapaUUIDBenchmark -Dexec.args="1000000"
+ */
+public class MapaUUIDBenchmark {
+
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int buscas = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+
+        long[] msbs = new long[quantidade];
+        long[] lsbs = new long[quantidade];
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < quantidade; i++) {
+            msbs[i] = random.nextLong();
+            lsbs[i] = random.nextLong();
+        }
+        Object valor = new Object();
+
+        medirMap("HashMap", new HashMap<>(), msbs, lsbs, valor, buscas);
+        medirMap("ConcurrentHashMap", new ConcurrentHashMap<>(), msbs, lsbs, valor, buscas);
+        medirMapaUUID(msbs, lsbs, valor, buscas);
+    }
+
+    private static void medirMap(String nome, Map<UUID, Object> mapa, long[] msbs, long[] lsbs, Object valor, int buscas) {
+        long antes = heapUsado();
+        for (int i = 0; i < msbs.length; i++) {
+            mapa.put(new UUID(msbs[i], lsbs[i]), valor);
+        }
+        long depois = heapUsado();
+        long ns = medirBuscas(id -> mapa.get(id), msbs, lsbs, buscas);
+        imprimir(nome, depois - antes, msbs.length, ns, buscas);
+        if (mapa.isEmpty()) throw new IllegalStateException();
+    }
+
+    private static void medirMapaUUID(long[] msbs, long[] lsbs, Object valor, int buscas) {
+        long antes = heapUsado();
+        MapaUUID<Object> mapa = new MapaUUID<>();
+        for (int i = 0; i < msbs.length; i++) {
+            mapa.put(new UUID(msbs[i], lsbs[i]), valor);
+        }
+        long depois = heapUsado();
+        long ns = medirBuscas(mapa::get, msbs, lsbs, buscas);
+        imprimir("MapaUUID", depois - antes, msbs.length, ns, buscas);
+        if (mapa.isEmpty()) throw new IllegalStateException();
+    }
+
+    private static long medirBuscas(Function<UUID, Object> get, long[] msbs, long[] lsbs, int buscas) {
+        long encontrados = 0;
+        long decorrido = 0;
+        for (int rodada = 0; rodada < 3; rodada++) { // duas rodadas de aquecimento
+            SplittableRandom random = new SplittableRandom(rodada);
+            long inicio = System.nanoTime();
+            for (int i = 0; i < buscas; i++) {
+                int k = random.nextInt(msbs.length);
+                if (get.apply(new UUID(msbs[k], lsbs[k])) != null) {
+                    encontrados++;
+                }
+            }
+            decorrido = System.nanoTime() - inicio;
+        }
+        if (encontrados != 3L * buscas) throw new IllegalStateException();
+        return decorrido;
+    }
+
+    private static void imprimir(String nome, long bytes, int entradas, long ns, int buscas) {
+        System.out.printf("%-18s %6.1f B/entrada  get=%6.1f ns%n", nome, bytes / (double) entradas, ns / (double) buscas);
+    }
+
+    private static long heapUsado() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,126 @@
+package com.mycompany.app.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.app.Aquecimento;
+import com.mycompany.app.App;
+import com.mycompany.app.Prontidao;
+import io.javalin.Javalin;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Latência do primeiro minuto depois que o serviço fica pronto, com e sem aquecimento.
+ * Cada execução precisa de uma JVM nova (o JIT é o que está sendo medido), então rode uma
+ * vez com {@code true} e outra com {@code false}.
+ *
+ * Carga: cenários de cadastro -> consulta por CPF -> ativação -> aluguel -> devolução, iniciados
+ * em taxa fixa. A latência do primeiro passo conta a partir do instante planejado, para que
+ * atrasos acumulados não sumam da medição.
+ *
+ * Uso: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.mycompany.app.bench.PrimeiroMinutoBenchmark -Dexec.args="true 60 40"
+ */
+public class PrimeiroMinutoBenchmark {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Map<String, List<Long>> latencias = new ConcurrentHashMap<>();
+
+    public static void main(String[] args) throws Exception {
+        boolean aquecer = args.length > 0 && Boolean.parseBoolean(args[0]);
+        int segundos = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int taxa = args.length > 2 ? Integer.parseInt(args[2]) : 40;
+
+        Prontidao prontidao = new Prontidao();
+        Javalin app = App.criar(prontidao).start(0);
+        if (aquecer) {
+            new Aquecimento(app.port(), prontidao.getToken()).executar();
+        }
+        prontidao.marcarPronto();
+
+        String base = "http://localhost:" + app.port();
+        HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        AtomicInteger falhas = new AtomicInteger();
+
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / taxa;
+        long inicio = System.nanoTime();
+        int total = segundos * taxa;
+        for (int i = 0; i < total; i++) {
+            long planejado = inicio + i * intervalo;
+            LockSupport.parkNanos(planejado - System.nanoTime());
+            int n = i;
+            executor.execute(() -> {
+                try {
+                    cenario(cliente, base, n, planejado);
+                } catch (Exception e) {
+                    falhas.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.MINUTES);
+        app.stop();
+
+        System.out.printf("aquecimento=%s, %d cenários em %d s, %d falhas%n", aquecer, total, segundos, falhas.get());
+        latencias.keySet().stream().sorted().forEach(rota -> relatar(rota, latencias.get(rota)));
+        List<Long> todas = new ArrayList<>();
+        latencias.values().forEach(todas::addAll);
+        relatar("todas", todas);
+    }
+
+    private static void cenario(HttpClient cliente, String base, int n, long planejado) throws Exception {
+        String cpf = String.format("%011d", n);
+        String corpo = "{\"email\":\"carga" + n + "@exemplo.com\",\"nacionalidade\":\"brasileira\",\"cpf\":\"" + cpf + "\","
+                + "\"nome\":\"Ciclista Carga\",\"senha\":\"Senha1\",\"confirmaSenha\":\"Senha1\",\"nascimento\":\"1990-01-01\"}";
+
+        enviar(cliente, "POST /ciclista", base + "/ciclista", corpo, planejado);
+        String resposta = enviar(cliente, "GET /ciclista?cpf", base + "/ciclista?cpf=" + cpf, null, System.nanoTime());
+        String id = mapper.readTree(resposta).get("id").asText();
+        enviar(cliente, "POST /ciclista/{id}/ativar", base + "/ciclista/" + id + "/ativar", "", System.nanoTime());
+        JsonNode trancas = mapper.readTree(enviar(cliente, "POST /estacao", base + "/estacao",
+                "{\"trancas\":2,\"bicicletas\":1}", System.nanoTime())).get("trancas");
+        String aluguel = enviar(cliente, "POST /aluguel", base + "/aluguel",
+                "{\"ciclista\":\"" + id + "\",\"trancaInicio\":\"" + trancas.get(0).get("id").asText() + "\"}", System.nanoTime());
+        String bicicleta = mapper.readTree(aluguel).get("bicicletaId").asText();
+        enviar(cliente, "POST /devolucao", base + "/devolucao",
+                "{\"idTranca\":\"" + trancas.get(1).get("id").asText() + "\",\"idBicicleta\":\"" + bicicleta + "\"}", System.nanoTime());
+    }
+
+    private static String enviar(HttpClient cliente, String rota, String url, String corpo, long desde) throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30));
+        requisicao = corpo == null ? requisicao.GET() : requisicao.POST(HttpRequest.BodyPublishers.ofString(corpo));
+        HttpResponse<String> resposta = cliente.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+        latencias.computeIfAbsent(rota, r -> Collections.synchronizedList(new ArrayList<>())).add(System.nanoTime() - desde);
+        if (resposta.statusCode() >= 300) {
+            throw new IllegalStateException(rota + " -> " + resposta.statusCode());
+        }
+        return resposta.body();
+    }
+
+    private static void relatar(String rota, List<Long> valores) {
+        List<Long> ordenados = new ArrayList<>(valores);
+        Collections.sort(ordenados);
+        System.out.printf("  %-28s n=%6d  p50=%7.2f ms  p99=%8.2f ms  max=%8.2f ms%n", rota, ordenados.size(),
+                percentil(ordenados, 0.50), percentil(ordenados, 0.99), ordenados.get(ordenados.size() - 1) / 1e6);
+    }
+
+    private static double percentil(List<Long> ordenados, double p) {
+        return ordenados.get((int) Math.min(ordenados.size() - 1, Math.ceil(p * ordenados.size()) - 1)) / 1e6;
+    }
+}
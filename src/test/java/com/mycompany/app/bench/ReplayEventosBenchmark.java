@@ -0,0 +1,69 @@
+package com.mycompany.app.bench;
+
+import com.mycompany.app.eventos.EventoAluguel;
+import com.mycompany.app.models.Aluguel;
+import com.mycompany.app.util.GeradorId;
+import com.mycompany.app.util.GeradoresId;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Custo do caminho de escrita (anexar com as projeções assinadas) e tempo de reconstrução
+ * das projeções de aluguel a partir do log. A reconstrução usa o pool comum do ForkJoin;
+ * compare rodando com -Djava.util.concurrent.ForkJoinPool.common.parallelism=1 e com o padrão.
+ *
+ * Uso: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.mycompany.app.bench.ReplayEventosBenchmark -Dexec.args="1000000"
+ */
+public class ReplayEventosBenchmark {
+
+    public static void main(String[] args) {
+        int alugueis = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int ciclistas = alugueis / 10;
+
+        UUID[] ids = new UUID[ciclistas];
+        UUID[] ativos = new UUID[ciclistas];
+        UUID[] bicicletas = new UUID[ciclistas];
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < ciclistas; i++) {
+            ids[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+
+        // Ids de aluguel como no app (UUIDv7, crescentes); UUID.randomUUID() aqui mediria o SecureRandom
+        GeradorId gerador = GeradoresId.atual();
+        UUID tranca = UUID.randomUUID();
+        LocalDateTime agora = LocalDateTime.now();
+        long inicio = System.nanoTime();
+        int iniciados = 0;
+        while (iniciados < alugueis) {
+            int c = random.nextInt(ciclistas);
+            if (ativos[c] != null) {
+                Aluguel.eventos().anexar(new EventoAluguel.AluguelDevolvido(ativos[c], ids[c], agora, tranca, bicicletas[c], 0.0));
+                ativos[c] = null;
+            } else {
+                ativos[c] = gerador.proximo();
+                bicicletas[c] = new UUID(random.nextLong(), random.nextLong());
+                Aluguel.eventos().anexar(new EventoAluguel.AluguelIniciado(ativos[c], ids[c], agora, tranca, bicicletas[c], 10.0));
+                iniciados++;
+            }
+        }
+        long escrita = System.nanoTime() - inicio;
+        long eventos = Aluguel.eventos().tamanho();
+        System.out.printf("%d eventos (%d aluguéis), anexar + projetar: %.0f ns/evento%n",
+                eventos, alugueis, (double) escrita / eventos);
+
+        System.out.println("paralelismo do pool comum: " + ForkJoinPool.getCommonPoolParallelism()
+                + ", processadores: " + Runtime.getRuntime().availableProcessors());
+        for (int rodada = 0; rodada < 5; rodada++) {
+            inicio = System.nanoTime();
+            Aluguel.reconstruirProjecoes();
+            long duracao = System.nanoTime() - inicio;
+            System.out.printf("reconstrução %d: %d ms (%.1f M eventos/s)%n", rodada, duracao / 1_000_000,
+                    eventos * 2 / (duracao / 1e9) / 1e6);
+        }
+        System.out.println("histórico: " + Aluguel.listarTodos().size());
+    }
+}
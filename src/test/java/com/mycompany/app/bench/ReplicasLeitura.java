@@ -0,0 +1,111 @@
+package com.mycompany.app.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vazão de leituras com réplicas: um líder ({@code aluguel.replicacao.papel=lider}) com os
+ * ciclistas cadastrados e de 1 a N réplicas, cada uma um processo {@link com.mycompany.app.App}
+ * próprio. Mede GET /ciclista/{id}, /permiteAluguel e /cartaoDeCredito sorteados, primeiro só
+ * no líder e depois espalhados pelas réplicas, com uma escrita no líder para cada ~50 leituras
+ * (troca de cartão), e relata o atraso máximo que as réplicas informaram.
+ *
+ * Cada processo é uma JVM inteira: a escala só aparece com núcleos livres para as réplicas.
+ *
+ * Uso: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.mycompany.app.bench.ReplicasLeitura
+ *        -Dexec.args="<réplicas> <ciclistas> <segundos por medida> <threads>"
+ */
+public class ReplicasLeitura {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final int LEITURAS_POR_ESCRITA = 50;
+
+    public static void main(String[] args) throws Exception {
+        int replicas = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int quantidade = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+
+        try (ClusterLocal cluster = new ClusterLocal()) {
+            String lider = cluster.iniciarComPropriedades("-Daluguel.replicacao.papel=lider");
+            List<String> ids = new ArrayList<>();
+            for (int n = 1; n <= quantidade; n++) {
+                ids.add(cluster.cadastrar(lider, n));
+            }
+            List<String> caminhos = caminhos(ids);
+            System.out.printf("Líder %s com %d ciclistas%n", lider, ids.size());
+
+            medir(cluster, "só o líder", List.of(lider), caminhos, ids, lider, segundos, threads);
+
+            // Todas as réplicas sobem antes da primeira medida: uma JVM subindo na mesma máquina
+            // roubaria CPU da medida com menos réplicas
+            List<String> seguidores = new ArrayList<>();
+            for (int i = 1; i <= replicas; i++) {
+                seguidores.add(cluster.iniciarComPropriedades("-Daluguel.replicacao.papel=seguidor",
+                        "-Daluguel.replicacao.lider=" + lider));
+            }
+            for (int i = 1; i <= replicas; i++) {
+                medir(cluster, i + " réplica(s)", seguidores.subList(0, i), caminhos, ids, lider, segundos, threads);
+            }
+        }
+        System.exit(0);
+    }
+
+    static List<String> caminhos(List<String> ids) {
+        List<String> caminhos = new ArrayList<>();
+        for (String id : ids) {
+            caminhos.add("/ciclista/" + id);
+            caminhos.add("/ciclista/" + id + "/permiteAluguel");
+            caminhos.add("/cartaoDeCredito/" + id);
+        }
+        return caminhos;
+    }
+
+    private static void medir(ClusterLocal cluster, String nome, List<String> nos, List<String> caminhos,
+                              List<String> ids, String lider, int segundos, int threads) throws Exception {
+        AtomicBoolean parar = new AtomicBoolean();
+        AtomicLong escritas = new AtomicLong();
+        AtomicLong atrasoMaximo = new AtomicLong();
+        ClusterLocal.Leitura leitura = cluster.ler(nos, caminhos, threads);
+
+        Thread escritor = new Thread(() -> {
+            long validade = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365);
+            while (!parar.get()) {
+                String id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                try {
+                    if (escritas.get() >= leitura.total() / LEITURAS_POR_ESCRITA) {
+                        Thread.sleep(1);
+                        continue;
+                    }
+                    cluster.enviar(lider, "PUT", "/cartaoDeCredito/" + id, "{\"nomeTitular\":\"Titular "
+                            + escritas.incrementAndGet() + " Novo\",\"numero\":\"1234567890123456\",\"validade\":"
+                            + validade + ",\"cvv\":\"123\"}");
+                    for (String no : nos) {
+                        JsonNode estado = mapper.readTree(cluster.enviar(no, "GET", "/replicacao", null).body());
+                        atrasoMaximo.accumulateAndGet(estado.path("atrasoMs").asLong(0), Math::max);
+                    }
+                } catch (Exception e) {
+                    return;
+                }
+            }
+        }, "escritor");
+        escritor.start();
+
+        Thread.sleep(segundos * 1000L);
+        Map<Integer, Long> status = leitura.parar();
+        parar.set(true);
+        escritor.join();
+        long total = status.values().stream().mapToLong(Long::longValue).sum();
+        System.out.printf("%-14s %8.0f leituras/s  %s  escritas=%d (1:%d)  atraso máximo informado=%d ms%n",
+                nome, leitura.porSegundo(), status, escritas.get(), total / Math.max(1, escritas.get()), atrasoMaximo.get());
+    }
+}
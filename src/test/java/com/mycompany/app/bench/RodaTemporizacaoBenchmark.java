@@ -0,0 +1,74 @@
+package com.mycompany.app.bench;
+
+import com.mycompany.app.util.RodaTemporizacao;
+
+import java.util.SplittableRandom;
+
+/**
+ * Custo de acompanhar N aluguéis ativos atrás de atrasos: agendar + cancelar na
+ * {@link RodaTemporizacao} e o custo de cada tick de 1 s, comparado com varrer todos os
+ * ativos a cada tick.
+ *
+ * Uso: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.mycompany.app.bench.RodaTemporizacaoBenchmark -Dexec.args="1000000"
+ */
+public class RodaTemporizacaoBenchmark {
+
+    public static void main(String[] args) {
+        int ativos = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        SplittableRandom random = new SplittableRandom(1);
+
+        // agora = 1 h; aluguéis começados ao longo da última hora, franquia de 60 min
+        long[] inicios = new long[ativos];
+        long[] prazos = new long[ativos];
+        for (int i = 0; i < ativos; i++) {
+            inicios[i] = random.nextLong(3_600_000L);
+            prazos[i] = inicios[i] + 3_600_000L;
+        }
+
+        for (int rodada = 0; rodada < 3; rodada++) {
+            RodaTemporizacao<Integer> roda = new RodaTemporizacao<>(1000, 4096, 3_600_000L); // roda criada "agora"
+            @SuppressWarnings("unchecked")
+            RodaTemporizacao.Agendamento<Integer>[] agendados = new RodaTemporizacao.Agendamento[ativos];
+            long inicio = System.nanoTime();
+            for (int i = 0; i < ativos; i++) {
+                agendados[i] = roda.agendar(prazos[i], i);
+            }
+            long agendar = System.nanoTime() - inicio;
+
+            // um minuto de ticks: vence o que cai nesse minuto
+            int[] vencidos = new int[1];
+            inicio = System.nanoTime();
+            for (long agora = 3_600_000L; agora < 3_660_000L; agora += 1000) {
+                vencidos[0] += roda.avancar(agora, indice -> { });
+            }
+            long ticks = System.nanoTime() - inicio;
+
+            inicio = System.nanoTime();
+            int cancelados = 0;
+            for (int i = 0; i < ativos; i++) {
+                if (roda.cancelar(agendados[i])) {
+                    cancelados++;
+                }
+            }
+            long cancelar = System.nanoTime() - inicio;
+
+            // alternativa: varrer todos os ativos a cada tick olhando a duração de cada um
+            inicio = System.nanoTime();
+            int atrasados = 0;
+            for (long agora = 3_600_000L; agora < 3_660_000L; agora += 1000) {
+                for (int i = 0; i < ativos; i++) {
+                    long minutos = (agora - inicios[i]) / 60_000;
+                    if (minutos >= 60 && agora - 1000 - inicios[i] < 3_600_000L) {
+                        atrasados++;
+                    }
+                }
+            }
+            long varredura = System.nanoTime() - inicio;
+
+            System.out.printf("agendar %.0f ns  cancelar %.0f ns  tick %.1f us (%d vencidos)  varredura/tick %.1f us (%d)  [%d cancelados]%n",
+                    agendar / (double) ativos, cancelar / (double) ativos, ticks / 60 / 1e3, vencidos[0],
+                    varredura / 60 / 1e3, atrasados, cancelados);
+        }
+    }
+}
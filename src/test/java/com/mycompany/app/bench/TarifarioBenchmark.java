@@ -0,0 +1,66 @@
+package com.mycompany.app.bench;
+
+import com.mycompany.app.tarifas.Tarifario;
+
+import java.util.SplittableRandom;
+
+/**
+ * Vazão do {@link Tarifario} precificando corridas em lote, com a configuração padrão e com
+ * faixas, pico e teto ligados, comparada com a fórmula antiga em Double de Aluguel.
+ *
+ * Uso: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.mycompany.app.bench.TarifarioBenchmark -Dexec.args="10000000"
+ */
+public class TarifarioBenchmark {
+
+    public static void main(String[] args) {
+        int corridas = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        int[] horasSemana = new int[corridas];
+        long[] minutos = new long[corridas];
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < corridas; i++) {
+            horasSemana[i] = random.nextInt(Tarifario.HORAS_SEMANA);
+            // maioria curta, cauda de corridas longas
+            minutos[i] = random.nextInt(10) == 0 ? random.nextInt(3 * 24 * 60) : random.nextInt(180);
+        }
+        long[] saida = new long[corridas];
+
+        Tarifario padrao = Tarifario.carregarConfigurado();
+        Tarifario completo = padrao.com("""
+                tarifa.faixas=1:500,3:400,6:300
+                tarifa.pico.dias=1-5
+                tarifa.pico.horas=7-9,17-19
+                tarifa.pico.fatorMil=1250
+                tarifa.planos=padrao,mensal
+                tarifa.plano.mensal.teto.centavos=3000
+                """);
+
+        medir("tabelas (padrão)", () -> padrao.precificar(Tarifario.PLANO_PADRAO, horasSemana, minutos, saida, corridas), corridas);
+        medir("tabelas (faixas+pico+teto)", () -> completo.precificar(completo.plano("mensal"), horasSemana, minutos, saida, corridas), corridas);
+        medir("fórmula antiga (Double)", () -> {
+            double total = 0;
+            for (int i = 0; i < corridas; i++) {
+                Double valor = minutos[i] > 60 ? (double) ((minutos[i] - 60) / 60) * 5.00 : 0.00;
+                total += valor;
+            }
+            return Math.round(total * 100);
+        }, corridas);
+    }
+
+    private interface Lote {
+        long executar();
+    }
+
+    private static void medir(String nome, Lote lote, int corridas) {
+        long total = 0;
+        long melhor = Long.MAX_VALUE;
+        for (int rodada = 0; rodada < 5; rodada++) { // as primeiras servem de aquecimento
+            long inicio = System.nanoTime();
+            total = lote.executar();
+            melhor = Math.min(melhor, System.nanoTime() - inicio);
+        }
+        System.out.printf("%-28s %7.1f milhões de corridas/s  (total R$ %,.2f)%n",
+                nome, corridas / (melhor / 1e9) / 1e6, total / 100.0);
+    }
+}